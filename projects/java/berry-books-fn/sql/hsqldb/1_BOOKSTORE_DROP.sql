@@ -1,4 +1,7 @@
 -- 一括ドロップ
+DROP TABLE STOCK_LEDGER IF EXISTS;
+DROP TABLE ORDER_OUTBOX IF EXISTS;
+DROP TABLE CUSTOMER_STATS IF EXISTS;
 DROP TABLE ORDER_DETAIL IF EXISTS;
 DROP TABLE ORDER_TRAN IF EXISTS;
 DROP TABLE CUSTOMER IF EXISTS;
@@ -6,5 +9,7 @@ DROP TABLE BOOK IF EXISTS;
 DROP TABLE STOCK IF EXISTS;
 DROP TABLE CATEGORY IF EXISTS;
 DROP TABLE PUBLISHER IF EXISTS;
+-- 変更カウンタはCUSTOMER等のトリガーから参照されるため、対象テーブルの後にドロップする
+DROP TABLE TABLE_VERSION IF EXISTS;
 
 
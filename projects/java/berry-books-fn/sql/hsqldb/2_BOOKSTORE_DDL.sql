@@ -21,6 +21,10 @@ CONSTRAINT FK_PUBLISHER_ID FOREIGN KEY(PUBLISHER_ID)
     REFERENCES PUBLISHER(PUBLISHER_ID)
 );
 
+-- 書籍一覧の並び順（価格・書籍名）毎のページ検索用インデックス（同じ値の書籍は書籍ID順）
+CREATE INDEX IDX_BOOK_PRICE ON BOOK(PRICE, BOOK_ID);
+CREATE INDEX IDX_BOOK_NAME ON BOOK(BOOK_NAME, BOOK_ID);
+
 CREATE TABLE STOCK (
 BOOK_ID      INT    PRIMARY KEY,                                       -- 書籍ID
 QUANTITY     INT    NOT NULL,                                          -- 在庫数
@@ -30,7 +34,7 @@ VERSION      BIGINT NOT NULL                                           -- バー
 CREATE TABLE CUSTOMER (
 CUSTOMER_ID   INT IDENTITY PRIMARY KEY,  -- 顧客ID
 CUSTOMER_NAME VARCHAR(30) NOT NULL,      -- 顧客名
-PASSWORD      VARCHAR(60) NOT NULL,      -- パスワード
+PASSWORD      VARCHAR(128) NOT NULL,     -- パスワード（PBKDF2のハッシュ値、移行前の行は平文）
 EMAIL         VARCHAR(30) NOT NULL,      -- Eメールアドレス
 BIRTHDAY      DATE,                      -- 生年月日
 ADDRESS       VARCHAR(120),              -- 住所（UTF-8で40文字）
@@ -63,4 +67,93 @@ CONSTRAINT FK_BOOK_ID FOREIGN KEY(BOOK_ID)
     REFERENCES BOOK(BOOK_ID)
 );
 
+CREATE TABLE CUSTOMER_STATS (
+CUSTOMER_ID     INT    PRIMARY KEY,                                     -- 顧客ID
+ORDER_COUNT     BIGINT NOT NULL,                                        -- 注文件数
+TOTAL_BOOKS     BIGINT NOT NULL,                                        -- 購入冊数（合計）
+LAST_ORDER_DATE DATE,                                                   -- 最終注文日
+CONSTRAINT FK_STATS_CUSTOMER_ID FOREIGN KEY(CUSTOMER_ID)
+    REFERENCES CUSTOMER(CUSTOMER_ID)
+);
+
+-- 注文確定後の後続処理（顧客統計の加算・注文確定通知）の未処理キュー（アウトボックス）
+-- order.confirmation=outboxの場合に注文と同じトランザクションで登録し、処理後に削除する
+CREATE TABLE ORDER_OUTBOX (
+OUTBOX_ID     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,     -- アウトボックスID
+ORDER_TRAN_ID INT       NOT NULL,                                       -- 注文取引ID
+CUSTOMER_ID   INT       NOT NULL,                                       -- 顧客ID
+ORDER_DATE    DATE      NOT NULL,                                       -- 注文日
+TOTAL_BOOKS   BIGINT    NOT NULL,                                       -- 購入冊数
+TOTAL_PRICE   INT       NOT NULL,                                       -- 注文金額合計
+CREATED_AT    TIMESTAMP NOT NULL                                        -- 登録日時
+);
+
+-- 在庫台帳で引き当てた減算数のうち、STOCKテーブルに未反映のもの
+-- order.stock-reservation=ledgerの場合に注文と同じトランザクションで登録し、STOCKテーブルへの反映と同じトランザクションで削除する
+-- （注文の完了後、反映前にサーバーが停止した場合も、起動後の最初の引当の前に反映される）
+CREATE TABLE STOCK_LEDGER (
+LEDGER_ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,         -- 台帳ID
+BOOK_ID   INT    NOT NULL,                                              -- 書籍ID
+DELTA     INT    NOT NULL                                               -- 減算数
+);
+
+-- テーブル毎の変更カウンタ（REST APIのETag生成、書籍カタログの変更検知に使用する）
+-- 更新頻度の低いテーブルと顧客統計テーブルを対象とし、トリガーで更新のたびに加算する
+-- （顧客統計は注文の後続処理・再集計で更新されるため、注文データのバージョンとは別に変更を検知する）
+CREATE TABLE TABLE_VERSION (
+TABLE_NAME VARCHAR(30) PRIMARY KEY,                                     -- テーブル名
+VERSION    BIGINT NOT NULL                                              -- 変更カウンタ
+);
+
+INSERT INTO TABLE_VERSION VALUES ('CUSTOMER', 1);
+INSERT INTO TABLE_VERSION VALUES ('BOOK', 1);
+INSERT INTO TABLE_VERSION VALUES ('CATEGORY', 1);
+INSERT INTO TABLE_VERSION VALUES ('PUBLISHER', 1);
+INSERT INTO TABLE_VERSION VALUES ('CUSTOMER_STATS', 1);
+
+CREATE TRIGGER TRG_CUSTOMER_INSERT AFTER INSERT ON CUSTOMER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER';
+
+CREATE TRIGGER TRG_CUSTOMER_UPDATE AFTER UPDATE ON CUSTOMER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER';
+
+CREATE TRIGGER TRG_CUSTOMER_DELETE AFTER DELETE ON CUSTOMER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER';
+
+CREATE TRIGGER TRG_BOOK_INSERT AFTER INSERT ON BOOK FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'BOOK';
+
+CREATE TRIGGER TRG_BOOK_UPDATE AFTER UPDATE ON BOOK FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'BOOK';
+
+CREATE TRIGGER TRG_BOOK_DELETE AFTER DELETE ON BOOK FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'BOOK';
+
+CREATE TRIGGER TRG_CATEGORY_INSERT AFTER INSERT ON CATEGORY FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CATEGORY';
+
+CREATE TRIGGER TRG_CATEGORY_UPDATE AFTER UPDATE ON CATEGORY FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CATEGORY';
+
+CREATE TRIGGER TRG_CATEGORY_DELETE AFTER DELETE ON CATEGORY FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CATEGORY';
+
+CREATE TRIGGER TRG_PUBLISHER_INSERT AFTER INSERT ON PUBLISHER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'PUBLISHER';
+
+CREATE TRIGGER TRG_PUBLISHER_UPDATE AFTER UPDATE ON PUBLISHER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'PUBLISHER';
+
+CREATE TRIGGER TRG_PUBLISHER_DELETE AFTER DELETE ON PUBLISHER FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'PUBLISHER';
+
+CREATE TRIGGER TRG_CUSTOMER_STATS_INSERT AFTER INSERT ON CUSTOMER_STATS FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER_STATS';
+
+CREATE TRIGGER TRG_CUSTOMER_STATS_UPDATE AFTER UPDATE ON CUSTOMER_STATS FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER_STATS';
+
+CREATE TRIGGER TRG_CUSTOMER_STATS_DELETE AFTER DELETE ON CUSTOMER_STATS FOR EACH STATEMENT
+    UPDATE TABLE_VERSION SET VERSION = VERSION + 1 WHERE TABLE_NAME = 'CUSTOMER_STATS';
+
 
@@ -1,6 +1,7 @@
 -- ============================================
 -- データ一括削除
 -- ============================================
+DELETE FROM CUSTOMER_STATS;
 DELETE FROM ORDER_DETAIL;
 DELETE FROM ORDER_TRAN;
 DELETE FROM CUSTOMER;
@@ -170,6 +171,15 @@ INSERT INTO ORDER_DETAIL VALUES
 (3, 2, 26, 4200, 1),   -- JSアーキテクチャパターンの探求
 (3, 3, 33, 3400, 1);   -- テスト自動化のためのPython
 
+-- ============================================
+-- データ投入：CUSTOMER_STATS（ORDER_TRAN・ORDER_DETAILから集計）
+-- ============================================
+INSERT INTO CUSTOMER_STATS
+(CUSTOMER_ID, ORDER_COUNT, TOTAL_BOOKS, LAST_ORDER_DATE)
+SELECT o.CUSTOMER_ID, COUNT(DISTINCT o.ORDER_TRAN_ID), COALESCE(SUM(d.COUNT), 0), MAX(o.ORDER_DATE)
+FROM ORDER_TRAN o LEFT JOIN ORDER_DETAIL d ON d.ORDER_TRAN_ID = o.ORDER_TRAN_ID
+GROUP BY o.CUSTOMER_ID;
+
 -- シーケンスをリセット（HSQLDB用）
 ALTER TABLE PUBLISHER ALTER COLUMN PUBLISHER_ID RESTART WITH 6;
 ALTER TABLE CATEGORY ALTER COLUMN CATEGORY_ID RESTART WITH 6;
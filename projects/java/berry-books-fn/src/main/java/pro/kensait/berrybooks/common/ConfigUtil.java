@@ -0,0 +1,37 @@
+package pro.kensait.berrybooks.common;
+
+import java.util.ResourceBundle;
+
+// 設定ファイル（config.properties）から設定値を取得するユーティリティクラス
+public final class ConfigUtil {
+    
+    // リソースバンドル（config.properties）
+    private static final ResourceBundle bundle = ResourceBundle.getBundle("config");
+    
+    // ユーティリティメソッド：設定値を取得（キーが見つからない場合はデフォルト値を返す）
+    public static String get(String key, String defaultValue) {
+        try {
+            return bundle.getString(key).trim();
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+    
+    // ユーティリティメソッド：設定値を整数として取得
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
+    // ユーティリティメソッド：設定値をlongとして取得
+    public static long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package pro.kensait.berrybooks.dao;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Book;
+import pro.kensait.berrybooks.entity.Category;
+import pro.kensait.berrybooks.entity.Publisher;
+import pro.kensait.berrybooks.entity.Stock;
+import pro.kensait.berrybooks.service.book.BookSortKey;
+import pro.kensait.berrybooks.service.book.BookStockTO;
+import pro.kensait.berrybooks.service.catalog.BookIndexTO;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.CacheStoreMode;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
@@ -22,73 +39,89 @@ public class BookDao {
     private static final Logger logger = LoggerFactory.getLogger(
             BookDao.class);
 
+    private static final Trace trace = Trace.of(BookDao.class);
+
+    // クエリヒント：共有キャッシュの格納モード
+    private static final String STORE_MODE_HINT = "jakarta.persistence.cache.storeMode";
+
+    // IN句に指定する書籍IDの最大数
+    private static final int IN_CLAUSE_LIMIT = 1000;
+
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
+    // 動的クエリの名前付きクエリとして登録済みのクエリの形と、その統計情報
+    private final Map<CriteriaShape, ShapeCounter> criteriaShapes = new ConcurrentHashMap<>();
+
     // DAOメソッド：書籍を主キーで検索
     public Book findById(Integer bookId) {
-        logger.info("[ BookDao#findById ]");
+        trace.entry("findById");
         return em.find(Book.class, bookId);
     }
 
+    // DAOメソッド：複数の書籍IDで書籍をまとめて検索
+    public List<Book> findByIds(List<Integer> bookIds) {
+        trace.entry("findByIds", "size", bookIds.size());
+        
+        List<Book> books = new ArrayList<>();
+        for (int from = 0; from < bookIds.size(); from += IN_CLAUSE_LIMIT) {
+            List<Integer> chunk = bookIds.subList(from,
+                    Math.min(from + IN_CLAUSE_LIMIT, bookIds.size()));
+            
+            TypedQuery<Book> query = em.createQuery(
+                    "SELECT b FROM Book b WHERE b.bookId IN :bookIds", Book.class);
+            query.setParameter("bookIds", chunk);
+            books.addAll(query.getResultList());
+        }
+        return books;
+    }
+
     // DAOメソッド：全書籍を取得
     public List<Book> findAll() {
-        logger.info("[ BookDao#findAll ]");
+        trace.entry("findAll");
         
         TypedQuery<Book> query = em.createQuery(
                 "SELECT b FROM Book b", Book.class);
         
-        List<Book> books = query.getResultList();
-        
-        // 各エンティティをデータベースから再読み込みして最新の在庫データを取得
-        for (Book book : books) {
-            em.refresh(book);
-        }
+        // 在庫データは共有キャッシュではなくクエリ結果で更新する（1件ずつのrefreshは行わない）
+        query.setHint(STORE_MODE_HINT, CacheStoreMode.REFRESH);
         
-        return books;
+        return query.getResultList();
     }
 
     // DAOメソッド：カテゴリIDで書籍を検索
     public List<Book> queryByCategory(Integer categoryId) {
-        logger.info("[ BookDao#queryByCategory ]");
+        trace.entry("queryByCategory");
         
         TypedQuery<Book> query = em.createQuery(
                 "SELECT b FROM Book b WHERE b.category.categoryId = :categoryId", 
                 Book.class);
         query.setParameter("categoryId", categoryId);
         
-        List<Book> books = query.getResultList();
+        // 在庫データは共有キャッシュではなくクエリ結果で更新する（1件ずつのrefreshは行わない）
+        query.setHint(STORE_MODE_HINT, CacheStoreMode.REFRESH);
         
-        // 各エンティティをデータベースから再読み込みして最新の在庫データを取得
-        for (Book book : books) {
-            em.refresh(book);
-        }
-        
-        return books;
+        return query.getResultList();
     }
 
     // DAOメソッド：キーワードで書籍を検索
     public List<Book> queryByKeyword(String keyword) {
-        logger.info("[ BookDao#queryByKeyword ]");
+        trace.entry("queryByKeyword");
         
         TypedQuery<Book> query = em.createQuery(
                 "SELECT b FROM Book b WHERE b.bookName like :keyword", 
                 Book.class);
         query.setParameter("keyword", keyword);
         
-        List<Book> books = query.getResultList();
-        
-        // 各エンティティをデータベースから再読み込みして最新の在庫データを取得
-        for (Book book : books) {
-            em.refresh(book);
-        }
+        // 在庫データは共有キャッシュではなくクエリ結果で更新する（1件ずつのrefreshは行わない）
+        query.setHint(STORE_MODE_HINT, CacheStoreMode.REFRESH);
         
-        return books;
+        return query.getResultList();
     }
 
     // DAOメソッド：カテゴリIDとキーワードで書籍を検索
     public List<Book> query(Integer categoryId, String keyword) {
-        logger.info("[ BookDao#query ]");
+        trace.entry("query");
         
         TypedQuery<Book> query = em.createQuery(
                 "SELECT b FROM Book b WHERE b.category.categoryId = :categoryId " +
@@ -97,51 +130,329 @@ public class BookDao {
         query.setParameter("categoryId", categoryId);
         query.setParameter("keyword", keyword);
         
-        List<Book> books = query.getResultList();
-        
-        // 各エンティティをデータベースから再読み込みして最新の在庫データを取得
-        for (Book book : books) {
-            em.refresh(book);
-        }
+        // 在庫データは共有キャッシュではなくクエリ結果で更新する（1件ずつのrefreshは行わない）
+        query.setHint(STORE_MODE_HINT, CacheStoreMode.REFRESH);
         
-        return books;
+        return query.getResultList();
     }
 
     // DAOメソッド：動的クエリで書籍を検索（Criteria API）
+    // 検索条件の組み合わせ（条件なし・カテゴリ・キーワード・両方）の4通りのクエリの形毎に、
+    // 初回のみCriteriaQueryを構築して名前付きクエリとして登録し、2回目以降は登録済みのクエリを再利用する
+    // （条件の値はパラメータとしてバインドするため、値が変わってもクエリの構築・SQLの生成は行われない）
     public List<Book> searchWithCriteria(Integer categoryId, String keyword) {
-        logger.info("[ BookDao#searchWithCriteria ]");
+        CriteriaShape shape = CriteriaShape.of(categoryId != null,
+                keyword != null && !keyword.isEmpty());
+        trace.entry("searchWithCriteria", "shape", shape.label);
+
+        long start = System.nanoTime();
+        ShapeCounter counter = criteriaShapes.get(shape);
+        TypedQuery<Book> query;
+        if (counter == null) {
+            // 初回：クエリを構築して登録する（同じ形の同時の初回呼び出しは、一方の登録を待つ）
+            counter = criteriaShapes.computeIfAbsent(shape, this::registerCriteriaShape);
+            query = em.createNamedQuery(shape.queryName, Book.class);
+        } else {
+            query = em.createNamedQuery(shape.queryName, Book.class);
+            counter.hits.increment();
+            counter.lookupNanos.add(System.nanoTime() - start);
+        }
+
+        if (shape.byCategory) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (shape.byKeyword) {
+            query.setParameter("keyword", keyword);
+        }
+        // 在庫データは共有キャッシュではなくクエリ結果で更新する（1件ずつのrefreshは行わない）
+        query.setHint(STORE_MODE_HINT, CacheStoreMode.REFRESH);
         
+        return query.getResultList();
+    }
+
+    // 動的クエリのクエリの形毎の統計情報を取得する
+    public Map<String, QueryShapeStats> getCriteriaShapeStats() {
+        Map<String, QueryShapeStats> stats = new LinkedHashMap<>();
+        for (CriteriaShape shape : CriteriaShape.values()) {
+            ShapeCounter counter = criteriaShapes.get(shape);
+            if (counter != null) {
+                stats.put(shape.label, new QueryShapeStats(counter.compileNanos,
+                        counter.hits.sum(), counter.lookupNanos.sum()));
+            }
+        }
+        return stats;
+    }
+
+    // 終了時に動的クエリのクエリの形毎の統計情報をログに出力する
+    @PreDestroy
+    public void logCriteriaShapeStats() {
+        getCriteriaShapeStats().forEach((label, stats) -> logger.info(
+                "[ BookDao#logCriteriaShapeStats ] shape={}, compile={}us, hits={}, lookup={}ns/hit",
+                label, stats.compileNanos() / 1000, stats.hitCount(),
+                stats.hitCount() == 0 ? 0 : stats.lookupNanos() / stats.hitCount()));
+    }
+
+    // 指定した形のCriteriaQueryを構築し、名前付きクエリとして永続化ユニットに登録する
+    private ShapeCounter registerCriteriaShape(CriteriaShape shape) {
+        long start = System.nanoTime();
+
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Book> cq = cb.createQuery(Book.class);
         Root<Book> book = cq.from(Book.class);
 
-        // 動的に条件を構築
         List<Predicate> predicates = new ArrayList<>();
+        if (shape.byCategory) {
+            predicates.add(cb.equal(book.get("category").get("categoryId"),
+                    cb.parameter(Integer.class, "categoryId")));
+        }
+        if (shape.byKeyword) {
+            predicates.add(cb.like(book.get("bookName"),
+                    cb.parameter(String.class, "keyword")));
+        }
+        if (!predicates.isEmpty()) {
+            cq.where(predicates.toArray(new Predicate[0]));
+        }
+        em.getEntityManagerFactory().addNamedQuery(shape.queryName, em.createQuery(cq));
+
+        long compileNanos = System.nanoTime() - start;
+        logger.info("[ BookDao#registerCriteriaShape ] shape={}, elapsed={}us", shape.label,
+                compileNanos / 1000);
+        return new ShapeCounter(compileNanos);
+    }
+
+    // DAOメソッド：書籍カタログを在庫情報と共に検索（Criteria API + コンストラクタ式）
+    // BOOK・CATEGORY・PUBLISHER・STOCKを1回のSELECTで結合し、エンティティを経由せずDTOに詰める
+    public List<BookStockTO> searchCatalog(Integer categoryId, String keyword) {
+        trace.entry("searchCatalog");
+        
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<BookStockTO> cq = cb.createQuery(BookStockTO.class);
+        Root<Book> book = cq.from(Book.class);
+        Root<Stock> stock = cq.from(Stock.class);
+        Join<Book, Category> category = book.join("category");
+        Join<Book, Publisher> publisher = book.join("publisher");
+
+        cq.select(catalogSelection(cb, book, stock, category, publisher));
+        cq.where(catalogPredicates(cb, book, stock, category, categoryId, keyword)
+                .toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(book.get("bookId")));
+
+        return em.createQuery(cq).getResultList();
+    }
+
+    // DAOメソッド：書籍カタログを在庫情報と共にページ単位で検索（並び順指定）
+    // afterを指定した場合は、並び順でその書籍より後の書籍から取得する（キーセットページング）。
+    // afterがnullの場合は、offset件目から取得する（オフセットページング）
+    // ※キーセットページングは読み飛ばす行が無いため、後ろのページでも先頭ページと同じ時間で取得できる
+    public List<BookStockTO> searchCatalogPage(Integer categoryId, String keyword,
+            BookSortKey sortKey, BookStockTO after, int offset, int limit) {
+        trace.entry("searchCatalogPage", "sortKey", sortKey,
+                "after", after != null ? after.bookId() : null, "offset", offset, "limit", limit);
+
+        TypedQuery<BookStockTO> query = createCatalogPageQuery(categoryId, keyword, sortKey,
+                after, false);
+        query.setFirstResult(after != null ? 0 : offset);
+        query.setMaxResults(limit);
+
+        return query.getResultList();
+    }
+
+    // DAOメソッド：書籍カタログを在庫情報と共に、並び順でbeforeより前の書籍からlimit件取得する
+    // （前のページ用のキーセットページング、並び順の逆順（beforeに近い書籍から）で返す）
+    public List<BookStockTO> searchCatalogPageBefore(Integer categoryId, String keyword,
+            BookSortKey sortKey, BookStockTO before, int limit) {
+        trace.entry("searchCatalogPageBefore", "sortKey", sortKey,
+                "before", before.bookId(), "limit", limit);
+
+        TypedQuery<BookStockTO> query = createCatalogPageQuery(categoryId, keyword, sortKey,
+                before, true);
+        query.setMaxResults(limit);
+
+        return query.getResultList();
+    }
+
+    // DAOメソッド：書籍カタログの件数を取得
+    public long countCatalog(Integer categoryId, String keyword) {
+        trace.entry("countCatalog");
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Book> book = cq.from(Book.class);
+        Root<Stock> stock = cq.from(Stock.class);
+        Join<Book, Category> category = book.join("category");
+
+        cq.select(cb.count(book));
+        cq.where(catalogPredicates(cb, book, stock, category, categoryId, keyword)
+                .toArray(new Predicate[0]));
+
+        return em.createQuery(cq).getSingleResult();
+    }
+
+    // DAOメソッド：書籍IDを指定して書籍カタログを在庫情報と共に検索（順序は不定）
+    public List<BookStockTO> findCatalogByIds(List<Integer> bookIds) {
+        trace.entry("findCatalogByIds", "size", bookIds.size());
+
+        TypedQuery<BookStockTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.service.book.BookStockTO(" +
+                "b.bookId, b.bookName, b.author, c.categoryId, c.categoryName, " +
+                "p.publisherName, b.price, s.quantity, s.version) " +
+                "FROM Book b JOIN b.category c JOIN b.publisher p, Stock s " +
+                "WHERE s.bookId = b.bookId AND b.bookId IN :bookIds",
+                BookStockTO.class);
+        query.setParameter("bookIds", bookIds);
+
+        return query.getResultList();
+    }
+
+    // DAOメソッド：書籍検索インデックスの構築用に、全書籍の書籍名・著者・カテゴリIDを取得
+    public List<BookIndexTO> findIndexEntries() {
+        trace.entry("findIndexEntries");
+
+        TypedQuery<BookIndexTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.service.catalog.BookIndexTO(" +
+                "b.bookId, b.bookName, b.author, b.category.categoryId) " +
+                "FROM Book b ORDER BY b.bookId",
+                BookIndexTO.class);
+
+        return query.getResultList();
+    }
+
+    // 書籍カタログの選択項目（コンストラクタ式）
+    private CompoundSelection<BookStockTO> catalogSelection(CriteriaBuilder cb,
+            Root<Book> book, Root<Stock> stock, Join<Book, Category> category,
+            Join<Book, Publisher> publisher) {
+        return cb.construct(BookStockTO.class,
+                book.get("bookId"),
+                book.get("bookName"),
+                book.get("author"),
+                category.get("categoryId"),
+                category.get("categoryName"),
+                publisher.get("publisherName"),
+                book.get("price"),
+                stock.get("quantity"),
+                stock.get("version"));
+    }
+
+    // 書籍カタログの結合条件と動的な検索条件
+    private List<Predicate> catalogPredicates(CriteriaBuilder cb, Root<Book> book,
+            Root<Stock> stock, Join<Book, Category> category,
+            Integer categoryId, String keyword) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(stock.get("bookId"), book.get("bookId")));
         
         if (categoryId != null) {
-            predicates.add(cb.equal(
-                    book.get("category").get("categoryId"), categoryId));
+            predicates.add(cb.equal(category.get("categoryId"), categoryId));
         }
         
         if (keyword != null && !keyword.isEmpty()) {
-            predicates.add(cb.like(
-                    book.get("bookName"), keyword));
+            predicates.add(cb.like(book.get("bookName"), keyword));
         }
+        return predicates;
+    }
 
-        if (!predicates.isEmpty()) {
-            cq.where(predicates.toArray(new Predicate[0]));
+    // ページ検索のクエリを生成する（boundaryを指定した場合は、その書籍より後（reverseの場合は前）に絞り込む）
+    // 並び順の列で並べ、同じ値の書籍は書籍ID順とする（reverseの場合はいずれも降順）
+    private TypedQuery<BookStockTO> createCatalogPageQuery(Integer categoryId, String keyword,
+            BookSortKey sortKey, BookStockTO boundary, boolean reverse) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<BookStockTO> cq = cb.createQuery(BookStockTO.class);
+        Root<Book> book = cq.from(Book.class);
+        Root<Stock> stock = cq.from(Stock.class);
+        Join<Book, Category> category = book.join("category");
+        Join<Book, Publisher> publisher = book.join("publisher");
+        Path<Integer> bookId = book.get("bookId");
+
+        cq.select(catalogSelection(cb, book, stock, category, publisher));
+        List<Predicate> predicates = catalogPredicates(cb, book, stock, category,
+                categoryId, keyword);
+
+        Path<? extends Comparable<?>> sortPath = switch (sortKey) {
+            case PRICE -> book.<BigDecimal>get("price");
+            case NAME -> book.<String>get("bookName");
+            case PUBLISHER -> publisher.<String>get("publisherName");
+            case BOOK_ID -> bookId;
+            case RELEVANCE -> throw unsupportedSortKey(sortKey);
+        };
+        if (boundary != null) {
+            predicates.add(switch (sortKey) {
+                case PRICE -> beyond(cb, book.<BigDecimal>get("price"), boundary.price(),
+                        bookId, boundary.bookId(), reverse);
+                case NAME -> beyond(cb, book.<String>get("bookName"), boundary.bookName(),
+                        bookId, boundary.bookId(), reverse);
+                case PUBLISHER -> beyond(cb, publisher.<String>get("publisherName"),
+                        boundary.publisherName(), bookId, boundary.bookId(), reverse);
+                case BOOK_ID -> reverse
+                        ? cb.lessThan(bookId, boundary.bookId())
+                        : cb.greaterThan(bookId, boundary.bookId());
+                case RELEVANCE -> throw unsupportedSortKey(sortKey);
+            });
         }
+        cq.where(predicates.toArray(new Predicate[0]));
+        if (sortKey == BookSortKey.BOOK_ID) {
+            cq.orderBy(reverse ? cb.desc(bookId) : cb.asc(bookId));
+        } else if (reverse) {
+            cq.orderBy(cb.desc(sortPath), cb.desc(bookId));
+        } else {
+            cq.orderBy(cb.asc(sortPath), cb.asc(bookId));
+        }
+        return em.createQuery(cq);
+    }
 
-        TypedQuery<Book> query = em.createQuery(cq);
-        List<Book> books = query.getResultList();
-        
-        // 各エンティティをデータベースから再読み込みして最新の在庫データを取得
-        for (Book book2 : books) {
-            em.refresh(book2);
+    // キーセットページングの条件：並び順の値がvalueより大きい、または同じ値で書籍IDがbookIdより大きい
+    // （reverseの場合は、いずれも「より小さい」とする）
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb,
+            Path<T> sortPath, T value, Path<Integer> bookIdPath, Integer bookId,
+            boolean reverse) {
+        if (reverse) {
+            return cb.or(
+                    cb.lessThan(sortPath, value),
+                    cb.and(cb.equal(sortPath, value), cb.lessThan(bookIdPath, bookId)));
         }
-        
-        return books;
+        return cb.or(
+                cb.greaterThan(sortPath, value),
+                cb.and(cb.equal(sortPath, value), cb.greaterThan(bookIdPath, bookId)));
     }
-}
 
+    // 列の値で並べられない並び順（関連度順は書籍検索インデックスで並べるため、BookServiceで処理する）
+    private static IllegalArgumentException unsupportedSortKey(BookSortKey sortKey) {
+        return new IllegalArgumentException("sortKey is not supported by the query: " + sortKey);
+    }
+
+    // 動的クエリの形（検索条件の組み合わせ）
+    private enum CriteriaShape {
+        NONE("none", false, false),
+        CATEGORY("category", true, false),
+        KEYWORD("keyword", false, true),
+        BOTH("both", true, true);
+
+        private final String label;
+        private final String queryName;
+        private final boolean byCategory;
+        private final boolean byKeyword;
+
+        CriteriaShape(String label, boolean byCategory, boolean byKeyword) {
+            this.label = label;
+            this.queryName = "Book.searchWithCriteria." + label;
+            this.byCategory = byCategory;
+            this.byKeyword = byKeyword;
+        }
+
+        static CriteriaShape of(boolean byCategory, boolean byKeyword) {
+            if (byCategory) {
+                return byKeyword ? BOTH : CATEGORY;
+            }
+            return byKeyword ? KEYWORD : NONE;
+        }
+    }
+
+    // クエリの形毎の統計情報の集計用カウンタ
+    private static final class ShapeCounter {
+        private final long compileNanos;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder lookupNanos = new LongAdder();
 
+        ShapeCounter(long compileNanos) {
+            this.compileNanos = compileNanos;
+        }
+    }
+}
@@ -2,9 +2,7 @@ package pro.kensait.berrybooks.dao;
 
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Category;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
@@ -14,21 +12,20 @@ import jakarta.persistence.TypedQuery;
 // カテゴリテーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class CategoryDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            CategoryDao.class);
+    private static final Trace trace = Trace.of(CategoryDao.class);
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
     // DAOメソッド：カテゴリを主キーで検索
     public Category findById(Integer categoryId) {
-        logger.info("[ CategoryDao#findById ]");
+        trace.entry("findById");
         return em.find(Category.class, categoryId);
     }
 
     // DAOメソッド：全カテゴリを取得
     public List<Category> findAll() {
-        logger.info("[ CategoryDao#findAll ]");
+        trace.entry("findAll");
         
         TypedQuery<Category> query = em.createQuery(
                 "SELECT c FROM Category c", Category.class);
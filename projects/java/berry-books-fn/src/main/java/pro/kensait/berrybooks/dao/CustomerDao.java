@@ -1,8 +1,6 @@
 package pro.kensait.berrybooks.dao;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Customer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
@@ -13,15 +11,14 @@ import jakarta.persistence.TypedQuery;
 // 顧客テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class CustomerDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            CustomerDao.class);
+    private static final Trace trace = Trace.of(CustomerDao.class);
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
     // メールアドレスで顧客を検索する
     public Customer findByEmail(String email) {
-        logger.info("[ CustomerDao#findByEmail ] email=" + email);
+        trace.entry("findByEmail", "email", email);
         
         TypedQuery<Customer> query = em.createQuery(
                 "SELECT c FROM Customer c WHERE c.email = :email",
@@ -37,20 +34,33 @@ public class CustomerDao {
 
     // 顧客IDで顧客を検索する
     public Customer findById(Integer customerId) {
-        logger.info("[ CustomerDao#findById ] customerId=" + customerId);
+        trace.entry("findById", "customerId", customerId);
         return em.find(Customer.class, customerId);
     }
 
     // 顧客を登録する
     public void register(Customer customer) {
-        logger.info("[ CustomerDao#register ] customer=" + customer);
+        trace.entry("register", "customer", customer);
         em.persist(customer);
     }
 
     // 顧客を更新する
     public void update(Customer customer) {
-        logger.info("[ CustomerDao#update ] customer=" + customer);
+        trace.entry("update", "customer", customer);
         em.merge(customer);
     }
-}
 
+    // 顧客のパスワード（格納値）を更新する
+    // 格納値が読み込み時から変わっていない場合のみ更新し、更新件数を返す
+    // （同じ顧客のログインが同時に行われても、後から別の値で上書きしない）
+    public int updatePassword(Integer customerId, String currentPassword, String newPassword) {
+        trace.entry("updatePassword", "customerId", customerId);
+        return em.createQuery(
+                "UPDATE Customer c SET c.password = :newPassword "
+                + "WHERE c.customerId = :customerId AND c.password = :currentPassword")
+                .setParameter("newPassword", newPassword)
+                .setParameter("customerId", customerId)
+                .setParameter("currentPassword", currentPassword)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,140 @@
+package pro.kensait.berrybooks.dao;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.service.customer.CustomerStatsCheckTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// 顧客統計テーブルへのアクセスを行うDAOクラス
+@ApplicationScoped
+public class CustomerStatsDao {
+    private static final Trace trace = Trace.of(CustomerStatsDao.class);
+
+    // 注文oがアウトボックスに残っていない（後続処理で顧客統計に加算済みである）条件
+    private static final String NOT_IN_OUTBOX =
+            "NOT EXISTS (SELECT 1 FROM ORDER_OUTBOX x WHERE x.ORDER_TRAN_ID = o.ORDER_TRAN_ID)";
+
+    @PersistenceContext(unitName = "bookstorePU")
+    private EntityManager em;
+
+    // DAOメソッド：注文1件分を顧客統計に加算（行が無い場合は作成）
+    // 1回のMERGE文で加算するため、同じ顧客の注文が同時に行われても加算漏れは発生しない
+    public int addOrder(Integer customerId, LocalDate orderDate, long books) {
+        return addOrders(customerId, 1, orderDate, books);
+    }
+
+    // DAOメソッド：同じ顧客の複数の注文をまとめて顧客統計に加算（行が無い場合は作成）
+    // orderDateには加算する注文の最終注文日を指定する
+    public int addOrders(Integer customerId, long orderCount, LocalDate orderDate, long books) {
+        trace.entry("addOrders", "customerId", customerId, "orderCount", orderCount,
+                "books", books);
+
+        return em.createNativeQuery(
+                "MERGE INTO CUSTOMER_STATS s " +
+                "USING (VALUES (CAST(?1 AS INT), CAST(?2 AS DATE), CAST(?3 AS BIGINT), " +
+                "CAST(?4 AS BIGINT))) " +
+                "AS v (CUSTOMER_ID, ORDER_DATE, BOOKS, ORDER_COUNT) " +
+                "ON s.CUSTOMER_ID = v.CUSTOMER_ID " +
+                "WHEN MATCHED THEN UPDATE SET " +
+                "ORDER_COUNT = s.ORDER_COUNT + v.ORDER_COUNT, " +
+                "TOTAL_BOOKS = s.TOTAL_BOOKS + v.BOOKS, " +
+                "LAST_ORDER_DATE = GREATEST(COALESCE(s.LAST_ORDER_DATE, v.ORDER_DATE), v.ORDER_DATE) " +
+                "WHEN NOT MATCHED THEN INSERT " +
+                "(CUSTOMER_ID, ORDER_COUNT, TOTAL_BOOKS, LAST_ORDER_DATE) " +
+                "VALUES (v.CUSTOMER_ID, v.ORDER_COUNT, v.BOOKS, v.ORDER_DATE)")
+                .setParameter(1, customerId)
+                .setParameter(2, Date.valueOf(orderDate))
+                .setParameter(3, books)
+                .setParameter(4, orderCount)
+                .executeUpdate();
+    }
+
+    // DAOメソッド：顧客ID範囲（両端を含む）の顧客統計を注文から集計し直す
+    // 範囲内の行を削除してから、注文・注文明細の集計結果を1回のINSERT文で登録する
+    // （アウトボックスに残っている注文は、後続処理で加算されるため集計に含めない）
+    public int rebuildRange(int fromCustomerId, int toCustomerId) {
+        trace.entry("rebuildRange", "fromCustomerId", fromCustomerId, "toCustomerId", toCustomerId);
+
+        em.createNativeQuery(
+                "DELETE FROM CUSTOMER_STATS " +
+                "WHERE CUSTOMER_ID BETWEEN ?1 AND ?2")
+                .setParameter(1, fromCustomerId)
+                .setParameter(2, toCustomerId)
+                .executeUpdate();
+
+        return em.createNativeQuery(
+                "INSERT INTO CUSTOMER_STATS " +
+                "(CUSTOMER_ID, ORDER_COUNT, TOTAL_BOOKS, LAST_ORDER_DATE) " +
+                "SELECT o.CUSTOMER_ID, COUNT(DISTINCT o.ORDER_TRAN_ID), " +
+                "COALESCE(SUM(d.COUNT), 0), MAX(o.ORDER_DATE) " +
+                "FROM ORDER_TRAN o " +
+                "LEFT JOIN ORDER_DETAIL d ON d.ORDER_TRAN_ID = o.ORDER_TRAN_ID " +
+                "WHERE o.CUSTOMER_ID BETWEEN ?1 AND ?2 " +
+                "AND " + NOT_IN_OUTBOX + " " +
+                "GROUP BY o.CUSTOMER_ID")
+                .setParameter(1, fromCustomerId)
+                .setParameter(2, toCustomerId)
+                .executeUpdate();
+    }
+
+    // DAOメソッド：顧客ID範囲（両端を含む）の顧客統計と注文の集計値を顧客ID順に取得
+    // 注文が無い顧客も含めるため、顧客を起点に外部結合する
+    // （アウトボックスに残っている注文は、まだ顧客統計に加算されていないため集計に含めない）
+    public List<CustomerStatsCheckTO> findCheckRange(int fromCustomerId, int toCustomerId) {
+        trace.entry("findCheckRange", "fromCustomerId", fromCustomerId,
+                "toCustomerId", toCustomerId);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "SELECT c.CUSTOMER_ID, s.ORDER_COUNT, s.TOTAL_BOOKS, s.LAST_ORDER_DATE, " +
+                "COUNT(DISTINCT o.ORDER_TRAN_ID), SUM(d.COUNT), MAX(o.ORDER_DATE) " +
+                "FROM CUSTOMER c " +
+                "LEFT JOIN CUSTOMER_STATS s ON s.CUSTOMER_ID = c.CUSTOMER_ID " +
+                "LEFT JOIN ORDER_TRAN o ON o.CUSTOMER_ID = c.CUSTOMER_ID " +
+                "AND " + NOT_IN_OUTBOX + " " +
+                "LEFT JOIN ORDER_DETAIL d ON d.ORDER_TRAN_ID = o.ORDER_TRAN_ID " +
+                "WHERE c.CUSTOMER_ID BETWEEN ?1 AND ?2 " +
+                "GROUP BY c.CUSTOMER_ID, s.ORDER_COUNT, s.TOTAL_BOOKS, s.LAST_ORDER_DATE " +
+                "ORDER BY c.CUSTOMER_ID")
+                .setParameter(1, fromCustomerId)
+                .setParameter(2, toCustomerId)
+                .getResultList();
+
+        List<CustomerStatsCheckTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new CustomerStatsCheckTO(
+                    ((Number) row[0]).intValue(),
+                    toLong(row[1]),
+                    toLong(row[2]),
+                    toLocalDate(row[3]),
+                    toLong(row[4]),
+                    toLong(row[5]),
+                    toLocalDate(row[6])));
+        }
+        return result;
+    }
+
+    // DAOメソッド：顧客IDの最大値を取得（顧客がいない場合は0）
+    public int findMaxCustomerId() {
+        trace.entry("findMaxCustomerId");
+
+        Integer maxCustomerId = em.createQuery(
+                "SELECT MAX(c.customerId) FROM Customer c", Integer.class)
+                .getSingleResult();
+        return maxCustomerId != null ? maxCustomerId : 0;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value != null ? ((Date) value).toLocalDate() : null;
+    }
+}
@@ -2,9 +2,7 @@ package pro.kensait.berrybooks.dao;
 
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.OrderDetail;
 import pro.kensait.berrybooks.entity.OrderDetailPK;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -15,21 +13,20 @@ import jakarta.persistence.TypedQuery;
 // 注文明細テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class OrderDetailDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            OrderDetailDao.class);
+    private static final Trace trace = Trace.of(OrderDetailDao.class);
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
     // DAOメソッド：注文明細を主キーで検索
     public OrderDetail findById(OrderDetailPK id) {
-        logger.info("[ OrderDetailDao#findById ]");
+        trace.entry("findById");
         return em.find(OrderDetail.class, id);
     }
 
     // DAOメソッド：注文IDで注文明細リストを検索
     public List<OrderDetail> findByOrderTranId(Integer orderTranId) {
-        logger.info("[ OrderDetailDao#findByOrderTranId ]");
+        trace.entry("findByOrderTranId");
         
         TypedQuery<OrderDetail> query = em.createQuery(
                 "SELECT od FROM OrderDetail od WHERE od.orderTranId = :orderTranId",
@@ -41,11 +38,19 @@ public class OrderDetailDao {
 
     // DAOメソッド：注文明細を保存
     public void persist(OrderDetail orderDetail) {
-        logger.info("[ OrderDetailDao#persist ]");
+        trace.entry("persist");
         em.persist(orderDetail);
         // 即座にINSERTを実行してデータベースに反映
         em.flush();
     }
-}
-
 
+    // DAOメソッド：複数の注文明細をまとめて保存
+    // flushを最後に1回だけ行うことで、INSERT文がJDBCバッチとして送信される
+    public void persistAll(List<OrderDetail> orderDetails) {
+        trace.entry("persistAll", "size", orderDetails.size());
+        for (OrderDetail orderDetail : orderDetails) {
+            em.persist(orderDetail);
+        }
+        em.flush();
+    }
+}
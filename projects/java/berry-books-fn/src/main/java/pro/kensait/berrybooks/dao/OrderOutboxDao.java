@@ -0,0 +1,89 @@
+package pro.kensait.berrybooks.dao;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.service.order.OrderOutboxTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+// アウトボックステーブル（ORDER_OUTBOX）へのアクセスを行うDAOクラス
+@ApplicationScoped
+public class OrderOutboxDao {
+    private static final Trace trace = Trace.of(OrderOutboxDao.class);
+
+    @PersistenceContext(unitName = "bookstorePU")
+    private EntityManager em;
+
+    // DAOメソッド：注文1件分をアウトボックスに登録
+    public int insert(Integer orderTranId, Integer customerId, LocalDate orderDate,
+            long totalBooks, BigDecimal totalPrice) {
+        trace.entry("insert", "orderTranId", orderTranId);
+
+        return em.createNativeQuery(
+                "INSERT INTO ORDER_OUTBOX " +
+                "(ORDER_TRAN_ID, CUSTOMER_ID, ORDER_DATE, TOTAL_BOOKS, TOTAL_PRICE, CREATED_AT) " +
+                "VALUES (?1, ?2, ?3, ?4, ?5, ?6)")
+                .setParameter(1, orderTranId)
+                .setParameter(2, customerId)
+                .setParameter(3, Date.valueOf(orderDate))
+                .setParameter(4, totalBooks)
+                .setParameter(5, totalPrice)
+                .setParameter(6, Timestamp.valueOf(LocalDateTime.now()))
+                .executeUpdate();
+    }
+
+    // DAOメソッド：未処理の注文を登録順に最大limit件取得
+    public List<OrderOutboxTO> findBatch(int limit) {
+        trace.entry("findBatch", "limit", limit);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "SELECT OUTBOX_ID, ORDER_TRAN_ID, CUSTOMER_ID, ORDER_DATE, " +
+                "TOTAL_BOOKS, TOTAL_PRICE " +
+                "FROM ORDER_OUTBOX ORDER BY OUTBOX_ID")
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<OrderOutboxTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new OrderOutboxTO(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(),
+                    ((Date) row[3]).toLocalDate(),
+                    ((Number) row[4]).longValue(),
+                    new BigDecimal(row[5].toString())));
+        }
+        return result;
+    }
+
+    // DAOメソッド：処理済みの注文をアウトボックスから削除
+    // （取得後に登録された注文を削除しないよう、範囲ではなくIDを列挙して指定する）
+    public int deleteByIds(List<Long> outboxIds) {
+        trace.entry("deleteByIds", "size", outboxIds.size());
+
+        if (outboxIds.isEmpty()) {
+            return 0;
+        }
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (int i = 1; i <= outboxIds.size(); i++) {
+            placeholders.add("?" + i);
+        }
+        Query query = em.createNativeQuery(
+                "DELETE FROM ORDER_OUTBOX WHERE OUTBOX_ID IN " + placeholders);
+        for (int i = 0; i < outboxIds.size(); i++) {
+            query.setParameter(i + 1, outboxIds.get(i));
+        }
+        return query.executeUpdate();
+    }
+}
@@ -1,12 +1,13 @@
 package pro.kensait.berrybooks.dao;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.OrderTran;
 import pro.kensait.berrybooks.service.order.OrderHistoryTO;
+import pro.kensait.berrybooks.service.order.OrderKeyTO;
 import pro.kensait.berrybooks.service.order.OrderSummaryTO;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
@@ -16,32 +17,50 @@ import jakarta.persistence.TypedQuery;
 // 注文テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class OrderTranDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            OrderTranDao.class);
+    private static final Trace trace = Trace.of(OrderTranDao.class);
+
+    // エンティティグラフを指定するクエリヒント（グラフに含まれない関連はマッピングのフェッチタイプに従う）
+    private static final String LOAD_GRAPH_HINT = "jakarta.persistence.loadgraph";
+
+    // 関連を外部結合で同時に取得するクエリヒント（EclipseLink固有）
+    // JPQLのJOIN FETCHは1階層のみのため、明細の書籍・出版社・カテゴリまでをこのヒントで結合する
+    private static final String LEFT_JOIN_FETCH_HINT = "eclipselink.left-join-fetch";
+
+    // エンティティグラフ「withDetailsAndBook」に対応する結合パス
+    private static final List<String> DETAILS_AND_BOOK_FETCH_PATHS = List.of(
+            "ot.orderDetails",
+            "ot.orderDetails.book",
+            "ot.orderDetails.book.publisher",
+            "ot.orderDetails.book.category");
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
     // DAOメソッド：注文を主キーで検索
     public OrderTran findById(Integer orderTranId) {
-        logger.info("[ OrderTranDao#findById ]");
-        return em.find(OrderTran.class, orderTranId);
+        trace.entry("findById");
+        return em.find(OrderTran.class, orderTranId, graphHint(OrderTran.GRAPH_SUMMARY));
     }
 
     // DAOメソッド：注文を主キーで検索（明細含む）
     public OrderTran findByIdWithDetails(Integer orderTranId) {
-        logger.info("[ OrderTranDao#findByIdWithDetails ] orderTranId=" + orderTranId);
+        trace.entry("findByIdWithDetails", "orderTranId", orderTranId);
         
-        // EntityManagerをクリアしてキャッシュをクリア
-        em.clear();
+        // OrderTranを明細・書籍と共に1回のSELECTで取得する
+        TypedQuery<OrderTran> query = em.createQuery(
+                "SELECT DISTINCT ot FROM OrderTran ot " +
+                "WHERE ot.orderTranId = :orderTranId",
+                OrderTran.class);
+        query.setParameter("orderTranId", orderTranId);
+        applyDetailsAndBookFetchPlan(query);
         
-        // OrderTranを取得（EAGERロードにより明細も自動的に取得される）
-        return em.find(OrderTran.class, orderTranId);
+        List<OrderTran> result = query.getResultList();
+        return result.isEmpty() ? null : result.get(0);
     }
 
     // DAOメソッド：顧客IDで注文履歴を検索
     public List<OrderTran> findByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#findByCustomerId ]");
+        trace.entry("findByCustomerId");
         
         TypedQuery<OrderTran> query = em.createQuery(
                 "SELECT ot FROM OrderTran ot INNER JOIN ot.orderDetails od " +
@@ -50,13 +69,14 @@ public class OrderTranDao {
                 "ORDER BY ot.orderDate DESC",
                 OrderTran.class);
         query.setParameter("customerId", customerId);
+        query.setHint(LOAD_GRAPH_HINT, em.getEntityGraph(OrderTran.GRAPH_SUMMARY));
         
         return query.getResultList();
     }
 
     // DAOメソッド：顧客IDで注文履歴を検索（詳細DTO使用）
     public List<OrderHistoryTO> findOrderHistoryByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#findOrderHistoryByCustomerId ]");
+        trace.entry("findOrderHistoryByCustomerId");
         
         TypedQuery<OrderHistoryTO> query = em.createQuery(
                 "SELECT new pro.kensait.berrybooks.service.order.OrderHistoryTO(" +
@@ -76,7 +96,7 @@ public class OrderTranDao {
 
     // DAOメソッド：顧客IDで注文履歴を検索（サマリーDTO使用）
     public List<OrderSummaryTO> findOrderSummaryByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#findOrderSummaryByCustomerId ]");
+        trace.entry("findOrderSummaryByCustomerId");
         
         TypedQuery<OrderSummaryTO> query = em.createQuery(
                 "SELECT new pro.kensait.berrybooks.service.order.OrderSummaryTO(" +
@@ -93,27 +113,120 @@ public class OrderTranDao {
 
     // DAOメソッド：顧客IDで注文履歴を検索（明細含む）
     public List<OrderTran> findByCustomerIdWithDetails(Integer customerId) {
-        logger.info("[ OrderTranDao#findByCustomerIdWithDetails ]");
+        trace.entry("findByCustomerIdWithDetails");
         
         TypedQuery<OrderTran> query = em.createQuery(
                 "SELECT DISTINCT ot FROM OrderTran ot " +
-                "LEFT JOIN FETCH ot.orderDetails od " +
-                "LEFT JOIN FETCH od.book " +
                 "WHERE ot.customerId = :customerId " +
                 "ORDER BY ot.orderDate DESC, ot.orderTranId DESC",
                 OrderTran.class);
         query.setParameter("customerId", customerId);
+        applyDetailsAndBookFetchPlan(query);
+        
+        return query.getResultList();
+    }
+
+    // DAOメソッド：顧客IDで注文のキー（注文日・注文ID）を新しい順に検索（キーセット方式のページング）
+    // afterが指定された場合は、そのキーより古い注文からlimit件を返す
+    public List<OrderKeyTO> findOrderKeysByCustomerId(Integer customerId,
+            OrderKeyTO after, int limit) {
+        trace.entry("findOrderKeysByCustomerId", "after", after, "limit", limit);
+        
+        String jpql = "SELECT new pro.kensait.berrybooks.service.order.OrderKeyTO(" +
+                "ot.orderDate, ot.orderTranId) " +
+                "FROM OrderTran ot " +
+                "WHERE ot.customerId = :customerId ";
+        if (after != null) {
+            jpql += "AND (ot.orderDate < :orderDate " +
+                    "OR (ot.orderDate = :orderDate AND ot.orderTranId < :orderTranId)) ";
+        }
+        jpql += "ORDER BY ot.orderDate DESC, ot.orderTranId DESC";
+        
+        TypedQuery<OrderKeyTO> query = em.createQuery(jpql, OrderKeyTO.class);
+        query.setParameter("customerId", customerId);
+        if (after != null) {
+            query.setParameter("orderDate", after.orderDate());
+            query.setParameter("orderTranId", after.orderTranId());
+        }
+        query.setMaxResults(limit);
+        
+        return query.getResultList();
+    }
+
+    // DAOメソッド：注文IDのリストで注文履歴を検索（詳細DTO使用）
+    public List<OrderHistoryTO> findOrderHistoryByOrderTranIds(List<Integer> orderTranIds) {
+        trace.entry("findOrderHistoryByOrderTranIds", "size", orderTranIds.size());
+        
+        TypedQuery<OrderHistoryTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.service.order.OrderHistoryTO(" +
+                "ot.orderDate, ot.orderTranId, od.orderDetailId, " +
+                "b.bookName, p.publisherName, b.price, od.count) " +
+                "FROM OrderTran ot " +
+                "INNER JOIN ot.orderDetails od " +
+                "INNER JOIN od.book b " +
+                "INNER JOIN b.publisher p " +
+                "WHERE ot.orderTranId IN :orderTranIds " +
+                "ORDER BY ot.orderDate DESC, ot.orderTranId DESC, od.orderDetailId",
+                OrderHistoryTO.class);
+        query.setParameter("orderTranIds", orderTranIds);
+        
+        return query.getResultList();
+    }
+
+    // DAOメソッド：顧客IDで注文履歴を順次読み込むStreamを返す（詳細DTO使用）
+    // 全件をメモリに読み込まず、chunkSize件の注文毎にキーセット方式で次の範囲を検索する
+    // （EclipseLinkのScrollableCursorはプロバイダのAPIに依存し、JPAのgetResultStreamは
+    // EclipseLinkでは全件をリストに読み込むため、キーセット方式の検索を繰り返してカーソルの代わりとする）
+    // ※Streamは終端操作の実行中に検索を行うため、トランザクション内で使用すること
+    public Stream<OrderHistoryTO> streamOrderHistoryByCustomerId(Integer customerId,
+            int chunkSize) {
+        trace.entry("streamOrderHistoryByCustomerId", "chunkSize", chunkSize);
+        
+        return Stream.iterate(
+                        findOrderKeysByCustomerId(customerId, null, chunkSize),
+                        keys -> !keys.isEmpty(),
+                        keys -> keys.size() < chunkSize
+                                ? List.of()
+                                : findOrderKeysByCustomerId(customerId,
+                                        keys.get(keys.size() - 1), chunkSize))
+                .flatMap(keys -> findOrderHistoryByOrderTranIds(
+                        keys.stream().map(OrderKeyTO::orderTranId).toList()).stream());
+    }
+
+    // DAOメソッド：注文IDのリストで注文を検索（明細含む）
+    public List<OrderTran> findByIdsWithDetails(List<Integer> orderTranIds) {
+        trace.entry("findByIdsWithDetails", "size", orderTranIds.size());
+        
+        TypedQuery<OrderTran> query = em.createQuery(
+                "SELECT DISTINCT ot FROM OrderTran ot " +
+                "WHERE ot.orderTranId IN :orderTranIds " +
+                "ORDER BY ot.orderDate DESC, ot.orderTranId DESC",
+                OrderTran.class);
+        query.setParameter("orderTranIds", orderTranIds);
+        applyDetailsAndBookFetchPlan(query);
         
         return query.getResultList();
     }
 
     // DAOメソッド：注文を保存
     public void persist(OrderTran orderTran) {
-        logger.info("[ OrderTranDao#persist ]");
+        trace.entry("persist");
         em.persist(orderTran);
         // IDENTITYストラテジーでIDを確実に生成するためにflush
         em.flush();
     }
-}
 
+    // エンティティグラフを指定するヒントを生成する
+    private Map<String, Object> graphHint(String graphName) {
+        return Map.of(LOAD_GRAPH_HINT, em.getEntityGraph(graphName));
+    }
 
+    // 注文・明細・書籍（出版社・カテゴリ含む）を1回のSELECTで取得するようにクエリを設定する
+    private void applyDetailsAndBookFetchPlan(TypedQuery<OrderTran> query) {
+        query.setHint(LOAD_GRAPH_HINT,
+                em.getEntityGraph(OrderTran.GRAPH_WITH_DETAILS_AND_BOOK));
+        for (String path : DETAILS_AND_BOOK_FETCH_PATHS) {
+            query.setHint(LEFT_JOIN_FETCH_HINT, path);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.dao;
+
+// 動的クエリの形（検索条件の組み合わせ）毎の統計情報を保持するクラス（Recordとして定義）
+public record QueryShapeStats(
+        // クエリの構築・登録に要した時間（ナノ秒、初回のみ）
+        long compileNanos,
+        // 登録済みのクエリを再利用した回数
+        long hitCount,
+        // 登録済みのクエリの取得に要した時間の合計（ナノ秒）
+        long lookupNanos) {
+}
@@ -1,40 +1,127 @@
 package pro.kensait.berrybooks.dao;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Stock;
+import pro.kensait.berrybooks.service.catalog.StockTO;
+import pro.kensait.berrybooks.service.order.StockReservationTO;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
 // 在庫テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class StockDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            StockDao.class);
+    private static final Trace trace = Trace.of(StockDao.class);
+
+    // IN句に指定する書籍IDの最大数
+    private static final int IN_CLAUSE_LIMIT = 1000;
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
     // DAOメソッド：在庫を主キーで検索（悲観的ロック）
     public Stock findByIdWithLock(Integer bookId) {
-        logger.info("[ StockDao#findByIdWithLock ]");
+        trace.entry("findByIdWithLock");
         return em.find(Stock.class, bookId, LockModeType.PESSIMISTIC_WRITE);
     }
 
     // DAOメソッド：在庫を主キーで検索
     public Stock findById(Integer bookId) {
-        logger.info("[ StockDao#findById ]");
+        trace.entry("findById");
         return em.find(Stock.class, bookId);
     }
 
     // DAOメソッド：在庫を更新
     public void update(Stock stock) {
-        logger.info("[ StockDao#update ]");
+        trace.entry("update");
         em.merge(stock);
     }
-}
 
+    // DAOメソッド：複数の書籍IDで在庫情報をまとめて検索（DTO使用）
+    public List<StockTO> findByIds(List<Integer> bookIds) {
+        trace.entry("findByIds", "size", bookIds.size());
+        
+        List<StockTO> stocks = new ArrayList<>();
+        for (int from = 0; from < bookIds.size(); from += IN_CLAUSE_LIMIT) {
+            List<Integer> chunk = bookIds.subList(from,
+                    Math.min(from + IN_CLAUSE_LIMIT, bookIds.size()));
+            
+            TypedQuery<StockTO> query = em.createQuery(
+                    "SELECT new pro.kensait.berrybooks.service.catalog.StockTO(" +
+                    "s.bookId, s.quantity, s.version) " +
+                    "FROM Stock s WHERE s.bookId IN :bookIds",
+                    StockTO.class);
+            query.setParameter("bookIds", chunk);
+            stocks.addAll(query.getResultList());
+        }
+        return stocks;
+    }
 
+    // DAOメソッド：複数の書籍の在庫をまとめて減らす（1回のUPDATE文）
+    // 書籍毎に「バージョンが一致し、かつ在庫数が注文数以上」の場合のみ更新し、更新件数を返す
+    public int decreaseQuantities(List<StockReservationTO> reservations) {
+        trace.entry("decreaseQuantities", "size", reservations.size());
+        
+        StringBuilder caseClause = new StringBuilder("CASE s.bookId");
+        StringBuilder whereClause = new StringBuilder();
+        for (int i = 0; i < reservations.size(); i++) {
+            caseClause.append(" WHEN :bookId").append(i)
+                    .append(" THEN :count").append(i);
+            if (i > 0) {
+                whereClause.append(" OR ");
+            }
+            whereClause.append("(s.bookId = :bookId").append(i)
+                    .append(" AND s.version = :version").append(i)
+                    .append(" AND s.quantity >= :count").append(i).append(")");
+        }
+        caseClause.append(" ELSE 0 END");
+        
+        Query query = em.createQuery(
+                "UPDATE Stock s SET s.quantity = s.quantity - " + caseClause + ", " +
+                "s.version = s.version + 1 " +
+                "WHERE " + whereClause);
+        for (int i = 0; i < reservations.size(); i++) {
+            StockReservationTO reservation = reservations.get(i);
+            query.setParameter("bookId" + i, reservation.bookId());
+            query.setParameter("count" + i, reservation.count());
+            query.setParameter("version" + i, reservation.version());
+        }
+        return query.executeUpdate();
+    }
+
+    // DAOメソッド：書籍毎の減算数をまとめて在庫に反映する（1回のUPDATE文、VERSIONのチェックなし）
+    // 在庫台帳方式で、台帳側で引当済みの減算数を一定間隔で反映するために使用する
+    public int applyQuantityDeltas(Map<Integer, Integer> deltas) {
+        trace.entry("applyQuantityDeltas", "size", deltas.size());
+        
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(deltas.entrySet());
+        StringBuilder caseClause = new StringBuilder("CASE s.bookId");
+        StringBuilder inClause = new StringBuilder();
+        for (int i = 0; i < entries.size(); i++) {
+            caseClause.append(" WHEN :bookId").append(i)
+                    .append(" THEN :delta").append(i);
+            if (i > 0) {
+                inClause.append(", ");
+            }
+            inClause.append(":bookId").append(i);
+        }
+        caseClause.append(" ELSE 0 END");
+        
+        Query query = em.createQuery(
+                "UPDATE Stock s SET s.quantity = s.quantity - " + caseClause + ", " +
+                "s.version = s.version + 1 " +
+                "WHERE s.bookId IN (" + inClause + ")");
+        for (int i = 0; i < entries.size(); i++) {
+            query.setParameter("bookId" + i, entries.get(i).getKey());
+            query.setParameter("delta" + i, entries.get(i).getValue());
+        }
+        return query.executeUpdate();
+    }
+}
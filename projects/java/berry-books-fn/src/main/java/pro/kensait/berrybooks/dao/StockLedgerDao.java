@@ -0,0 +1,79 @@
+package pro.kensait.berrybooks.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.service.order.StockLedgerTO;
+import pro.kensait.berrybooks.service.order.StockReservationTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+// 在庫台帳テーブル（STOCK_LEDGER、STOCKテーブルに未反映の減算数）へのアクセスを行うDAOクラス
+@ApplicationScoped
+public class StockLedgerDao {
+    private static final Trace trace = Trace.of(StockLedgerDao.class);
+
+    @PersistenceContext(unitName = "bookstorePU")
+    private EntityManager em;
+
+    // DAOメソッド：注文1件分の書籍毎の減算数を登録（1回のINSERT文）
+    public int insert(List<StockReservationTO> reservations) {
+        trace.entry("insert", "size", reservations.size());
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < reservations.size(); i++) {
+            values.add("(?" + (i * 2 + 1) + ", ?" + (i * 2 + 2) + ")");
+        }
+        Query query = em.createNativeQuery(
+                "INSERT INTO STOCK_LEDGER (BOOK_ID, DELTA) VALUES " + values);
+        for (int i = 0; i < reservations.size(); i++) {
+            query.setParameter(i * 2 + 1, reservations.get(i).bookId());
+            query.setParameter(i * 2 + 2, reservations.get(i).count());
+        }
+        return query.executeUpdate();
+    }
+
+    // DAOメソッド：未反映の減算数を登録順に最大limit件取得
+    public List<StockLedgerTO> findBatch(int limit) {
+        trace.entry("findBatch", "limit", limit);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "SELECT LEDGER_ID, BOOK_ID, DELTA FROM STOCK_LEDGER ORDER BY LEDGER_ID")
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<StockLedgerTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new StockLedgerTO(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue()));
+        }
+        return result;
+    }
+
+    // DAOメソッド：反映済みの減算数を削除
+    // （取得後に登録された減算数を削除しないよう、範囲ではなくIDを列挙して指定する）
+    public int deleteByIds(List<Long> ledgerIds) {
+        trace.entry("deleteByIds", "size", ledgerIds.size());
+
+        if (ledgerIds.isEmpty()) {
+            return 0;
+        }
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (int i = 1; i <= ledgerIds.size(); i++) {
+            placeholders.add("?" + i);
+        }
+        Query query = em.createNativeQuery(
+                "DELETE FROM STOCK_LEDGER WHERE LEDGER_ID IN " + placeholders);
+        for (int i = 0; i < ledgerIds.size(); i++) {
+            query.setParameter(i + 1, ledgerIds.get(i));
+        }
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,27 @@
+package pro.kensait.berrybooks.dao;
+
+import pro.kensait.berrybooks.common.Trace;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// テーブル毎の変更カウンタ（TABLE_VERSION、トリガーで加算される）へのアクセスを行うDAOクラス
+@ApplicationScoped
+public class TableVersionDao {
+    private static final Trace trace = Trace.of(TableVersionDao.class);
+
+    @PersistenceContext(unitName = "bookstorePU")
+    private EntityManager em;
+
+    // DAOメソッド：書籍カタログ（書籍・カテゴリ・出版社）の変更カウンタの合計を取得
+    // いずれかのテーブルが変更されると値が増える（行が無い場合は0）
+    public long findCatalogVersion() {
+        trace.entry("findCatalogVersion");
+
+        Object version = em.createNativeQuery(
+                "SELECT COALESCE(SUM(VERSION), 0) FROM TABLE_VERSION "
+                + "WHERE TABLE_NAME IN ('BOOK', 'CATEGORY', 'PUBLISHER')")
+                .getSingleResult();
+        return ((Number) version).longValue();
+    }
+}
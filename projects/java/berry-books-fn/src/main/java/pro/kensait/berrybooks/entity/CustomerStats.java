@@ -0,0 +1,83 @@
+package pro.kensait.berrybooks.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// 顧客統計（注文件数・購入冊数・最終注文日）を表すエンティティクラス
+// 注文時に注文と同じトランザクションで更新される読み取り用の集計テーブル
+@Entity
+@Table(name = "CUSTOMER_STATS")
+public class CustomerStats {
+    // 顧客ID
+    @Id
+    @Column(name = "CUSTOMER_ID")
+    private Integer customerId;
+
+    // 注文件数
+    @Column(name = "ORDER_COUNT")
+    private Long orderCount;
+
+    // 購入冊数（合計）
+    @Column(name = "TOTAL_BOOKS")
+    private Long totalBooks;
+
+    // 最終注文日
+    @Column(name = "LAST_ORDER_DATE")
+    private LocalDate lastOrderDate;
+
+    //  引数なしのコンストラクタ
+    public CustomerStats() {
+    }
+
+    // コンストラクタ
+    public CustomerStats(Integer customerId, Long orderCount, Long totalBooks,
+            LocalDate lastOrderDate) {
+        this.customerId = customerId;
+        this.orderCount = orderCount;
+        this.totalBooks = totalBooks;
+        this.lastOrderDate = lastOrderDate;
+    }
+
+    // アクセサメソッド
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Long getTotalBooks() {
+        return totalBooks;
+    }
+
+    public void setTotalBooks(Long totalBooks) {
+        this.totalBooks = totalBooks;
+    }
+
+    public LocalDate getLastOrderDate() {
+        return lastOrderDate;
+    }
+
+    public void setLastOrderDate(LocalDate lastOrderDate) {
+        this.lastOrderDate = lastOrderDate;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerStats [customerId=" + customerId + ", orderCount=" + orderCount
+                + ", totalBooks=" + totalBooks + ", lastOrderDate=" + lastOrderDate + "]";
+    }
+}
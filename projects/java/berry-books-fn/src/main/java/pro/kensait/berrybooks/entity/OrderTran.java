@@ -12,14 +12,35 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 // 注文を表すエンティティクラス
+// 注文明細は遅延ロードとし、DAOメソッド毎に以下のエンティティグラフで読み込む範囲を指定する
+//   summary             ：注文のみ（明細は読み込まない）
+//   withDetailsAndBook  ：注文と明細、明細の書籍（出版社・カテゴリ含む）
+// （明細を参照する画面は全て書籍も表示するため、明細のみを読み込むグラフは定義しない）
 @Entity
 @Table(name = "ORDER_TRAN")
+@NamedEntityGraph(name = OrderTran.GRAPH_SUMMARY)
+@NamedEntityGraph(name = OrderTran.GRAPH_WITH_DETAILS_AND_BOOK,
+        attributeNodes = @NamedAttributeNode(value = "orderDetails", subgraph = "details"),
+        subgraphs = {
+                @NamedSubgraph(name = "details",
+                        attributeNodes = @NamedAttributeNode(value = "book", subgraph = "book")),
+                @NamedSubgraph(name = "book",
+                        attributeNodes = {
+                                @NamedAttributeNode("publisher"),
+                                @NamedAttributeNode("category")})})
 public class OrderTran implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    // エンティティグラフ名
+    public static final String GRAPH_SUMMARY = "OrderTran.summary";
+    public static final String GRAPH_WITH_DETAILS_AND_BOOK = "OrderTran.withDetailsAndBook";
     // 注文ID
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -37,7 +58,7 @@ public class OrderTran implements Serializable {
     // 注文明細
     @OneToMany(targetEntity = OrderDetail.class,
             mappedBy = "orderTran",
-            fetch = FetchType.EAGER)
+            fetch = FetchType.LAZY)
     private List<OrderDetail> orderDetails;
 
     // 注文金額合計
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.metrics;
+
+import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.core.Application;
+
+// JAX-RS アプリケーション設定クラス（/api 以下のパスで計測値の取得APIを公開する）
+// ※画面はJSF（*.xhtml）のため、JAX-RSのパスと重ならないよう/apiに限定する
+@ApplicationPath("/api")
+public class MetricsApplication extends Application {
+    // デフォルトでは全てのJAX-RSリソースが自動検出される
+}
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.book;
+
+import java.util.List;
+
+// 書籍カタログのページ検索の結果（1ページ分）を保持するDTOクラス（Recordとして定義）
+public record BookPageTO (
+        // 指定したページの書籍カタログ（在庫情報付き）
+        List<BookStockTO> books,
+        // 次のページがあるかどうか
+        boolean hasNext) {
+}
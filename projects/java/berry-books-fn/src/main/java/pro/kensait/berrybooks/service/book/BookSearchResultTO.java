@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.book;
+
+import java.util.List;
+
+// 書籍カタログのランキング検索の結果（1ページ分）を保持するDTOクラス（Recordとして定義）
+public record BookSearchResultTO (
+        // 指定したページの書籍カタログ（在庫情報付き、スコアの高い順）
+        List<BookStockTO> books,
+        // 条件に一致した書籍の総数
+        int totalCount) {
+}
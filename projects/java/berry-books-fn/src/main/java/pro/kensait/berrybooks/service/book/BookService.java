@@ -1,13 +1,21 @@
 package pro.kensait.berrybooks.service.book;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Map;
 
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.BookDao;
+import pro.kensait.berrybooks.dao.StockDao;
 import pro.kensait.berrybooks.entity.Book;
+import pro.kensait.berrybooks.service.catalog.BookSearchHits;
+import pro.kensait.berrybooks.service.catalog.BookSearchIndex;
+import pro.kensait.berrybooks.service.catalog.BookSearchIndexManager;
+import pro.kensait.berrybooks.service.catalog.CatalogCache;
+import pro.kensait.berrybooks.service.catalog.StockTO;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -16,15 +24,23 @@ import jakarta.transaction.Transactional;
 @ApplicationScoped
 @Transactional
 public class BookService {
-    private static final Logger logger = LoggerFactory.getLogger(
-            BookService.class);
+    private static final Trace trace = Trace.of(BookService.class);
 
     @Inject
     private BookDao bookDao;
 
+    @Inject
+    private StockDao stockDao;
+
+    @Inject
+    private CatalogCache catalogCache;
+
+    @Inject
+    private BookSearchIndexManager bookSearchIndexManager;
+
     // サービスメソッド：書籍検索（主キー検索）
     public Book getBook(Integer bookId) {
-        logger.info("[ BookService#getBook ]");
+        trace.entry("getBook");
         
         Book book = bookDao.findById(bookId);
         if (book == null) {
@@ -35,31 +51,31 @@ public class BookService {
 
     // サービスメソッド：書籍検索（全件検索）
     public List<Book> getBooksAll() {
-        logger.info("[ BookService#getBooksAll ]");
+        trace.entry("getBooksAll");
         return bookDao.findAll();
     }
 
     // サービスメソッド：書籍検索（カテゴリIDとキーワードによる条件検索）
     public List<Book> searchBook(Integer categoryId, String keyword) {
-        logger.info("[ BookService#searchBook(categoryId, keyword) ]");
+        trace.entry("searchBook(categoryId, keyword)");
         return bookDao.query(categoryId, toLikeWord(keyword));
     }
 
     // サービスメソッド：書籍検索（カテゴリIDによる条件検索）
     public List<Book> searchBook(Integer categoryId) {
-        logger.info("[ BookService#searchBook(categoryId) ]");
+        trace.entry("searchBook(categoryId)");
         return bookDao.queryByCategory(categoryId);
     }
 
     // サービスメソッド：書籍検索（キーワードによる条件検索）
     public List<Book> searchBook(String keyword) {
-        logger.info("[ BookService#searchBook(keyword) ]");
+        trace.entry("searchBook(keyword)");
         return bookDao.queryByKeyword(toLikeWord(keyword));
     }
 
     // サービスメソッド：書籍検索（動的クエリの構築）
     public List<Book> searchBookWithCriteria(Integer categoryId, String keyword) {
-        logger.info("[ BookService#searchBookWithCriteria ]");
+        trace.entry("searchBookWithCriteria");
         
         String likeKeyword = (keyword != null && !keyword.isEmpty()) 
                 ? toLikeWord(keyword) : null;
@@ -67,6 +83,182 @@ public class BookService {
         return bookDao.searchWithCriteria(categoryId, likeKeyword);
     }
 
+    // サービスメソッド：書籍カタログ検索（全件、在庫情報付き）
+    public List<BookStockTO> getBookCatalogAll() {
+        trace.entry("getBookCatalogAll");
+        return findBookCatalog(null, null);
+    }
+
+    // サービスメソッド：書籍カタログ検索（カテゴリIDとキーワードによる条件検索、在庫情報付き）
+    public List<BookStockTO> searchBookCatalog(Integer categoryId, String keyword) {
+        trace.entry("searchBookCatalog");
+        
+        Integer catalogCategoryId = (categoryId != null && categoryId != 0) 
+                ? categoryId : null;
+        String likeKeyword = (keyword != null && !keyword.isEmpty()) 
+                ? toLikeWord(keyword) : null;
+        
+        return findBookCatalog(catalogCategoryId, likeKeyword);
+    }
+
+    // サービスメソッド：書籍カタログのページ検索（並び順指定、在庫情報付き）
+    // afterを指定した場合はその書籍の次から（キーセットページング）、nullの場合はoffset件目から
+    // limit件を取得する。次のページの有無は、limit+1件目を取得できたかどうかで判定する
+    // 書籍カタログはページ毎にキャッシュし、在庫数・バージョンのみ在庫キャッシュの値で置き換える
+    // （総件数のCOUNTクエリは実行しないため、必要な場合はcountBookCatalogを使用する）
+    // 関連度順の場合は、afterを使用せずにランキング検索（searchBookRanked）のoffset件目から取得する
+    public BookPageTO searchBookCatalogPage(Integer categoryId, String keyword,
+            BookSortKey sortKey, BookStockTO after, int offset, int limit) {
+        trace.entry("searchBookCatalogPage", "sortKey", sortKey, "offset", offset, "limit", limit);
+
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException(
+                    "offset must be >= 0 and limit must be >= 1: offset=" + offset
+                    + ", limit=" + limit);
+        }
+
+        if (sortKey == BookSortKey.RELEVANCE) {
+            BookSearchResultTO result = searchBookRanked(categoryId, keyword, offset, limit);
+            return new BookPageTO(result.books(), (long) offset + limit < result.totalCount());
+        }
+
+        Integer catalogCategoryId = (categoryId != null && categoryId != 0) 
+                ? categoryId : null;
+        String likeKeyword = (keyword != null && !keyword.isEmpty()) 
+                ? toLikeWord(keyword) : null;
+
+        BookSortKey pageSortKey = sortKey != null ? sortKey : BookSortKey.BOOK_ID;
+        List<BookStockTO> books = catalogCache.getCatalogPage(catalogCategoryId, likeKeyword,
+                pageSortKey, after != null ? after.bookId() : null, null,
+                after != null ? 0 : offset, limit + 1,
+                () -> bookDao.searchCatalogPage(catalogCategoryId, likeKeyword, pageSortKey,
+                        after, offset, limit + 1));
+        boolean hasNext = books.size() > limit;
+        if (hasNext) {
+            books = books.subList(0, limit);
+        }
+        return new BookPageTO(applyStocks(books), hasNext);
+    }
+
+    // サービスメソッド：書籍カタログの前のページ検索（並び順指定、在庫情報付き）
+    // 並び順でbeforeより前のlimit件を、逆順のキーセットページングで取得する（先頭から読み飛ばさない）
+    // 関連度順の場合、またはbeforeが無い場合は、offset件目からのページ検索で取得する
+    public BookPageTO searchBookCatalogPageBefore(Integer categoryId, String keyword,
+            BookSortKey sortKey, BookStockTO before, int offset, int limit) {
+        trace.entry("searchBookCatalogPageBefore", "sortKey", sortKey, "limit", limit);
+
+        if (sortKey == BookSortKey.RELEVANCE || before == null) {
+            return searchBookCatalogPage(categoryId, keyword, sortKey, null, offset, limit);
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1: limit=" + limit);
+        }
+
+        Integer catalogCategoryId = (categoryId != null && categoryId != 0) 
+                ? categoryId : null;
+        String likeKeyword = (keyword != null && !keyword.isEmpty()) 
+                ? toLikeWord(keyword) : null;
+
+        BookSortKey pageSortKey = sortKey != null ? sortKey : BookSortKey.BOOK_ID;
+        List<BookStockTO> books = catalogCache.getCatalogPage(catalogCategoryId, likeKeyword,
+                pageSortKey, null, before.bookId(), 0, limit,
+                () -> {
+                    // 逆順で取得した書籍を、並び順に並べ直す
+                    List<BookStockTO> reversed = new ArrayList<>(bookDao.searchCatalogPageBefore(
+                            catalogCategoryId, likeKeyword, pageSortKey, before, limit));
+                    Collections.reverse(reversed);
+                    return reversed;
+                });
+        // beforeの書籍が次のページにあるため、次のページは常にある
+        return new BookPageTO(applyStocks(books), true);
+    }
+
+    // サービスメソッド：書籍カタログの件数取得（カテゴリIDとキーワードによる条件検索）
+    public long countBookCatalog(Integer categoryId, String keyword) {
+        trace.entry("countBookCatalog");
+
+        Integer catalogCategoryId = (categoryId != null && categoryId != 0) 
+                ? categoryId : null;
+        String likeKeyword = (keyword != null && !keyword.isEmpty()) 
+                ? toLikeWord(keyword) : null;
+
+        return bookDao.countCatalog(catalogCategoryId, likeKeyword);
+    }
+
+    // サービスメソッド：書籍カタログのランキング検索（書籍名・著者の転置インデックス使用、在庫情報付き）
+    // キーワードは空白区切りでAND条件となり、書籍名の前方一致・書籍名の部分一致・著者の部分一致の順に並べて、
+    // offset件目からlimit件を返す。インデックスの構築前は、書籍名のLIKE検索（書籍ID順）で代替する
+    public BookSearchResultTO searchBookRanked(Integer categoryId, String keyword,
+            int offset, int limit) {
+        trace.entry("searchBookRanked", "offset", offset, "limit", limit);
+
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException(
+                    "offset must be >= 0 and limit must be >= 1: offset=" + offset
+                    + ", limit=" + limit);
+        }
+
+        BookSearchIndex index = bookSearchIndexManager.getIndex();
+        if (index == null) {
+            List<BookStockTO> books = searchBookCatalog(categoryId, keyword);
+            int from = Math.min(offset, books.size());
+            int to = (int) Math.min((long) from + limit, books.size());
+            return new BookSearchResultTO(new ArrayList<>(books.subList(from, to)),
+                    books.size());
+        }
+
+        Integer catalogCategoryId = (categoryId != null && categoryId != 0) 
+                ? categoryId : null;
+        BookSearchHits hits = index.search(catalogCategoryId, keyword, offset, limit);
+        if (hits.bookIds().isEmpty()) {
+            return new BookSearchResultTO(List.of(), hits.totalCount());
+        }
+
+        // ページ分の書籍のみを読み込み、インデックスの順序に並べ直す
+        Map<Integer, BookStockTO> catalog = new HashMap<>();
+        for (BookStockTO book : bookDao.findCatalogByIds(hits.bookIds())) {
+            catalog.put(book.bookId(), book);
+        }
+        List<BookStockTO> books = new ArrayList<>(hits.bookIds().size());
+        for (Integer bookId : hits.bookIds()) {
+            BookStockTO book = catalog.get(bookId);
+            // インデックスの構築後に削除された書籍は除く
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return new BookSearchResultTO(applyStocks(books), hits.totalCount());
+    }
+
+    // 書籍カタログはキャッシュから取得し、在庫数・バージョンのみ在庫キャッシュの値で置き換える
+    private List<BookStockTO> findBookCatalog(Integer categoryId, String likeKeyword) {
+        List<BookStockTO> catalog = catalogCache.getCatalog(categoryId, likeKeyword,
+                () -> bookDao.searchCatalog(categoryId, likeKeyword));
+        return applyStocks(catalog);
+    }
+
+    // 書籍カタログの在庫数・バージョンを、在庫キャッシュの値で置き換える
+    private List<BookStockTO> applyStocks(List<BookStockTO> catalog) {
+        List<Integer> bookIds = new ArrayList<>(catalog.size());
+        for (BookStockTO book : catalog) {
+            bookIds.add(book.bookId());
+        }
+        Map<Integer, StockTO> stocks = catalogCache.getStocks(bookIds, stockDao::findByIds);
+        
+        List<BookStockTO> books = new ArrayList<>(catalog.size());
+        for (BookStockTO book : catalog) {
+            StockTO stock = stocks.get(book.bookId());
+            if (stock == null) {
+                books.add(book);
+                continue;
+            }
+            books.add(new BookStockTO(book.bookId(), book.bookName(), book.author(),
+                    book.categoryId(), book.categoryName(), book.publisherName(),
+                    book.price(), stock.quantity(), stock.version()));
+        }
+        return books;
+    }
+
     private String toLikeWord(String keyword) {
         return "%" + keyword + "%";
     }
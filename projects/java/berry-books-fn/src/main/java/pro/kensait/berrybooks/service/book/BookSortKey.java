@@ -0,0 +1,33 @@
+package pro.kensait.berrybooks.service.book;
+
+// 書籍カタログの並び順を表すEnum
+// 関連度順以外は昇順で、同じ値の書籍は書籍ID順に並べる（ページングで書籍の重複・欠落が起きないようにするため）
+public enum BookSortKey {
+
+    // 書籍ID順
+    BOOK_ID("書籍ID順"),
+
+    // 価格の安い順
+    PRICE("価格の安い順"),
+
+    // 書籍名順
+    NAME("書籍名順"),
+
+    // 出版社名順
+    PUBLISHER("出版社名順"),
+
+    // 関連度順（書籍検索インデックスによるランキング検索、ページングはオフセット方式）
+    RELEVANCE("関連度順");
+
+    private final String displayName;
+
+    // コンストラクタ
+    BookSortKey(String displayName) {
+        this.displayName = displayName;
+    }
+
+    // 表示名を取得
+    public String getDisplayName() {
+        return displayName;
+    }
+}
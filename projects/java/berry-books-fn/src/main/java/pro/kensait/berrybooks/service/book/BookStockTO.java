@@ -0,0 +1,27 @@
+package pro.kensait.berrybooks.service.book;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+// 書籍カタログ（在庫情報付き）を保持するDTOクラス（Recordとして定義）
+// BOOK・CATEGORY・PUBLISHER・STOCKを1回のクエリで結合して取得した結果を保持する
+public record BookStockTO (
+        // 書籍ID
+        Integer bookId,
+        // 書籍名
+        String bookName,
+        // 著者
+        String author,
+        // カテゴリID
+        Integer categoryId,
+        // カテゴリ名
+        String categoryName,
+        // 出版社名
+        String publisherName,
+        // 価格
+        BigDecimal price,
+        // 在庫数
+        Integer quantity,
+        // バージョン（楽観的ロック用）
+        Long version) implements Serializable {
+}
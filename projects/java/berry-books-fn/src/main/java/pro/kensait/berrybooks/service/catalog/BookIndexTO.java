@@ -0,0 +1,13 @@
+package pro.kensait.berrybooks.service.catalog;
+
+// 書籍検索インデックスの構築に使用する書籍情報を保持するDTOクラス（Recordとして定義）
+public record BookIndexTO (
+        // 書籍ID
+        Integer bookId,
+        // 書籍名
+        String bookName,
+        // 著者
+        String author,
+        // カテゴリID
+        Integer categoryId) {
+}
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.util.List;
+
+// 書籍検索インデックスの検索結果を保持するDTOクラス（Recordとして定義）
+public record BookSearchHits (
+        // 指定したページの書籍IDのリスト（スコアの高い順）
+        List<Integer> bookIds,
+        // 条件に一致した書籍の総数
+        int totalCount) {
+}
@@ -0,0 +1,259 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// 書籍名・著者の全文検索用の転置インデックス（不変オブジェクト）
+// 日本語の書籍名には単語の区切りが無いため、2文字ずつの文字列（bigram）を索引語とする。
+// 検索時はキーワードの全bigramを含む書籍に絞り込んだ後、実際に部分一致するかを確認するため、
+// LIKE '%キーワード%'と同様の部分一致検索を、書籍を全件走査せずに行うことができる。
+// 1文字のキーワードにはbigramが無いため、1文字（unigram）の索引語も登録して絞り込む
+public final class BookSearchIndex {
+
+    // スコア（書籍名の前方一致 > 書籍名の部分一致 > 著者の部分一致）
+    private static final int TITLE_PREFIX_SCORE = 3;
+    private static final int TITLE_SCORE = 2;
+    private static final int AUTHOR_SCORE = 1;
+
+    private static final int[] NO_DOCS = new int[0];
+
+    // 文書番号（書籍ID順の連番）毎の書籍ID・カテゴリID・正規化した書籍名・著者
+    private final int[] bookIds;
+    private final int[] categoryIds;
+    private final String[] titles;
+    private final String[] authors;
+
+    // 索引語（2文字を1つのintに詰めたもの）毎の文書番号の配列（昇順）
+    private final Map<Integer, int[]> postings;
+
+    // 1文字の索引語（文字コード）毎の文書番号の配列（昇順、1文字のキーワード用）
+    private final Map<Integer, int[]> unigramPostings;
+
+    private BookSearchIndex(int[] bookIds, int[] categoryIds, String[] titles,
+            String[] authors, Map<Integer, int[]> postings,
+            Map<Integer, int[]> unigramPostings) {
+        this.bookIds = bookIds;
+        this.categoryIds = categoryIds;
+        this.titles = titles;
+        this.authors = authors;
+        this.postings = postings;
+        this.unigramPostings = unigramPostings;
+    }
+
+    // 書籍のリストからインデックスを構築する
+    public static BookSearchIndex build(List<BookIndexTO> books) {
+        List<BookIndexTO> sorted = new ArrayList<>(books);
+        sorted.sort(Comparator.comparing(BookIndexTO::bookId));
+
+        int size = sorted.size();
+        int[] bookIds = new int[size];
+        int[] categoryIds = new int[size];
+        String[] titles = new String[size];
+        String[] authors = new String[size];
+        Map<Integer, IntList> lists = new HashMap<>();
+        Map<Integer, IntList> unigramLists = new HashMap<>();
+
+        for (int doc = 0; doc < size; doc++) {
+            BookIndexTO book = sorted.get(doc);
+            bookIds[doc] = book.bookId();
+            categoryIds[doc] = book.categoryId() != null ? book.categoryId() : 0;
+            titles[doc] = normalize(book.bookName());
+            authors[doc] = normalize(book.author());
+            addPostings(lists, titles[doc], doc);
+            addPostings(lists, authors[doc], doc);
+            addUnigramPostings(unigramLists, titles[doc], doc);
+            addUnigramPostings(unigramLists, authors[doc], doc);
+        }
+
+        return new BookSearchIndex(bookIds, categoryIds, titles, authors, toArrays(lists),
+                toArrays(unigramLists));
+    }
+
+    // キーワード（空白区切りの場合はAND条件）とカテゴリIDで書籍を検索し、
+    // スコアの高い順（同じスコアの場合は書籍ID順）に、offsetからlimit件の書籍IDを返す
+    // キーワードが空の場合はカテゴリの全書籍、カテゴリIDがnullの場合は全カテゴリが対象となる
+    public BookSearchHits search(Integer categoryId, String keyword, int offset, int limit) {
+        String[] terms = tokenize(keyword);
+        int[] candidates = findCandidates(terms);
+
+        boolean filterCategory = categoryId != null;
+        int category = filterCategory ? categoryId : 0;
+
+        // スコアと書籍IDを1つのlongに詰めて、プリミティブ配列のソートで並べ替える
+        int candidateCount = candidates != null ? candidates.length : bookIds.length;
+        long[] keys = new long[candidateCount];
+        int matches = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int doc = candidates != null ? candidates[i] : i;
+            if (filterCategory && categoryIds[doc] != category) {
+                continue;
+            }
+            int score = score(doc, terms);
+            if (score < 0) {
+                continue;
+            }
+            keys[matches++] = ((long) (Integer.MAX_VALUE - score) << 32) | bookIds[doc];
+        }
+        Arrays.sort(keys, 0, matches);
+
+        List<Integer> page = new ArrayList<>();
+        for (int i = Math.max(offset, 0); i < matches && page.size() < limit; i++) {
+            page.add((int) keys[i]);
+        }
+        return new BookSearchHits(page, matches);
+    }
+
+    // インデックスに登録されている書籍数
+    public int size() {
+        return bookIds.length;
+    }
+
+    // 検索用に文字列を正規化する（全角英数字・半角カナの統一、英字の小文字化）
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    // キーワードを正規化し、空白で分割する
+    private static String[] tokenize(String keyword) {
+        String normalized = normalize(keyword).strip();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return normalized.split("\\s+");
+    }
+
+    // 全キーワードの全bigram（1文字のキーワードはその文字）を含む文書番号を取得する
+    // （キーワードが無い場合はnull＝全件）
+    // 出現頻度の低い（配列の短い）索引語から順に積集合をとる
+    private int[] findCandidates(String[] terms) {
+        List<int[]> lists = new ArrayList<>();
+        for (String term : terms) {
+            if (term.length() == 1) {
+                int[] docs = unigramPostings.get((int) term.charAt(0));
+                if (docs == null) {
+                    return NO_DOCS;
+                }
+                lists.add(docs);
+                continue;
+            }
+            for (int i = 0; i + 1 < term.length(); i++) {
+                int[] docs = postings.get(bigram(term.charAt(i), term.charAt(i + 1)));
+                if (docs == null) {
+                    return NO_DOCS;
+                }
+                lists.add(docs);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        lists.sort(Comparator.comparingInt(docs -> docs.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    // 全キーワードが書籍名または著者に部分一致する場合はスコアを、一致しない場合は-1を返す
+    private int score(int doc, String[] terms) {
+        int score = 0;
+        for (String term : terms) {
+            int index = titles[doc].indexOf(term);
+            if (index == 0) {
+                score += TITLE_PREFIX_SCORE;
+            } else if (index > 0) {
+                score += TITLE_SCORE;
+            } else if (authors[doc].contains(term)) {
+                score += AUTHOR_SCORE;
+            } else {
+                return -1;
+            }
+        }
+        return score;
+    }
+
+    private static void addPostings(Map<Integer, IntList> lists, String text, int doc) {
+        for (int i = 0; i + 1 < text.length(); i++) {
+            char first = text.charAt(i);
+            char second = text.charAt(i + 1);
+            // 空白を含むbigramはキーワード（空白で分割済み）に現れないため登録しない
+            if (Character.isWhitespace(first) || Character.isWhitespace(second)) {
+                continue;
+            }
+            lists.computeIfAbsent(bigram(first, second), key -> new IntList()).addDistinct(doc);
+        }
+    }
+
+    private static void addUnigramPostings(Map<Integer, IntList> lists, String text, int doc) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                lists.computeIfAbsent((int) c, key -> new IntList()).addDistinct(doc);
+            }
+        }
+    }
+
+    private static Map<Integer, int[]> toArrays(Map<Integer, IntList> lists) {
+        Map<Integer, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<Integer, IntList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return postings;
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    // 昇順の配列同士の積集合
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // 構築時に使用する、intの可変長配列（ボクシングを避けるため）
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        // 文書番号は昇順に追加されるため、末尾と同じ値の場合のみ重複となる
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.dao.BookDao;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+// 書籍検索インデックス（BookSearchIndex）の構築と更新を行うクラス
+// 起動時に書籍テーブルから構築し、カタログ変更イベント（CatalogChangeMonitorが発行）の受信時に作り直す。
+// インデックスは不変オブジェクトのため、構築中も検索は直前のインデックスでロックせずに行われる
+@ApplicationScoped
+public class BookSearchIndexManager {
+    private static final Logger logger = LoggerFactory.getLogger(
+            BookSearchIndexManager.class);
+
+    // 現在のインデックス（構築前はnull）
+    private volatile BookSearchIndex index;
+
+    // 作り直しが予約済みかどうか（連続したカタログ変更イベントを1回の構築にまとめる）
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @Inject
+    private BookDao bookDao;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    // アプリケーションの起動時に、インデックスを構築する
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (scheduler == null) {
+            return;
+        }
+        // 起動を待たせないよう、別スレッドで構築する（構築完了までは書籍名のLIKE検索で代替される）
+        scheduleRebuild();
+    }
+
+    // 書籍テーブルからインデックスを構築し、現在のインデックスと置き換える
+    public synchronized BookSearchIndex rebuild() {
+        logger.info("[ BookSearchIndexManager#rebuild ]");
+
+        long start = System.nanoTime();
+        BookSearchIndex newIndex = BookSearchIndex.build(bookDao.findIndexEntries());
+        index = newIndex;
+        logger.info("[ BookSearchIndexManager#rebuild ] books={}, elapsed={}ms", newIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return newIndex;
+    }
+
+    // 現在のインデックスを取得する（構築前はnull）
+    public BookSearchIndex getIndex() {
+        return index;
+    }
+
+    // オブザーバーメソッド：カタログ変更イベントを受け取り、インデックスを作り直す
+    // ※コミット後に作り直すことで、コミット前の書籍が検索されるのを防ぐ
+    void onCatalogChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        logger.info("[ BookSearchIndexManager#onCatalogChanged ] bookIds={}", event.bookIds());
+        if (scheduler == null) {
+            rebuild();
+            return;
+        }
+        scheduleRebuild();
+    }
+
+    // 別スレッドでの作り直しを予約する（予約済みの場合は何もしない）
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                rebuildPending.set(false);
+                rebuildQuietly();
+            });
+        }
+    }
+
+    // 別スレッド用の作り直し（例外は呼び出し元に送出せず、ログに出力する）
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            logger.warn("[ BookSearchIndexManager#rebuildQuietly ] failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.entity.Category;
+import pro.kensait.berrybooks.service.book.BookSortKey;
+import pro.kensait.berrybooks.service.book.BookStockTO;
+import pro.kensait.berrybooks.util.BoundedCache;
+import pro.kensait.berrybooks.util.CacheStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+// 書籍カタログ（書籍・カテゴリ・出版社）と在庫情報をキャッシュするクラス
+// ほとんど変更されないカタログと、注文の度に変わる在庫は別々のキャッシュで管理する
+@ApplicationScoped
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CatalogCache.class);
+
+    private static final Trace trace = Trace.of(CatalogCache.class);
+
+    // カテゴリキャッシュのキー（カテゴリは全件を1要素として保持する）
+    private static final String ALL_CATEGORIES = "ALL";
+
+    // 書籍カタログの検索結果（キー：検索条件）
+    private final BoundedCache<CatalogKey, List<BookStockTO>> catalogCache =
+            new BoundedCache<>(
+                    ConfigUtil.getInt("catalog.cache.max-size", 1000),
+                    Duration.ofSeconds(ConfigUtil.getLong("catalog.cache.ttl-seconds", 600)));
+
+    // 書籍カタログのページ検索の結果（キー：検索条件・並び順・ページの位置）
+    private final BoundedCache<CatalogPageKey, List<BookStockTO>> catalogPageCache =
+            new BoundedCache<>(
+                    ConfigUtil.getInt("catalog.cache.max-size", 1000),
+                    Duration.ofSeconds(ConfigUtil.getLong("catalog.cache.ttl-seconds", 600)));
+
+    // カテゴリの一覧
+    private final BoundedCache<String, List<Category>> categoryCache =
+            new BoundedCache<>(1,
+                    Duration.ofSeconds(ConfigUtil.getLong("catalog.cache.ttl-seconds", 600)));
+
+    // 在庫情報（キー：書籍ID）
+    private final BoundedCache<Integer, StockTO> stockCache =
+            new BoundedCache<>(
+                    ConfigUtil.getInt("stock.cache.max-size", 100000),
+                    Duration.ofSeconds(ConfigUtil.getLong("stock.cache.ttl-seconds", 5)));
+
+    // 書籍カタログの検索結果を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    // ※在庫数・バージョンは読み込み時点の値のため、getStocksで取得した値で置き換えて使用する
+    public List<BookStockTO> getCatalog(Integer categoryId, String keyword,
+            Supplier<List<BookStockTO>> loader) {
+        return catalogCache.get(new CatalogKey(categoryId, keyword),
+                key -> List.copyOf(loader.get()));
+    }
+
+    // 書籍カタログのページ検索の結果を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    // ページの位置は、直前・直後の書籍ID（キーセットページング）またはoffsetで指定する
+    // ※在庫数・バージョンは読み込み時点の値のため、getStocksで取得した値で置き換えて使用する
+    public List<BookStockTO> getCatalogPage(Integer categoryId, String keyword,
+            BookSortKey sortKey, Integer afterBookId, Integer beforeBookId, int offset,
+            int limit, Supplier<List<BookStockTO>> loader) {
+        return catalogPageCache.get(new CatalogPageKey(categoryId, keyword, sortKey,
+                        afterBookId, beforeBookId, offset, limit),
+                key -> List.copyOf(loader.get()));
+    }
+
+    // カテゴリの一覧を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    public List<Category> getCategories(Supplier<List<Category>> loader) {
+        return categoryCache.get(ALL_CATEGORIES, key -> List.copyOf(loader.get()));
+    }
+
+    // 書籍IDに対応する在庫情報を取得する
+    // キャッシュに存在しない書籍IDのみをまとめてloaderで読み込む
+    public Map<Integer, StockTO> getStocks(Collection<Integer> bookIds,
+            Function<List<Integer>, List<StockTO>> loader) {
+        Map<Integer, StockTO> stocks = new HashMap<>();
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            StockTO stock = stockCache.get(bookId);
+            if (stock != null) {
+                stocks.put(bookId, stock);
+            } else {
+                missingIds.add(bookId);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            for (StockTO stock : loader.apply(missingIds)) {
+                stockCache.put(stock.bookId(), stock);
+                stocks.put(stock.bookId(), stock);
+            }
+        }
+        return stocks;
+    }
+
+    // 指定した書籍の在庫情報を無効化する
+    public void invalidateStocks(Collection<Integer> bookIds) {
+        for (Integer bookId : bookIds) {
+            stockCache.invalidate(bookId);
+        }
+    }
+
+    // 書籍カタログとカテゴリを無効化する（カタログが変更された場合に使用する）
+    public void invalidateCatalog() {
+        trace.entry("invalidateCatalog");
+        catalogCache.invalidateAll();
+        catalogPageCache.invalidateAll();
+        categoryCache.invalidateAll();
+    }
+
+    // オブザーバーメソッド：在庫更新イベントを受け取り、在庫情報を無効化する
+    // ※トランザクション完了後に無効化することで、コミット前の古い値が再キャッシュされるのを防ぐ
+    void onStockChanged(
+            @Observes(during = TransactionPhase.AFTER_COMPLETION) StockChangedEvent event) {
+        trace.entry("onStockChanged", "bookIds", event.bookIds());
+        invalidateStocks(event.bookIds());
+    }
+
+    // オブザーバーメソッド：カタログ変更イベントを受け取り、書籍カタログとカテゴリを無効化する
+    void onCatalogChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChangedEvent event) {
+        logger.info("[ CatalogCache#onCatalogChanged ] bookIds={}", event.bookIds());
+        invalidateCatalog();
+    }
+
+    // キャッシュ毎の統計情報を取得する
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("catalog", catalogCache.getStats());
+        stats.put("catalogPage", catalogPageCache.getStats());
+        stats.put("category", categoryCache.getStats());
+        stats.put("stock", stockCache.getStats());
+        return stats;
+    }
+
+    // 書籍カタログキャッシュのキー（検索条件）
+    private record CatalogKey(Integer categoryId, String keyword) {
+    }
+
+    // 書籍カタログのページ検索のキャッシュのキー（検索条件・並び順・ページの位置）
+    private record CatalogPageKey(Integer categoryId, String keyword, BookSortKey sortKey,
+            Integer afterBookId, Integer beforeBookId, int offset, int limit) {
+    }
+}
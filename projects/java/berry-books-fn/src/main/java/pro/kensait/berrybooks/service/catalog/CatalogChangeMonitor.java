@@ -0,0 +1,84 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.dao.TableVersionDao;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+// 書籍カタログ（書籍・カテゴリ・出版社）の変更を検知し、カタログ変更イベントを発行するクラス
+// このアプリケーションは書籍を更新しない（書籍はSQLで直接登録・更新される）ため、
+// トリガーで加算される変更カウンタ（TABLE_VERSION）を一定間隔で確認し、値が変わった場合に発行する
+@ApplicationScoped
+public class CatalogChangeMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CatalogChangeMonitor.class);
+
+    // 変更カウンタを確認する間隔（秒、0以下の場合は確認しない）
+    private final long checkIntervalSeconds = ConfigUtil.getLong(
+            "catalog.change-check-interval-seconds", 30);
+
+    // 前回確認した変更カウンタ（未確認の場合はnull）
+    private Long lastVersion;
+
+    // 定期的な確認のスケジュール
+    private ScheduledFuture<?> checkTask;
+
+    @Inject
+    private TableVersionDao tableVersionDao;
+
+    @Inject
+    private Event<CatalogChangedEvent> catalogChangedEvent;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    // アプリケーションの起動時に、変更カウンタの定期的な確認を開始する
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (scheduler == null || checkIntervalSeconds <= 0) {
+            return;
+        }
+        checkTask = scheduler.scheduleWithFixedDelay(this::checkQuietly,
+                0, checkIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // 変更カウンタを確認し、前回から変わっていればカタログ変更イベントを発行する
+    // （変更された書籍は特定できないため、書籍IDのリストは空とする）
+    public synchronized void check() {
+        long version = tableVersionDao.findCatalogVersion();
+        if (lastVersion != null && version != lastVersion) {
+            logger.info("[ CatalogChangeMonitor#check ] catalog changed: version={}", version);
+            catalogChangedEvent.fire(new CatalogChangedEvent(List.of()));
+        }
+        lastVersion = version;
+    }
+
+    // 終了時に定期的な確認のスケジュールを停止する
+    @PreDestroy
+    public void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel(false);
+        }
+    }
+
+    // 別スレッド用の確認（例外で以降のスケジュールが止まらないようにする）
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException ex) {
+            logger.warn("[ CatalogChangeMonitor#checkQuietly ] failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.util.List;
+
+// 書籍カタログ（書籍・カテゴリ・出版社）が変更されたことを通知するCDIイベント（Recordとして定義）
+// 書籍はSQLで直接変更されるため、CatalogChangeMonitorが変更カウンタ（TABLE_VERSION）の変化を検知して発行する
+// （書籍の登録・更新・削除を行う処理を追加する場合は、トランザクション内でこのイベントを発行すること）
+public record CatalogChangedEvent (
+        // 変更された書籍IDのリスト（特定できない場合は空）
+        List<Integer> bookIds) {
+}
@@ -0,0 +1,9 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.util.List;
+
+// 在庫が更新されたことを通知するCDIイベント（Recordとして定義）
+public record StockChangedEvent (
+        // 在庫が更新された書籍IDのリスト
+        List<Integer> bookIds) {
+}
@@ -0,0 +1,13 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import java.io.Serializable;
+
+// 在庫情報を保持するDTOクラス（Recordとして定義）
+public record StockTO (
+        // 書籍ID
+        Integer bookId,
+        // 在庫数
+        Integer quantity,
+        // バージョン（楽観的ロック用）
+        Long version) implements Serializable {
+}
@@ -4,35 +4,36 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.CategoryDao;
 import pro.kensait.berrybooks.entity.Category;
+import pro.kensait.berrybooks.service.catalog.CatalogCache;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 // カテゴリを取得するサービスクラス
 @ApplicationScoped
 public class CategoryService {
-    private static final Logger logger = LoggerFactory.getLogger(
-            CategoryService.class);
+    private static final Trace trace = Trace.of(CategoryService.class);
 
     @Inject
     private CategoryDao categoryDao;
 
+    @Inject
+    private CatalogCache catalogCache;
+
     // サービスメソッド：カテゴリの取得（全件検索）
     public List<Category> getCategoriesAll() {
-        logger.info("[ CategoryService#getCategoriesAll ]");
-        return categoryDao.findAll();
+        trace.entry("getCategoriesAll");
+        return catalogCache.getCategories(categoryDao::findAll);
     }
 
     // サービスメソッド：カテゴリマップの取得
     public Map<String, Integer> getCategoryMap() {
-        logger.info("[ CategoryService#getCategoryMap ]");
+        trace.entry("getCategoryMap");
         
         Map<String, Integer> categoryMap = new HashMap<>();
-        List<Category> categories = categoryDao.findAll();
+        List<Category> categories = catalogCache.getCategories(categoryDao::findAll);
         
         for (Category category : categories) {
             categoryMap.put(category.getCategoryName(), category.getCategoryId());
@@ -0,0 +1,105 @@
+package pro.kensait.berrybooks.service.customer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.entity.Customer;
+import pro.kensait.berrybooks.util.BoundedCache;
+import pro.kensait.berrybooks.util.CacheStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+// 顧客を顧客IDとメールアドレスの両方から引けるようにキャッシュするクラス
+// 顧客は顧客IDをキーとして1か所にのみ保持し、メールアドレスからは顧客IDを引く索引とする
+// （顧客の無効化は顧客IDのみで済み、索引が古い場合はメールアドレスの照合で検出して読み込み直す）
+// ※キャッシュした顧客は呼び出し元に変更されないよう、コピーを格納し、コピーを返す
+@ApplicationScoped
+public class CustomerCache {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CustomerCache.class);
+
+    // 顧客（キー：顧客ID）
+    private final BoundedCache<Integer, Customer> customerCache =
+            new BoundedCache<>(
+                    ConfigUtil.getInt("customer.cache.max-size", 10000),
+                    Duration.ofSeconds(ConfigUtil.getLong("customer.cache.ttl-seconds", 60)));
+
+    // メールアドレスから顧客IDへの索引
+    private final BoundedCache<String, Integer> emailIndex =
+            new BoundedCache<>(
+                    ConfigUtil.getInt("customer.cache.max-size", 10000),
+                    Duration.ofSeconds(ConfigUtil.getLong("customer.cache.ttl-seconds", 60)));
+
+    // 顧客IDで顧客を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    public Customer findById(Integer customerId, Function<Integer, Customer> loader) {
+        if (customerId == null) {
+            return loader.apply(null);
+        }
+        Customer customer = customerCache.get(customerId);
+        if (customer == null) {
+            customer = loader.apply(customerId);
+            put(customer);
+        }
+        return copy(customer);
+    }
+
+    // メールアドレスで顧客を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    public Customer findByEmail(String email, Function<String, Customer> loader) {
+        if (email == null) {
+            return loader.apply(null);
+        }
+        Integer customerId = emailIndex.get(email);
+        Customer customer = customerId != null ? customerCache.get(customerId) : null;
+        if (customer == null || !email.equals(customer.getEmail())) {
+            customer = loader.apply(email);
+            put(customer);
+        }
+        return copy(customer);
+    }
+
+    // 指定した顧客を無効化する
+    public void invalidate(Integer customerId) {
+        customerCache.invalidate(customerId);
+    }
+
+    // オブザーバーメソッド：顧客更新イベントを受け取り、顧客を無効化する
+    // ※トランザクション完了後に無効化することで、コミット前の古い値が再キャッシュされるのを防ぐ
+    void onCustomerChanged(
+            @Observes(during = TransactionPhase.AFTER_COMPLETION) CustomerChangedEvent event) {
+        logger.info("[ CustomerCache#onCustomerChanged ] customerId={}", event.customerId());
+        invalidate(event.customerId());
+    }
+
+    // キャッシュ毎の統計情報を取得する
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("customer", customerCache.getStats());
+        stats.put("email", emailIndex.getStats());
+        return stats;
+    }
+
+    private void put(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+        customerCache.put(customer.getCustomerId(), copy(customer));
+        emailIndex.put(customer.getEmail(), customer.getCustomerId());
+    }
+
+    private static Customer copy(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        Customer copy = new Customer(customer.getCustomerName(), customer.getEmail(),
+                customer.getPassword(), customer.getBirthday(), customer.getAddress());
+        copy.setCustomerId(customer.getCustomerId());
+        return copy;
+    }
+}
@@ -0,0 +1,7 @@
+package pro.kensait.berrybooks.service.customer;
+
+// 顧客が更新されたことを通知するCDIイベント（Recordとして定義）
+public record CustomerChangedEvent (
+        // 更新された顧客の顧客ID
+        Integer customerId) {
+}
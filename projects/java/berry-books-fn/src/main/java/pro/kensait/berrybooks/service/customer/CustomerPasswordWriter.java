@@ -0,0 +1,36 @@
+package pro.kensait.berrybooks.service.customer;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerDao;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// ログイン時のパスワードのハッシュ化し直し（平文からの移行等）を、別のトランザクションで行うクラス
+// （ハッシュ計算の間、認証処理でトランザクションとDB接続を保持しないため）
+@ApplicationScoped
+public class CustomerPasswordWriter {
+    private static final Trace trace = Trace.of(CustomerPasswordWriter.class);
+
+    @Inject
+    private CustomerDao customerDao;
+
+    @Inject
+    private Event<CustomerChangedEvent> customerChangedEvent;
+
+    // 格納値が読み込み時から変わっていない場合のみ、パスワードを新しい格納値に更新する
+    @Transactional(TxType.REQUIRES_NEW)
+    public boolean updatePassword(Integer customerId, String currentPassword,
+            String newPassword) {
+        trace.entry("updatePassword", "customerId", customerId);
+        boolean updated = customerDao.updatePassword(customerId, currentPassword,
+                newPassword) == 1;
+        if (updated) {
+            // コミット後に顧客キャッシュを無効化する
+            customerChangedEvent.fire(new CustomerChangedEvent(customerId));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,26 @@
+package pro.kensait.berrybooks.service.customer;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerDao;
+import pro.kensait.berrybooks.entity.Customer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// 顧客の登録を、パスワードのハッシュ化の後に別のトランザクションで行うクラス
+// （ハッシュ計算の間、登録処理でトランザクションとDB接続を保持しないため）
+@ApplicationScoped
+public class CustomerRegistrationWriter {
+    private static final Trace trace = Trace.of(CustomerRegistrationWriter.class);
+
+    @Inject
+    private CustomerDao customerDao;
+
+    // 顧客を登録する（パスワードはハッシュ化済みであること）
+    @Transactional(TxType.REQUIRES_NEW)
+    public void register(Customer customer) {
+        trace.entry("register");
+        customerDao.register(customer);
+    }
+}
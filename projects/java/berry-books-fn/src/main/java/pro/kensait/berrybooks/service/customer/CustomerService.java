@@ -4,11 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.CustomerDao;
 import pro.kensait.berrybooks.entity.Customer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 
 // 顧客登録と認証を行うサービスクラス
 @ApplicationScoped
@@ -16,48 +16,82 @@ public class CustomerService {
     private static final Logger logger = LoggerFactory.getLogger(
             CustomerService.class);
 
+    private static final Trace trace = Trace.of(CustomerService.class);
+
     @Inject
     private CustomerDao customerDao;
 
+    @Inject
+    private PasswordVerifier passwordVerifier;
+
+    @Inject
+    private CustomerPasswordWriter customerPasswordWriter;
+
+    @Inject
+    private CustomerRegistrationWriter customerRegistrationWriter;
+
+    @Inject
+    private CustomerCache customerCache;
+
     // 顧客を登録する（メールアドレス重複チェック含む）
-    @Transactional
+    // パスワードのハッシュ化（PBKDF2）はトランザクションの外で行い、登録のみを別のトランザクションで行う
     public Customer registerCustomer(Customer customer) {
-        logger.info("[ CustomerService#registerCustomer ]");
+        trace.entry("registerCustomer");
         
-        // メールアドレスの重複チェック
-        Customer existing = customerDao.findByEmail(customer.getEmail());
+        // メールアドレスの重複チェック（登録済みの顧客はキャッシュから判定する）
+        Customer existing = customerCache.findByEmail(customer.getEmail(),
+                customerDao::findByEmail);
         if (existing != null) {
             throw new EmailAlreadyExistsException(customer.getEmail(), 
                     MessageUtil.get("error.email.already-exists"));
         }
         
-        customerDao.register(customer);
+        // パスワードはハッシュ化して格納する
+        customer.setPassword(passwordVerifier.hash(customer.getPassword()));
+        customerRegistrationWriter.register(customer);
         return customer;
     }
 
     // ログイン認証を行う
     public Customer authenticate(String email, String password) {
-        logger.info("[ CustomerService#authenticate ] email=" + email);
+        trace.entry("authenticate", "email", email);
         
-        Customer customer = customerDao.findByEmail(email);
+        // 顧客はキャッシュから取得する（ログイン毎にメールアドレスで検索しない）
+        Customer customer = customerCache.findByEmail(email, customerDao::findByEmail);
         if (customer == null) {
-            logger.warn("Customer not found: " + email);
+            logger.warn("Customer not found: {}", email);
             return null;
         }
         
-        // 平文でパスワードを検証
-        if (!customer.getPassword().equals(password)) {
-            logger.warn("Password mismatch for: " + email);
+        // 格納値（ハッシュ値、または移行前の平文）とパスワードを照合
+        String stored = customer.getPassword();
+        if (!passwordVerifier.verify(password, stored)) {
+            logger.warn("Password mismatch for: {}", email);
             return null;
         }
-        
+
+        // 平文（または反復回数の古いハッシュ値）で格納されている場合は、認証に成功した
+        // この時点でハッシュ化し直して格納する（既存の顧客を一括で移行せずに済むように）
+        // ※混雑している場合は移行を見送り、次回のログイン時に行う（ログイン自体は成功とする）
+        if (passwordVerifier.needsRehash(stored)) {
+            try {
+                String rehashed = passwordVerifier.hash(password);
+                if (customerPasswordWriter.updatePassword(customer.getCustomerId(), stored,
+                        rehashed)) {
+                    customer.setPassword(rehashed);
+                }
+            } catch (PasswordVerifierBusyException e) {
+                logger.warn("Password rehash postponed for: {}", email);
+            }
+        }
+
         return customer;
     }
 
     // 顧客IDで顧客を取得する
     public Customer getCustomer(Integer customerId) {
-        logger.info("[ CustomerService#getCustomer ] customerId=" + customerId);
-        return customerDao.findById(customerId);
+        trace.entry("getCustomer", "customerId", customerId);
+        return customerCache.findById(customerId, customerDao::findById);
     }
 }
 
@@ -0,0 +1,34 @@
+package pro.kensait.berrybooks.service.customer;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// 顧客統計テーブルの値と、注文から集計した値の比較結果を保持するDTOクラス（Recordとして定義）
+public record CustomerStatsCheckTO (
+        // 顧客ID
+        Integer customerId,
+        // 顧客統計テーブルの注文件数（行が無い場合はnull）
+        Long storedOrderCount,
+        // 顧客統計テーブルの購入冊数（行が無い場合はnull）
+        Long storedTotalBooks,
+        // 顧客統計テーブルの最終注文日
+        LocalDate storedLastOrderDate,
+        // 注文から集計した注文件数
+        Long orderCount,
+        // 注文から集計した購入冊数
+        Long totalBooks,
+        // 注文から集計した最終注文日
+        LocalDate lastOrderDate) {
+
+    // 顧客統計テーブルの値が注文の集計値と一致するかどうか
+    // （注文が無い顧客は、顧客統計テーブルに行が無くても一致とみなす）
+    public boolean isConsistent() {
+        return zeroIfNull(storedOrderCount) == zeroIfNull(orderCount)
+                && zeroIfNull(storedTotalBooks) == zeroIfNull(totalBooks)
+                && Objects.equals(storedLastOrderDate, lastOrderDate);
+    }
+
+    private static long zeroIfNull(Long value) {
+        return value != null ? value : 0L;
+    }
+}
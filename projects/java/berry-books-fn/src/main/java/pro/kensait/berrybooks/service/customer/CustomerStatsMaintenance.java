@@ -0,0 +1,140 @@
+package pro.kensait.berrybooks.service.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+// 顧客統計テーブル（CUSTOMER_STATS）の再集計と整合性チェックを行うクラス
+// 顧客統計は注文時に注文と同じトランザクションで加算されるが、既存データの投入（バックフィル）や
+// 注文データの直接修正に備えて、注文・注文明細からの再集計と定期的な整合性チェックを提供する
+@ApplicationScoped
+public class CustomerStatsMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CustomerStatsMaintenance.class);
+
+    private static final Trace trace = Trace.of(CustomerStatsMaintenance.class);
+
+    // 再集計・整合性チェックを行う顧客ID範囲の幅（1トランザクションあたりの顧客数）
+    private final int chunkSize = ConfigUtil.getInt("customer-stats.chunk-size", 1000);
+
+    // 起動時に全顧客の顧客統計を再集計するかどうか
+    private final boolean rebuildOnStartup = Boolean.parseBoolean(
+            ConfigUtil.get("customer-stats.rebuild-on-startup", "false"));
+
+    // 整合性チェックの実行間隔（分、0以下の場合は実行しない）
+    private final long checkIntervalMinutes = ConfigUtil.getLong(
+            "customer-stats.check-interval-minutes", 60);
+
+    // 整合性チェックで不一致が見つかった顧客を再集計するかどうか
+    private final boolean repair = Boolean.parseBoolean(
+            ConfigUtil.get("customer-stats.repair", "true"));
+
+    // 整合性チェックのスケジュール
+    private ScheduledFuture<?> checkTask;
+
+    @Inject
+    private CustomerStatsDao customerStatsDao;
+
+    @Inject
+    private CustomerStatsWriter customerStatsWriter;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    // アプリケーションの起動時に、再集計と整合性チェックのスケジュールを開始する
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (scheduler == null) {
+            return;
+        }
+        if (rebuildOnStartup) {
+            // 起動を待たせないよう、別スレッドで再集計する
+            scheduler.execute(this::rebuild);
+        }
+        if (checkIntervalMinutes > 0) {
+            checkTask = scheduler.scheduleWithFixedDelay(this::scheduledCheck,
+                    checkIntervalMinutes, checkIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    // 全顧客の顧客統計を注文・注文明細から集計し直す（バックフィル）
+    // 顧客ID範囲毎に別のトランザクションで処理し、登録した行数を返す
+    public int rebuild() {
+        trace.entry("rebuild");
+
+        int maxCustomerId = customerStatsDao.findMaxCustomerId();
+        int rows = 0;
+        for (int from = 1; from <= maxCustomerId; from += chunkSize) {
+            int to = (int) Math.min((long) from + chunkSize - 1, maxCustomerId);
+            rows += customerStatsWriter.rebuildRange(from, to);
+        }
+        logger.info("[ CustomerStatsMaintenance#rebuild ] rows={}", rows);
+        return rows;
+    }
+
+    // 顧客統計が注文の集計値と一致しない顧客のリストを取得する
+    public List<CustomerStatsCheckTO> check() {
+        trace.entry("check");
+
+        int maxCustomerId = customerStatsDao.findMaxCustomerId();
+        List<CustomerStatsCheckTO> mismatches = new ArrayList<>();
+        for (int from = 1; from <= maxCustomerId; from += chunkSize) {
+            int to = (int) Math.min((long) from + chunkSize - 1, maxCustomerId);
+            for (CustomerStatsCheckTO result : customerStatsDao.findCheckRange(from, to)) {
+                if (!result.isConsistent()) {
+                    mismatches.add(result);
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    // 整合性チェックを行い、不一致が見つかった顧客の顧客統計を集計し直す
+    // 再集計した顧客数を返す
+    public int checkAndRepair() {
+        trace.entry("checkAndRepair");
+
+        List<CustomerStatsCheckTO> mismatches = check();
+        for (CustomerStatsCheckTO mismatch : mismatches) {
+            logger.warn("[ CustomerStatsMaintenance#checkAndRepair ] mismatch: {}", mismatch);
+        }
+        if (!repair) {
+            return 0;
+        }
+        for (CustomerStatsCheckTO mismatch : mismatches) {
+            customerStatsWriter.rebuildRange(mismatch.customerId(), mismatch.customerId());
+        }
+        return mismatches.size();
+    }
+
+    // 終了時に整合性チェックのスケジュールを停止する
+    @PreDestroy
+    public void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel(false);
+        }
+    }
+
+    // 定期実行用の整合性チェック（例外で以降のスケジュールが止まらないようにする）
+    private void scheduledCheck() {
+        try {
+            checkAndRepair();
+        } catch (RuntimeException ex) {
+            logger.warn("[ CustomerStatsMaintenance#scheduledCheck ] failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package pro.kensait.berrybooks.service.customer;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// 顧客統計の再集計を、顧客ID範囲毎に別のトランザクションで行うクラス
+// （全顧客を1つのトランザクションで再集計すると、注文処理が長時間待たされるため）
+@ApplicationScoped
+public class CustomerStatsWriter {
+    private static final Trace trace = Trace.of(CustomerStatsWriter.class);
+
+    @Inject
+    private CustomerStatsDao customerStatsDao;
+
+    // 顧客ID範囲（両端を含む）の顧客統計を注文から集計し直す
+    @Transactional(TxType.REQUIRES_NEW)
+    public int rebuildRange(int fromCustomerId, int toCustomerId) {
+        trace.entry("rebuildRange", "fromCustomerId", fromCustomerId, "toCustomerId", toCustomerId);
+        return customerStatsDao.rebuildRange(fromCustomerId, toCustomerId);
+    }
+}
@@ -0,0 +1,258 @@
+package pro.kensait.berrybooks.service.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.util.BoundedCache;
+import pro.kensait.berrybooks.util.CacheStats;
+import pro.kensait.berrybooks.util.PasswordHasher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+
+// パスワードのハッシュ化と照合を、専用のスレッドプールで行うクラス
+// PBKDF2は意図的に低速なため、同時に実行する数をスレッド数と待ち行列の長さで制限し、
+// ログインが集中してもリクエスト処理スレッドのCPUを使い尽くさないようにする
+// 照合結果は短い有効期限でキャッシュし、同じパスワードでの繰り返しの試行ではハッシュ計算を省略する
+// （二重送信等で同じ試行が同時に行われた場合も、計算中の照合結果を共有して1回だけ計算する）
+@ApplicationScoped
+public class PasswordVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(
+            PasswordVerifier.class);
+
+    private static final String CACHE_KEY_ALGORITHM = "HmacSHA256";
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private PasswordHasher hasher;
+    private ThreadPoolExecutor executor;
+    private int poolSize;
+    private long timeoutMillis;
+
+    // 1回のハッシュ計算時間の移動平均（ナノ秒、待ち時間の見積もりに使用する）
+    private volatile long averageHashNanos;
+
+    // 照合結果のキャッシュ（キーはパスワードと格納値のHMAC、値は一致したかどうか）
+    // ※格納値をキーに含めるため、パスワードが変更されると以前の照合結果は使用されない
+    private BoundedCache<String, Boolean> resultCache;
+
+    // 計算中の照合（キーはresultCacheと同じ）
+    private final Map<String, Future<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    // キャッシュのキーを求めるHMACの鍵（起動毎に生成し、キーからパスワードを推測できないようにする）
+    private SecretKeySpec cacheKeySpec;
+
+    // コンストラクタ
+    public PasswordVerifier() {
+    }
+
+    // コンストラクタ（設定値を指定する、テスト用）
+    PasswordVerifier(int iterations, int threads, int queueSize, long timeoutMillis,
+            int cacheSize, Duration cacheTtl) {
+        configure(iterations, threads, queueSize, timeoutMillis, cacheSize, cacheTtl);
+    }
+
+    @PostConstruct
+    public void init() {
+        configure(ConfigUtil.getInt("auth.password.iterations", 210000),
+                ConfigUtil.getInt("auth.password.threads", 0),
+                ConfigUtil.getInt("auth.password.queue-size", 100),
+                ConfigUtil.getLong("auth.password.timeout-millis", 2000L),
+                ConfigUtil.getInt("auth.password.cache-size", 10000),
+                Duration.ofSeconds(ConfigUtil.getLong("auth.password.cache-ttl-seconds", 30L)));
+    }
+
+    private void configure(int iterations, int threads, int queueSize, long timeoutMillis,
+            int cacheSize, Duration cacheTtl) {
+        // スレッド数が0の場合は、CPU数とする
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadFactory factory = threadFactory != null ? threadFactory : daemonThreadFactory();
+        this.hasher = new PasswordHasher(iterations);
+        // 待ち行列が一杯の場合は、待たせずに拒否する（AbortPolicy）
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.resultCache = new BoundedCache<>(cacheSize, cacheTtl);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKeySpec = new SecretKeySpec(key, CACHE_KEY_ALGORITHM);
+        logger.info("[ PasswordVerifier#configure ] iterations={}, threads={}, queueSize={}",
+                iterations, poolSize, queueSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // パスワードが格納値（ハッシュ値または移行前の平文）と一致するかどうかを返す
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        String cacheKey = cacheKey(password, stored);
+        Boolean cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        if (!hasher.isHashed(stored)) {
+            boolean matched = hasher.matches(password, stored);
+            resultCache.put(cacheKey, matched);
+            return matched;
+        }
+
+        // 同じ試行を計算中の場合は、その結果を待つ
+        Future<Boolean> future = inFlight.get(cacheKey);
+        if (future == null) {
+            FutureTask<Boolean> task = new FutureTask<>(timed(
+                    () -> hasher.matches(password, stored)));
+            future = inFlight.putIfAbsent(cacheKey, task);
+            if (future == null) {
+                future = task;
+                try {
+                    execute(task);
+                } catch (PasswordVerifierBusyException e) {
+                    inFlight.remove(cacheKey, task);
+                    throw e;
+                }
+            }
+        }
+        try {
+            boolean matched = await(future);
+            resultCache.put(cacheKey, matched);
+            return matched;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    // パスワードをハッシュ化し、格納用の文字列を返す
+    public String hash(String password) {
+        if (password == null) {
+            return null;
+        }
+        return submit(() -> hasher.hash(password));
+    }
+
+    // 格納値をハッシュ化し直す必要があるかどうか（平文、または反復回数が現在の設定と異なる）を返す
+    public boolean needsRehash(String stored) {
+        return hasher.needsRehash(stored);
+    }
+
+    // 照合結果のキャッシュの統計情報を取得する
+    public CacheStats getCacheStats() {
+        return resultCache.getStats();
+    }
+
+    // ハッシュ計算を専用のスレッドプールで実行し、結果を待つ
+    private <T> T submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(timed(task));
+        execute(future);
+        return await(future);
+    }
+
+    // ハッシュ計算を専用のスレッドプールに投入する
+    // 待ち行列が一杯の場合に加え、待ち行列の長さと平均の計算時間から見積もった待ち時間が
+    // タイムアウトを超える場合も、待たせずにPasswordVerifierBusyExceptionをスローする
+    // （タイムアウトするだけの照合で、リクエスト処理スレッドを占有しないように）
+    private void execute(FutureTask<?> task) {
+        long estimatedWaitNanos = (executor.getQueue().size() + 1) * averageHashNanos / poolSize;
+        if (estimatedWaitNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+            throw busy("rejected: estimated wait exceeds timeout", null);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw busy("rejected: queue is full", e);
+        }
+    }
+
+    // ハッシュ計算の時間を計測し、移動平均に反映する
+    private <T> Callable<T> timed(Callable<T> task) {
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                long average = averageHashNanos;
+                averageHashNanos = average == 0 ? elapsed : average + (elapsed - average) / 8;
+            }
+        };
+    }
+
+    // ハッシュ計算の結果を待つ
+    // タイムアウトした場合は、まだ開始されていない計算を取り消してPasswordVerifierBusyExceptionをスローする
+    // ※PBKDF2の計算は割り込みに応答しないため、開始済みの計算は取り消さない
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(false);
+            throw busy("timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy("interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PasswordVerifierBusyException busy(String reason, Exception cause) {
+        logger.warn("[ PasswordVerifier ] {}", reason);
+        return new PasswordVerifierBusyException(MessageUtil.get("error.login.busy"), cause);
+    }
+
+    // コンテナ外（テスト等）で使用するスレッドファクトリ
+    // （PBKDF2の計算は割り込みに応答しないため、計算中のスレッドがJVMの終了を妨げないようデーモンスレッドとする）
+    private static ThreadFactory daemonThreadFactory() {
+        ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        return runnable -> {
+            Thread thread = defaultFactory.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // パスワードと格納値からキャッシュのキーを求める
+    private String cacheKey(String password, String stored) {
+        try {
+            Mac mac = Mac.getInstance(CACHE_KEY_ALGORITHM);
+            mac.init(cacheKeySpec);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(
+                    mac.doFinal(stored.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package pro.kensait.berrybooks.service.customer;
+
+// パスワードの照合が混雑により受け付けられない（またはタイムアウトした）場合にスローされる例外クラス
+public class PasswordVerifierBusyException extends RuntimeException {
+
+    public PasswordVerifierBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
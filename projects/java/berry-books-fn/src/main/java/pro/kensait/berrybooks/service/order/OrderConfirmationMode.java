@@ -0,0 +1,34 @@
+package pro.kensait.berrybooks.service.order;
+
+// 注文確定後の後続処理（顧客統計の加算・注文確定通知）の実行方式を表すEnum
+public enum OrderConfirmationMode {
+    
+    // 同期方式（顧客統計を注文と同じトランザクションで加算する、注文確定通知は行わない）
+    SYNC("sync"),
+    
+    // アウトボックス方式（注文と同じトランザクションでアウトボックスに登録し、
+    // 後続処理はOrderOutboxWorkerがまとめて非同期に行う）
+    OUTBOX("outbox");
+    
+    private final String configName;
+    
+    // コンストラクタ
+    OrderConfirmationMode(String configName) {
+        this.configName = configName;
+    }
+    
+    // 設定値（config.properties）での名前を取得
+    public String getConfigName() {
+        return configName;
+    }
+    
+    // 設定値からEnumを取得（不明な値の場合は同期方式とする）
+    public static OrderConfirmationMode fromConfigName(String configName) {
+        for (OrderConfirmationMode mode : values()) {
+            if (mode.configName.equalsIgnoreCase(configName)) {
+                return mode;
+            }
+        }
+        return SYNC;
+    }
+}
@@ -0,0 +1,13 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// 注文履歴のページ位置（キーセット）を保持するDTOクラス（Recordとして定義）
+// 注文履歴は「注文日の降順、注文IDの降順」に並ぶため、この2つの値で次ページの開始位置を表す
+public record OrderKeyTO (
+        // 注文日
+        LocalDate orderDate,
+        // 注文ID
+        Integer orderTranId) implements Serializable {
+}
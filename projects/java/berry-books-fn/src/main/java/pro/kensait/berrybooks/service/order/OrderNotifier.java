@@ -0,0 +1,49 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.Trace;
+import jakarta.enterprise.context.ApplicationScoped;
+
+// 注文確定通知を送信するクラス
+// メール送信や外部キューの代わりに、通知内容を1注文1行（CSV形式）でローカルファイルに追記する
+@ApplicationScoped
+public class OrderNotifier {
+    private static final Trace trace = Trace.of(OrderNotifier.class);
+
+    // 通知の出力先ファイル（未設定の場合は一時ディレクトリ）
+    private final Path file = Path.of(ConfigUtil.get("order.notification.file",
+            Path.of(System.getProperty("java.io.tmpdir"),
+                    "berry-books-order-notifications.csv").toString()));
+
+    // 注文確定通知をまとめて送信する（1回の書き込みで追記する）
+    public synchronized void notifyOrders(List<OrderOutboxTO> orders) {
+        trace.entry("notifyOrders", "size", orders.size());
+
+        List<String> lines = new ArrayList<>(orders.size());
+        for (OrderOutboxTO order : orders) {
+            lines.add(order.orderTranId() + "," + order.customerId() + ","
+                    + order.orderDate() + "," + order.totalBooks() + ","
+                    + order.totalPrice());
+        }
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // 通知の出力先ファイルを取得する
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,72 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
+import pro.kensait.berrybooks.dao.OrderOutboxDao;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// アウトボックスに登録された注文の後続処理を、注文とは別のトランザクションでまとめて行うクラス
+// 顧客統計の加算とアウトボックスからの削除は同じトランザクションで行うため、途中で失敗した場合は
+// 次回に同じ注文が処理し直される（通知はファイルへの追記のため、再処理時は重複して出力されうる）
+@ApplicationScoped
+public class OrderOutboxProcessor {
+    private static final Trace trace = Trace.of(OrderOutboxProcessor.class);
+
+    @Inject
+    private OrderOutboxDao orderOutboxDao;
+
+    @Inject
+    private CustomerStatsDao customerStatsDao;
+
+    @Inject
+    private OrderNotifier orderNotifier;
+
+    // 未処理の注文を登録順に最大limit件処理し、処理した件数を返す
+    @Transactional(TxType.REQUIRES_NEW)
+    public int processBatch(int limit) {
+        List<OrderOutboxTO> orders = orderOutboxDao.findBatch(limit);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        trace.entry("processBatch", "size", orders.size());
+
+        // 顧客統計は顧客毎に集約して加算する（同じ顧客の注文が多くても顧客数分のMERGE文で済む）
+        Map<Integer, CustomerTotal> totals = new LinkedHashMap<>();
+        for (OrderOutboxTO order : orders) {
+            totals.computeIfAbsent(order.customerId(), id -> new CustomerTotal())
+                    .add(order);
+        }
+        for (Map.Entry<Integer, CustomerTotal> entry : totals.entrySet()) {
+            CustomerTotal total = entry.getValue();
+            customerStatsDao.addOrders(entry.getKey(), total.orderCount,
+                    total.lastOrderDate, total.books);
+        }
+
+        orderNotifier.notifyOrders(orders);
+        orderOutboxDao.deleteByIds(orders.stream().map(OrderOutboxTO::outboxId).toList());
+        return orders.size();
+    }
+
+    // 顧客毎の集計値
+    private static final class CustomerTotal {
+        private long orderCount;
+        private long books;
+        private LocalDate lastOrderDate;
+
+        void add(OrderOutboxTO order) {
+            orderCount++;
+            books += order.totalBooks();
+            if (lastOrderDate == null || order.orderDate().isAfter(lastOrderDate)) {
+                lastOrderDate = order.orderDate();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// アウトボックスに登録された、注文確定後の後続処理が未処理の注文を表すクラス（Recordとして定義）
+public record OrderOutboxTO(
+        // アウトボックスID
+        Long outboxId,
+        // 注文取引ID
+        Integer orderTranId,
+        // 顧客ID
+        Integer customerId,
+        // 注文日
+        LocalDate orderDate,
+        // 購入冊数
+        long totalBooks,
+        // 注文金額合計
+        BigDecimal totalPrice) {
+}
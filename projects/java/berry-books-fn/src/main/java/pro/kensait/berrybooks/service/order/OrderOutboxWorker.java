@@ -0,0 +1,101 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+// アウトボックスの未処理の注文を、リクエストスレッドとは別のスレッドでまとめて処理するクラス
+// 注文確定イベントの受信時（コミット後）と一定間隔で、アウトボックスが空になるまでバッチ単位で処理する
+// ※一定間隔の処理は、サーバーの停止等でイベントの受信後に処理されなかった注文の処理を兼ねる
+@ApplicationScoped
+public class OrderOutboxWorker {
+    private static final Logger logger = LoggerFactory.getLogger(
+            OrderOutboxWorker.class);
+
+    // 1トランザクションで処理する注文の件数
+    private final int batchSize = ConfigUtil.getInt("order.outbox.batch-size", 100);
+
+    // アウトボックスを確認する間隔（ミリ秒）
+    private final long pollIntervalMillis = ConfigUtil.getLong(
+            "order.outbox.poll-interval-millis", 1000);
+
+    // 処理が予約済みかどうか（連続した注文確定イベントを1回の処理にまとめる）
+    private final AtomicBoolean drainPending = new AtomicBoolean();
+
+    // 定期的な処理のスケジュール
+    private ScheduledFuture<?> pollTask;
+
+    @Inject
+    private OrderOutboxProcessor orderOutboxProcessor;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    // アプリケーションの起動時に、定期的な処理のスケジュールを開始する
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (scheduler == null || pollIntervalMillis <= 0) {
+            return;
+        }
+        pollTask = scheduler.scheduleWithFixedDelay(this::drainQuietly,
+                pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // アウトボックスが空になるまで処理し、処理した件数を返す
+    public synchronized int drain() {
+        int total = 0;
+        int processed;
+        do {
+            processed = orderOutboxProcessor.processBatch(batchSize);
+            total += processed;
+        } while (processed == batchSize);
+        if (total > 0) {
+            logger.info("[ OrderOutboxWorker#drain ] processed={}", total);
+        }
+        return total;
+    }
+
+    // オブザーバーメソッド：注文確定イベントを受け取り、別スレッドでの処理を予約する
+    // ※コミット後に予約するため、処理の開始時にはアウトボックスの行がコミット済みとなっている
+    void onOrderPlaced(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) OrderPlacedEvent event) {
+        if (scheduler == null) {
+            return;
+        }
+        if (drainPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                drainPending.set(false);
+                drainQuietly();
+            });
+        }
+    }
+
+    // 終了時に定期的な処理のスケジュールを停止する
+    @PreDestroy
+    public void shutdown() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+        }
+    }
+
+    // 別スレッド用の処理（例外で以降のスケジュールが止まらないようにする）
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException ex) {
+            logger.warn("[ OrderOutboxWorker#drainQuietly ] failed: {}", ex.getMessage());
+        }
+    }
+}
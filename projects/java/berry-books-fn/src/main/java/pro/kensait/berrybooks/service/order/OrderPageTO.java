@@ -0,0 +1,16 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.util.List;
+
+// 注文履歴の1ページ分を保持するDTOクラス（Recordとして定義）
+public record OrderPageTO<T> (
+        // ページ内の要素
+        List<T> items,
+        // 次ページの開始位置（次ページが無い場合はnull）
+        OrderKeyTO nextKey) {
+    
+    // 次ページが存在するかどうか
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
@@ -0,0 +1,7 @@
+package pro.kensait.berrybooks.service.order;
+
+// 注文が確定したことを通知するCDIイベント（Recordとして定義）
+public record OrderPlacedEvent (
+        // 注文取引ID
+        Integer orderTranId) {
+}
@@ -1,31 +1,38 @@
 package pro.kensait.berrybooks.service.order;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.ConfigUtil;
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.BookDao;
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
 import pro.kensait.berrybooks.dao.OrderDetailDao;
+import pro.kensait.berrybooks.dao.OrderOutboxDao;
 import pro.kensait.berrybooks.dao.OrderTranDao;
 import pro.kensait.berrybooks.dao.StockDao;
 import pro.kensait.berrybooks.entity.Book;
 import pro.kensait.berrybooks.entity.OrderDetail;
 import pro.kensait.berrybooks.entity.OrderDetailPK;
 import pro.kensait.berrybooks.entity.OrderTran;
-import pro.kensait.berrybooks.entity.Stock;
+import pro.kensait.berrybooks.service.catalog.StockChangedEvent;
+import pro.kensait.berrybooks.service.catalog.StockTO;
 import pro.kensait.berrybooks.web.cart.CartItem;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 
 // 注文処理と注文履歴取得を行うサービスクラス
 @ApplicationScoped
 @Transactional
 public class OrderService implements OrderServiceIF {
-    private static final Logger logger = LoggerFactory.getLogger(
-            OrderService.class);
+    private static final Trace trace = Trace.of(OrderService.class);
 
     @Inject
     private OrderTranDao orderTranDao;
@@ -39,10 +46,33 @@ public class OrderService implements OrderServiceIF {
     @Inject
     private StockDao stockDao;
 
+    @Inject
+    private StockLedger stockLedger;
+
+    @Inject
+    private CustomerStatsDao customerStatsDao;
+
+    @Inject
+    private OrderOutboxDao orderOutboxDao;
+
+    @Inject
+    private Event<StockChangedEvent> stockChangedEvent;
+
+    @Inject
+    private Event<OrderPlacedEvent> orderPlacedEvent;
+
+    // 在庫引当方式（config.propertiesのorder.stock-reservationで選択する）
+    private final StockReservationMode reservationMode = StockReservationMode.fromConfigName(
+            ConfigUtil.get("order.stock-reservation", "optimistic"));
+
+    // 注文確定後の後続処理の実行方式（config.propertiesのorder.confirmationで選択する）
+    private final OrderConfirmationMode confirmationMode = OrderConfirmationMode.fromConfigName(
+            ConfigUtil.get("order.confirmation", "sync"));
+
     // サービスメソッド：注文エンティティのリストを取得する（方式1）
     @Override
     public List<OrderTran> getOrderHistory(Integer customerId) {
-        logger.info("[ OrderService#findOrderHistory ]");
+        trace.entry("findOrderHistory");
 
         // 顧客IDから注文エンティティのリストを取得し、返す
         List<OrderTran> orderTranList =
@@ -53,7 +83,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文履歴のリストを取得する（方式2・詳細版）
     @Override
     public List<OrderHistoryTO> getOrderHistory2(Integer customerId) {
-        logger.info("[ OrderService#findOrderHistory2 ]");
+        trace.entry("findOrderHistory2");
 
         // 顧客IDから注文履歴のリストを取得し、返す
         List<OrderHistoryTO> orderHistoryList =
@@ -64,7 +94,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文エンティティのリストを取得する（方式3）
     @Override
     public List<OrderTran> getOrderHistory3(Integer customerId) {
-        logger.info("[ OrderService#findOrderHistory3 ]");
+        trace.entry("findOrderHistory3");
 
         // 顧客IDから注文エンティティのリストを取得し、返す
         List<OrderTran> orderTranList =
@@ -72,10 +102,47 @@ public class OrderService implements OrderServiceIF {
         return orderTranList;
     }
 
+    // サービスメソッド：注文履歴の1ページ分を取得する（方式2・キーセット方式のページング）
+    // ページはpageSize件の注文単位で区切り、各注文の明細は全て同じページに含める
+    @Override
+    public OrderPageTO<OrderHistoryTO> getOrderHistoryPage(Integer customerId,
+            OrderKeyTO after, int pageSize) {
+        trace.entry("getOrderHistoryPage", "after", after);
+
+        // 次ページの有無を判定するため、1件多く注文のキーを取得する
+        List<OrderKeyTO> keys = orderTranDao.findOrderKeysByCustomerId(
+                customerId, after, pageSize + 1);
+        OrderKeyTO nextKey = nextKeyOf(keys, pageSize);
+        List<Integer> orderTranIds = orderTranIdsOf(keys, pageSize);
+
+        List<OrderHistoryTO> items = orderTranIds.isEmpty()
+                ? List.of()
+                : orderTranDao.findOrderHistoryByOrderTranIds(orderTranIds);
+        return new OrderPageTO<>(items, nextKey);
+    }
+
+    // サービスメソッド：注文エンティティの1ページ分を取得する（方式3・キーセット方式のページング）
+    @Override
+    public OrderPageTO<OrderTran> getOrderHistory3Page(Integer customerId,
+            OrderKeyTO after, int pageSize) {
+        trace.entry("getOrderHistory3Page", "after", after);
+
+        // 次ページの有無を判定するため、1件多く注文のキーを取得する
+        List<OrderKeyTO> keys = orderTranDao.findOrderKeysByCustomerId(
+                customerId, after, pageSize + 1);
+        OrderKeyTO nextKey = nextKeyOf(keys, pageSize);
+        List<Integer> orderTranIds = orderTranIdsOf(keys, pageSize);
+
+        List<OrderTran> items = orderTranIds.isEmpty()
+                ? List.of()
+                : orderTranDao.findByIdsWithDetails(orderTranIds);
+        return new OrderPageTO<>(items, nextKey);
+    }
+
     // サービスメソッド：注文エンティティを取得する
     @Override
     public OrderTran getOrderTran(Integer orderTranId) {
-        logger.info("[ OrderService#getOrderTran ]");
+        trace.entry("getOrderTran");
 
         // 注文IDから注文エンティティを取得し、返す
         OrderTran orderTran = orderTranDao.findById(orderTranId);
@@ -88,7 +155,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文エンティティを明細と共に取得する
     @Override
     public OrderTran getOrderTranWithDetails(Integer orderTranId) {
-        logger.info("[ OrderService#getOrderTranWithDetails ]");
+        trace.entry("getOrderTranWithDetails");
 
         // 注文IDから注文エンティティを明細と共に取得し、返す
         OrderTran orderTran = orderTranDao.findByIdWithDetails(orderTranId);
@@ -101,7 +168,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文明細エンティティを取得する
     @Override
     public OrderDetail getOrderDetail(OrderDetailPK pk) {
-        logger.info("[ OrderService#getOrderDetail ]");
+        trace.entry("getOrderDetail");
 
         // 複合主キー（注文IDと注文明細ID）から注文明細エンティティを取得し、返す
         OrderDetail orderDetail = orderDetailDao.findById(pk);
@@ -114,8 +181,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文明細エンティティを取得する（オーバーロード）
     @Override
     public OrderDetail getOrderDetail(Integer tranId, Integer detailId) {
-        logger.info("[ OrderService#getOrderDetail ] tranId=" + tranId 
-                + ", detailId=" + detailId);
+        trace.entry("getOrderDetail", "tranId", tranId, "detailId", detailId);
 
         OrderDetailPK pk = new OrderDetailPK(tranId, detailId);
         return getOrderDetail(pk);
@@ -124,7 +190,7 @@ public class OrderService implements OrderServiceIF {
     // サービスメソッド：注文明細エンティティのリストを取得する
     @Override
     public List<OrderDetail> getOrderDetails(Integer orderTranId) {
-        logger.info("[ OrderService#getOrderDetails ]");
+        trace.entry("getOrderDetails");
 
         // 注文IDから注文明細エンティティのリストを取得し、返す
         List<OrderDetail> orderDetailList = orderDetailDao.findByOrderTranId(orderTranId);
@@ -132,38 +198,72 @@ public class OrderService implements OrderServiceIF {
     }
 
     // サービスメソッド：注文する
+    // 発行するSQLはカートの明細数に関係なく一定（在庫検索・書籍検索・在庫更新・注文登録・明細登録・
+    // 顧客統計更新またはアウトボックス登録）
     @Override
     public OrderTran orderBooks(OrderTO orderTO) {
-        logger.info("[ OrderService#orderBooks ]");
+        trace.entry("orderBooks");
 
-        // カートに追加された書籍毎に、在庫の残り個数をチェックする
+        // カートアイテムを書籍ID毎に集約する
+        Map<Integer, CartItem> cartItemMap = new LinkedHashMap<>();
+        Map<Integer, Integer> countMap = new LinkedHashMap<>();
         for (CartItem cartItem : orderTO.cartItems()) {
+            cartItemMap.putIfAbsent(cartItem.getBookId(), cartItem);
+            countMap.merge(cartItem.getBookId(), cartItem.getCount(), Integer::sum);
+        }
+        List<Integer> bookIds = new ArrayList<>(cartItemMap.keySet());
+
+        // カート内の全書籍の在庫を1回のSELECTでまとめて取得する
+        Map<Integer, StockTO> stockMap = new HashMap<>();
+        for (StockTO stock : stockDao.findByIds(bookIds)) {
+            stockMap.put(stock.bookId(), stock);
+        }
 
-            // 楽観的ロック：カート追加時点のVERSION値で在庫エンティティを作成
-            // （悲観的ロックのfindByIdWithLockは使用しない）
-            Stock stock = new Stock();
-            stock.setBookId(cartItem.getBookId());
-            stock.setVersion(cartItem.getVersion());  // カート追加時点のVERSION値を使用
-            
-            // 現在の在庫数を取得（楽観的ロックなし）
-            Stock currentStock = stockDao.findById(cartItem.getBookId());
+        // 書籍毎に在庫の残り個数をチェックし、在庫引当のリストを作成する
+        List<StockReservationTO> reservations = new ArrayList<>();
+        for (CartItem cartItem : cartItemMap.values()) {
+            Integer count = countMap.get(cartItem.getBookId());
+            StockTO currentStock = stockMap.get(cartItem.getBookId());
 
             // 在庫が0未満になる場合は、例外を送出する
-            int remaining = currentStock.getQuantity() - cartItem.getCount();
-            if (remaining < 0) {
+            if (currentStock == null || currentStock.quantity() - count < 0) {
                 throw new OutOfStockException(
                         cartItem.getBookId(),
                         cartItem.getBookName(),
                         MessageUtil.get("error.out-of-stock.message"));
             }
 
-            // 在庫を減らす（カート追加時点のVERSION値を持つStockエンティティで更新）
-            stock.setQuantity(remaining);
-            // JPAの@Versionアノテーションにより、UPDATE時に自動的にバージョンチェックされる
-            // WHERE VERSION = ? 条件が付加され、バージョン不一致の場合はOptimisticLockExceptionがスローされる
-            stockDao.update(stock);
+            // 楽観的ロック：カート追加時点のVERSION値を更新条件とする
+            // （カート追加時点の値が無い場合は、今回取得したVERSION値を使用する）
+            Long version = (cartItem.getVersion() != null)
+                    ? cartItem.getVersion() : currentStock.version();
+            reservations.add(new StockReservationTO(cartItem.getBookId(), count, version));
+        }
+
+        if (reservationMode == StockReservationMode.LEDGER) {
+            // 在庫台帳方式：同じ書籍への引当を在庫台帳で直列化する
+            // （VERSIONによる競合判定は行わず、STOCKテーブルへはまとめて非同期に反映される）
+            Integer outOfStockBookId = stockLedger.reserve(reservations);
+            if (outOfStockBookId != null) {
+                throw new OutOfStockException(
+                        outOfStockBookId,
+                        cartItemMap.get(outOfStockBookId).getBookName(),
+                        MessageUtil.get("error.out-of-stock.message"));
+            }
+        } else {
+            // 在庫を1回のUPDATE文でまとめて減らす
+            // WHERE句でVERSIONと在庫数をチェックするため、更新件数が書籍数に満たない場合は
+            // 別の注文によって在庫が更新されたことを意味する
+            int updated = stockDao.decreaseQuantities(reservations);
+            if (updated != reservations.size()) {
+                throw new OptimisticLockException(
+                        MessageUtil.get("error.optimistic-lock"));
+            }
         }
 
+        // 在庫が更新されたことを通知する（トランザクション完了後に在庫キャッシュが無効化される）
+        stockChangedEvent.fire(new StockChangedEvent(bookIds));
+
         // 新しいOrderTranインスタンスを生成する
         OrderTran orderTran = new OrderTran(
                 orderTO.orderDate(),
@@ -176,14 +276,18 @@ public class OrderService implements OrderServiceIF {
         // 生成したOrderTranインスタンスをpersist操作により永続化する
         orderTranDao.persist(orderTran);
 
-        // カートアイテム（個々の注文明細）のイテレータを取得する
-        List<CartItem> cartItems = orderTO.cartItems();
+        // カート内の全書籍を1回のSELECTでまとめて取得する
+        Map<Integer, Book> bookMap = new HashMap<>();
+        for (Book book : bookDao.findByIds(bookIds)) {
+            bookMap.put(book.getBookId(), book);
+        }
 
         // OrderDetailインスタンスの主キー値（注文明細ID）の初期値を設定する
         int orderDetailId = 0;
 
-        for (CartItem cartItem : cartItems) {
-            Book book = bookDao.findById(cartItem.getBookId());
+        List<OrderDetail> orderDetails = new ArrayList<>();
+        for (CartItem cartItem : orderTO.cartItems()) {
+            Book book = bookMap.get(cartItem.getBookId());
 
             // OrderDetailインスタンスの主キー値（注文明細ID）をカウントアップする
             orderDetailId = orderDetailId + 1;
@@ -194,13 +298,43 @@ public class OrderService implements OrderServiceIF {
                     orderDetailId,
                     book,
                     cartItem.getCount());
+            orderDetail.setOrderTran(orderTran);
+            orderDetails.add(orderDetail);
+        }
 
-            // OrderDetailインスタンスを保存する
-            orderDetailDao.persist(orderDetail);
+        // OrderDetailインスタンスをまとめて保存する（JDBCバッチによるINSERT）
+        orderDetailDao.persistAll(orderDetails);
+
+        long books = countMap.values().stream().mapToLong(Integer::longValue).sum();
+        if (confirmationMode == OrderConfirmationMode.OUTBOX) {
+            // アウトボックス方式：後続処理（顧客統計の加算・注文確定通知）の対象として注文と同じ
+            // トランザクションで登録し、コミット後はOrderOutboxWorkerが別スレッドでまとめて処理する
+            // （顧客統計の行ロックを注文のトランザクションで取得しないため、同じ顧客の注文が競合しない）
+            orderOutboxDao.insert(orderTran.getOrderTranId(), orderTO.customerId(),
+                    orderTO.orderDate(), books, orderTO.totalPrice());
+            orderPlacedEvent.fire(new OrderPlacedEvent(orderTran.getOrderTranId()));
+        } else {
+            // 顧客統計（注文件数・購入冊数・最終注文日）に今回の注文を加算する
+            // （注文と同じトランザクションで更新するため、注文がロールバックされれば加算も取り消される）
+            customerStatsDao.addOrder(orderTO.customerId(), orderTO.orderDate(), books);
         }
 
-        // データベースから明細を含めて再取得して返す
-        // （永続化した明細をorderDetailsリレーションシップに反映させるため）
-        return orderTranDao.findByIdWithDetails(orderTran.getOrderTranId());
+        // 永続化した明細をorderDetailsリレーションシップに設定して返す
+        // （EntityManagerのクリアとデータベースからの再取得は行わない）
+        orderTran.setOrderDetails(orderDetails);
+        return orderTran;
+    }
+
+    // 次ページの開始位置を求める（取得件数がページサイズ以下の場合は次ページ無し）
+    private OrderKeyTO nextKeyOf(List<OrderKeyTO> keys, int pageSize) {
+        return keys.size() > pageSize ? keys.get(pageSize - 1) : null;
+    }
+
+    // ページ内の注文IDのリストを求める
+    private List<Integer> orderTranIdsOf(List<OrderKeyTO> keys, int pageSize) {
+        return keys.stream()
+                .limit(pageSize)
+                .map(OrderKeyTO::orderTranId)
+                .toList();
     }
-}
\ No newline at end of file
+}
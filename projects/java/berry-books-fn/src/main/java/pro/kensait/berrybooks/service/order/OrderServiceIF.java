@@ -11,6 +11,8 @@ public interface OrderServiceIF {
     List<OrderTran> getOrderHistory(Integer customerId);
     List<OrderHistoryTO> getOrderHistory2(Integer customerId);
     List<OrderTran> getOrderHistory3(Integer customerId);
+    OrderPageTO<OrderHistoryTO> getOrderHistoryPage(Integer customerId, OrderKeyTO after, int pageSize);
+    OrderPageTO<OrderTran> getOrderHistory3Page(Integer customerId, OrderKeyTO after, int pageSize);
     OrderTran getOrderTran(Integer tranId);
     OrderTran getOrderTranWithDetails(Integer tranId);
     OrderDetail getOrderDetail(OrderDetailPK pk);
@@ -0,0 +1,301 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.StockDao;
+import pro.kensait.berrybooks.dao.StockLedgerDao;
+import pro.kensait.berrybooks.service.catalog.StockTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+// 在庫台帳（在庫引当方式が「ledger」の場合に使用する）
+// 人気書籍に注文が集中すると、楽観的ロック方式ではVERSIONの競合により大半の注文が失敗する。
+// 在庫台帳では、書籍IDに対応するストライプ（ロック）で同じ書籍への引当を直列化し、
+// JVM内の在庫数で引当可否を判定する。減算数は注文と同じトランザクションで在庫台帳テーブル
+// （STOCK_LEDGER、書籍毎の行ではなく注文毎の行を追加するため競合しない）に登録し、
+// 一定間隔（ウィンドウ）毎に書籍単位で合算して、1回のUPDATE文でSTOCKテーブルに反映する。
+// 反映前にサーバーが停止した場合も、減算数は台帳テーブルに残るため、起動後の最初の引当の前に反映される
+// ※在庫台帳はJVM毎に保持するため、単一インスタンス構成を前提とする
+@ApplicationScoped
+public class StockLedger {
+    private static final Logger logger = LoggerFactory.getLogger(
+            StockLedger.class);
+
+    private static final Trace trace = Trace.of(StockLedger.class);
+
+    // ストライプ（ロック）の数
+    private final int stripeCount = ConfigUtil.getInt("order.stock-ledger.stripes", 64);
+
+    // STOCKテーブルへの反映間隔（ミリ秒）
+    private final long windowMillis = ConfigUtil.getLong("order.stock-ledger.window-millis", 50);
+
+    // 1回の反映で読み込む在庫台帳テーブルの最大行数
+    private final int batchSize = ConfigUtil.getInt("order.stock-ledger.batch-size", 1000);
+
+    // 書籍IDのハッシュ値で選択するロック
+    private final ReentrantLock[] stripes = createStripes(stripeCount);
+
+    // 書籍毎の台帳（キー：書籍ID）
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    // 反映処理のスケジュール（最初の引当時に開始する）
+    private ScheduledFuture<?> flushTask;
+
+    // 起動前に登録された（前回の停止時に未反映だった）減算数を反映済みかどうか
+    private volatile boolean recovered;
+
+    @Inject
+    private StockDao stockDao;
+
+    @Inject
+    private StockLedgerDao stockLedgerDao;
+
+    @Inject
+    private StockLedgerWriter stockLedgerWriter;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private TransactionSynchronizationRegistry txRegistry;
+
+    // 在庫を引き当てる
+    // 全ての書籍を引き当てられた場合はnull、在庫が不足する場合はその書籍IDを返す
+    // ※トランザクション内で呼び出された場合、引当はトランザクションのコミット時に確定し、
+    //   ロールバック時には取り消される（在庫台帳テーブルへの登録も同じトランザクションで行う）
+    public Integer reserve(List<StockReservationTO> reservations) {
+        trace.entry("reserve", "size", reservations.size());
+        recover();
+        startFlushTask();
+
+        // デッドロックを避けるため、ストライプは番号順にロックする
+        TreeSet<Integer> stripeIndexes = stripeIndexesOf(reservations);
+        lockAll(stripeIndexes);
+        try {
+            // 全ての書籍について引当可否を判定してから、まとめて引き当てる
+            for (StockReservationTO reservation : reservations) {
+                Entry entry = loadEntry(reservation.bookId());
+                if (entry == null || entry.available < reservation.count()) {
+                    return reservation.bookId();
+                }
+            }
+            for (StockReservationTO reservation : reservations) {
+                Entry entry = entries.get(reservation.bookId());
+                entry.available -= reservation.count();
+                entry.held += reservation.count();
+            }
+        } finally {
+            unlockAll(stripeIndexes);
+        }
+
+        boolean inTransaction = txRegistry != null && txRegistry.getTransactionKey() != null;
+        if (inTransaction) {
+            txRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    complete(reservations, status == Status.STATUS_COMMITTED);
+                }
+            });
+        }
+        // 減算数を在庫台帳テーブルに登録する（トランザクション内の場合は注文とともにコミットされる）
+        try {
+            stockLedgerDao.insert(reservations);
+        } catch (RuntimeException ex) {
+            if (!inTransaction) {
+                complete(reservations, false);
+            }
+            throw ex;
+        }
+        if (!inTransaction) {
+            complete(reservations, true);
+        }
+        return null;
+    }
+
+    // 在庫台帳テーブルの減算数を書籍単位に合算し、STOCKテーブルに反映する
+    // （台帳テーブルに未反映の減算数が残っている間は、反映されるまで繰り返し呼び出される）
+    public void flush() {
+        if (recovered && !hasUnapplied()) {
+            return;
+        }
+        try {
+            applied(stockLedgerWriter.write(batchSize));
+        } catch (RuntimeException ex) {
+            // 減算数は台帳テーブルに残るため、次回のウィンドウで再度反映する
+            logger.warn("[ StockLedger#flush ] failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    // 終了時に未反映の減算数をSTOCKテーブルに反映する
+    // （反映できなかった減算数は台帳テーブルに残り、次回の起動後に反映される）
+    @PreDestroy
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flush();
+    }
+
+    // 書籍の台帳を取得する（未作成または読み直しが必要な場合はSTOCKテーブルから読み込む）
+    // ※呼び出し元で対象書籍のストライプをロックしていること
+    private Entry loadEntry(Integer bookId) {
+        Entry entry = entries.computeIfAbsent(bookId, id -> new Entry());
+        if (entry.stale) {
+            List<StockTO> stocks = stockDao.findByIds(List.of(bookId));
+            if (stocks.isEmpty()) {
+                return null;
+            }
+            // 未反映（確定前・反映待ち）の減算数を差し引いた値を引当可能数とする
+            entry.available = stocks.get(0).quantity() - entry.held - entry.pending;
+            entry.stale = false;
+        }
+        return entry;
+    }
+
+    // 前回の停止時に台帳テーブルに残った減算数を、最初の引当の前にSTOCKテーブルに反映する
+    // （反映できない場合は、在庫数を正しく判定できないため引当を行わない）
+    private void recover() {
+        if (recovered) {
+            return;
+        }
+        synchronized (this) {
+            while (!recovered) {
+                Map<Integer, Integer> deltas = stockLedgerWriter.write(batchSize);
+                applied(deltas);
+                recovered = deltas.isEmpty();
+            }
+        }
+    }
+
+    // STOCKテーブルに反映した減算数を、反映待ちの数から差し引く
+    // ※コミット済みで確定の通知（afterCompletion）の前の引当が反映された場合、反映待ちの数は一時的に負となる
+    //   （引当済みの数と合わせた未反映の数は正しく保たれる）
+    private void applied(Map<Integer, Integer> deltas) {
+        for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+            ReentrantLock lock = stripeOf(delta.getKey());
+            lock.lock();
+            try {
+                Entry entry = entries.get(delta.getKey());
+                if (entry != null) {
+                    entry.pending -= delta.getValue();
+                    // 外部からの在庫更新を取り込むため、次回の引当時に在庫数を読み直す
+                    entry.stale = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // STOCKテーブルに未反映（確定前・反映待ち）の減算数があるかどうか
+    private boolean hasUnapplied() {
+        for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+            ReentrantLock lock = stripeOf(e.getKey());
+            lock.lock();
+            try {
+                if (e.getValue().held != 0 || e.getValue().pending != 0) {
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    // 引当を確定または取り消す
+    private void complete(List<StockReservationTO> reservations, boolean committed) {
+        TreeSet<Integer> stripeIndexes = stripeIndexesOf(reservations);
+        lockAll(stripeIndexes);
+        try {
+            for (StockReservationTO reservation : reservations) {
+                Entry entry = entries.get(reservation.bookId());
+                entry.held -= reservation.count();
+                if (committed) {
+                    entry.pending += reservation.count();
+                } else {
+                    entry.available += reservation.count();
+                }
+            }
+        } finally {
+            unlockAll(stripeIndexes);
+        }
+    }
+
+    // 反映処理のスケジュールを開始する
+    private synchronized void startFlushTask() {
+        if (flushTask == null && scheduler != null) {
+            flushTask = scheduler.scheduleWithFixedDelay(this::flush,
+                    windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private TreeSet<Integer> stripeIndexesOf(List<StockReservationTO> reservations) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (StockReservationTO reservation : reservations) {
+            stripeIndexes.add(stripeIndexOf(reservation.bookId()));
+        }
+        return stripeIndexes;
+    }
+
+    private void lockAll(TreeSet<Integer> stripeIndexes) {
+        for (Integer index : stripeIndexes) {
+            stripes[index].lock();
+        }
+    }
+
+    private void unlockAll(TreeSet<Integer> stripeIndexes) {
+        for (Integer index : stripeIndexes.descendingSet()) {
+            stripes[index].unlock();
+        }
+    }
+
+    private ReentrantLock stripeOf(Integer bookId) {
+        return stripes[stripeIndexOf(bookId)];
+    }
+
+    private int stripeIndexOf(Integer bookId) {
+        return Math.floorMod(bookId.hashCode(), stripes.length);
+    }
+
+    private static ReentrantLock[] createStripes(int count) {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    // 書籍毎の台帳（フィールドは対応するストライプのロック内で更新する）
+    private static class Entry {
+        // 引当可能な在庫数
+        int available;
+        // 引当済みでトランザクションが未確定の数
+        int held;
+        // 確定済みでSTOCKテーブルへの反映待ちの数
+        int pending;
+        // STOCKテーブルから在庫数を読み直す必要があるかどうか
+        boolean stale = true;
+    }
+}
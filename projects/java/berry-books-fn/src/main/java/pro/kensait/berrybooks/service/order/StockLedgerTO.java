@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.order;
+
+// 在庫台帳で引き当てた、STOCKテーブルに未反映の減算数を表すクラス（Recordとして定義）
+public record StockLedgerTO(
+        // 台帳ID
+        Long ledgerId,
+        // 書籍ID
+        Integer bookId,
+        // 減算数
+        int delta) {
+}
@@ -0,0 +1,56 @@
+package pro.kensait.berrybooks.service.order;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.StockDao;
+import pro.kensait.berrybooks.dao.StockLedgerDao;
+import pro.kensait.berrybooks.service.catalog.StockChangedEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// 在庫台帳テーブル（STOCK_LEDGER）に登録された減算数を、注文とは別のトランザクションで
+// STOCKテーブルに反映するクラス（反映と台帳テーブルからの削除は同じトランザクションで行う）
+@ApplicationScoped
+public class StockLedgerWriter {
+    private static final Trace trace = Trace.of(StockLedgerWriter.class);
+
+    @Inject
+    private StockDao stockDao;
+
+    @Inject
+    private StockLedgerDao stockLedgerDao;
+
+    @Inject
+    private Event<StockChangedEvent> stockChangedEvent;
+
+    // 未反映の減算数を最大limit件取得し、書籍毎に合算してSTOCKテーブルに反映する
+    // 反映した書籍毎の減算数を返す（未反映の減算数が無い場合は空のMap）
+    @Transactional(TxType.REQUIRES_NEW)
+    public Map<Integer, Integer> write(int limit) {
+        trace.entry("write", "limit", limit);
+
+        List<StockLedgerTO> rows = stockLedgerDao.findBatch(limit);
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Integer> deltas = new LinkedHashMap<>();
+        List<Long> ledgerIds = new ArrayList<>(rows.size());
+        for (StockLedgerTO row : rows) {
+            deltas.merge(row.bookId(), row.delta(), Integer::sum);
+            ledgerIds.add(row.ledgerId());
+        }
+        stockDao.applyQuantityDeltas(deltas);
+        stockLedgerDao.deleteByIds(ledgerIds);
+
+        // 在庫が更新されたことを通知する（トランザクション完了後に在庫キャッシュが無効化される）
+        stockChangedEvent.fire(new StockChangedEvent(new ArrayList<>(deltas.keySet())));
+        return deltas;
+    }
+}
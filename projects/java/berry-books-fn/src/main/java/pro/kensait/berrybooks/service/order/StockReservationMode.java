@@ -0,0 +1,33 @@
+package pro.kensait.berrybooks.service.order;
+
+// 在庫引当方式を表すEnum
+public enum StockReservationMode {
+    
+    // 楽観的ロック方式（VERSIONをUPDATE文の条件とし、競合した注文は失敗させる）
+    OPTIMISTIC("optimistic"),
+    
+    // 在庫台帳方式（同じ書籍への引当をJVM内で直列化し、一定間隔でまとめてUPDATEする）
+    LEDGER("ledger");
+    
+    private final String configName;
+    
+    // コンストラクタ
+    StockReservationMode(String configName) {
+        this.configName = configName;
+    }
+    
+    // 設定値（config.properties）での名前を取得
+    public String getConfigName() {
+        return configName;
+    }
+    
+    // 設定値からEnumを取得（不明な値の場合は楽観的ロック方式とする）
+    public static StockReservationMode fromConfigName(String configName) {
+        for (StockReservationMode mode : values()) {
+            if (mode.configName.equalsIgnoreCase(configName)) {
+                return mode;
+            }
+        }
+        return OPTIMISTIC;
+    }
+}
@@ -0,0 +1,11 @@
+package pro.kensait.berrybooks.service.order;
+
+// 在庫の引当（注文数分の減算）を保持するDTOクラス（Recordとして定義）
+public record StockReservationTO (
+        // 書籍ID
+        Integer bookId,
+        // 注文数（在庫から減らす数）
+        Integer count,
+        // 更新条件とするバージョン（楽観的ロック用）
+        Long version) {
+}
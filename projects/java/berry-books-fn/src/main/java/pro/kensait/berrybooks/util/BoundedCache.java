@@ -0,0 +1,109 @@
+package pro.kensait.berrybooks.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// 件数上限（LRU）と有効期限（TTL）で要素を追い出すスレッドセーフなキャッシュクラス
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+
+    // ヒット数、ミス数、追い出し数（統計情報）
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // コンストラクタ
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    // コンストラクタ（時刻の取得方法を指定する、テスト用）
+    BoundedCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        // アクセス順のLinkedHashMapにより、最も長く使われていない要素から追い出す
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // キャッシュから値を取得する（存在しない、または期限切れの場合はnullを返す）
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+    }
+
+    // キャッシュから値を取得し、存在しない場合はloaderで読み込んで格納する
+    // ※読み込み処理はロックの外で実行する（同時に読み込まれた場合は後勝ち）
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    // キャッシュに値を格納する
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+        }
+    }
+
+    // 指定したキーの値を無効化する
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    // すべての値を無効化する
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // 統計情報を取得する
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    // キャッシュの要素（値と有効期限）
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
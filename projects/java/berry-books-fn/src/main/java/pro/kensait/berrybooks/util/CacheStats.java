@@ -0,0 +1,19 @@
+package pro.kensait.berrybooks.util;
+
+// キャッシュの統計情報を保持するクラス（Recordとして定義）
+public record CacheStats(
+        // ヒット数
+        long hitCount,
+        // ミス数
+        long missCount,
+        // 追い出し数（件数上限または有効期限切れ）
+        long evictionCount,
+        // 現在の要素数
+        int size) {
+
+    // ヒット率を取得する
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,82 @@
+package pro.kensait.berrybooks.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// パスワードのハッシュ化（PBKDF2WithHmacSHA256）と照合を行うクラス
+// ハッシュ値は「pbkdf2$反復回数$ソルト$ハッシュ」（ソルトとハッシュはBase64）の形式で格納する
+// ※この形式でない格納値は、移行前の平文パスワードとして照合する
+public class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    // 新しくハッシュ化する際の反復回数
+    private final int iterations;
+
+    // コンストラクタ
+    public PasswordHasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    // パスワードをハッシュ化し、格納用の文字列を返す
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        return PREFIX + iterations + "$" + ENCODER.encodeToString(salt)
+                + "$" + ENCODER.encodeToString(hash);
+    }
+
+    // パスワードが格納値（ハッシュ値または移行前の平文）と一致するかどうかを返す
+    // ※比較は一致した桁数によらず一定時間で行う
+    public boolean matches(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        byte[] salt = DECODER.decode(parts[2]);
+        byte[] expected = DECODER.decode(parts[3]);
+        byte[] actual = pbkdf2(password, salt, Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // 格納値がハッシュ値かどうかを返す
+    public boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // 格納値をハッシュ化し直す必要があるかどうか（平文、または反復回数が現在の設定と異なる）を返す
+    public boolean needsRehash(String stored) {
+        return !isHashed(stored) || !stored.startsWith(PREFIX + iterations + "$");
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
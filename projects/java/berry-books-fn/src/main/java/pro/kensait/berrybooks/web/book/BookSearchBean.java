@@ -5,11 +5,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import pro.kensait.berrybooks.entity.Book;
+import pro.kensait.berrybooks.common.ConfigUtil;
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.service.book.BookPageTO;
 import pro.kensait.berrybooks.service.book.BookService;
+import pro.kensait.berrybooks.service.book.BookSortKey;
+import pro.kensait.berrybooks.service.book.BookStockTO;
 import pro.kensait.berrybooks.service.category.CategoryService;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.SessionScoped;
@@ -17,12 +18,17 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 // 書籍検索画面のバッキングBean
+// セッションに保持する（シリアライズ対象とする）のは検索条件・並び順・ページ番号のみとし、検索結果と
+// カテゴリマップはtransientとして、セッションの復元後（レプリケーション先のサーバー等）は必要になった時点で再取得する
+// 検索結果は1ページ分（book.search.page-size件）のみを取得するため、カタログの件数に関わらず一定の時間で表示できる
 @Named
 @SessionScoped
 public class BookSearchBean implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private static final Logger logger = LoggerFactory.getLogger(
-            BookSearchBean.class);
+    private static final long serialVersionUID = 3L;
+    private static final Trace trace = Trace.of(BookSearchBean.class);
+
+    // 1ページに表示する書籍数
+    private static final int PAGE_SIZE = ConfigUtil.getInt("book.search.page-size", 20);
 
     @Inject
     private BookService bookService;
@@ -34,45 +40,50 @@ public class BookSearchBean implements Serializable {
     private Integer categoryId;
     private String keyword;
 
-    // 検索結果
-    private List<Book> bookList;
+    // 並び順
+    private BookSortKey sortKey = BookSortKey.BOOK_ID;
+
+    // 表示中のページ番号（0始まり）
+    private int pageIndex;
+
+    // 総件数を表示するかどうか（総件数のCOUNTクエリは、表示が要求された場合のみ実行する）
+    private boolean totalCountRequested;
+
+    // 検索結果（表示中のページ、シリアライズ対象外、bookSelectページの表示毎に再取得する）
+    private transient List<BookStockTO> bookList;
+
+    // 次のページがあるかどうか（シリアライズ対象外）
+    private transient boolean hasNext;
+
+    // 次のページへ移動する前に表示していたページの最後の書籍（キーセットページング用、シリアライズ対象外）
+    // ※セッションの復元後等で無い場合は、ページ番号からオフセットを求めて取得する
+    private transient BookStockTO pageAfter;
 
-    // カテゴリマップ（セレクトボックス用）
-    private Map<String, Integer> categoryMap;
+    // 前のページへ移動する前に表示していたページの先頭の書籍（逆順のキーセットページング用、シリアライズ対象外）
+    private transient BookStockTO pageBefore;
+
+    // 総件数（シリアライズ対象外）
+    private transient Long totalCount;
+
+    // カテゴリマップ（セレクトボックス用、シリアライズ対象外）
+    private transient Map<String, Integer> categoryMap;
 
     @PostConstruct
     public void init() {
-        logger.info("[ BookSearchBean#init ]");
-        
+        trace.entry("init");
+
         // カテゴリマップを初期化
-        categoryMap = new HashMap<>();
-        categoryMap.put("", null);
-        categoryMap.putAll(categoryService.getCategoryMap());
-        
-        // bookListは初期化時は全書籍を取得
-        if (bookList == null || bookList.isEmpty()) {
-            bookList = bookService.getBooksAll();
-        }
+        // （bookListは、bookSelectページの表示時またはgetBookListの呼び出し時に取得する）
+        categoryMap = createCategoryMap();
     }
 
     // アクション：書籍を検索する（静的クエリ）
     public String search() {
-        logger.info("[ BookSearchBean#search ] categoryId=" + categoryId + ", keyword=" + keyword);
-
-        // 検索条件に基づいて書籍を検索
-        if (categoryId != null && categoryId != 0) {
-            if (keyword != null && !keyword.isEmpty()) {
-                bookList = bookService.searchBook(categoryId, keyword);
-            } else {
-                bookList = bookService.searchBook(categoryId);
-            }
-        } else {
-            if (keyword != null && !keyword.isEmpty()) {
-                bookList = bookService.searchBook(keyword);
-            } else {
-                bookList = bookService.getBooksAll();
-            }
-        }
+        trace.entry("search", "categoryId", categoryId, "keyword", keyword);
+
+        // 検索条件のみを保持し、書籍カタログ（在庫情報付き）はbookSelectページの表示時に検索する
+        // （リダイレクト後のrefreshBookListで先頭ページが検索されるため、ここでは検索しない）
+        resetPaging();
 
         // 検索結果を bookSelect ページに表示
         return "bookSelect?faces-redirect=true";
@@ -80,48 +91,89 @@ public class BookSearchBean implements Serializable {
 
     // アクション：書籍を検索する（動的クエリ）
     public String search2() {
-        logger.info("[ BookSearchBean#search2 ] categoryId=" + categoryId + ", keyword=" + keyword);
-        
-        // 動的クエリで書籍を検索
-        bookList = bookService.searchBookWithCriteria(categoryId, keyword);
-        
+        trace.entry("search2", "categoryId", categoryId, "keyword", keyword);
+
+        // 検索条件のみを保持し、書籍カタログ（在庫情報付き）はbookSelectページの表示時に検索する
+        resetPaging();
+
         // 検索結果を bookSelect ページに表示
         return "bookSelect?faces-redirect=true";
     }
 
-    // アクション：全書籍を読み込む（bookSelectページ用）
+    // アクション：全書籍の先頭ページを読み込む（bookSelectページ用）
     public void loadAllBooks() {
-        logger.info("[ BookSearchBean#loadAllBooks ]");
-        bookList = bookService.getBooksAll();
+        trace.entry("loadAllBooks");
+        categoryId = null;
+        keyword = null;
+        resetPaging();
+        refreshBookList();
     }
 
     // アクション：書籍リストを最新の状態に更新する（在庫数を含む）
     public void refreshBookList() {
-        logger.info("[ BookSearchBean#refreshBookList ]");
-        
-        // 既存の検索条件を使用して書籍リストを再取得
-        if (bookList == null || bookList.isEmpty()) {
-            // 初回表示時は全書籍を取得
-            bookList = bookService.getBooksAll();
-        } else {
-            // 既に検索が実行されている場合は、同じ条件で再検索
-            // カテゴリとキーワードの両方が設定されている場合
-            if (categoryId != null && categoryId != 0) {
-                if (keyword != null && !keyword.isEmpty()) {
-                    bookList = bookService.searchBook(categoryId, keyword);
-                } else {
-                    bookList = bookService.searchBook(categoryId);
-                }
-            } else {
-                // キーワードのみ設定されている場合
-                if (keyword != null && !keyword.isEmpty()) {
-                    bookList = bookService.searchBook(keyword);
-                } else {
-                    // 検索条件がない場合は全書籍を取得
-                    bookList = bookService.getBooksAll();
-                }
-            }
+        trace.entry("refreshBookList", "sortKey", sortKey, "pageIndex", pageIndex);
+
+        // 既存の検索条件・並び順で、表示中のページの書籍カタログを再取得
+        // （書籍と在庫数・バージョンを1回のクエリで取得するため、件数に比例したSQLは発行されない）
+        BookPageTO page = pageBefore != null
+                ? bookService.searchBookCatalogPageBefore(categoryId, keyword, sortKey,
+                        pageBefore, pageIndex * PAGE_SIZE, PAGE_SIZE)
+                : bookService.searchBookCatalogPage(categoryId, keyword, sortKey,
+                        pageAfter, pageIndex * PAGE_SIZE, PAGE_SIZE);
+        bookList = page.books();
+        hasNext = page.hasNext();
+        totalCount = null;
+    }
+
+    // アクション：次のページへ移動する
+    public String nextPage() {
+        trace.entry("nextPage");
+
+        if (hasNext && bookList != null && !bookList.isEmpty()) {
+            // 表示中のページの最後の書籍の次から取得する（先頭から読み飛ばさない）
+            pageAfter = bookList.get(bookList.size() - 1);
+            pageBefore = null;
+            pageIndex++;
         }
+        return "bookSelect?faces-redirect=true";
+    }
+
+    // アクション：前のページへ移動する
+    public String previousPage() {
+        trace.entry("previousPage");
+
+        if (pageIndex > 0) {
+            pageIndex--;
+            // 表示中のページの先頭の書籍の前から逆順に取得する（先頭ページは先頭から取得する）
+            pageBefore = (pageIndex > 0 && bookList != null && !bookList.isEmpty())
+                    ? bookList.get(0) : null;
+            pageAfter = null;
+        }
+        return "bookSelect?faces-redirect=true";
+    }
+
+    // アクション：並び順を変更する（先頭ページから表示し直す）
+    public String changeSort() {
+        trace.entry("changeSort", "sortKey", sortKey);
+        resetPaging();
+        return "bookSelect?faces-redirect=true";
+    }
+
+    // アクション：総件数を表示する
+    public String showTotalCount() {
+        trace.entry("showTotalCount");
+        totalCountRequested = true;
+        return null;
+    }
+
+    // ページング状態を先頭ページに戻す
+    private void resetPaging() {
+        pageIndex = 0;
+        pageAfter = null;
+        pageBefore = null;
+        bookList = null;
+        totalCount = null;
+        totalCountRequested = false;
     }
 
     // アクセサメソッド
@@ -141,12 +193,68 @@ public class BookSearchBean implements Serializable {
         this.keyword = keyword;
     }
 
-    public List<Book> getBookList() {
+    public BookSortKey getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(BookSortKey sortKey) {
+        this.sortKey = sortKey != null ? sortKey : BookSortKey.BOOK_ID;
+    }
+
+    public BookSortKey[] getSortKeys() {
+        return BookSortKey.values();
+    }
+
+    // 表示中のページ番号（1始まり、画面表示用）
+    public int getPageNumber() {
+        return pageIndex + 1;
+    }
+
+    public boolean isHasPrevious() {
+        return pageIndex > 0;
+    }
+
+    public boolean isHasNext() {
+        getBookList();
+        return hasNext;
+    }
+
+    public boolean isTotalCountRequested() {
+        return totalCountRequested;
+    }
+
+    // 総件数（表示が要求されていない場合はnull、要求されている場合は1表示につき1回だけ取得する）
+    public Long getTotalCount() {
+        if (totalCountRequested && totalCount == null) {
+            // 関連度順はキーワードを空白で分割したAND条件のため、ランキング検索の総数を使用する
+            totalCount = sortKey == BookSortKey.RELEVANCE
+                    ? bookService.searchBookRanked(categoryId, keyword, 0, 1).totalCount()
+                    : bookService.countBookCatalog(categoryId, keyword);
+        }
+        return totalCount;
+    }
+
+    // 検索結果が無い場合（セッションの復元後等）は、検索条件から再取得する
+    public List<BookStockTO> getBookList() {
+        if (bookList == null) {
+            refreshBookList();
+        }
         return bookList;
     }
 
+    // カテゴリマップが無い場合（セッションの復元後）は、再作成する
     public Map<String, Integer> getCategoryMap() {
+        if (categoryMap == null) {
+            categoryMap = createCategoryMap();
+        }
         return categoryMap;
     }
-}
 
+    // カテゴリマップを作成する（先頭は未選択用の空文字）
+    private Map<String, Integer> createCategoryMap() {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("", null);
+        map.putAll(categoryService.getCategoryMap());
+        return map;
+    }
+}
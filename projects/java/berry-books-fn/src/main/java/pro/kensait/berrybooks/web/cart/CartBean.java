@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.StockDao;
 import pro.kensait.berrybooks.entity.Book;
 import pro.kensait.berrybooks.entity.Stock;
@@ -25,6 +26,8 @@ public class CartBean implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(
             CartBean.class);
 
+    private static final Trace trace = Trace.of(CartBean.class);
+
     @Inject
     private BookService bookService;
 
@@ -42,29 +45,24 @@ public class CartBean implements Serializable {
 
     // アクション：書籍をカートに追加
     public String addBook(Integer bookId, Integer count) {
-        logger.info("[ CartBean#addBook ] bookId=" + bookId + ", count=" + count);
+        trace.entry("addBook", "bookId", bookId, "count", count);
 
         Book book = bookService.getBook(bookId);
         
         // 楽観的ロック用：Stockエンティティから現在のVERSION値を取得
         Stock stock = stockDao.findById(bookId);
-        logger.info("[ CartBean#addBook ] Stock version=" + stock.getVersion());
+        logger.debug("[ CartBean#addBook ] Stock version={}", stock.getVersion());
 
         // 選択された書籍がカートに存在している場合は、注文数と金額を加算する
-        boolean isExists = false;
-        for (CartItem cartItem : cartSession.getCartItems()) {
-            if (bookId.equals(cartItem.getBookId())) {
-                cartItem.setCount(cartItem.getCount() + count);
-                cartItem.setPrice(cartItem.getPrice().add(book.getPrice().multiply(BigDecimal.valueOf(count))));
-                // VERSION値は最初にカートに入れた時点のものを保持（更新しない）
-                isExists = true;
-                break;
-            }
-        }
-
-        // 選択された書籍がカートに存在していない場合は、新しいCartItemを生成しカートに追加する
-        if (!isExists) {
-            CartItem cartItem = new CartItem(
+        // （カートは書籍IDをキーとするマップのため、カート内を走査せずに取得できる）
+        CartItem cartItem = cartSession.getCartItem(bookId);
+        if (cartItem != null) {
+            cartItem.setCount(cartItem.getCount() + count);
+            cartItem.setPrice(cartItem.getPrice().add(book.getPrice().multiply(BigDecimal.valueOf(count))));
+            // VERSION値は最初にカートに入れた時点のものを保持（更新しない）
+        } else {
+            // 選択された書籍がカートに存在していない場合は、新しいCartItemを生成しカートに追加する
+            cartItem = new CartItem(
                     book.getBookId(),
                     book.getBookName(),
                     book.getPublisher().getPublisherName(),
@@ -73,7 +71,7 @@ public class CartBean implements Serializable {
                     false);
             // カート追加時点のVERSION値をCartItemに保存
             cartItem.setVersion(stock.getVersion());
-            cartSession.getCartItems().add(cartItem);
+            cartSession.addCartItem(cartItem);
         }
 
         // 合計金額を加算する
@@ -85,7 +83,7 @@ public class CartBean implements Serializable {
 
     // アクション：選択した書籍をカートから削除
     public String removeSelectedBooks() {
-        logger.info("[ CartBean#removeSelectedBooks ]");
+        trace.entry("removeSelectedBooks");
         
         // 選択された書籍を削除し、合計金額を再計算
         cartSession.getCartItems().removeIf(item -> {
@@ -102,7 +100,7 @@ public class CartBean implements Serializable {
 
     // アクション：カートをクリア
     public String clearCart() {
-        logger.info("[ CartBean#clearCart ]");
+        trace.entry("clearCart");
         cartSession.getCartItems().clear();
         cartSession.setTotalPrice(BigDecimal.ZERO);
         cartSession.setDeliveryPrice(BigDecimal.ZERO);
@@ -111,7 +109,7 @@ public class CartBean implements Serializable {
 
     // アクション：カートの内容を確定する
     public String proceedToOrder() {
-        logger.info("[ CartBean#proceedToOrder ]");
+        trace.entry("proceedToOrder");
         
         if (cartSession.getCartItems().isEmpty()) {
             return null;
@@ -134,7 +132,7 @@ public class CartBean implements Serializable {
 
     // アクション：カートを参照する
     public String viewCart() {
-        logger.info("[ CartBean#viewCart ]");
+        trace.entry("viewCart");
 
         // カートに商品が一つも入っていなかった場合は、エラーメッセージを設定
         if (cartSession.getCartItems().isEmpty()) {
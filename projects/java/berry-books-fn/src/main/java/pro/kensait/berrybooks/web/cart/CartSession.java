@@ -1,9 +1,14 @@
 package pro.kensait.berrybooks.web.cart;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import pro.kensait.berrybooks.common.SettlementType;
 import jakarta.enterprise.context.SessionScoped;
@@ -13,58 +18,77 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 // ショッピングカートのセッション情報を管理するクラス
+// セッションレプリケーション時の転送量を抑えるため、標準のシリアライズ（クラス記述子やオブジェクトグラフを含む）
+// ではなく、カートアイテムの値のみを書き出す独自のシリアライズ形式（Externalizable）を使用する
 @Named
 @SessionScoped
-public class CartSession implements Serializable {
-    private static final long serialVersionUID = 1L;
+public class CartSession implements Externalizable {
+    private static final long serialVersionUID = 2L;
+
+    // シリアライズ形式のバージョン（形式を変更した場合はインクリメントする）
+    private static final int FORMAT_VERSION = 1;
+
+    // カートアイテムのマップ（キーは書籍ID、カートに追加した順序を保持する）
+    private final Map<Integer, CartItem> cartItems = new LinkedHashMap<>();
 
-    // カートアイテムのリスト
-    private List<CartItem> cartItems = new CopyOnWriteArrayList<>();
-    
     // 注文金額合計
     private BigDecimal totalPrice = BigDecimal.ZERO;
-    
+
     // 配送料金
     private BigDecimal deliveryPrice = BigDecimal.ZERO;
-    
+
     // 配送先住所
     @NotBlank(message = "{error.delivery-address.required}")
     @Size(max = 200, message = "{error.delivery-address.max-length}")
     private String deliveryAddress;
-    
+
     // 決済方法
     @NotNull(message = "{error.settlement-type.required}")
     private Integer settlementType;
 
-    // 引数の無いコンストラクタ
+    // 引数の無いコンストラクタ（Externalizableの復元時にも使用される）
     public CartSession() {
     }
 
     // 全フィールドを引数にとるコンストラクタ
-    public CartSession(List<CartItem> cartItems, BigDecimal totalPrice,
+    public CartSession(Collection<CartItem> cartItems, BigDecimal totalPrice,
             BigDecimal deliveryPrice, String deliveryAddress, Integer settlementType) {
-        this.cartItems = cartItems;
+        setCartItems(cartItems);
         this.totalPrice = totalPrice;
         this.deliveryPrice = deliveryPrice;
         this.deliveryAddress = deliveryAddress;
         this.settlementType = settlementType;
     }
 
+    // 書籍IDに対応するカートアイテムを取得する（カートに無い場合はnull）
+    public CartItem getCartItem(Integer bookId) {
+        return cartItems.get(bookId);
+    }
+
+    // カートアイテムを追加する（同じ書籍のアイテムがある場合は置き換える）
+    public void addCartItem(CartItem cartItem) {
+        cartItems.put(cartItem.getBookId(), cartItem);
+    }
+
     // 合計金額を再計算する
     public void recalculateTotalPrice() {
         totalPrice = BigDecimal.ZERO;
-        for (CartItem item : cartItems) {
+        for (CartItem item : cartItems.values()) {
             totalPrice = totalPrice.add(item.getPrice());
         }
     }
 
     // アクセサメソッド
-    public List<CartItem> getCartItems() {
-        return cartItems;
+    // カートアイテムの一覧（マップのビューのため、削除・クリアはカートに反映される）
+    public Collection<CartItem> getCartItems() {
+        return cartItems.values();
     }
 
-    public void setCartItems(List<CartItem> cartItems) {
-        this.cartItems = cartItems;
+    public void setCartItems(Collection<CartItem> cartItems) {
+        this.cartItems.clear();
+        for (CartItem cartItem : cartItems) {
+            addCartItem(cartItem);
+        }
     }
 
     public BigDecimal getTotalPrice() {
@@ -104,11 +128,86 @@ public class CartSession implements Serializable {
         return SettlementType.getDisplayNameByCode(settlementType);
     }
 
+    // シリアライズ：カートアイテムの各値と注文情報をプリミティブ・文字列として書き出す
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(cartItems.size());
+        for (CartItem item : cartItems.values()) {
+            out.writeInt(item.getBookId());
+            writeString(out, item.getBookName());
+            writeString(out, item.getPublisherName());
+            writeDecimal(out, item.getPrice());
+            out.writeInt(item.getCount() != null ? item.getCount() : 0);
+            out.writeBoolean(item.isRemove());
+            out.writeBoolean(item.getVersion() != null);
+            if (item.getVersion() != null) {
+                out.writeLong(item.getVersion());
+            }
+        }
+        writeDecimal(out, totalPrice);
+        writeDecimal(out, deliveryPrice);
+        writeString(out, deliveryAddress);
+        out.writeBoolean(settlementType != null);
+        if (settlementType != null) {
+            out.writeInt(settlementType);
+        }
+    }
+
+    // デシリアライズ：writeExternalと同じ順序で読み込み、カートを復元する
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new InvalidObjectException(
+                    "Unsupported CartSession format version: " + formatVersion);
+        }
+        cartItems.clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            CartItem item = new CartItem(
+                    in.readInt(),
+                    readString(in),
+                    readString(in),
+                    readDecimal(in),
+                    in.readInt(),
+                    in.readBoolean());
+            if (in.readBoolean()) {
+                item.setVersion(in.readLong());
+            }
+            addCartItem(item);
+        }
+        totalPrice = readDecimal(in);
+        deliveryPrice = readDecimal(in);
+        deliveryAddress = readString(in);
+        settlementType = in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeString(ObjectOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // 金額は文字列表現（例："3400"）で書き出す
+    private static void writeDecimal(ObjectOutput out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(ObjectInput in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
     @Override
     public String toString() {
-        return "CartSession [cartItems=" + cartItems + ", totalPrice=" + totalPrice
+        return "CartSession [cartItems=" + cartItems.values() + ", totalPrice=" + totalPrice
                 + ", deliveryPrice=" + deliveryPrice + ", deliveryAddress="
                 + deliveryAddress + ", settlementType=" + settlementType + "]";
     }
 }
-
@@ -17,6 +17,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Customer;
 import pro.kensait.berrybooks.service.customer.CustomerService;
 import pro.kensait.berrybooks.service.customer.EmailAlreadyExistsException;
@@ -30,6 +31,8 @@ public class CustomerBean implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(
             CustomerBean.class);
 
+    private static final Trace trace = Trace.of(CustomerBean.class);
+
     @Inject
     private CustomerService customerService;
 
@@ -60,7 +63,7 @@ public class CustomerBean implements Serializable {
     // 顧客登録処理
     // ※基本的なバリデーションはBean Validationで自動的に実行される
     public String register() {
-        logger.info("[ CustomerBean#register ]");
+        trace.entry("register");
 
         try {
             // 住所に対する入力チェック（正しい都道府県名で始まっているか）
@@ -83,7 +86,7 @@ public class CustomerBean implements Serializable {
                             DateTimeFormatter.ISO_LOCAL_DATE);
                     newCustomer.setBirthday(birthDate);
                 } catch (Exception e) {
-                    logger.warn("Birthday parse error: " + birthday, e);
+                    logger.warn("Birthday parse error: {}", birthday, e);
                     addErrorMessage(MessageUtil.get("error.birthday.parse-error"));
                     return null;
                 }
@@ -94,13 +97,13 @@ public class CustomerBean implements Serializable {
             // 顧客登録
             customer = customerService.registerCustomer(newCustomer);
 
-            logger.info("Customer registered: " + customer);
+            logger.info("Customer registered: customerId={}", customer.getCustomerId());
 
             // 登録完了ページへ遷移
             return "customerOutput?faces-redirect=true";
 
         } catch (EmailAlreadyExistsException e) {
-            logger.error("Email already exists: " + e.getEmail(), e);
+            logger.error("Email already exists: {}", e.getEmail(), e);
             addErrorMessage(e.getMessage());
             return null;
         } catch (Exception e) {
@@ -6,7 +6,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import pro.kensait.berrybooks.web.login.LoginBean;
-import jakarta.inject.Inject;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -15,28 +14,24 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 
 // 認証チェックフィルタ（ログインしていないユーザーをindex.xhtmlにリダイレクトする）
+// 全ての*.xhtmlリクエストで実行されるため、ログイン状態はCDIのLoginBean（セッションスコープのプロキシ）
+// ではなくセッション属性で確認する
 @WebFilter(filterName = "AuthenticationFilter", urlPatterns = {"*.xhtml"})
 public class AuthenticationFilter implements Filter {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
 
-    @Inject
-    private LoginBean loginBean;
-
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, 
                          FilterChain chain) throws IOException, ServletException {
         
         HttpServletRequest httpRequest = (HttpServletRequest) request;
-        HttpServletResponse httpResponse = (HttpServletResponse) response;
         
         // リクエストされたページのパスを取得
         String requestURI = httpRequest.getRequestURI();
-        String contextPath = httpRequest.getContextPath();
-        
-        logger.debug("AuthenticationFilter - RequestURI: {}", requestURI);
         
         // 認証不要なページ（公開ページ）のリスト
         boolean isPublicPage = requestURI.endsWith("/index.xhtml") 
@@ -44,21 +39,23 @@ public class AuthenticationFilter implements Filter {
                 || requestURI.endsWith("/customerOutput.xhtml")
                 || requestURI.contains("/jakarta.faces.resource/");  // JSF リソース（CSS、画像など）
         
-        // LoginBeanから直接ログイン状態をチェック（CDIインジェクション経由）
-        boolean isLoggedIn = (loginBean != null && loginBean.isLoggedIn());
-        
-        logger.debug("isPublicPage: {}, isLoggedIn: {}, loginBean: {}", 
-                isPublicPage, isLoggedIn, loginBean);
-        
-        // ログインが必要なページで未ログインの場合、index.xhtml にリダイレクト
-        if (!isPublicPage && !isLoggedIn) {
-            logger.info("未ログインユーザーをリダイレクト: {} -> {}/index.xhtml", 
-                    requestURI, contextPath);
-            httpResponse.sendRedirect(contextPath + "/index.xhtml");
-        } else {
-            // 認証OK、または認証不要なページ → 処理を続行
+        // 公開ページ、またはログイン済みの場合は処理を続行
+        // （セッションは作成せずに、ログイン時に設定されたセッション属性の有無のみを確認する）
+        if (isPublicPage || isLoggedIn(httpRequest)) {
             chain.doFilter(request, response);
+            return;
         }
+
+        // ログインが必要なページで未ログインの場合、index.xhtml にリダイレクト
+        String contextPath = httpRequest.getContextPath();
+        logger.info("未ログインユーザーをリダイレクト: {} -> {}/index.xhtml", 
+                requestURI, contextPath);
+        ((HttpServletResponse) response).sendRedirect(contextPath + "/index.xhtml");
     }
-}
 
+    // ログイン済みかどうか（LoginBeanがログイン時に設定するセッション属性で判定する）
+    private boolean isLoggedIn(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && session.getAttribute(LoginBean.LOGGED_IN_ATTRIBUTE) != null;
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Customer;
 import pro.kensait.berrybooks.service.customer.CustomerService;
 import pro.kensait.berrybooks.web.customer.CustomerBean;
@@ -25,6 +26,11 @@ public class LoginBean implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(
             LoginBean.class);
 
+    private static final Trace trace = Trace.of(LoginBean.class);
+
+    // ログイン済みを示すセッション属性の名前（AuthenticationFilterが参照する）
+    public static final String LOGGED_IN_ATTRIBUTE = "pro.kensait.berrybooks.loggedIn";
+
     @Inject
     private CustomerService customerService;
 
@@ -44,7 +50,7 @@ public class LoginBean implements Serializable {
 
     // ログイン処理
     public String processLogin() {
-        logger.info("[ LoginBean#processLogin ] email=" + email);
+        trace.entry("processLogin", "email", email);
 
         try {
             Customer customer = customerService.authenticate(email, password);
@@ -60,8 +66,11 @@ public class LoginBean implements Serializable {
             // CustomerBeanに顧客情報を設定
             customerBean.setCustomer(customer);
             loggedIn = true;
+            // フィルタがCDIを経由せずにログイン状態を確認できるよう、セッション属性にも設定する
+            FacesContext.getCurrentInstance().getExternalContext().getSessionMap()
+                    .put(LOGGED_IN_ATTRIBUTE, Boolean.TRUE);
 
-            logger.info("Login successful: " + customer.getCustomerName());
+            logger.info("Login successful: {}", customer.getCustomerName());
             
             // 書籍選択ページへ遷移
             return "bookSelect?faces-redirect=true";
@@ -77,7 +86,7 @@ public class LoginBean implements Serializable {
 
     // ログアウト処理
     public String processLogout() {
-        logger.info("[ LoginBean#processLogout ]");
+        trace.entry("processLogout");
         
         // セッションを無効化
         FacesContext.getCurrentInstance().getExternalContext().invalidateSession();
@@ -9,12 +9,16 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import pro.kensait.berrybooks.common.ConfigUtil;
 import pro.kensait.berrybooks.common.MessageUtil;
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.entity.Customer;
 import pro.kensait.berrybooks.entity.OrderDetail;
 import pro.kensait.berrybooks.entity.OrderTran;
 import pro.kensait.berrybooks.service.delivery.DeliveryFeeService;
 import pro.kensait.berrybooks.service.order.OrderHistoryTO;
+import pro.kensait.berrybooks.service.order.OrderKeyTO;
+import pro.kensait.berrybooks.service.order.OrderPageTO;
 import pro.kensait.berrybooks.service.order.OrderServiceIF;
 import pro.kensait.berrybooks.service.order.OrderTO;
 import pro.kensait.berrybooks.service.order.OutOfStockException;
@@ -35,6 +39,11 @@ public class OrderBean implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(
             OrderBean.class);
 
+    private static final Trace trace = Trace.of(OrderBean.class);
+
+    // 注文成功画面に注文を引き渡すFlashScopeのキー
+    private static final String FLASH_ORDER_TRAN = "orderTran";
+
     @Inject
     private OrderServiceIF orderService;
 
@@ -52,6 +61,14 @@ public class OrderBean implements Serializable {
     private List<OrderHistoryTO> orderHistoryList;
     private List<OrderTran> orderList;
 
+    // 注文履歴のページング（キーセット方式）
+    // 履歴全体はビューに保持せず、表示中のページと前後ページの開始位置のみを保持する
+    private final int pageSize = ConfigUtil.getInt("order.history.page-size", 20);
+    private boolean entityHistory; // 方式3（注文エンティティ）で表示するかどうか
+    private OrderKeyTO currentPageKey; // 表示中のページの開始位置（先頭ページはnull）
+    private OrderKeyTO nextPageKey; // 次ページの開始位置（次ページが無い場合はnull）
+    private List<OrderKeyTO> previousPageKeys = new ArrayList<>(); // 前ページまでの開始位置
+
     // 注文詳細
     private OrderTran selectedOrderTran;
     private OrderTran orderTran;
@@ -68,13 +85,13 @@ public class OrderBean implements Serializable {
 
     // アクション：注文を確定（方式1）
     public String placeOrder1() {
-        logger.info("[ OrderBean#placeOrder1 ]");
+        trace.entry("placeOrder1");
         return placeOrderInternal();
     }
 
     // アクション：注文を確定（方式2）
     public String placeOrder2() {
-        logger.info("[ OrderBean#placeOrder2 ]");
+        trace.entry("placeOrder2");
         return placeOrderInternal();
     }
 
@@ -113,6 +130,10 @@ public class OrderBean implements Serializable {
 
             orderTran = orderService.orderBooks(orderTO);
 
+            // 登録した注文（明細・書籍を含む）を注文成功画面に引き渡す（注文成功画面での再取得を省く）
+            FacesContext.getCurrentInstance().getExternalContext().getFlash()
+                    .put(FLASH_ORDER_TRAN, orderTran);
+
             // HTTPセッションからカートを削除
             cartSession.getCartItems().clear();
             cartSession.setTotalPrice(BigDecimal.ZERO);
@@ -144,29 +165,68 @@ public class OrderBean implements Serializable {
 
     // アクション：注文履歴を取得（方式1）
     public void loadOrderHistory() {
-        logger.info("[ OrderBean#loadOrderHistory ]");
-        Integer customerId = getCustomerId();
-        orderHistoryList = orderService.getOrderHistory2(customerId);
+        trace.entry("loadOrderHistory");
+        startOrderHistory(false);
     }
 
     // アクション：注文履歴を取得（方式2）
     public void loadOrderHistory2() {
-        logger.info("[ OrderBean#loadOrderHistory2 ]");
-        Integer customerId = getCustomerId();
-        orderHistoryList = orderService.getOrderHistory2(customerId);
+        trace.entry("loadOrderHistory2");
+        startOrderHistory(false);
     }
 
     // アクション：注文履歴を取得（方式3）
     public void loadOrderHistory3() {
-        logger.info("[ OrderBean#loadOrderHistory3 ]");
+        trace.entry("loadOrderHistory3");
+        startOrderHistory(true);
+    }
+
+    // アクション：注文履歴の次ページを表示
+    public void nextPage() {
+        trace.entry("nextPage", "nextPageKey", nextPageKey);
+        if (nextPageKey != null) {
+            previousPageKeys.add(currentPageKey);
+            currentPageKey = nextPageKey;
+            loadOrderHistoryPage();
+        }
+    }
+
+    // アクション：注文履歴の前ページを表示
+    public void previousPage() {
+        trace.entry("previousPage");
+        if (!previousPageKeys.isEmpty()) {
+            currentPageKey = previousPageKeys.remove(previousPageKeys.size() - 1);
+            loadOrderHistoryPage();
+        }
+    }
+
+    // 内部メソッド：注文履歴の先頭ページから表示を開始
+    private void startOrderHistory(boolean entityHistory) {
+        this.entityHistory = entityHistory;
+        currentPageKey = null;
+        previousPageKeys.clear();
+        loadOrderHistoryPage();
+    }
+
+    // 内部メソッド：表示中のページの注文履歴を取得
+    private void loadOrderHistoryPage() {
         Integer customerId = getCustomerId();
-        orderList = orderService.getOrderHistory3(customerId);
+        if (entityHistory) {
+            OrderPageTO<OrderTran> page = orderService.getOrderHistory3Page(
+                    customerId, currentPageKey, pageSize);
+            orderList = page.items();
+            nextPageKey = page.nextKey();
+        } else {
+            OrderPageTO<OrderHistoryTO> page = orderService.getOrderHistoryPage(
+                    customerId, currentPageKey, pageSize);
+            orderHistoryList = page.items();
+            nextPageKey = page.nextKey();
+        }
     }
 
     // アクション：注文詳細を取得
     public void loadOrderDetail() {
-        logger.info("[ OrderBean#loadOrderDetail ] tranId=" + selectedTranId 
-                + ", detailId=" + selectedDetailId);
+        trace.entry("loadOrderDetail", "tranId", selectedTranId, "detailId", selectedDetailId);
         
         if (selectedTranId != null && selectedDetailId != null) {
             orderDetail = orderService.getOrderDetail(selectedTranId, selectedDetailId);
@@ -175,7 +235,7 @@ public class OrderBean implements Serializable {
 
     // アクション：注文詳細を表示
     public String showOrderDetail(Integer orderTranId) {
-        logger.info("[ OrderBean#showOrderDetail ] orderTranId=" + orderTranId);
+        trace.entry("showOrderDetail", "orderTranId", orderTranId);
         
         selectedOrderTran = orderService.getOrderTran(orderTranId);
         orderDetails = orderService.getOrderDetails(orderTranId);
@@ -227,6 +287,14 @@ public class OrderBean implements Serializable {
         return orderList;
     }
 
+    public boolean isHasNextPage() {
+        return nextPageKey != null;
+    }
+
+    public boolean isHasPreviousPage() {
+        return !previousPageKeys.isEmpty();
+    }
+
     public OrderTran getSelectedOrderTran() {
         return selectedOrderTran;
     }
@@ -276,9 +344,17 @@ public class OrderBean implements Serializable {
     }
 
     // アクション：注文成功画面用にデータをロード
+    // 注文確定時にFlashScopeに引き渡された注文があればそれを使用し、無い場合（再表示等）のみ再取得する
     public void loadOrderSuccess() {
-        logger.info("[ OrderBean#loadOrderSuccess ] orderTranId=" + orderTranId);
+        trace.entry("loadOrderSuccess", "orderTranId", orderTranId);
         if (orderTranId != null) {
+            Object placed = FacesContext.getCurrentInstance().getExternalContext().getFlash()
+                    .get(FLASH_ORDER_TRAN);
+            if (placed instanceof OrderTran placedOrderTran
+                    && orderTranId.equals(placedOrderTran.getOrderTranId())) {
+                orderTran = placedOrderTran;
+                return;
+            }
             orderTran = orderService.getOrderTranWithDetails(orderTranId);
         }
     }
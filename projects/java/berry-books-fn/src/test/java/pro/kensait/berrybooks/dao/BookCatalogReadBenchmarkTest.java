@@ -0,0 +1,138 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// 書籍カタログ読み込みのベンチマーク（EclipseLink + HSQLDBインメモリDBを使用）
+// BookDaoを通して、従来方式（全書籍の検索 + 書籍毎のem.refresh）、
+// 共有キャッシュの格納モードREFRESHのヒントを指定した検索（BookDao#findAll）、
+// 在庫情報を結合した1回のSELECT（BookDao#searchCatalog）を比較する
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class BookCatalogReadBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            BookCatalogReadBenchmarkTest.class);
+
+    // 計測の繰り返し回数
+    private static final int ITERATIONS = 5;
+
+    @ParameterizedTest(name = "書籍{0}件")
+    @ValueSource(ints = {1_000, 10_000})
+    @DisplayName("書籍カタログの読み込み方式毎の処理時間を計測する")
+    void benchmarkCatalogRead(int bookCount) throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        try (BookstoreTestDatabase database = BookstoreTestDatabase.create(
+                "catalog" + bookCount)) {
+            database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                    "INSERT INTO CATEGORY VALUES (1, 'Java')");
+            try (Connection con = database.getConnection()) {
+                insertBooks(con, bookCount);
+            }
+            EntityManagerFactory emf = database.createEntityManagerFactory();
+            try {
+                // 従来方式：全書籍を検索した後、1件ずつem.refreshで再読み込みする（N+1回のSELECT）
+                CatalogReader refresh = (bookDao, em) -> {
+                    List<Book> books = em.createQuery("SELECT b FROM Book b", Book.class)
+                            .getResultList();
+                    for (Book book : books) {
+                        em.refresh(book);
+                    }
+                    return books.size();
+                };
+                CatalogReader hint = (bookDao, em) -> bookDao.findAll().size();
+                CatalogReader catalog = (bookDao, em) ->
+                        bookDao.searchCatalog(null, null).size();
+
+                // ウォームアップ
+                measure(emf, refresh);
+                measure(emf, hint);
+                measure(emf, catalog);
+
+                // 実行フェーズ
+                long refreshNanos = 0;
+                long hintNanos = 0;
+                long catalogNanos = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    refreshNanos += measure(emf, refresh);
+                    hintNanos += measure(emf, hint);
+                    catalogNanos += measure(emf, catalog);
+                }
+
+                // 検証フェーズ（出力値ベース）
+                assertEquals(bookCount, read(emf, refresh));
+                assertEquals(bookCount, read(emf, hint));
+                assertEquals(bookCount, read(emf, catalog));
+                logger.info(String.format("[ BookCatalogReadBenchmark ] books=%d, "
+                        + "refresh=%.1fms, storeModeHint=%.1fms, catalog=%.1fms",
+                        bookCount,
+                        refreshNanos / 1_000_000.0 / ITERATIONS,
+                        hintNanos / 1_000_000.0 / ITERATIONS,
+                        catalogNanos / 1_000_000.0 / ITERATIONS));
+            } finally {
+                emf.close();
+            }
+        }
+    }
+
+    // 1リクエスト分（EntityManagerを生成してから閉じるまで）の処理時間を計測する
+    private long measure(EntityManagerFactory emf, CatalogReader reader) {
+        long start = System.nanoTime();
+        read(emf, reader);
+        return System.nanoTime() - start;
+    }
+
+    private int read(EntityManagerFactory emf, CatalogReader reader) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return reader.read(BookstoreTestDatabase.inject(new BookDao(), em), em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void insertBooks(Connection con, int bookCount) throws SQLException {
+        try (PreparedStatement book = con.prepareStatement(
+                        "INSERT INTO BOOK VALUES (?, ?, ?, 1, 1, ?)");
+                PreparedStatement stock = con.prepareStatement(
+                        "INSERT INTO STOCK VALUES (?, ?, 1)")) {
+            for (int i = 1; i <= bookCount; i++) {
+                book.setInt(1, i);
+                book.setString(2, "Java入門 第" + i + "版");
+                book.setString(3, "著者" + i);
+                book.setInt(4, 1000 + i % 3000);
+                book.addBatch();
+                stock.setInt(1, i);
+                stock.setInt(2, i % 20);
+                stock.addBatch();
+                if (i % 1000 == 0) {
+                    book.executeBatch();
+                    stock.executeBatch();
+                }
+            }
+            if (bookCount % 1000 != 0) {
+                book.executeBatch();
+                stock.executeBatch();
+            }
+        }
+    }
+
+    // 読み込み方式（DAOと、DAOに設定したEntityManagerを受け取り、読み込んだ書籍数を返す）
+    private interface CatalogReader {
+        int read(BookDao bookDao, EntityManager em);
+    }
+}
@@ -0,0 +1,161 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// 動的クエリ（BookDao#searchWithCriteria）のベンチマーク（EclipseLink + HSQLDBインメモリDBを使用）
+// 呼び出し毎にCriteriaQueryを構築する従来方式と、クエリの形毎に登録した名前付きクエリを再利用する方式を、
+// 複数スレッドから4通りの検索条件を順に呼び出して比較する
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class BookCriteriaShapeBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            BookCriteriaShapeBenchmarkTest.class);
+
+    // スレッド数
+    private static final int THREADS = 4;
+
+    // 1スレッドあたりの呼び出し回数
+    private static final int REQUESTS = 5_000;
+
+    // 書籍数
+    private static final int BOOKS = 200;
+
+    @Test
+    @DisplayName("動的クエリの構築方式毎の処理時間と、再利用により削減された構築時間を計測する")
+    void benchmarkSearchWithCriteria() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookstoreTestDatabase database = BookstoreTestDatabase.create("criteriaShapeBenchmark");
+        insertBooks(database);
+        EntityManagerFactory emf = database.createEntityManagerFactory();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            // ウォームアップ
+            run(executor, emf, false);
+            run(executor, emf, true);
+
+            // 実行フェーズ
+            long start = System.nanoTime();
+            run(executor, emf, false);
+            double rebuildMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            start = System.nanoTime();
+            List<BookDao> daos = run(executor, emf, true);
+            double cachedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            // 検証フェーズ（出力値ベース）
+            long hits = 0;
+            for (BookDao dao : daos) {
+                for (QueryShapeStats stats : dao.getCriteriaShapeStats().values()) {
+                    hits += stats.hitCount();
+                }
+            }
+            assertEquals((long) THREADS * REQUESTS - THREADS * 4L, hits);
+            // 削減時間は、同じ呼び出し回数での経過時間の差から求める
+            logger.info(String.format("[ BookCriteriaShapeBenchmark ] threads=%d, requests=%d, "
+                    + "rebuild=%.1fms, cached=%.1fms, saved=%.1fus/request",
+                    THREADS, THREADS * REQUESTS, rebuildMillis, cachedMillis,
+                    (rebuildMillis - cachedMillis) * 1000.0 / (THREADS * REQUESTS)));
+        } finally {
+            executor.shutdown();
+            emf.close();
+            database.close();
+        }
+    }
+
+    // スレッド毎にEntityManagerとBookDaoを用意し、4通りの検索条件を順に呼び出す
+    private List<BookDao> run(ExecutorService executor, EntityManagerFactory emf,
+            boolean cached) throws Exception {
+        List<Future<BookDao>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Callable<BookDao> task = () -> {
+                EntityManager em = emf.createEntityManager();
+                try {
+                    BookDao dao = BookstoreTestDatabase.inject(new BookDao(), em);
+                    for (int i = 0; i < REQUESTS; i++) {
+                        Integer categoryId = (i & 1) != 0 ? i % 2 + 1 : null;
+                        String keyword = (i & 2) != 0 ? "%第" + i % 9 + "版%" : null;
+                        List<Book> books = cached
+                                ? dao.searchWithCriteria(categoryId, keyword)
+                                : searchWithRebuild(em, categoryId, keyword);
+                        assertFalse(books.isEmpty());
+                        em.clear();
+                    }
+                    return dao;
+                } finally {
+                    em.close();
+                }
+            };
+            futures.add(executor.submit(task));
+        }
+        List<BookDao> daos = new ArrayList<>();
+        for (Future<BookDao> future : futures) {
+            daos.add(future.get());
+        }
+        return daos;
+    }
+
+    // 従来方式：呼び出し毎にCriteriaQueryを構築する（条件の値はリテラルとして埋め込まれる）
+    private List<Book> searchWithRebuild(EntityManager em, Integer categoryId, String keyword) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Book> cq = cb.createQuery(Book.class);
+        Root<Book> book = cq.from(Book.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (categoryId != null) {
+            predicates.add(cb.equal(book.get("category").get("categoryId"), categoryId));
+        }
+        if (keyword != null && !keyword.isEmpty()) {
+            predicates.add(cb.like(book.get("bookName"), keyword));
+        }
+        if (!predicates.isEmpty()) {
+            cq.where(predicates.toArray(new Predicate[0]));
+        }
+        TypedQuery<Book> query = em.createQuery(cq);
+        return query.getResultList();
+    }
+
+    private void insertBooks(BookstoreTestDatabase database) throws SQLException {
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java'), (2, 'SQL')");
+        try (Connection con = database.getConnection();
+                PreparedStatement book = con.prepareStatement(
+                        "INSERT INTO BOOK VALUES (?, ?, '著者', ?, 1, 3000)");
+                PreparedStatement stock = con.prepareStatement(
+                        "INSERT INTO STOCK VALUES (?, 10, 1)")) {
+            for (int i = 1; i <= BOOKS; i++) {
+                book.setInt(1, i);
+                book.setString(2, "Java入門 第" + i % 9 + "版");
+                book.setInt(3, i % 2 + 1);
+                book.addBatch();
+                stock.setInt(1, i);
+                stock.addBatch();
+            }
+            book.executeBatch();
+            stock.executeBatch();
+        }
+    }
+}
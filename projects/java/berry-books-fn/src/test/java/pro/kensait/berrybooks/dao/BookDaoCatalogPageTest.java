@@ -0,0 +1,183 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.entity.Book;
+import pro.kensait.berrybooks.service.book.BookSortKey;
+import pro.kensait.berrybooks.service.book.BookStockTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// BookDaoの書籍カタログのページ検索（オフセット・キーセット・逆順のキーセット）と件数取得、書籍IDでの一括検索を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class BookDaoCatalogPageTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private BookDao bookDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("bookDaoCatalogPage");
+        database.execute("INSERT INTO PUBLISHER VALUES "
+                + "(1, 'デジタルフロンティア出版'), (2, 'コードブレイクプレス')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java'), (2, 'SQL')",
+                // 価格の同じ書籍（3000円が3冊、2000円が2冊）を含める
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', 'Michael Johnson', 1, 1, 3000), "
+                + "(2, 'JVMとバイトコードの探求', 'James Lopez', 1, 2, 2000), "
+                + "(3, 'Javaアーキテクトのためのデザインパターン', 'Mary Davis', 1, 1, 3000), "
+                + "(4, 'SQLの冒険～RDBの深淵', 'David Miller', 2, 2, 2500), "
+                + "(5, 'Java並行処理の教科書', 'Sarah Wilson', 1, 2, 2000), "
+                + "(6, 'Javaアルゴリズム入門', 'John Taylor', 1, 1, 3000), "
+                + "(7, 'Javaクラウド実践ガイド', 'Linda Moore', 1, 2, 4000)",
+                "INSERT INTO STOCK VALUES "
+                + "(1, 10, 1), (2, 0, 1), (3, 5, 1), (4, 8, 1), (5, 3, 1), (6, 1, 1), "
+                + "(7, 7, 1)");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        em = emf.createEntityManager();
+        bookDao = BookstoreTestDatabase.inject(new BookDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("価格順のオフセットページングで、同じ価格の書籍が書籍ID順に並ぶことをテストする")
+    void testSearchCatalogPageByPriceOffset() {
+        // 実行フェーズ
+        List<BookStockTO> page1 = bookDao.searchCatalogPage(null, null, BookSortKey.PRICE,
+                null, 0, 3);
+        List<BookStockTO> page2 = bookDao.searchCatalogPage(null, null, BookSortKey.PRICE,
+                null, 3, 3);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(2, 5, 4), bookIds(page1));
+        assertEquals(List.of(1, 3, 6), bookIds(page2));
+        assertEquals(0, page1.get(0).quantity());
+    }
+
+    @Test
+    @DisplayName("キーセットページングで、オフセットページングと同じ順序で全書籍が取得されることをテストする")
+    void testSearchCatalogPageByPriceKeyset() {
+        // 実行フェーズ
+        // （同じ価格の書籍がページの境目にまたがるよう、ページサイズを2とする）
+        List<Integer> keyset = new ArrayList<>();
+        BookStockTO after = null;
+        List<BookStockTO> page;
+        do {
+            page = bookDao.searchCatalogPage(null, null, BookSortKey.PRICE, after, 0, 2);
+            keyset.addAll(bookIds(page));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(2, 5, 4, 1, 3, 6, 7), keyset);
+        assertEquals(keyset, bookIds(bookDao.searchCatalogPage(null, null,
+                BookSortKey.PRICE, null, 0, 10)));
+    }
+
+    @Test
+    @DisplayName("逆順のキーセットページングで、末尾から先頭へ同じ順序の書籍が取得されることをテストする")
+    void testSearchCatalogPageByPriceBefore() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> all = bookDao.searchCatalogPage(null, null, BookSortKey.PRICE,
+                null, 0, 10);
+
+        // 実行フェーズ
+        // （末尾の書籍から、ページサイズ2で先頭まで前のページをたどる）
+        List<Integer> backward = new ArrayList<>();
+        BookStockTO before = all.get(all.size() - 1);
+        List<BookStockTO> page;
+        do {
+            page = bookDao.searchCatalogPageBefore(null, null, BookSortKey.PRICE, before, 2);
+            backward.addAll(bookIds(page));
+            before = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 2);
+
+        // 検証フェーズ（出力値ベース）
+        // （前のページは、beforeに近い書籍から逆順に返される）
+        assertEquals(List.of(6, 3, 1, 4, 5, 2), backward);
+    }
+
+    @Test
+    @DisplayName("検索条件と出版社名順のキーセットページングが組み合わせられることをテストする")
+    void testSearchCatalogPageByPublisher() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> first = bookDao.searchCatalogPage(1, "%Java%",
+                BookSortKey.PUBLISHER, null, 0, 3);
+
+        // 実行フェーズ
+        List<BookStockTO> second = bookDao.searchCatalogPage(1, "%Java%",
+                BookSortKey.PUBLISHER, first.get(first.size() - 1), 0, 3);
+
+        // 検証フェーズ（出力値ベース）
+        // （コードブレイクプレス → デジタルフロンティア出版の順）
+        assertEquals(List.of(5, 7, 1), bookIds(first));
+        assertEquals(List.of(3, 6), bookIds(second));
+    }
+
+    @Test
+    @DisplayName("書籍名順で先頭ページが取得されることをテストする")
+    void testSearchCatalogPageByName() {
+        // 実行フェーズ
+        List<BookStockTO> page = bookDao.searchCatalogPage(null, null, BookSortKey.NAME,
+                null, 0, 2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(2, 1), bookIds(page));
+    }
+
+    @Test
+    @DisplayName("件数取得でページ検索と同じ検索条件の件数が返されることをテストする")
+    void testCountCatalog() {
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertEquals(7L, bookDao.countCatalog(null, null));
+        assertEquals(5L, bookDao.countCatalog(1, "%Java%"));
+        assertEquals(1L, bookDao.countCatalog(2, null));
+    }
+
+    @Test
+    @DisplayName("IN句の上限（1000件）を超える書籍IDを指定した場合も書籍が取得されることをテストする")
+    void testFindByIdsOverInClauseLimit() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<Integer> ids = IntStream.rangeClosed(1, 2500).boxed().toList();
+
+        // 実行フェーズ
+        List<Book> books = bookDao.findByIds(ids);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7),
+                books.stream().map(Book::getBookId).sorted().toList());
+    }
+
+    private static List<Integer> bookIds(List<BookStockTO> books) {
+        return books.stream().map(BookStockTO::bookId).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// BookDao#searchWithCriteriaが、クエリの形毎に1回だけクエリを構築して再利用することを検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class BookDaoCriteriaShapeTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private BookDao bookDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("bookDaoCriteriaShape");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java'), (2, 'SQL')",
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', 'Michael Johnson', 1, 1, 3400), "
+                + "(2, 'JVMとバイトコードの探求', 'James Lopez', 1, 1, 4200), "
+                + "(3, 'SQLの冒険～RDBの深淵', 'David Miller', 2, 1, 2200), "
+                + "(4, 'Javaで学ぶSQL入門', 'Mary Davis', 2, 1, 2800)",
+                "INSERT INTO STOCK VALUES (1, 10, 1), (2, 5, 1), (3, 8, 1), (4, 0, 1)");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        em = emf.createEntityManager();
+        bookDao = BookstoreTestDatabase.inject(new BookDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("4通りの検索条件の組み合わせで、条件に一致する書籍が検索されることをテストする")
+    void testSearchWithCriteriaShapes() {
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 2, 3, 4), bookIds(bookDao.searchWithCriteria(null, null)));
+        assertEquals(List.of(3, 4), bookIds(bookDao.searchWithCriteria(2, "")));
+        assertEquals(List.of(1, 4), bookIds(bookDao.searchWithCriteria(null, "%Java%")));
+        assertEquals(List.of(4), bookIds(bookDao.searchWithCriteria(2, "%Java%")));
+    }
+
+    @Test
+    @DisplayName("同じ形のクエリは初回のみ構築され、条件の値が変わっても再利用されることをテストする")
+    void testSearchWithCriteriaReusesShape() {
+        // 実行フェーズ
+        List<Book> java = bookDao.searchWithCriteria(1, "%J%");
+        List<Book> sql = bookDao.searchWithCriteria(2, "%SQL%");
+        List<Book> none = bookDao.searchWithCriteria(1, "%存在しない%");
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 2), bookIds(java));
+        assertEquals(List.of(3, 4), bookIds(sql));
+        assertTrue(none.isEmpty());
+        Map<String, QueryShapeStats> stats = bookDao.getCriteriaShapeStats();
+        assertEquals(List.of("both"), List.copyOf(stats.keySet()));
+        assertEquals(2L, stats.get("both").hitCount());
+        assertTrue(stats.get("both").compileNanos() > 0);
+    }
+
+    private static List<Integer> bookIds(List<Book> books) {
+        return books.stream().map(Book::getBookId).sorted().toList();
+    }
+}
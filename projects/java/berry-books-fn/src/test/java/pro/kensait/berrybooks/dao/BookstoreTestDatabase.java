@@ -0,0 +1,129 @@
+package pro.kensait.berrybooks.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+// テスト用のHSQLDBインメモリDB（DAO・ベンチマークのテストで共通に使用するフィクスチャ）
+// 本番と同じDDL（sql/hsqldb/2_BOOKSTORE_DDL.sql）でテーブルを作成する
+// ※テーブルには外部キー制約があるため、テストデータは参照先（出版社・カテゴリ・顧客など）から登録する
+public final class BookstoreTestDatabase implements AutoCloseable {
+
+    // テーブル定義（Gradleのテストはプロジェクトのディレクトリで実行される）
+    private static final Path DDL = Path.of("sql", "hsqldb", "2_BOOKSTORE_DDL.sql");
+
+    private final JDBCDataSource dataSource;
+
+    private BookstoreTestDatabase(String url) {
+        dataSource = new JDBCDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUser("SA");
+        dataSource.setPassword("");
+    }
+
+    // 指定した名前のインメモリDBを作成し、テーブルを作成する
+    // （同じJVM内のテストクラス同士で干渉しないよう、テストクラス毎に異なる名前を指定する）
+    public static BookstoreTestDatabase create(String name) throws SQLException {
+        BookstoreTestDatabase database = new BookstoreTestDatabase("jdbc:hsqldb:mem:" + name);
+        database.execute(readStatements(DDL).toArray(new String[0]));
+        return database;
+    }
+
+    // 指定したディレクトリにファイルDBを作成し、テーブルをCACHEDテーブル
+    // （ディスク上に格納し、一部のみメモリにキャッシュする）として作成する
+    // （テスト用JVMのヒープに収まらない件数の書籍を登録するベンチマークで使用する）
+    public static BookstoreTestDatabase createOnDisk(Path directory, String name)
+            throws SQLException {
+        BookstoreTestDatabase database = new BookstoreTestDatabase(
+                "jdbc:hsqldb:file:" + directory.resolve(name));
+        database.execute("SET DATABASE DEFAULT TABLE TYPE CACHED");
+        database.execute(readStatements(DDL).toArray(new String[0]));
+        return database;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    // SQLを順に実行する（テストデータの登録・削除用）
+    public void execute(String... sqls) throws SQLException {
+        try (Connection con = getConnection();
+                Statement st = con.createStatement()) {
+            for (String sql : sqls) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    // テスト用の永続化ユニット（bookstoreTestPU）のEntityManagerFactoryを生成する
+    public EntityManagerFactory createEntityManagerFactory() {
+        return createEntityManagerFactory(Map.of());
+    }
+
+    // 永続化ユニットのプロパティ（ログレベルなど）を追加で指定してEntityManagerFactoryを生成する
+    public EntityManagerFactory createEntityManagerFactory(Map<String, ?> properties) {
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("jakarta.persistence.jdbc.driver", "org.hsqldb.jdbc.JDBCDriver");
+        merged.put("jakarta.persistence.jdbc.url", dataSource.getUrl());
+        merged.put("jakarta.persistence.jdbc.user", "SA");
+        merged.put("jakarta.persistence.jdbc.password", "");
+        merged.putAll(properties);
+        return Persistence.createEntityManagerFactory("bookstoreTestPU", merged);
+    }
+
+    // DAOのフィールド（@PersistenceContextで注入されるem）にEntityManagerを設定する
+    public static <T> T inject(T dao, EntityManager em) {
+        try {
+            Field field = dao.getClass().getDeclaredField("em");
+            field.setAccessible(true);
+            field.set(dao, em);
+            return dao;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // DBを停止する（インメモリDBの場合は破棄される）
+    @Override
+    public void close() throws SQLException {
+        execute("SHUTDOWN");
+    }
+
+    // SQLファイルをコメント（--以降）を除いて文（;区切り）に分割する
+    private static List<String> readStatements(Path file) {
+        try {
+            StringBuilder sql = new StringBuilder();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int comment = line.indexOf("--");
+                sql.append(comment < 0 ? line : line.substring(0, comment)).append('\n');
+            }
+            return List.of(sql.toString().split(";")).stream()
+                    .map(String::strip)
+                    .filter(statement -> !statement.isEmpty())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.entity.CustomerStats;
+import pro.kensait.berrybooks.service.customer.CustomerStatsCheckTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// CustomerStatsDaoが発行するSQL（MERGE文・再集計・整合性チェック、アウトボックスに残っている注文の除外）を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class CustomerStatsDaoTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private CustomerStatsDao customerStatsDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("customerStatsDao");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java')",
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', 'Michael Johnson', 1, 1, 3400), "
+                + "(2, 'JVMとバイトコードの探求', 'James Lopez', 1, 1, 4200), "
+                + "(3, 'SQLの冒険～RDBの深淵', 'David Miller', 1, 1, 2200)",
+                "INSERT INTO CUSTOMER VALUES "
+                + "(1, 'Alice', 'password', 'alice@gmail.com', NULL, NULL), "
+                + "(2, 'Bob', 'password', 'bob@gmail.com', NULL, NULL), "
+                + "(3, 'Carol', 'password', 'carol@gmail.com', NULL, NULL)");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database.execute("DELETE FROM CUSTOMER_STATS",
+                "DELETE FROM ORDER_OUTBOX",
+                "DELETE FROM ORDER_DETAIL",
+                "DELETE FROM ORDER_TRAN",
+                "INSERT INTO ORDER_TRAN VALUES "
+                + "(1, '2024-03-01', 1, 7600, 800, '東京都中央区1-1', 1), "
+                + "(2, '2024-03-05', 1, 4700, 800, '東京都中央区1-1', 1), "
+                + "(3, '2024-03-03', 2, 6700, 800, '東京都中央区1-1', 2)",
+                "INSERT INTO ORDER_DETAIL VALUES "
+                + "(1, 1, 1, 3400, 1), (1, 2, 2, 4200, 2), "
+                + "(2, 1, 3, 2200, 1), "
+                + "(3, 1, 2, 4200, 3)");
+        em = emf.createEntityManager();
+        customerStatsDao = BookstoreTestDatabase.inject(new CustomerStatsDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("rebuildRangeで注文のある顧客の統計が注文・注文明細から集計されることをテストする")
+    void testRebuildRange() {
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int rows = customerStatsDao.rebuildRange(1, 3);
+        em.getTransaction().commit();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, rows);
+        assertStats(1, 2L, 4L, LocalDate.of(2024, 3, 5));
+        assertStats(2, 1L, 3L, LocalDate.of(2024, 3, 3));
+        assertNull(em.find(CustomerStats.class, 3));
+    }
+
+    @Test
+    @DisplayName("addOrderで行が無い顧客には行が作成され、既存の行には加算されることをテストする")
+    void testAddOrder() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        customerStatsDao.rebuildRange(1, 3);
+        em.getTransaction().commit();
+
+        // 実行フェーズ
+        em.getTransaction().begin();
+        customerStatsDao.addOrder(1, LocalDate.of(2024, 4, 1), 5);
+        customerStatsDao.addOrder(2, LocalDate.of(2024, 1, 1), 1);
+        customerStatsDao.addOrder(3, LocalDate.of(2024, 4, 2), 2);
+        em.getTransaction().commit();
+
+        // 検証フェーズ（状態ベース）
+        assertStats(1, 3L, 9L, LocalDate.of(2024, 4, 1));
+        // 過去日付の注文では最終注文日は変わらない
+        assertStats(2, 2L, 4L, LocalDate.of(2024, 3, 3));
+        assertStats(3, 1L, 2L, LocalDate.of(2024, 4, 2));
+    }
+
+    @Test
+    @DisplayName("addOrdersで同じ顧客の複数の注文が1回でまとめて加算されることをテストする")
+    void testAddOrders() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        customerStatsDao.rebuildRange(1, 3);
+        em.getTransaction().commit();
+
+        // 実行フェーズ
+        em.getTransaction().begin();
+        customerStatsDao.addOrders(1, 3, LocalDate.of(2024, 4, 3), 7);
+        customerStatsDao.addOrders(3, 2, LocalDate.of(2024, 4, 4), 4);
+        em.getTransaction().commit();
+
+        // 検証フェーズ（状態ベース）
+        assertStats(1, 5L, 11L, LocalDate.of(2024, 4, 3));
+        assertStats(3, 2L, 4L, LocalDate.of(2024, 4, 4));
+    }
+
+    @Test
+    @DisplayName("findCheckRangeで顧客統計と注文の集計値の不一致が検出されることをテストする")
+    void testFindCheckRange() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        customerStatsDao.rebuildRange(1, 3);
+        // 顧客2の注文を加算し損ねた状態を作る
+        em.createNativeQuery("INSERT INTO ORDER_TRAN VALUES "
+                + "(4, '2024-03-10', 2, 2200, 800, '東京都中央区1-1', 1)").executeUpdate();
+        em.getTransaction().commit();
+
+        // 実行フェーズ
+        List<CustomerStatsCheckTO> results = customerStatsDao.findCheckRange(1, 3);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isConsistent());
+        assertFalse(results.get(1).isConsistent());
+        assertEquals(2L, results.get(1).orderCount());
+        assertEquals(1L, results.get(1).storedOrderCount());
+        // 注文が無く統計行も無い顧客は一致とみなす
+        assertTrue(results.get(2).isConsistent());
+    }
+
+    @Test
+    @DisplayName("アウトボックスに残っている注文は再集計と整合性チェックの集計に含まれないことをテストする")
+    void testPendingOutboxOrderExcluded() throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        // （顧客2の注文4は確定済みだが、顧客統計への加算はアウトボックスの後続処理で行われる）
+        database.execute("INSERT INTO ORDER_TRAN VALUES "
+                + "(4, '2024-03-10', 2, 2200, 800, '東京都中央区1-1', 1)",
+                "INSERT INTO ORDER_DETAIL VALUES (4, 1, 3, 2200, 2)",
+                "INSERT INTO ORDER_OUTBOX "
+                + "(ORDER_TRAN_ID, CUSTOMER_ID, ORDER_DATE, TOTAL_BOOKS, TOTAL_PRICE, CREATED_AT) "
+                + "VALUES (4, 2, '2024-03-10', 2, 2200, CURRENT_TIMESTAMP)");
+
+        // 実行フェーズ
+        em.getTransaction().begin();
+        customerStatsDao.rebuildRange(1, 3);
+        em.getTransaction().commit();
+        List<CustomerStatsCheckTO> pending = customerStatsDao.findCheckRange(2, 2);
+
+        // アウトボックスの後続処理（加算とアウトボックスからの削除）を行う
+        em.getTransaction().begin();
+        customerStatsDao.addOrder(2, LocalDate.of(2024, 3, 10), 2);
+        em.createNativeQuery("DELETE FROM ORDER_OUTBOX").executeUpdate();
+        em.getTransaction().commit();
+        List<CustomerStatsCheckTO> processed = customerStatsDao.findCheckRange(2, 2);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        // （後続処理の後も、同じ注文が二重に加算されない）
+        assertTrue(pending.get(0).isConsistent());
+        assertEquals(1L, pending.get(0).orderCount());
+        assertTrue(processed.get(0).isConsistent());
+        assertStats(2, 2L, 5L, LocalDate.of(2024, 3, 10));
+    }
+
+    @Test
+    @DisplayName("findMaxCustomerIdで顧客IDの最大値が取得されることをテストする")
+    void testFindMaxCustomerId() {
+        // 実行フェーズ
+        int maxCustomerId = customerStatsDao.findMaxCustomerId();
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(3, maxCustomerId);
+    }
+
+    private void assertStats(Integer customerId, Long orderCount, Long totalBooks,
+            LocalDate lastOrderDate) {
+        em.clear();
+        CustomerStats stats = em.find(CustomerStats.class, customerId);
+        assertNotNull(stats);
+        assertEquals(orderCount, stats.getOrderCount());
+        assertEquals(totalBooks, stats.getTotalBooks());
+        assertEquals(lastOrderDate, stats.getLastOrderDate());
+    }
+}
@@ -0,0 +1,295 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.helpers.MessageFormatter;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.entity.OrderTran;
+import pro.kensait.berrybooks.metrics.RequestMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// ログ出力のプロファイル毎のリクエスト処理件数のベンチマーク（EclipseLink + HSQLDBインメモリDBを使用）
+// 注文明細画面の1リクエスト（Managed Bean → サービス → DAOで注文と明細を取得）を4スレッドで処理し、
+// EclipseLinkのSQLログ（FINE/WARNING）とアプリケーションのログ（従来のINFOの文字列連結／トレースログ）の
+// 組み合わせ毎に、1秒あたりの処理件数とログファイルのサイズを比較する
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class LoggingProfileBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            LoggingProfileBenchmarkTest.class);
+
+    // 注文件数（1注文あたり明細3件）
+    private static final int ORDER_COUNT = 200;
+
+    // 計測するリクエスト数とスレッド数
+    private static final int REQUESTS = 20_000;
+    private static final int THREADS = 4;
+
+    // 計測するプロファイル
+    private record Profile(String name, String eclipseLinkLevel, boolean legacyLog,
+            boolean traceEnabled, int sampleRate) {
+    }
+
+    private static final Profile[] PROFILES = {
+            new Profile("従来（SQLログFINE + INFOの文字列連結）", "FINE", true, false, 1),
+            new Profile("開発（SQLログFINE + トレース全件）", "FINE", false, true, 1),
+            new Profile("本番＋サンプリング（SQLログWARNING + トレース1/100）", "WARNING", false, true, 100),
+            new Profile("本番（SQLログWARNING + トレースなし）", "WARNING", false, false, 1)
+    };
+
+    private static BookstoreTestDatabase database;
+    private static Path logDir;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException, IOException {
+        logDir = Files.createTempDirectory("berry-books-logging");
+        database = BookstoreTestDatabase.create("loggingProfile");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java')",
+                "INSERT INTO BOOK VALUES (1, 'Java SEディープダイブ', '著者1', 1, 1, 3400), "
+                + "(2, 'JVMとバイトコードの探求', '著者2', 1, 1, 4200), "
+                + "(3, 'Javaアーキテクトのための設計原理', '著者3', 1, 1, 3000)",
+                "INSERT INTO STOCK VALUES (1, 10, 1), (2, 10, 1), (3, 10, 1)",
+                "INSERT INTO CUSTOMER VALUES "
+                + "(1, 'Alice', 'password', 'alice@gmail.com', NULL, NULL)");
+        try (Connection con = database.getConnection();
+                PreparedStatement order = con.prepareStatement("INSERT INTO ORDER_TRAN "
+                        + "VALUES (?, '2024-03-01', 1, 10600, 0, '東京都中央区1-1', 1)");
+                PreparedStatement detail = con.prepareStatement(
+                        "INSERT INTO ORDER_DETAIL VALUES (?, ?, ?, 3400, 1)")) {
+            for (int i = 1; i <= ORDER_COUNT; i++) {
+                order.setInt(1, i);
+                order.addBatch();
+                for (int d = 1; d <= 3; d++) {
+                    detail.setInt(1, i);
+                    detail.setInt(2, d);
+                    detail.setInt(3, d);
+                    detail.addBatch();
+                }
+            }
+            order.executeBatch();
+            detail.executeBatch();
+        }
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException, IOException {
+        database.close();
+        // 計測で出力したログファイルを削除する
+        try (Stream<Path> files = Files.list(logDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(logDir);
+    }
+
+    @Test
+    @DisplayName("ログ出力のプロファイル毎に、リクエストの処理件数を計測する")
+    void benchmarkLoggingProfiles() throws Exception {
+        List<Long> logSizes = new ArrayList<>();
+        for (Profile profile : PROFILES) {
+            // 準備フェーズ（テストフィクスチャのセットアップ）
+            Path sqlLog = logDir.resolve("sql-" + logSizes.size() + ".log");
+            Path appLog = logDir.resolve("app-" + logSizes.size() + ".log");
+            EntityManagerFactory emf = database.createEntityManagerFactory(
+                    Map.of("eclipselink.logging.level", profile.eclipseLinkLevel(),
+                            "eclipselink.logging.file", sqlLog.toString()));
+            try (FileLogger appLogger = new FileLogger(appLog, profile.traceEnabled())) {
+                RequestHandler handler = new RequestHandler(emf, appLogger, profile);
+
+                // ウォームアップ
+                run(handler, REQUESTS / 10);
+
+                // 実行フェーズ
+                long start = System.nanoTime();
+                int handled = run(handler, REQUESTS);
+                long elapsed = System.nanoTime() - start;
+
+                // 検証フェーズ（出力値ベース）
+                assertEquals(REQUESTS, handled);
+                emf.close();
+                appLogger.flush();
+                long logSize = Files.size(appLog)
+                        + (Files.exists(sqlLog) ? Files.size(sqlLog) : 0);
+                logSizes.add(logSize);
+                logger.info(String.format("[ LoggingProfileBenchmark ] %s: %.0f req/s, "
+                        + "log=%.1fMB", profile.name(), REQUESTS / (elapsed / 1_000_000_000.0),
+                        logSize / 1024.0 / 1024.0));
+            }
+        }
+        // 本番のプロファイルは、従来のプロファイルよりログの出力量が少ない
+        assertTrue(logSizes.get(PROFILES.length - 1) < logSizes.get(0));
+    }
+
+    // 全スレッドで合計requests件のリクエストを処理し、処理した件数を返す
+    private int run(RequestHandler handler, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    int handled = 0;
+                    for (int i = 0; i < requests / THREADS; i++) {
+                        handled += handler.handle(
+                                ThreadLocalRandom.current().nextInt(ORDER_COUNT) + 1);
+                    }
+                    return handled;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // 注文明細画面の1リクエスト（Managed Bean → サービス → DAO）
+    private static final class RequestHandler {
+        private final EntityManagerFactory emf;
+        private final Logger logger;
+        private final boolean legacyLog;
+        private final Trace beanTrace;
+        private final Trace serviceTrace;
+        private final Trace daoTrace;
+
+        RequestHandler(EntityManagerFactory emf, Logger logger, Profile profile) {
+            this.emf = emf;
+            this.logger = logger;
+            this.legacyLog = profile.legacyLog();
+            this.beanTrace = new Trace(logger, "OrderBean", profile.sampleRate());
+            this.serviceTrace = new Trace(logger, "OrderService", profile.sampleRate());
+            this.daoTrace = new Trace(logger, "OrderTranDao", profile.sampleRate());
+        }
+
+        int handle(Integer orderTranId) {
+            RequestMetrics.begin("GET /orderDetail.xhtml");
+            EntityManager em = emf.createEntityManager();
+            try {
+                long start = System.nanoTime();
+                if (legacyLog) {
+                    logger.info("[ OrderBean#showOrderDetail ] orderTranId=" + orderTranId);
+                    logger.info("[ OrderService#getOrderTranWithDetails ] orderTranId="
+                            + orderTranId);
+                    logger.info("[ OrderTranDao#findByIdWithDetails ] orderTranId="
+                            + orderTranId);
+                } else {
+                    beanTrace.entry("showOrderDetail", "orderTranId", orderTranId);
+                    serviceTrace.entry("getOrderTranWithDetails", "orderTranId", orderTranId);
+                    daoTrace.entry("findByIdWithDetails", "orderTranId", orderTranId);
+                }
+                OrderTran orderTran = em.createQuery("SELECT DISTINCT o FROM OrderTran o "
+                        + "LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.book "
+                        + "WHERE o.orderTranId = :orderTranId", OrderTran.class)
+                        .setParameter("orderTranId", orderTranId)
+                        .getSingleResult();
+                if (!legacyLog) {
+                    long elapsed = System.nanoTime() - start;
+                    daoTrace.exit("findByIdWithDetails", elapsed);
+                    serviceTrace.exit("getOrderTranWithDetails", elapsed);
+                }
+                return orderTran.getOrderDetails().size() == 3 ? 1 : 0;
+            } finally {
+                em.close();
+                RequestMetrics.end();
+            }
+        }
+    }
+
+    // ファイルに出力するロガー（サーバーのログファイルへの出力を模擬する）
+    // DEBUGレベルの有効・無効はコンストラクタで指定し、INFO以上は常に出力する
+    private static final class FileLogger extends LegacyAbstractLogger implements AutoCloseable {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PrintWriter writer;
+        private final boolean debugEnabled;
+
+        FileLogger(Path file, boolean debugEnabled) throws IOException {
+            this.name = "benchmark";
+            this.writer = new PrintWriter(new BufferedWriter(Files.newBufferedWriter(file)));
+            this.debugEnabled = debugEnabled;
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return debugEnabled;
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return true;
+        }
+
+        @Override
+        protected String getFullyQualifiedCallerName() {
+            return null;
+        }
+
+        // 複数のスレッドから呼び出されるため、1行ずつ排他して出力する
+        @Override
+        protected synchronized void handleNormalizedLoggingCall(Level level, Marker marker,
+                String messagePattern, Object[] arguments, Throwable throwable) {
+            writer.print(System.currentTimeMillis());
+            writer.print(' ');
+            writer.print(level);
+            writer.print(' ');
+            writer.println(MessageFormatter.basicArrayFormat(messagePattern, arguments));
+        }
+
+        synchronized void flush() {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            writer.close();
+        }
+    }
+}
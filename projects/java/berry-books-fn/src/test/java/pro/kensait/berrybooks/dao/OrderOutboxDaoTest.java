@@ -0,0 +1,104 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.service.order.OrderOutboxTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// OrderOutboxDaoが発行するSQL（登録・登録順の取得・IDを指定した削除）を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class OrderOutboxDaoTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private OrderOutboxDao orderOutboxDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("orderOutboxDao");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database.execute("DELETE FROM ORDER_OUTBOX");
+        em = emf.createEntityManager();
+        orderOutboxDao = BookstoreTestDatabase.inject(new OrderOutboxDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("登録した注文が登録順に最大件数まで取得されることをテストする")
+    void testInsertAndFindBatch() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        orderOutboxDao.insert(100, 1, LocalDate.of(2024, 4, 1), 2, new BigDecimal("6800"));
+        orderOutboxDao.insert(101, 2, LocalDate.of(2024, 4, 2), 1, new BigDecimal("3400"));
+        orderOutboxDao.insert(102, 1, LocalDate.of(2024, 4, 3), 3, new BigDecimal("9000"));
+        em.getTransaction().commit();
+
+        // 実行フェーズ
+        List<OrderOutboxTO> batch = orderOutboxDao.findBatch(2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(2, batch.size());
+        OrderOutboxTO first = batch.get(0);
+        assertEquals(100, first.orderTranId());
+        assertEquals(1, first.customerId());
+        assertEquals(LocalDate.of(2024, 4, 1), first.orderDate());
+        assertEquals(2L, first.totalBooks());
+        assertEquals(0, new BigDecimal("6800").compareTo(first.totalPrice()));
+        assertEquals(101, batch.get(1).orderTranId());
+        assertTrue(first.outboxId() < batch.get(1).outboxId());
+    }
+
+    @Test
+    @DisplayName("指定したIDの注文のみがアウトボックスから削除されることをテストする")
+    void testDeleteByIds() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        orderOutboxDao.insert(100, 1, LocalDate.of(2024, 4, 1), 2, new BigDecimal("6800"));
+        orderOutboxDao.insert(101, 2, LocalDate.of(2024, 4, 2), 1, new BigDecimal("3400"));
+        orderOutboxDao.insert(102, 1, LocalDate.of(2024, 4, 3), 3, new BigDecimal("9000"));
+        em.getTransaction().commit();
+        List<OrderOutboxTO> batch = orderOutboxDao.findBatch(10);
+
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int deleted = orderOutboxDao.deleteByIds(List.of(
+                batch.get(0).outboxId(), batch.get(2).outboxId()));
+        em.getTransaction().commit();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, deleted);
+        List<OrderOutboxTO> remaining = orderOutboxDao.findBatch(10);
+        assertEquals(1, remaining.size());
+        assertEquals(101, remaining.get(0).orderTranId());
+        assertEquals(0, orderOutboxDao.deleteByIds(List.of()));
+    }
+}
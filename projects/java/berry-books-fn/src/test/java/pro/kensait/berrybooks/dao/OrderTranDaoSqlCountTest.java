@@ -0,0 +1,272 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.entity.OrderDetail;
+import pro.kensait.berrybooks.entity.OrderTran;
+import pro.kensait.berrybooks.service.order.OrderHistoryTO;
+import pro.kensait.berrybooks.service.order.OrderSummaryTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceUnitUtil;
+
+// OrderTranDaoの各メソッドが発行するSQL数を検証するテスト（EclipseLink + HSQLDBインメモリDBを使用）
+// 注文明細を遅延ロードとし、メソッド毎にエンティティグラフで読み込む範囲を指定していることを確認する
+class OrderTranDaoSqlCountTest {
+
+    // 発行されたSQL数
+    private static final AtomicInteger sqlCount = new AtomicInteger();
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private OrderTranDao orderTranDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("orderTranDao");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版'), "
+                + "(2, 'コードブレイクプレス')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java'), (2, 'SQL')",
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', '著者1', 1, 1, 3400), "
+                + "(2, 'JVMとバイトコードの探求', '著者2', 1, 2, 4200), "
+                + "(3, 'SQLの冒険', '著者3', 2, 1, 2200), "
+                + "(4, 'データベースの科学', '著者4', 2, 2, 2500)",
+                "INSERT INTO STOCK VALUES (1, 10, 1), (2, 10, 1), (3, 10, 1), (4, 10, 1)",
+                "INSERT INTO CUSTOMER VALUES "
+                + "(1, 'Alice', 'password', 'alice@gmail.com', NULL, NULL)",
+                "INSERT INTO ORDER_TRAN VALUES "
+                + "(1, '2024-03-01', 1, 7600, 800, '東京都中央区1-1', 1), "
+                + "(2, '2024-03-02', 1, 4700, 800, '東京都中央区1-1', 1), "
+                + "(3, '2024-03-03', 1, 6700, 800, '東京都中央区1-1', 2)",
+                "INSERT INTO ORDER_DETAIL VALUES "
+                + "(1, 1, 1, 3400, 1), (1, 2, 2, 4200, 1), "
+                + "(2, 1, 3, 2200, 1), (2, 2, 4, 2500, 1), "
+                + "(3, 1, 2, 4200, 1), (3, 2, 4, 2500, 1)");
+        emf = Persistence.createEntityManagerFactory("bookstoreTestPU",
+                Map.of("jakarta.persistence.nonJtaDataSource", countingDataSource()));
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        em = emf.createEntityManager();
+        orderTranDao = BookstoreTestDatabase.inject(new OrderTranDao(), em);
+        sqlCount.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("findByIdは注文のみを1回のSQLで取得し、明細は読み込まないことをテストする")
+    void testFindById() {
+        // 実行フェーズ
+        OrderTran orderTran = orderTranDao.findById(1);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(1, orderTran.getOrderTranId());
+        assertEquals(1, sqlCount.get());
+        assertFalse(util().isLoaded(orderTran, "orderDetails"));
+    }
+
+    @Test
+    @DisplayName("findByIdWithDetailsは明細と書籍を読み込み、画面表示で追加のSQLが発行されないことをテストする")
+    void testFindByIdWithDetails() {
+        // 実行フェーズ
+        OrderTran orderTran = orderTranDao.findByIdWithDetails(1);
+        int loadCount = sqlCount.get();
+        touchDetails(List.of(orderTran));
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, orderTran.getOrderDetails().size());
+        assertEquals(1, loadCount);
+        assertEquals(loadCount, sqlCount.get());
+    }
+
+    @Test
+    @DisplayName("findByIdWithDetailsは永続性コンテキストの管理中のエンティティを切り離さないことをテストする")
+    void testFindByIdWithDetailsKeepsManagedEntities() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        OrderTran other = orderTranDao.findById(2);
+
+        // 実行フェーズ
+        OrderTran orderTran = orderTranDao.findByIdWithDetails(1);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, orderTran.getOrderDetails().size());
+        assertTrue(em.contains(other));
+        assertTrue(em.contains(orderTran));
+    }
+
+    @Test
+    @DisplayName("findByCustomerIdは注文のみを1回のSQLで取得し、明細は読み込まないことをテストする")
+    void testFindByCustomerId() {
+        // 実行フェーズ
+        List<OrderTran> orderTrans = orderTranDao.findByCustomerId(1);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(3, orderTrans.size());
+        assertEquals(1, sqlCount.get());
+        for (OrderTran orderTran : orderTrans) {
+            assertFalse(util().isLoaded(orderTran, "orderDetails"));
+        }
+    }
+
+    @Test
+    @DisplayName("findByCustomerIdWithDetailsは注文件数に関係なく一定のSQL数で明細と書籍を読み込むことをテストする")
+    void testFindByCustomerIdWithDetails() {
+        // 実行フェーズ
+        List<OrderTran> orderTrans = orderTranDao.findByCustomerIdWithDetails(1);
+        int loadCount = sqlCount.get();
+        touchDetails(orderTrans);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(3, orderTrans.size());
+        assertEquals(1, loadCount);
+        assertEquals(loadCount, sqlCount.get());
+    }
+
+    @Test
+    @DisplayName("findByIdsWithDetailsは注文件数に関係なく一定のSQL数で明細と書籍を読み込むことをテストする")
+    void testFindByIdsWithDetails() {
+        // 実行フェーズ
+        List<OrderTran> orderTrans = orderTranDao.findByIdsWithDetails(List.of(3, 2));
+        int loadCount = sqlCount.get();
+        touchDetails(orderTrans);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, orderTrans.size());
+        assertEquals(1, loadCount);
+        assertEquals(loadCount, sqlCount.get());
+    }
+
+    @Test
+    @DisplayName("findOrderSummaryByCustomerIdは1回のSQLで注文サマリーを取得することをテストする")
+    void testFindOrderSummaryByCustomerId() {
+        // 実行フェーズ
+        List<OrderSummaryTO> summaries = orderTranDao.findOrderSummaryByCustomerId(1);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(3, summaries.size());
+        assertEquals(1, sqlCount.get());
+    }
+
+    @Test
+    @DisplayName("streamOrderHistoryByCustomerIdはchunkSize件毎に検索しながら全ての注文履歴を新しい順に返すことをテストする")
+    void testStreamOrderHistoryByCustomerId() {
+        // 実行フェーズ
+        List<OrderHistoryTO> histories;
+        try (Stream<OrderHistoryTO> stream = orderTranDao.streamOrderHistoryByCustomerId(1, 1)) {
+            histories = stream.toList();
+        }
+
+        // 検証フェーズ（出力値ベース）
+        // （注文1件毎にキーと明細を検索し、最後に次のキーが無いことを確認する）
+        assertEquals(List.of(3, 3, 2, 2, 1, 1),
+                histories.stream().map(OrderHistoryTO::tranId).toList());
+        assertEquals(3 * 2 + 1, sqlCount.get());
+    }
+
+    @Test
+    @DisplayName("streamOrderHistoryByCustomerIdは読み込んだ範囲のチャンクのみを検索することをテストする")
+    void testStreamOrderHistoryByCustomerIdReadsLazily() {
+        // 実行フェーズ
+        List<OrderHistoryTO> histories;
+        try (Stream<OrderHistoryTO> stream = orderTranDao.streamOrderHistoryByCustomerId(1, 2)) {
+            histories = stream.limit(4).toList();
+        }
+
+        // 検証フェーズ（出力値ベース）
+        // （先頭の2件の注文のキーと明細のみを検索する）
+        assertEquals(List.of(3, 3, 2, 2),
+                histories.stream().map(OrderHistoryTO::tranId).toList());
+        assertEquals(2, sqlCount.get());
+    }
+
+    // 注文履歴画面と同様に、明細の書籍・出版社・カテゴリを参照する
+    private void touchDetails(List<OrderTran> orderTrans) {
+        for (OrderTran orderTran : orderTrans) {
+            for (OrderDetail orderDetail : orderTran.getOrderDetails()) {
+                assertNotNull(orderDetail.getBook().getBookName());
+                assertNotNull(orderDetail.getBook().getPublisher().getPublisherName());
+                assertNotNull(orderDetail.getBook().getCategory().getCategoryName());
+            }
+        }
+    }
+
+    private PersistenceUnitUtil util() {
+        return emf.getPersistenceUnitUtil();
+    }
+
+    // SQLの実行回数を数えるデータソースを生成する
+    private static DataSource countingDataSource() {
+        InvocationHandler dataSourceHandler = (proxy, method, args) -> switch (method.getName()) {
+            case "getConnection" -> countingProxy(Connection.class, database.getConnection());
+            case "getParentLogger" -> Logger.getGlobal();
+            case "getLoginTimeout" -> 0;
+            case "isWrapperFor" -> false;
+            default -> null;
+        };
+        return (DataSource) Proxy.newProxyInstance(
+                OrderTranDaoSqlCountTest.class.getClassLoader(),
+                new Class<?>[] { DataSource.class }, dataSourceHandler);
+    }
+
+    // Connectionから生成したStatementの実行回数を数えるプロキシを生成する
+    private static <T> T countingProxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")
+                    && !method.getName().equals("executeBatch")) {
+                sqlCount.incrementAndGet();
+            }
+            try {
+                Object result = method.invoke(target, args);
+                if (result instanceof PreparedStatement ps) {
+                    return countingProxy(PreparedStatement.class, ps);
+                }
+                if (result instanceof Statement s) {
+                    return countingProxy(Statement.class, s);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(
+                OrderTranDaoSqlCountTest.class.getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+}
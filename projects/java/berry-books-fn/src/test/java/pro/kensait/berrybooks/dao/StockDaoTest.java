@@ -0,0 +1,123 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.service.catalog.StockTO;
+import pro.kensait.berrybooks.service.order.StockReservationTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// StockDaoが発行するSQL（書籍毎の減算数をCASE式で指定する1回のUPDATE、IN句の分割）を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class StockDaoTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private StockDao stockDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("stockDao");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java')",
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', 'Michael Johnson', 1, 1, 3400), "
+                + "(2, 'JVMとバイトコードの探求', 'James Lopez', 1, 1, 4200), "
+                + "(3, 'Javaアーキテクトのための設計原理', 'Mary Davis', 1, 1, 3000)");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database.execute("DELETE FROM STOCK",
+                "INSERT INTO STOCK VALUES (1, 10, 1), (2, 5, 3), (3, 1, 7)");
+        em = emf.createEntityManager();
+        stockDao = BookstoreTestDatabase.inject(new StockDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("複数の書籍の在庫が、書籍毎の注文数だけ1回のUPDATEで減らされることをテストする")
+    void testDecreaseQuantities() throws SQLException {
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int updated = stockDao.decreaseQuantities(List.of(
+                new StockReservationTO(1, 3, 1L),
+                new StockReservationTO(2, 5, 3L)));
+        em.getTransaction().commit();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, updated);
+        assertEquals("1:7:2", readStock(1));
+        assertEquals("2:0:4", readStock(2));
+        assertEquals("3:1:7", readStock(3));
+    }
+
+    @Test
+    @DisplayName("バージョンが一致しない書籍と在庫が不足する書籍は更新されず、更新件数に含まれないことをテストする")
+    void testDecreaseQuantitiesPartially() throws SQLException {
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int updated = stockDao.decreaseQuantities(List.of(
+                new StockReservationTO(1, 2, 1L),
+                new StockReservationTO(2, 1, 2L),
+                new StockReservationTO(3, 2, 7L)));
+        em.getTransaction().commit();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(1, updated);
+        assertEquals("1:8:2", readStock(1));
+        assertEquals("2:5:3", readStock(2));
+        assertEquals("3:1:7", readStock(3));
+    }
+
+    @Test
+    @DisplayName("IN句の上限（1000件）を超える書籍IDを指定した場合も在庫情報が取得されることをテストする")
+    void testFindByIdsOverInClauseLimit() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<Integer> bookIds = IntStream.rangeClosed(1, 2500).boxed().toList();
+
+        // 実行フェーズ
+        List<StockTO> stocks = stockDao.findByIds(bookIds);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 2, 3), stocks.stream().map(StockTO::bookId).sorted().toList());
+    }
+
+    // 在庫を「書籍ID:在庫数:バージョン」の形式で読み込む
+    private String readStock(int bookId) throws SQLException {
+        try (Connection con = database.getConnection();
+                Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT QUANTITY, VERSION FROM STOCK WHERE BOOK_ID = " + bookId)) {
+            rs.next();
+            return bookId + ":" + rs.getInt(1) + ":" + rs.getLong(2);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.service.order.StockLedgerTO;
+import pro.kensait.berrybooks.service.order.StockReservationTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// StockLedgerDaoが発行するSQL（複数行のINSERT、件数を指定した取得、IDを列挙した削除）を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class StockLedgerDaoTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private StockLedgerDao stockLedgerDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("stockLedgerDao");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database.execute("DELETE FROM STOCK_LEDGER");
+        em = emf.createEntityManager();
+        stockLedgerDao = BookstoreTestDatabase.inject(new StockLedgerDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("注文1件分の減算数が1回のINSERTで登録され、登録順に取得されることをテストする")
+    void testInsertAndFindBatch() {
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int inserted = stockLedgerDao.insert(List.of(
+                new StockReservationTO(1, 3, null),
+                new StockReservationTO(2, 1, null)));
+        stockLedgerDao.insert(List.of(new StockReservationTO(1, 2, null)));
+        em.getTransaction().commit();
+        List<StockLedgerTO> rows = stockLedgerDao.findBatch(2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(2, inserted);
+        assertEquals(List.of("1:3", "2:1"), rows.stream()
+                .map(row -> row.bookId() + ":" + row.delta())
+                .toList());
+    }
+
+    @Test
+    @DisplayName("指定したIDの減算数のみが削除されることをテストする")
+    void testDeleteByIds() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        em.getTransaction().begin();
+        stockLedgerDao.insert(List.of(
+                new StockReservationTO(1, 3, null),
+                new StockReservationTO(2, 1, null),
+                new StockReservationTO(3, 4, null)));
+        em.getTransaction().commit();
+        List<StockLedgerTO> rows = stockLedgerDao.findBatch(2);
+
+        // 実行フェーズ
+        em.getTransaction().begin();
+        int deleted = stockLedgerDao.deleteByIds(
+                rows.stream().map(StockLedgerTO::ledgerId).toList());
+        em.getTransaction().commit();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, deleted);
+        assertEquals(List.of(3), stockLedgerDao.findBatch(10).stream()
+                .map(StockLedgerTO::bookId)
+                .toList());
+    }
+}
@@ -0,0 +1,75 @@
+package pro.kensait.berrybooks.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// TableVersionDaoが読み込む書籍カタログの変更カウンタ（トリガーによる加算）を検証するテスト
+// （EclipseLink + HSQLDBインメモリDBを使用）
+class TableVersionDaoTest {
+
+    private static BookstoreTestDatabase database;
+    private static EntityManagerFactory emf;
+
+    private EntityManager em;
+    private TableVersionDao tableVersionDao;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = BookstoreTestDatabase.create("tableVersionDao");
+        database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                "INSERT INTO CATEGORY VALUES (1, 'Java')",
+                "INSERT INTO BOOK VALUES "
+                + "(1, 'Java SEディープダイブ', 'Michael Johnson', 1, 1, 3400)");
+        emf = database.createEntityManagerFactory();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        emf.close();
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        em = emf.createEntityManager();
+        tableVersionDao = BookstoreTestDatabase.inject(new TableVersionDao(), em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.close();
+    }
+
+    @Test
+    @DisplayName("書籍・カテゴリ・出版社の変更で変更カウンタが増え、在庫の変更では増えないことをテストする")
+    void testFindCatalogVersion() throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        long initial = tableVersionDao.findCatalogVersion();
+
+        // 実行フェーズ
+        database.execute("UPDATE BOOK SET PRICE = 3600 WHERE BOOK_ID = 1");
+        long afterBook = tableVersionDao.findCatalogVersion();
+        database.execute("UPDATE CATEGORY SET CATEGORY_NAME = 'Java SE' WHERE CATEGORY_ID = 1",
+                "UPDATE PUBLISHER SET PUBLISHER_NAME = 'コードブレイクプレス' "
+                + "WHERE PUBLISHER_ID = 1");
+        long afterMaster = tableVersionDao.findCatalogVersion();
+        database.execute("INSERT INTO STOCK VALUES (1, 10, 1)");
+        long afterStock = tableVersionDao.findCatalogVersion();
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(initial + 1, afterBook);
+        assertEquals(afterBook + 2, afterMaster);
+        assertEquals(afterMaster, afterStock);
+    }
+}
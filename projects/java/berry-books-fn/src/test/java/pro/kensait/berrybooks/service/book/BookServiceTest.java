@@ -14,11 +14,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import pro.kensait.berrybooks.dao.BookDao;
+import pro.kensait.berrybooks.dao.StockDao;
 import pro.kensait.berrybooks.entity.Book;
 import pro.kensait.berrybooks.entity.Category;
+import pro.kensait.berrybooks.service.catalog.BookIndexTO;
+import pro.kensait.berrybooks.service.catalog.BookSearchIndex;
+import pro.kensait.berrybooks.service.catalog.BookSearchIndexManager;
+import pro.kensait.berrybooks.service.catalog.CatalogCache;
+import pro.kensait.berrybooks.service.catalog.StockTO;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
@@ -26,6 +33,15 @@ class BookServiceTest {
     @Mock
     private BookDao bookDao;
 
+    @Mock
+    private StockDao stockDao;
+
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache();
+
+    @Mock
+    private BookSearchIndexManager bookSearchIndexManager;
+
     @InjectMocks
     private BookService bookService;
 
@@ -389,4 +405,286 @@ class BookServiceTest {
         assertEquals(0, result.size());
         verify(bookDao, times(1)).searchWithCriteria(categoryId, "%" + keyword + "%");
     }
+
+    // getBookCatalogAll / searchBookCatalogのテスト
+
+    @Test
+    @DisplayName("書籍カタログを在庫情報と共に全件取得できることをテストする")
+    void testGetBookCatalogAll() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> catalog = new ArrayList<>();
+        catalog.add(new BookStockTO(1, "Java入門", "山田太郎", 1, "技術書",
+                "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L));
+        when(bookDao.searchCatalog(null, null)).thenReturn(catalog);
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 10, 1L)));
+
+        // 実行フェーズ
+        List<BookStockTO> result = bookService.getBookCatalogAll();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(1, result.size());
+        assertEquals(10, result.get(0).quantity());
+        assertEquals(1L, result.get(0).version());
+        verify(bookDao, times(1)).searchCatalog(null, null);
+        verify(bookDao, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("2回目の書籍カタログ検索ではキャッシュが使用され、在庫数のみ最新の値に置き換えられることをテストする")
+    void testGetBookCatalogAllCached() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> catalog = new ArrayList<>();
+        catalog.add(new BookStockTO(1, "Java入門", "山田太郎", 1, "技術書",
+                "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L));
+        when(bookDao.searchCatalog(null, null)).thenReturn(catalog);
+        when(stockDao.findByIds(List.of(1)))
+                .thenReturn(List.of(new StockTO(1, 10, 1L)))
+                .thenReturn(List.of(new StockTO(1, 8, 2L)));
+
+        // 実行フェーズ（注文により在庫キャッシュが無効化された後に再検索する）
+        bookService.getBookCatalogAll();
+        catalogCache.invalidateStocks(List.of(1));
+        List<BookStockTO> result = bookService.getBookCatalogAll();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(8, result.get(0).quantity());
+        assertEquals(2L, result.get(0).version());
+        assertEquals("Java入門", result.get(0).bookName());
+        verify(bookDao, times(1)).searchCatalog(null, null);
+        verify(stockDao, times(2)).findByIds(List.of(1));
+    }
+
+    @Test
+    @DisplayName("書籍カタログ検索でカテゴリIDとキーワードが条件として渡されることをテストする")
+    void testSearchBookCatalog() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(bookDao.searchCatalog(1, "%Java%")).thenReturn(new ArrayList<>());
+
+        // 実行フェーズ
+        List<BookStockTO> result = bookService.searchBookCatalog(1, "Java");
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNotNull(result);
+        verify(bookDao, times(1)).searchCatalog(1, "%Java%");
+    }
+
+    @Test
+    @DisplayName("書籍カタログ検索で未選択のカテゴリと空のキーワードがnullとして処理されることをテストする")
+    void testSearchBookCatalogEmptyConditions() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(bookDao.searchCatalog(null, null)).thenReturn(new ArrayList<>());
+
+        // 実行フェーズ
+        List<BookStockTO> result = bookService.searchBookCatalog(0, "");
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNotNull(result);
+        verify(bookDao, times(1)).searchCatalog(null, null);
+    }
+
+    // searchBookCatalogPageのテスト
+
+    @Test
+    @DisplayName("ページ検索でlimit+1件を取得し、次のページの有無が判定されることをテストする")
+    void testSearchBookCatalogPage() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> catalog = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            catalog.add(new BookStockTO(i, "Java入門" + i, "山田太郎", 1, "技術書",
+                    "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L));
+        }
+        when(bookDao.searchCatalogPage(1, "%Java%", BookSortKey.PRICE, null, 4, 3))
+                .thenReturn(catalog);
+
+        // 実行フェーズ
+        BookPageTO page = bookService.searchBookCatalogPage(1, "Java", BookSortKey.PRICE,
+                null, 4, 2);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(2, page.books().size());
+        assertEquals(2, page.books().get(1).bookId());
+        assertTrue(page.hasNext());
+        verify(bookDao, never()).countCatalog(any(), any());
+    }
+
+    @Test
+    @DisplayName("ページ検索で最後のページの場合は次のページが無いと判定されることをテストする")
+    void testSearchBookCatalogPageLast() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookStockTO after = new BookStockTO(2, "Java入門2", "山田太郎", 1, "技術書",
+                "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L);
+        when(bookDao.searchCatalogPage(null, null, BookSortKey.BOOK_ID, after, 2, 3))
+                .thenReturn(List.of(new BookStockTO(3, "Java入門3", "山田太郎", 1, "技術書",
+                        "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L)));
+
+        // 実行フェーズ
+        // （並び順の指定が無い場合は書籍ID順となる）
+        BookPageTO page = bookService.searchBookCatalogPage(0, "", null, after, 2, 2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(1, page.books().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    @DisplayName("在庫の変更後の再検索では、キャッシュした書籍カタログに最新の在庫数が反映されることをテストする")
+    void testSearchBookCatalogPageCached() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(bookDao.searchCatalogPage(null, null, BookSortKey.BOOK_ID, null, 0, 2))
+                .thenReturn(List.of(new BookStockTO(1, "Java入門", "山田太郎", 1, "技術書",
+                        "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L)));
+        when(stockDao.findByIds(List.of(1)))
+                .thenReturn(List.of(new StockTO(1, 10, 1L)))
+                .thenReturn(List.of(new StockTO(1, 7, 2L)));
+
+        // 実行フェーズ
+        // （在庫の変更により、在庫キャッシュのみが無効化された状態で再検索する）
+        bookService.searchBookCatalogPage(null, null, null, null, 0, 1);
+        catalogCache.invalidateStocks(List.of(1));
+        BookPageTO page = bookService.searchBookCatalogPage(null, null, null, null, 0, 1);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(7, page.books().get(0).quantity());
+        assertEquals(2L, page.books().get(0).version());
+        verify(bookDao, times(1)).searchCatalogPage(any(), any(), any(), any(), anyInt(),
+                anyInt());
+    }
+
+    @Test
+    @DisplayName("前のページの検索で逆順に取得した書籍が並び順に並べ直されることをテストする")
+    void testSearchBookCatalogPageBefore() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookStockTO before = new BookStockTO(5, "Java入門5", "山田太郎", 1, "技術書",
+                "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L);
+        List<BookStockTO> reversed = new ArrayList<>();
+        for (int i = 4; i >= 3; i--) {
+            reversed.add(new BookStockTO(i, "Java入門" + i, "山田太郎", 1, "技術書",
+                    "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L));
+        }
+        when(bookDao.searchCatalogPageBefore(1, "%Java%", BookSortKey.PRICE, before, 2))
+                .thenReturn(reversed);
+
+        // 実行フェーズ
+        BookPageTO page = bookService.searchBookCatalogPageBefore(1, "Java",
+                BookSortKey.PRICE, before, 2, 2);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(List.of(3, 4), page.books().stream().map(BookStockTO::bookId).toList());
+        assertTrue(page.hasNext());
+        verify(bookDao, never()).searchCatalogPage(any(), any(), any(), any(), anyInt(),
+                anyInt());
+    }
+
+    @Test
+    @DisplayName("ページ検索で不正なoffset・limitを指定した場合に例外がスローされることをテストする")
+    void testSearchBookCatalogPageInvalidPage() {
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.searchBookCatalogPage(null, null, null, null, -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.searchBookCatalogPage(null, null, null, null, 0, 0));
+    }
+
+    @Test
+    @DisplayName("書籍カタログの件数取得で検索条件がページ検索と同じ形式で渡されることをテストする")
+    void testCountBookCatalog() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(bookDao.countCatalog(null, "%Java%")).thenReturn(42L);
+
+        // 実行フェーズ
+        long count = bookService.countBookCatalog(0, "Java");
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(42L, count);
+    }
+
+    // searchBookRankedのテスト
+
+    @Test
+    @DisplayName("ランキング検索でインデックスの順序のまま指定ページの書籍カタログが返されることをテストする")
+    void testSearchBookRanked() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookSearchIndex index = BookSearchIndex.build(List.of(
+                new BookIndexTO(1, "Spring Boot実践", "Java研究会", 1),
+                new BookIndexTO(2, "はじめてのJava", "山田太郎", 1),
+                new BookIndexTO(3, "Java入門", "山田太郎", 1)));
+        when(bookSearchIndexManager.getIndex()).thenReturn(index);
+        when(bookDao.findCatalogByIds(List.of(3, 2))).thenReturn(List.of(
+                new BookStockTO(2, "はじめてのJava", "山田太郎", 1, "技術書",
+                        "デジタルフロンティア出版", new BigDecimal("2000"), 5, 1L),
+                new BookStockTO(3, "Java入門", "山田太郎", 1, "技術書",
+                        "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L)));
+        when(stockDao.findByIds(List.of(3, 2))).thenReturn(
+                List.of(new StockTO(3, 9, 2L), new StockTO(2, 5, 1L)));
+
+        // 実行フェーズ
+        BookSearchResultTO result = bookService.searchBookRanked(0, "java", 0, 2);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(3, result.totalCount());
+        assertEquals(2, result.books().size());
+        assertEquals(3, result.books().get(0).bookId());
+        assertEquals(9, result.books().get(0).quantity());
+        assertEquals(2, result.books().get(1).bookId());
+        verify(bookDao, never()).searchCatalog(any(), any());
+    }
+
+    @Test
+    @DisplayName("インデックスの構築前はLIKE検索の結果がページ分割されて返されることをテストする")
+    void testSearchBookRankedBeforeIndexBuilt() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<BookStockTO> catalog = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            catalog.add(new BookStockTO(i, "Java入門" + i, "山田太郎", 1, "技術書",
+                    "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L));
+        }
+        when(bookSearchIndexManager.getIndex()).thenReturn(null);
+        when(bookDao.searchCatalog(null, "%Java%")).thenReturn(catalog);
+        when(stockDao.findByIds(List.of(1, 2, 3))).thenReturn(List.of());
+
+        // 実行フェーズ
+        BookSearchResultTO result = bookService.searchBookRanked(null, "Java", 2, 10);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(3, result.totalCount());
+        assertEquals(1, result.books().size());
+        assertEquals(3, result.books().get(0).bookId());
+        verify(bookDao, never()).findCatalogByIds(any());
+    }
+
+    @Test
+    @DisplayName("関連度順のページ検索がランキング検索で行われ、次のページの有無が総数から判定されることをテストする")
+    void testSearchBookCatalogPageRelevance() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookSearchIndex index = BookSearchIndex.build(List.of(
+                new BookIndexTO(1, "Spring Boot実践", "Java研究会", 1),
+                new BookIndexTO(2, "はじめてのJava", "山田太郎", 1),
+                new BookIndexTO(3, "Java入門", "山田太郎", 1)));
+        when(bookSearchIndexManager.getIndex()).thenReturn(index);
+        when(bookDao.findCatalogByIds(List.of(3))).thenReturn(List.of(
+                new BookStockTO(3, "Java入門", "山田太郎", 1, "技術書",
+                        "デジタルフロンティア出版", new BigDecimal("2800"), 10, 1L)));
+        when(stockDao.findByIds(List.of(3))).thenReturn(List.of(new StockTO(3, 10, 1L)));
+
+        // 実行フェーズ
+        BookPageTO page = bookService.searchBookCatalogPage(null, "java",
+                BookSortKey.RELEVANCE, null, 0, 1);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(1, page.books().size());
+        assertEquals(3, page.books().get(0).bookId());
+        assertTrue(page.hasNext());
+        verify(bookDao, never()).searchCatalogPage(any(), any(), any(), any(), anyInt(),
+                anyInt());
+    }
+
+    @Test
+    @DisplayName("ランキング検索で不正なoffset・limitを指定した場合に例外がスローされることをテストする")
+    void testSearchBookRankedInvalidPage() {
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.searchBookRanked(null, "Java", -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.searchBookRanked(null, "Java", 0, 0));
+    }
 }
@@ -0,0 +1,159 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.dao.BookstoreTestDatabase;
+
+// 書籍のキーワード検索のベンチマーク（HSQLDBのファイルDBを使用）
+// ※書籍100万件をインメモリDBとインデックスの両方に保持するとテスト用JVMのヒープに収まらないため、
+//   テーブルはCACHEDテーブル（ディスク上に格納し、一部のみメモリにキャッシュする）とする
+// 書籍名のLIKE検索（全件走査）と、書籍名・著者の転置インデックス（BookSearchIndex）による検索を比較する
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class BookSearchIndexBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            BookSearchIndexBenchmarkTest.class);
+
+    // 計測の繰り返し回数
+    private static final int ITERATIONS = 5;
+
+    // 1ページの件数
+    private static final int PAGE_SIZE = 20;
+
+    // 書籍名の生成に使用する語
+    private static final String[] WORDS = {
+            "Java", "SQL", "クラウド", "データベース", "アーキテクチャ", "デザインパターン",
+            "プログラミング", "マイクロサービス", "セキュリティ", "テスト駆動開発", "アルゴリズム",
+            "ネットワーク", "機械学習", "分散システム", "パフォーマンス", "リファクタリング",
+            "コンテナ", "関数型言語", "並行処理", "ドメイン駆動設計"
+    };
+    private static final String[] SUFFIXES = {
+            "入門", "実践ガイド", "の教科書", "徹底解説", "ハンドブック", "の基礎", "設計と実装"
+    };
+    private static final String[] AUTHORS = {
+            "Michael Johnson", "David Miller", "James Lopez", "Robert Brown", "Mary Davis",
+            "Sarah Wilson", "John Taylor", "Linda Moore"
+    };
+
+    // 検索キーワード（一致件数の多いもの・少ないもの）
+    private static final String[] KEYWORDS = {
+            "機械学習", "分散システム設計", "リファクタリングの教科書"
+    };
+
+    @TempDir
+    private Path tempDir;
+
+    @ParameterizedTest(name = "書籍{0}件")
+    @ValueSource(ints = {100_000, 1_000_000})
+    @DisplayName("キーワード検索の方式毎の処理時間を計測する")
+    void benchmarkKeywordSearch(int bookCount) throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        try (BookstoreTestDatabase database = BookstoreTestDatabase.createOnDisk(
+                tempDir, "bookSearch" + bookCount);
+                Connection con = database.getConnection()) {
+            database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                    "INSERT INTO CATEGORY VALUES (1, 'Java'), (2, 'SQL'), (3, 'クラウド'), "
+                    + "(4, 'データベース'), (5, 'アーキテクチャ')");
+            List<BookIndexTO> books = insertBooks(con, bookCount);
+
+            long start = System.nanoTime();
+            BookSearchIndex index = BookSearchIndex.build(books);
+            double buildMillis = (System.nanoTime() - start) / 1_000_000.0;
+            books = null;
+
+            for (String keyword : KEYWORDS) {
+                // ウォームアップ
+                searchWithLike(con, keyword);
+                index.search(null, keyword, 0, PAGE_SIZE);
+
+                // 実行フェーズ
+                long likeNanos = 0;
+                long indexNanos = 0;
+                int likeRows = 0;
+                BookSearchHits hits = null;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    start = System.nanoTime();
+                    likeRows = searchWithLike(con, keyword);
+                    likeNanos += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    hits = index.search(null, keyword, 0, PAGE_SIZE);
+                    indexNanos += System.nanoTime() - start;
+                }
+
+                // 検証フェーズ（出力値ベース）
+                // （キーワードは書籍名にのみ現れるため、両方式の一致件数は同じになる）
+                assertEquals(likeRows, hits.totalCount());
+                assertEquals(Math.min(likeRows, PAGE_SIZE), hits.bookIds().size());
+                logger.info(String.format("[ BookSearchIndexBenchmark ] books=%d, keyword=%s, "
+                        + "matches=%d, like=%.2fms, index=%.2fms (build %.0fms)",
+                        bookCount, keyword, likeRows,
+                        likeNanos / 1_000_000.0 / ITERATIONS,
+                        indexNanos / 1_000_000.0 / ITERATIONS, buildMillis));
+            }
+        }
+    }
+
+    // LIKE方式：書籍名の部分一致で全件を走査し、一致した書籍IDを全て読み込む
+    // （BookDao#searchCatalogと同様に、一致件数とページの内容は読み込み後に求める）
+    private int searchWithLike(Connection con, String keyword) throws SQLException {
+        int rows = 0;
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT BOOK_ID FROM BOOK WHERE BOOK_NAME LIKE ? ORDER BY BOOK_ID")) {
+            ps.setString(1, "%" + keyword + "%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    // 語をランダムに組み合わせた書籍名で書籍を登録し、インデックス構築用の書籍情報を返す
+    private List<BookIndexTO> insertBooks(Connection con, int bookCount) throws SQLException {
+        Random random = new Random(42);
+        List<BookIndexTO> books = new ArrayList<>(bookCount);
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO BOOK VALUES (?, ?, ?, ?, 1, 3000)")) {
+            for (int i = 1; i <= bookCount; i++) {
+                String bookName = WORDS[random.nextInt(WORDS.length)]
+                        + WORDS[random.nextInt(WORDS.length)]
+                        + SUFFIXES[random.nextInt(SUFFIXES.length)]
+                        + " 第" + (i % 9 + 1) + "版";
+                String author = AUTHORS[random.nextInt(AUTHORS.length)];
+                int categoryId = i % 5 + 1;
+                ps.setInt(1, i);
+                ps.setString(2, bookName);
+                ps.setString(3, author);
+                ps.setInt(4, categoryId);
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                }
+                books.add(new BookIndexTO(i, bookName, author, categoryId));
+            }
+            if (bookCount % 10_000 != 0) {
+                ps.executeBatch();
+            }
+        }
+        return books;
+    }
+}
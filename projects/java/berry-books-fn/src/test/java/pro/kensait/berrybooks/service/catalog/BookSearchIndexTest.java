@@ -0,0 +1,122 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = BookSearchIndex.build(List.of(
+                new BookIndexTO(5, "SQLの冒険～RDBの深淵", "David Miller", 3),
+                new BookIndexTO(1, "Java SEディープダイブ", "Michael Johnson", 1),
+                new BookIndexTO(2, "JVMとJavaバイトコードの探求", "James Lopez", 1),
+                new BookIndexTO(3, "ＪａｖａＥＥ６ 実践入門", "伊藤 健太", 1),
+                new BookIndexTO(4, "はじめてのプログラミング", "Java研究会", 2)));
+    }
+
+    @Test
+    @DisplayName("書籍名の途中の日本語に部分一致する書籍が検索されることをテストする")
+    void testSearchJapanesePartialWord() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, "バイトコード", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(2), hits.bookIds());
+        assertEquals(1, hits.totalCount());
+    }
+
+    @Test
+    @DisplayName("著者名に部分一致する書籍が検索されることをテストする")
+    void testSearchAuthor() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, "健太", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(3), hits.bookIds());
+    }
+
+    @Test
+    @DisplayName("書籍名の前方一致・書籍名の部分一致・著者の部分一致の順に並ぶことをテストする")
+    void testSearchRanking() {
+        // 実行フェーズ
+        // （全角英字・大文字小文字の違いは正規化により同一視される）
+        BookSearchHits hits = index.search(null, "java", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 3, 2, 4), hits.bookIds());
+        assertEquals(4, hits.totalCount());
+    }
+
+    @Test
+    @DisplayName("空白区切りの複数キーワードがAND条件で検索されることをテストする")
+    void testSearchMultipleKeywords() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, "Java　入門", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(3), hits.bookIds());
+    }
+
+    @Test
+    @DisplayName("1文字のキーワードでも部分一致する書籍が検索されることをテストする")
+    void testSearchSingleCharacter() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, "淵", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(5), hits.bookIds());
+    }
+
+    @Test
+    @DisplayName("どの書籍にも含まれない1文字のキーワードでは書籍が検索されないことをテストする")
+    void testSearchSingleCharacterNotFound() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, "龍", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(hits.bookIds().isEmpty());
+        assertEquals(0, hits.totalCount());
+    }
+
+    @Test
+    @DisplayName("索引語が全て含まれていても部分一致しない書籍は検索されないことをテストする")
+    void testSearchVerifiesSubstring() {
+        // 実行フェーズ
+        // （「avava」のbigram「av」「va」は「Java」に含まれるが、「avava」自体は含まれない）
+        BookSearchHits hits = index.search(null, "avava", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(hits.bookIds().isEmpty());
+        assertEquals(0, hits.totalCount());
+    }
+
+    @Test
+    @DisplayName("キーワードが空の場合はカテゴリの全書籍が書籍ID順に検索されることをテストする")
+    void testSearchCategoryOnly() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(1, "", 0, 10);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(1, 2, 3), hits.bookIds());
+    }
+
+    @Test
+    @DisplayName("offsetとlimitで指定したページの書籍IDと総数が返されることをテストする")
+    void testSearchPaging() {
+        // 実行フェーズ
+        BookSearchHits hits = index.search(null, null, 2, 2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(List.of(3, 4), hits.bookIds());
+        assertEquals(5, hits.totalCount());
+        assertEquals(5, index.size());
+    }
+}
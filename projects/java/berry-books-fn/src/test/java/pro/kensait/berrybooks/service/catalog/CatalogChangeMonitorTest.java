@@ -0,0 +1,61 @@
+package pro.kensait.berrybooks.service.catalog;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pro.kensait.berrybooks.dao.TableVersionDao;
+import jakarta.enterprise.event.Event;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeMonitorTest {
+
+    @Mock
+    private TableVersionDao tableVersionDao;
+
+    @Mock
+    private Event<CatalogChangedEvent> catalogChangedEvent;
+
+    @InjectMocks
+    private CatalogChangeMonitor catalogChangeMonitor;
+
+    @Test
+    @DisplayName("変更カウンタが変わった場合のみカタログ変更イベントが発行されることをテストする")
+    void testCheck() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(tableVersionDao.findCatalogVersion())
+                .thenReturn(3L)
+                .thenReturn(3L)
+                .thenReturn(4L);
+
+        // 実行フェーズ
+        catalogChangeMonitor.check();
+        catalogChangeMonitor.check();
+        catalogChangeMonitor.check();
+
+        // 検証フェーズ（コミュニケーションベース）
+        // 初回は比較対象が無いため発行せず、変わらない場合も発行しない
+        verify(catalogChangedEvent, times(1)).fire(new CatalogChangedEvent(List.of()));
+    }
+
+    @Test
+    @DisplayName("変更カウンタの確認に失敗した場合はイベントが発行されないことをテストする")
+    void testCheckFailure() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(tableVersionDao.findCatalogVersion())
+                .thenThrow(new RuntimeException("DB error"));
+
+        // 実行フェーズと検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertThrows(RuntimeException.class, () -> catalogChangeMonitor.check());
+        verify(catalogChangedEvent, never()).fire(any());
+    }
+}
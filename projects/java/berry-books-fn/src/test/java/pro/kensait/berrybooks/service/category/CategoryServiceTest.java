@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,6 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import pro.kensait.berrybooks.dao.CategoryDao;
 import pro.kensait.berrybooks.entity.Category;
+import pro.kensait.berrybooks.service.catalog.CatalogCache;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceTest {
@@ -26,6 +28,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryDao categoryDao;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache();
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -162,4 +167,22 @@ class CategoryServiceTest {
         assertEquals(4, result.get("文学"));
         verify(categoryDao, times(1)).findAll();
     }
+
+    @Test
+    @DisplayName("2回目以降のカテゴリ取得ではキャッシュが使用されDAOが呼び出されないことをテストする")
+    void testGetCategoriesCached() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(categoryDao.findAll()).thenReturn(testCategoryList);
+
+        // 実行フェーズ
+        categoryService.getCategoriesAll();
+        List<Category> result = categoryService.getCategoriesAll();
+        Map<String, Integer> map = categoryService.getCategoryMap();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(3, result.size());
+        assertEquals(3, map.size());
+        verify(categoryDao, times(1)).findAll();
+        assertEquals(2, catalogCache.getStats().get("category").hitCount());
+    }
 }
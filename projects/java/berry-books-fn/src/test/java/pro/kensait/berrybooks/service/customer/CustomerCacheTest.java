@@ -0,0 +1,126 @@
+package pro.kensait.berrybooks.service.customer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.entity.Customer;
+import pro.kensait.berrybooks.util.CacheStats;
+
+class CustomerCacheTest {
+
+    private CustomerCache customerCache;
+
+    // テスト用の顧客テーブル（キー：顧客ID）と、読み込み回数
+    private Map<Integer, Customer> table;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        customerCache = new CustomerCache();
+        table = new HashMap<>();
+        table.put(1, customer(1, "alice@example.com", "Alice"));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("メールアドレスで読み込んだ顧客が、顧客IDでもキャッシュから取得されることをテストする")
+    void testFindByEmailThenById() {
+        // 実行フェーズ
+        Customer byEmail = customerCache.findByEmail("alice@example.com", this::loadByEmail);
+        Customer byId = customerCache.findById(1, this::loadById);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals("Alice", byEmail.getCustomerName());
+        assertEquals("Alice", byId.getCustomerName());
+        assertEquals(1, loads.get());
+        Map<String, CacheStats> stats = customerCache.getStats();
+        assertEquals(1, stats.get("customer").hitCount());
+        assertEquals(0, stats.get("email").hitCount());
+    }
+
+    @Test
+    @DisplayName("取得した顧客を変更しても、キャッシュの内容は変わらないことをテストする")
+    void testReturnsCopy() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Customer first = customerCache.findById(1, this::loadById);
+
+        // 実行フェーズ
+        first.setCustomerName("変更後");
+        Customer second = customerCache.findById(1, this::loadById);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals("Alice", second.getCustomerName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("顧客更新イベントの受信後は、顧客IDとメールアドレスの両方で読み込み直されることをテストする")
+    void testInvalidateOnCustomerChanged() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        customerCache.findByEmail("alice@example.com", this::loadByEmail);
+        table.put(1, customer(1, "alice@example.com", "Alice Smith"));
+
+        // 実行フェーズ
+        customerCache.onCustomerChanged(new CustomerChangedEvent(1));
+        Customer byEmail = customerCache.findByEmail("alice@example.com", this::loadByEmail);
+        Customer byId = customerCache.findById(1, this::loadById);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals("Alice Smith", byEmail.getCustomerName());
+        assertEquals("Alice Smith", byId.getCustomerName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("メールアドレスが変更された顧客は、古いメールアドレスで取得されないことをテストする")
+    void testStaleEmailIndex() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        customerCache.findByEmail("alice@example.com", this::loadByEmail);
+        table.put(1, customer(1, "alice2@example.com", "Alice"));
+        customerCache.onCustomerChanged(new CustomerChangedEvent(1));
+        customerCache.findById(1, this::loadById);
+
+        // 実行フェーズ
+        Customer byOldEmail = customerCache.findByEmail("alice@example.com", this::loadByEmail);
+
+        // 検証フェーズ（出力値ベース）
+        assertNull(byOldEmail);
+    }
+
+    @Test
+    @DisplayName("存在しない顧客はキャッシュされず、毎回読み込まれることをテストする")
+    void testNotFoundIsNotCached() {
+        // 実行フェーズ
+        customerCache.findByEmail("nobody@example.com", this::loadByEmail);
+        Customer result = customerCache.findByEmail("nobody@example.com", this::loadByEmail);
+
+        // 検証フェーズ（出力値ベース）
+        assertNull(result);
+        assertEquals(2, loads.get());
+    }
+
+    private Customer loadById(Integer customerId) {
+        loads.incrementAndGet();
+        return table.get(customerId);
+    }
+
+    private Customer loadByEmail(String email) {
+        loads.incrementAndGet();
+        return table.values().stream()
+                .filter(customer -> customer.getEmail().equals(email))
+                .findFirst().orElse(null);
+    }
+
+    private static Customer customer(Integer customerId, String email, String name) {
+        Customer customer = new Customer(name, email, "password123", null, "東京都");
+        customer.setCustomerId(customerId);
+        return customer;
+    }
+}
@@ -4,12 +4,17 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import pro.kensait.berrybooks.dao.CustomerDao;
@@ -21,6 +26,20 @@ class CustomerServiceTest {
     @Mock
     private CustomerDao customerDao;
 
+    @Mock
+    private CustomerPasswordWriter customerPasswordWriter;
+
+    @Mock
+    private CustomerRegistrationWriter customerRegistrationWriter;
+
+    @Spy
+    private CustomerCache customerCache = new CustomerCache();
+
+    // テストの実行時間を抑えるため、反復回数を少なくした実物を使用する
+    @Spy
+    private PasswordVerifier passwordVerifier = new PasswordVerifier(
+            1000, 1, 10, 2000L, 100, Duration.ofSeconds(30));
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -41,6 +60,11 @@ class CustomerServiceTest {
         testCustomer.setAddress("東京都渋谷区神宮前1-1-1");
     }
 
+    @AfterEach
+    void tearDown() {
+        passwordVerifier.shutdown();
+    }
+
     // registerCustomerのテスト
 
     @Test
@@ -53,7 +77,7 @@ class CustomerServiceTest {
         newCustomer.setCustomerName("新規太郎");
         
         when(customerDao.findByEmail("new@example.com")).thenReturn(null);
-        doNothing().when(customerDao).register(newCustomer);
+        doNothing().when(customerRegistrationWriter).register(newCustomer);
 
         // 実行フェーズ
         Customer result = customerService.registerCustomer(newCustomer);
@@ -62,7 +86,7 @@ class CustomerServiceTest {
         assertNotNull(result);
         assertEquals("new@example.com", result.getEmail());
         verify(customerDao, times(1)).findByEmail("new@example.com");
-        verify(customerDao, times(1)).register(newCustomer);
+        verify(customerRegistrationWriter, times(1)).register(newCustomer);
     }
 
     @Test
@@ -81,7 +105,7 @@ class CustomerServiceTest {
         });
         assertEquals("このメールアドレスは既に登録されています", exception.getMessage());
         verify(customerDao, times(1)).findByEmail(testEmail);
-        verify(customerDao, never()).register(any(Customer.class));
+        verify(customerRegistrationWriter, never()).register(any(Customer.class));
     }
 
     @Test
@@ -93,7 +117,7 @@ class CustomerServiceTest {
         newCustomer.setPassword("password123");
         
         when(customerDao.findByEmail(null)).thenReturn(null);
-        doNothing().when(customerDao).register(newCustomer);
+        doNothing().when(customerRegistrationWriter).register(newCustomer);
 
         // 実行フェーズ
         Customer result = customerService.registerCustomer(newCustomer);
@@ -101,7 +125,7 @@ class CustomerServiceTest {
         // 検証フェーズ（出力値ベース、コミュニケーションベース）
         assertNotNull(result);
         verify(customerDao, times(1)).findByEmail(null);
-        verify(customerDao, times(1)).register(newCustomer);
+        verify(customerRegistrationWriter, times(1)).register(newCustomer);
     }
 
     // authenticateのテスト
@@ -213,6 +237,99 @@ class CustomerServiceTest {
         verify(customerDao, times(1)).findByEmail(testEmail);
     }
 
+    @Test
+    @DisplayName("登録時にパスワードがハッシュ化されて格納されることをテストする")
+    void testRegisterCustomerHashesPassword() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Customer newCustomer = new Customer();
+        newCustomer.setEmail("new@example.com");
+        newCustomer.setPassword("newpass123");
+
+        when(customerDao.findByEmail("new@example.com")).thenReturn(null);
+
+        // 実行フェーズ
+        Customer result = customerService.registerCustomer(newCustomer);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        // （ハッシュ化した後に、登録のトランザクションが開始される）
+        assertTrue(result.getPassword().startsWith("pbkdf2$1000$"));
+        assertTrue(passwordVerifier.verify("newpass123", result.getPassword()));
+        InOrder inOrder = inOrder(passwordVerifier, customerRegistrationWriter);
+        inOrder.verify(passwordVerifier).hash("newpass123");
+        inOrder.verify(customerRegistrationWriter).register(newCustomer);
+    }
+
+    @Test
+    @DisplayName("平文で格納された顧客の認証成功時に、ハッシュ値へ移行されることをテストする")
+    void testAuthenticateMigratesPlainPassword() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(customerDao.findByEmail(testEmail)).thenReturn(testCustomer);
+        when(customerPasswordWriter.updatePassword(eq(1), eq(testPassword),
+                startsWith("pbkdf2$"))).thenReturn(true);
+
+        // 実行フェーズ
+        Customer result = customerService.authenticate(testEmail, testPassword);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNotNull(result);
+        assertTrue(result.getPassword().startsWith("pbkdf2$1000$"));
+        verify(customerPasswordWriter, times(1)).updatePassword(eq(1), eq(testPassword),
+                startsWith("pbkdf2$"));
+    }
+
+    @Test
+    @DisplayName("ハッシュ値で格納された顧客の認証では、格納値が更新されないことをテストする")
+    void testAuthenticateHashedPassword() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        testCustomer.setPassword(passwordVerifier.hash(testPassword));
+        when(customerDao.findByEmail(testEmail)).thenReturn(testCustomer);
+
+        // 実行フェーズ
+        Customer success = customerService.authenticate(testEmail, testPassword);
+        Customer failure = customerService.authenticate(testEmail, "wrongpassword");
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNotNull(success);
+        assertNull(failure);
+        verify(customerPasswordWriter, never()).updatePassword(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("同じパスワードでの繰り返しの認証では、照合結果のキャッシュが使用されることをテストする")
+    void testAuthenticateUsesResultCache() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        testCustomer.setPassword(passwordVerifier.hash(testPassword));
+        when(customerDao.findByEmail(testEmail)).thenReturn(testCustomer);
+
+        // 実行フェーズ
+        for (int i = 0; i < 3; i++) {
+            customerService.authenticate(testEmail, testPassword);
+            customerService.authenticate(testEmail, "wrongpassword");
+        }
+
+        // 検証フェーズ（出力値ベース）
+        // （成功・失敗とも、2回目以降はキャッシュから照合結果を取得する）
+        assertEquals(4, passwordVerifier.getCacheStats().hitCount());
+        assertEquals(2, passwordVerifier.getCacheStats().missCount());
+    }
+
+    @Test
+    @DisplayName("同じ顧客の繰り返しの認証では、顧客がキャッシュから取得されることをテストする")
+    void testAuthenticateUsesCustomerCache() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        testCustomer.setPassword(passwordVerifier.hash(testPassword));
+        when(customerDao.findByEmail(testEmail)).thenReturn(testCustomer);
+
+        // 実行フェーズ
+        Customer first = customerService.authenticate(testEmail, testPassword);
+        Customer second = customerService.authenticate(testEmail, testPassword);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(first.getCustomerId(), second.getCustomerId());
+        assertNotSame(first, second);
+        verify(customerDao, times(1)).findByEmail(testEmail);
+    }
+
     // getCustomerのテスト
 
     @Test
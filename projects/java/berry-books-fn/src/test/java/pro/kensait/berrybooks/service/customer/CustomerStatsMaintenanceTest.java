@@ -0,0 +1,85 @@
+package pro.kensait.berrybooks.service.customer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsMaintenanceTest {
+
+    @Mock
+    private CustomerStatsDao customerStatsDao;
+
+    @Mock
+    private CustomerStatsWriter customerStatsWriter;
+
+    @InjectMocks
+    private CustomerStatsMaintenance customerStatsMaintenance;
+
+    @Test
+    @DisplayName("再集計が顧客ID範囲（1000件）毎に分割して行われることをテストする")
+    void testRebuild() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(customerStatsDao.findMaxCustomerId()).thenReturn(2500);
+        when(customerStatsWriter.rebuildRange(1, 1000)).thenReturn(300);
+        when(customerStatsWriter.rebuildRange(1001, 2000)).thenReturn(200);
+        when(customerStatsWriter.rebuildRange(2001, 2500)).thenReturn(100);
+
+        // 実行フェーズ
+        int rows = customerStatsMaintenance.rebuild();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(600, rows);
+        verify(customerStatsWriter, times(3)).rebuildRange(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("顧客がいない場合は再集計が行われないことをテストする")
+    void testRebuildNoCustomers() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(customerStatsDao.findMaxCustomerId()).thenReturn(0);
+
+        // 実行フェーズ
+        int rows = customerStatsMaintenance.rebuild();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(0, rows);
+        verify(customerStatsWriter, never()).rebuildRange(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("整合性チェックで不一致の顧客のみが再集計されることをテストする")
+    void testCheckAndRepair() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        LocalDate orderDate = LocalDate.of(2024, 3, 1);
+        CustomerStatsCheckTO consistent = new CustomerStatsCheckTO(
+                1, 2L, 4L, orderDate, 2L, 4L, orderDate);
+        CustomerStatsCheckTO noOrders = new CustomerStatsCheckTO(
+                2, null, null, null, 0L, null, null);
+        CustomerStatsCheckTO missing = new CustomerStatsCheckTO(
+                3, null, null, null, 1L, 2L, orderDate);
+        when(customerStatsDao.findMaxCustomerId()).thenReturn(3);
+        when(customerStatsDao.findCheckRange(1, 3))
+                .thenReturn(List.of(consistent, noOrders, missing));
+
+        // 実行フェーズ
+        int repaired = customerStatsMaintenance.checkAndRepair();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(1, repaired);
+        verify(customerStatsWriter, times(1)).rebuildRange(3, 3);
+        verify(customerStatsWriter, never()).rebuildRange(1, 1);
+        verify(customerStatsWriter, never()).rebuildRange(2, 2);
+    }
+}
@@ -0,0 +1,217 @@
+package pro.kensait.berrybooks.service.customer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.util.PasswordHasher;
+
+// 毎秒500件のログインが行われた場合のパスワード照合のベンチマーク
+// リクエスト処理スレッド（50スレッド）で直接PBKDF2を計算する方式と、PasswordVerifier（専用スレッドプール
+// ＋照合結果のキャッシュ）を使用する方式を、処理件数・拒否件数・応答時間で比較する
+// 同時に、ログイン以外のリクエストを模した軽い処理の応答時間を計測し、ハッシュ計算による影響を確認する
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class PasswordVerifierBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            PasswordVerifierBenchmarkTest.class);
+
+    // PBKDF2の反復回数（config.propertiesの既定値）
+    private static final int ITERATIONS = 210000;
+
+    // 1秒あたりのログイン件数と、負荷をかける秒数
+    private static final int LOGINS_PER_SECOND = 500;
+    private static final int SECONDS = 3;
+
+    // リクエスト処理スレッド数
+    private static final int REQUEST_THREADS = 50;
+
+    // 顧客数（ハッシュ値を事前に作成する）
+    private static final int CUSTOMERS = 200;
+
+    // 負荷をかけ終えてから、処理中のログインの完了を待つ最大時間（秒）
+    private static final int DRAIN_SECONDS = 5;
+
+    private static PasswordHasher hasher;
+
+    // 顧客毎のパスワードの格納値（ハッシュ値）
+    private static String[] stored;
+
+    // 1回のハッシュ計算時間（ミリ秒）
+    private static double hashMillis;
+
+    @BeforeAll
+    static void setUpCustomers() {
+        hasher = new PasswordHasher(ITERATIONS);
+        stored = new String[CUSTOMERS];
+        long start = System.nanoTime();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            stored[i] = hasher.hash(password(i));
+        }
+        hashMillis = (System.nanoTime() - start) / 1_000_000.0 / CUSTOMERS;
+    }
+
+    @ParameterizedTest(name = "直前と同じ試行の割合{0}%")
+    @ValueSource(ints = {0, 50, 90})
+    @DisplayName("パスワード照合方式毎の処理件数・拒否件数・応答時間を計測する")
+    void benchmarkLogin(int repeatPercent) throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        PasswordVerifier passwordVerifier = new PasswordVerifier(ITERATIONS, 0, 100, 2000L,
+                10000, Duration.ofSeconds(30));
+
+        // 実行フェーズ
+        Result direct = run(repeatPercent,
+                (password, storedValue) -> hasher.matches(password, storedValue));
+        Result verifier = run(repeatPercent, passwordVerifier::verify);
+        passwordVerifier.shutdown();
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(LOGINS_PER_SECOND * SECONDS, verifier.offered());
+        logger.info(String.format("[ PasswordVerifierBenchmark ] repeat=%d%%, hash=%.1fms, "
+                + "cpus=%d, cacheHitRate=%.2f", repeatPercent, hashMillis,
+                Runtime.getRuntime().availableProcessors(),
+                passwordVerifier.getCacheStats().hitRate()));
+        print("direct", direct);
+        print("verifier", verifier);
+    }
+
+    // 毎秒LOGINS_PER_SECOND件のログインを、到着時刻どおりにリクエスト処理スレッドへ投入する
+    // （処理が追いつかない場合もログインの到着は遅らせない）
+    private Result run(int repeatPercent, Login login) throws Exception {
+        int offered = LOGINS_PER_SECOND * SECONDS;
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        ScheduledExecutorService arrivals = Executors.newScheduledThreadPool(2);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLongArray latencies = new AtomicLongArray(offered);
+        AtomicInteger completed = new AtomicInteger();
+        Random random = new Random(42);
+
+        // 各ログインの顧客とパスワード（8割は正しいパスワード、repeatPercentの割合で直前と同じ試行）
+        int[] customers = new int[offered];
+        boolean[] correct = new boolean[offered];
+        for (int i = 0; i < offered; i++) {
+            if (i > 0 && random.nextInt(100) < repeatPercent) {
+                customers[i] = customers[i - 1];
+                correct[i] = correct[i - 1];
+            } else {
+                customers[i] = random.nextInt(CUSTOMERS);
+                correct[i] = random.nextInt(10) < 8;
+            }
+        }
+
+        // ログイン以外のリクエスト（軽い処理）を10ミリ秒毎に投入し、応答時間を計測する
+        long[] probes = new long[SECONDS * 100];
+        AtomicInteger probeCount = new AtomicInteger();
+        ExecutorService probeThread = Executors.newSingleThreadExecutor();
+
+        long begin = System.nanoTime();
+        long periodNanos = 1_000_000_000L / LOGINS_PER_SECOND;
+        for (int i = 0; i < offered; i++) {
+            int index = i;
+            arrivals.schedule(() -> {
+                long arrived = System.nanoTime();
+                requestThreads.execute(() -> {
+                    try {
+                        String password = correct[index] ? password(customers[index]) : "wrong";
+                        if (login.verify(password, stored[customers[index]])) {
+                            succeeded.incrementAndGet();
+                        }
+                    } catch (PasswordVerifierBusyException e) {
+                        rejected.incrementAndGet();
+                    }
+                    latencies.set(index, System.nanoTime() - arrived);
+                    completed.incrementAndGet();
+                });
+            }, i * periodNanos, TimeUnit.NANOSECONDS);
+        }
+        for (int i = 0; i < probes.length; i++) {
+            long scheduled = begin + i * 10_000_000L;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long probeStart = System.nanoTime();
+            probeThread.submit(() -> Arrays.sort(new Random(1).ints(2000).toArray())).get();
+            probes[probeCount.getAndIncrement()] = System.nanoTime() - probeStart;
+        }
+
+        // 投入済みのログインの完了を待ち、待ちきれないものは未完了として数える
+        arrivals.shutdown();
+        arrivals.awaitTermination(SECONDS + 1, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_SECONDS);
+        while (completed.get() < offered && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        double elapsedSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        // 次の計測に影響しないよう、実行中のハッシュ計算の終了を待つ
+        requestThreads.shutdownNow();
+        requestThreads.awaitTermination(60, TimeUnit.SECONDS);
+        probeThread.shutdown();
+
+        long[] done = new long[completed.get()];
+        int n = 0;
+        for (int i = 0; i < offered && n < done.length; i++) {
+            if (latencies.get(i) > 0) {
+                done[n++] = latencies.get(i);
+            }
+        }
+        return new Result(offered, n, succeeded.get(), rejected.get(), elapsedSeconds,
+                Arrays.copyOf(done, n), probes);
+    }
+
+    private void print(String label, Result result) {
+        logger.info(String.format("[ PasswordVerifierBenchmark ]   %-8s completed=%d/%d "
+                + "(%.0f logins/s), succeeded=%d, rejected=%d, "
+                + "p50=%.0fms, p99=%.0fms, otherRequest p99=%.1fms",
+                label, result.completed(), result.offered(), result.throughput(),
+                result.succeeded(), result.rejected(),
+                percentile(result.latencies(), 50), percentile(result.latencies(), 99),
+                percentile(result.probes(), 99)));
+    }
+
+    private static double percentile(long[] nanos, int percent) {
+        if (nanos.length == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, sorted.length * percent / 100);
+        return sorted[index] / 1_000_000.0;
+    }
+
+    private static String password(int customer) {
+        return "password" + customer;
+    }
+
+    // パスワードの照合方式
+    @FunctionalInterface
+    private interface Login {
+        boolean verify(String password, String stored);
+    }
+
+    // 計測結果（投入件数、完了件数、認証成功件数、拒否件数、経過秒数、応答時間、他のリクエストの応答時間）
+    private record Result(int offered, int completed, int succeeded, int rejected,
+            double elapsedSeconds, long[] latencies, long[] probes) {
+
+        double throughput() {
+            return (completed - rejected) / elapsedSeconds;
+        }
+    }
+}
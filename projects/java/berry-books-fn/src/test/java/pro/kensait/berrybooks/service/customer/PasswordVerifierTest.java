@@ -0,0 +1,68 @@
+package pro.kensait.berrybooks.service.customer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PasswordVerifierTest {
+
+    private PasswordVerifier passwordVerifier;
+
+    @AfterEach
+    void tearDown() {
+        passwordVerifier.shutdown();
+    }
+
+    @Test
+    @DisplayName("平文の格納値との照合では、ハッシュ計算を行わずに結果がキャッシュされることをテストする")
+    void testVerifyPlainPassword() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        passwordVerifier = new PasswordVerifier(1000, 1, 10, 2000L, 100, Duration.ofSeconds(30));
+
+        // 実行フェーズ
+        boolean first = passwordVerifier.verify("password123", "password123");
+        boolean second = passwordVerifier.verify("password123", "password123");
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1, passwordVerifier.getCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("格納値が変わると、以前の照合結果のキャッシュが使用されないことをテストする")
+    void testVerifyAfterPasswordChanged() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        passwordVerifier = new PasswordVerifier(1000, 1, 10, 2000L, 100, Duration.ofSeconds(30));
+        String oldStored = passwordVerifier.hash("password123");
+        String newStored = passwordVerifier.hash("newpass123");
+
+        // 実行フェーズ
+        boolean before = passwordVerifier.verify("password123", oldStored);
+        boolean after = passwordVerifier.verify("password123", newStored);
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(before);
+        assertFalse(after);
+        assertEquals(0, passwordVerifier.getCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("ハッシュ計算が待ち時間内に終わらない場合に例外がスローされることをテストする")
+    void testHashTimeout() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        // （反復回数を大きく、待ち時間を1ミリ秒とする）
+        passwordVerifier = new PasswordVerifier(1_000_000, 1, 10, 1L, 100, Duration.ofSeconds(30));
+
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        PasswordVerifierBusyException exception = assertThrows(
+                PasswordVerifierBusyException.class,
+                () -> passwordVerifier.hash("password123"));
+        assertEquals("ログインが混み合っています。しばらくしてから再度お試しください",
+                exception.getMessage());
+    }
+}
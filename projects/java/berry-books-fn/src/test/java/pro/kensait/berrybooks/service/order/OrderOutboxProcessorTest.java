@@ -0,0 +1,72 @@
+package pro.kensait.berrybooks.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
+import pro.kensait.berrybooks.dao.OrderOutboxDao;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxProcessorTest {
+
+    @Mock
+    private OrderOutboxDao orderOutboxDao;
+
+    @Mock
+    private CustomerStatsDao customerStatsDao;
+
+    @Mock
+    private OrderNotifier orderNotifier;
+
+    @InjectMocks
+    private OrderOutboxProcessor orderOutboxProcessor;
+
+    @Test
+    @DisplayName("顧客毎に集約して顧客統計に加算し、通知後にアウトボックスから削除されることをテストする")
+    void testProcessBatch() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        List<OrderOutboxTO> orders = List.of(
+                new OrderOutboxTO(10L, 100, 1, LocalDate.of(2024, 4, 2), 2, new BigDecimal("6800")),
+                new OrderOutboxTO(11L, 101, 2, LocalDate.of(2024, 4, 1), 1, new BigDecimal("3400")),
+                new OrderOutboxTO(12L, 102, 1, LocalDate.of(2024, 4, 1), 3, new BigDecimal("9000")));
+        when(orderOutboxDao.findBatch(100)).thenReturn(orders);
+
+        // 実行フェーズ
+        int processed = orderOutboxProcessor.processBatch(100);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(3, processed);
+        verify(customerStatsDao, times(1)).addOrders(1, 2, LocalDate.of(2024, 4, 2), 5);
+        verify(customerStatsDao, times(1)).addOrders(2, 1, LocalDate.of(2024, 4, 1), 1);
+        verify(orderNotifier, times(1)).notifyOrders(orders);
+        verify(orderOutboxDao, times(1)).deleteByIds(List.of(10L, 11L, 12L));
+    }
+
+    @Test
+    @DisplayName("未処理の注文が無い場合は何も行われないことをテストする")
+    void testProcessBatchEmpty() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(orderOutboxDao.findBatch(100)).thenReturn(List.of());
+
+        // 実行フェーズ
+        int processed = orderOutboxProcessor.processBatch(100);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(0, processed);
+        verify(customerStatsDao, never()).addOrders(any(), anyLong(), any(), anyLong());
+        verify(orderNotifier, never()).notifyOrders(anyList());
+        verify(orderOutboxDao, never()).deleteByIds(anyList());
+    }
+}
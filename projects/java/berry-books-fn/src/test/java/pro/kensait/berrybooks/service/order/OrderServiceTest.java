@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -18,15 +19,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import pro.kensait.berrybooks.dao.BookDao;
+import pro.kensait.berrybooks.dao.CustomerStatsDao;
 import pro.kensait.berrybooks.dao.OrderDetailDao;
+import pro.kensait.berrybooks.dao.OrderOutboxDao;
 import pro.kensait.berrybooks.dao.OrderTranDao;
 import pro.kensait.berrybooks.dao.StockDao;
 import pro.kensait.berrybooks.entity.Book;
 import pro.kensait.berrybooks.entity.OrderDetail;
 import pro.kensait.berrybooks.entity.OrderDetailPK;
 import pro.kensait.berrybooks.entity.OrderTran;
-import pro.kensait.berrybooks.entity.Stock;
+import pro.kensait.berrybooks.service.catalog.StockChangedEvent;
+import pro.kensait.berrybooks.service.catalog.StockTO;
 import pro.kensait.berrybooks.web.cart.CartItem;
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.OptimisticLockException;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
@@ -43,6 +49,21 @@ class OrderServiceTest {
     @Mock
     private StockDao stockDao;
 
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private CustomerStatsDao customerStatsDao;
+
+    @Mock
+    private OrderOutboxDao orderOutboxDao;
+
+    @Mock
+    private Event<StockChangedEvent> stockChangedEvent;
+
+    @Mock
+    private Event<OrderPlacedEvent> orderPlacedEvent;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -109,6 +130,69 @@ class OrderServiceTest {
         verify(orderTranDao, times(1)).findByCustomerIdWithDetails(testCustomerId);
     }
 
+    @Test
+    @DisplayName("注文履歴の1ページ分と次ページの開始位置を取得できることをテストする")
+    void testGetOrderHistoryPage() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        OrderKeyTO key1 = new OrderKeyTO(LocalDate.of(2024, 3, 3), 103);
+        OrderKeyTO key2 = new OrderKeyTO(LocalDate.of(2024, 3, 2), 102);
+        OrderKeyTO key3 = new OrderKeyTO(LocalDate.of(2024, 3, 1), 101);
+        List<OrderHistoryTO> expectedList = List.of(
+                new OrderHistoryTO(key1.orderDate(), 103, 1, "Java入門", "出版社", BigDecimal.valueOf(3000), 1));
+        when(orderTranDao.findOrderKeysByCustomerId(testCustomerId, null, 3))
+                .thenReturn(List.of(key1, key2, key3));
+        when(orderTranDao.findOrderHistoryByOrderTranIds(List.of(103, 102)))
+                .thenReturn(expectedList);
+
+        // 実行フェーズ
+        OrderPageTO<OrderHistoryTO> result =
+                orderService.getOrderHistoryPage(testCustomerId, null, 2);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(expectedList, result.items());
+        assertTrue(result.hasNext());
+        assertEquals(key2, result.nextKey());
+        verify(orderTranDao, times(1)).findOrderHistoryByOrderTranIds(List.of(103, 102));
+    }
+
+    @Test
+    @DisplayName("最終ページでは次ページの開始位置がnullになることをテストする")
+    void testGetOrderHistory3PageLast() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        OrderKeyTO after = new OrderKeyTO(LocalDate.of(2024, 3, 2), 102);
+        OrderKeyTO key = new OrderKeyTO(LocalDate.of(2024, 3, 1), testOrderTranId);
+        when(orderTranDao.findOrderKeysByCustomerId(testCustomerId, after, 3))
+                .thenReturn(List.of(key));
+        when(orderTranDao.findByIdsWithDetails(List.of(testOrderTranId)))
+                .thenReturn(testOrderTranList);
+
+        // 実行フェーズ
+        OrderPageTO<OrderTran> result =
+                orderService.getOrderHistory3Page(testCustomerId, after, 2);
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(testOrderTranList, result.items());
+        assertFalse(result.hasNext());
+        assertNull(result.nextKey());
+    }
+
+    @Test
+    @DisplayName("注文履歴が無い場合は明細を検索せずに空のページを返すことをテストする")
+    void testGetOrderHistoryPageEmpty() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(orderTranDao.findOrderKeysByCustomerId(testCustomerId, null, 21))
+                .thenReturn(List.of());
+
+        // 実行フェーズ
+        OrderPageTO<OrderHistoryTO> result =
+                orderService.getOrderHistoryPage(testCustomerId, null, 20);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertTrue(result.items().isEmpty());
+        assertFalse(result.hasNext());
+        verify(orderTranDao, never()).findOrderHistoryByOrderTranIds(anyList());
+    }
+
     @Test
     @DisplayName("注文IDで注文情報を取得できることをテストする")
     void testGetOrderTran() {
@@ -246,6 +330,7 @@ class OrderServiceTest {
         cartItem.setBookId(bookId);
         cartItem.setBookName("Test Book");
         cartItem.setCount(quantity);
+        cartItem.setVersion(1L);
         
         List<CartItem> cartItems = new ArrayList<>();
         cartItems.add(cartItem);
@@ -260,37 +345,38 @@ class OrderServiceTest {
             1 // クレジットカード
         );
         
-        Stock stock = new Stock();
-        stock.setBookId(bookId);
-        stock.setQuantity(stockQuantity);
-        
         Book book = new Book();
         book.setBookId(bookId);
         book.setBookName("Test Book");
+        book.setPrice(new BigDecimal("1000"));
         
-        OrderTran savedOrderTran = new OrderTran();
-        savedOrderTran.setOrderTranId(testOrderTranId);
-        
-        when(stockDao.findByIdWithLock(bookId)).thenReturn(stock);
-        when(bookDao.findById(bookId)).thenReturn(book);
+        when(stockDao.findByIds(List.of(bookId)))
+                .thenReturn(List.of(new StockTO(bookId, stockQuantity, 1L)));
+        when(stockDao.decreaseQuantities(anyList())).thenReturn(1);
+        when(bookDao.findByIds(List.of(bookId))).thenReturn(List.of(book));
         doAnswer(invocation -> {
             OrderTran ot = invocation.getArgument(0);
             ot.setOrderTranId(testOrderTranId);
             return null;
         }).when(orderTranDao).persist(any(OrderTran.class));
-        when(orderTranDao.findByIdWithDetails(testOrderTranId)).thenReturn(savedOrderTran);
-        doNothing().when(orderDetailDao).persist(any(OrderDetail.class));
 
         // 実行フェーズ
         OrderTran result = orderService.orderBooks(orderTO);
 
-        // 検証フェーズ（出力値ベース、状態ベース、コミュニケーションベース）
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
         assertNotNull(result);
-        assertEquals(stockQuantity - quantity, stock.getQuantity());
-        verify(stockDao, times(1)).findByIdWithLock(bookId);
+        assertEquals(testOrderTranId, result.getOrderTranId());
+        assertEquals(1, result.getOrderDetails().size());
+        assertEquals(new BigDecimal("1000"), result.getOrderDetails().get(0).getPrice());
+        verify(stockDao, times(1)).findByIds(List.of(bookId));
+        verify(stockDao, times(1)).decreaseQuantities(
+                List.of(new StockReservationTO(bookId, quantity, 1L)));
         verify(orderTranDao, times(1)).persist(any(OrderTran.class));
-        verify(orderDetailDao, times(1)).persist(any(OrderDetail.class));
-        verify(orderTranDao, times(1)).findByIdWithDetails(testOrderTranId);
+        verify(orderDetailDao, times(1)).persistAll(anyList());
+        verify(stockChangedEvent, times(1)).fire(any(StockChangedEvent.class));
+        verify(customerStatsDao, times(1)).addOrder(testCustomerId, orderTO.orderDate(), 2L);
+        // 明細を含めた再取得は行わない
+        verify(orderTranDao, never()).findByIdWithDetails(any());
     }
 
     @Test
@@ -319,11 +405,8 @@ class OrderServiceTest {
             1 // クレジットカード
         );
         
-        Stock stock = new Stock();
-        stock.setBookId(bookId);
-        stock.setQuantity(stockQuantity);
-        
-        when(stockDao.findByIdWithLock(bookId)).thenReturn(stock);
+        when(stockDao.findByIds(List.of(bookId)))
+                .thenReturn(List.of(new StockTO(bookId, stockQuantity, 1L)));
 
         // 実行フェーズと検証フェーズ（出力値ベース、コミュニケーションベース）
         OutOfStockException exception = assertThrows(OutOfStockException.class, () -> {
@@ -331,10 +414,47 @@ class OrderServiceTest {
         });
         assertEquals(bookId, exception.getBookId());
         assertEquals("Test Book", exception.getBookName());
-        verify(stockDao, times(1)).findByIdWithLock(bookId);
+        verify(stockDao, times(1)).findByIds(List.of(bookId));
+        verify(stockDao, never()).decreaseQuantities(anyList());
         verify(orderTranDao, never()).persist(any(OrderTran.class));
     }
 
+    @Test
+    @DisplayName("在庫の更新件数が書籍数に満たない場合にOptimisticLockExceptionがスローされることをテストする")
+    void testOrderBooksOptimisticLock() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Integer bookId = 1;
+        
+        CartItem cartItem = new CartItem();
+        cartItem.setBookId(bookId);
+        cartItem.setBookName("Test Book");
+        cartItem.setCount(1);
+        cartItem.setVersion(1L);
+        
+        OrderTO orderTO = new OrderTO(
+            testCustomerId,
+            LocalDate.now(),
+            List.of(cartItem),
+            new BigDecimal("1000"),
+            new BigDecimal("800"),
+            "東京都渋谷区",
+            1 // クレジットカード
+        );
+        
+        // 別の顧客の注文によりVERSIONが更新されている
+        when(stockDao.findByIds(List.of(bookId)))
+                .thenReturn(List.of(new StockTO(bookId, 10, 2L)));
+        when(stockDao.decreaseQuantities(anyList())).thenReturn(0);
+
+        // 実行フェーズと検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertThrows(OptimisticLockException.class, () -> {
+            orderService.orderBooks(orderTO);
+        });
+        verify(orderTranDao, never()).persist(any(OrderTran.class));
+        verify(stockChangedEvent, never()).fire(any(StockChangedEvent.class));
+        verify(customerStatsDao, never()).addOrder(any(), any(), anyLong());
+    }
+
     @Test
     @DisplayName("複数の書籍を含む注文が正常に処理されることをテストする")
     void testOrderBooksMultipleItems() {
@@ -366,45 +486,93 @@ class OrderServiceTest {
             1 // クレジットカード
         );
         
-        Stock stock1 = new Stock();
-        stock1.setBookId(bookId1);
-        stock1.setQuantity(10);
-        
-        Stock stock2 = new Stock();
-        stock2.setBookId(bookId2);
-        stock2.setQuantity(20);
-        
         Book book1 = new Book();
         book1.setBookId(bookId1);
         book1.setBookName("Test Book 1");
+        book1.setPrice(new BigDecimal("1000"));
         
         Book book2 = new Book();
         book2.setBookId(bookId2);
         book2.setBookName("Test Book 2");
+        book2.setPrice(new BigDecimal("1000"));
         
-        OrderTran savedOrderTran = new OrderTran();
-        savedOrderTran.setOrderTranId(testOrderTranId);
-        
-        when(stockDao.findByIdWithLock(bookId1)).thenReturn(stock1);
-        when(stockDao.findByIdWithLock(bookId2)).thenReturn(stock2);
-        when(bookDao.findById(bookId1)).thenReturn(book1);
-        when(bookDao.findById(bookId2)).thenReturn(book2);
+        when(stockDao.findByIds(List.of(bookId1, bookId2))).thenReturn(List.of(
+                new StockTO(bookId1, 10, 3L),
+                new StockTO(bookId2, 20, 5L)));
+        when(stockDao.decreaseQuantities(anyList())).thenReturn(2);
+        when(bookDao.findByIds(List.of(bookId1, bookId2))).thenReturn(List.of(book1, book2));
         doAnswer(invocation -> {
             OrderTran ot = invocation.getArgument(0);
             ot.setOrderTranId(testOrderTranId);
             return null;
         }).when(orderTranDao).persist(any(OrderTran.class));
-        when(orderTranDao.findByIdWithDetails(testOrderTranId)).thenReturn(savedOrderTran);
-        doNothing().when(orderDetailDao).persist(any(OrderDetail.class));
 
         // 実行フェーズ
         OrderTran result = orderService.orderBooks(orderTO);
 
-        // 検証フェーズ（出力値ベース、状態ベース、コミュニケーションベース）
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
         assertNotNull(result);
-        assertEquals(8, stock1.getQuantity()); // 10 - 2
-        assertEquals(17, stock2.getQuantity()); // 20 - 3
-        verify(orderDetailDao, times(2)).persist(any(OrderDetail.class));
+        assertEquals(2, result.getOrderDetails().size());
+        // 在庫検索・在庫更新・書籍検索はカートの明細数に関係なく1回ずつ
+        verify(stockDao, times(1)).findByIds(anyList());
+        verify(stockDao, times(1)).decreaseQuantities(List.of(
+                new StockReservationTO(bookId1, 2, 3L),
+                new StockReservationTO(bookId2, 3, 5L)));
+        verify(bookDao, times(1)).findByIds(anyList());
+        verify(bookDao, never()).findById(any());
+        verify(orderDetailDao, times(1)).persistAll(anyList());
+        verify(orderDetailDao, never()).persist(any(OrderDetail.class));
+        // 顧客統計には全書籍の合計冊数を1回で加算する
+        verify(customerStatsDao, times(1)).addOrder(testCustomerId, orderTO.orderDate(), 5L);
     }
-}
 
+    @Test
+    @DisplayName("アウトボックス方式では顧客統計を加算せずにアウトボックスに登録されることをテストする")
+    void testOrderBooksOutbox() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Field field = OrderService.class.getDeclaredField("confirmationMode");
+        field.setAccessible(true);
+        field.set(orderService, OrderConfirmationMode.OUTBOX);
+
+        CartItem cartItem = new CartItem();
+        cartItem.setBookId(1);
+        cartItem.setBookName("Test Book");
+        cartItem.setCount(3);
+        cartItem.setVersion(1L);
+        
+        OrderTO orderTO = new OrderTO(
+            testCustomerId,
+            LocalDate.now(),
+            List.of(cartItem),
+            new BigDecimal("3000"),
+            new BigDecimal("800"),
+            "東京都渋谷区",
+            1 // クレジットカード
+        );
+        
+        Book book = new Book();
+        book.setBookId(1);
+        book.setBookName("Test Book");
+        book.setPrice(new BigDecimal("1000"));
+        
+        when(stockDao.findByIds(List.of(1)))
+                .thenReturn(List.of(new StockTO(1, 10, 1L)));
+        when(stockDao.decreaseQuantities(anyList())).thenReturn(1);
+        when(bookDao.findByIds(List.of(1))).thenReturn(List.of(book));
+        doAnswer(invocation -> {
+            OrderTran ot = invocation.getArgument(0);
+            ot.setOrderTranId(testOrderTranId);
+            return null;
+        }).when(orderTranDao).persist(any(OrderTran.class));
+
+        // 実行フェーズ
+        OrderTran result = orderService.orderBooks(orderTO);
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(testOrderTranId, result.getOrderTranId());
+        verify(orderOutboxDao, times(1)).insert(testOrderTranId, testCustomerId,
+                orderTO.orderDate(), 3L, new BigDecimal("3000"));
+        verify(orderPlacedEvent, times(1)).fire(new OrderPlacedEvent(testOrderTranId));
+        verify(customerStatsDao, never()).addOrder(any(), any(), anyLong());
+    }
+}
@@ -0,0 +1,211 @@
+package pro.kensait.berrybooks.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pro.kensait.berrybooks.dao.StockDao;
+import pro.kensait.berrybooks.dao.StockLedgerDao;
+import pro.kensait.berrybooks.service.catalog.StockTO;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    // 1回の反映で読み込む在庫台帳テーブルの最大行数（config.propertiesの設定値）
+    private static final int BATCH_SIZE = 1000;
+
+    @Mock
+    private StockDao stockDao;
+
+    @Mock
+    private StockLedgerDao stockLedgerDao;
+
+    @Mock
+    private StockLedgerWriter stockLedgerWriter;
+
+    @Mock
+    private TransactionSynchronizationRegistry txRegistry;
+
+    @InjectMocks
+    private StockLedger stockLedger;
+
+    @Test
+    @DisplayName("引当毎に減算数が在庫台帳テーブルに登録され、反映時にまとめて書き込まれることをテストする")
+    void testReserveAndFlush() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 10, 1L)));
+        List<StockReservationTO> first = List.of(new StockReservationTO(1, 2, null));
+        List<StockReservationTO> second = List.of(new StockReservationTO(1, 1, null));
+
+        // 実行フェーズ
+        Integer firstResult = stockLedger.reserve(first);
+        Integer secondResult = stockLedger.reserve(second);
+        when(stockLedgerWriter.write(BATCH_SIZE)).thenReturn(Map.of(1, 3));
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNull(firstResult);
+        assertNull(secondResult);
+        verify(stockDao, times(1)).findByIds(List.of(1));
+        verify(stockLedgerDao).insert(first);
+        verify(stockLedgerDao).insert(second);
+        // 起動時の反映1回と、未反映の減算数がある間の反映1回（反映後は書き込まない）
+        verify(stockLedgerWriter, times(2)).write(BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("前回の停止時に未反映だった減算数が、最初の引当の前に反映されることをテストする")
+    void testRecoverBeforeFirstReserve() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockLedgerWriter.write(BATCH_SIZE)).thenReturn(Map.of(1, 4)).thenReturn(Map.of());
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 6, 2L)));
+
+        // 実行フェーズ
+        Integer result = stockLedger.reserve(List.of(new StockReservationTO(1, 6, null)));
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNull(result);
+        InOrder inOrder = inOrder(stockLedgerWriter, stockDao);
+        inOrder.verify(stockLedgerWriter, times(2)).write(BATCH_SIZE);
+        inOrder.verify(stockDao).findByIds(List.of(1));
+    }
+
+    @Test
+    @DisplayName("在庫が不足する場合に書籍IDが返され、他の書籍も引き当てられないことをテストする")
+    void testReserveOutOfStock() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 10, 1L)));
+        when(stockDao.findByIds(List.of(2))).thenReturn(List.of(new StockTO(2, 1, 1L)));
+
+        // 実行フェーズ
+        Integer result = stockLedger.reserve(List.of(
+                new StockReservationTO(1, 2, null),
+                new StockReservationTO(2, 3, null)));
+        stockLedger.flush();
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(2, result);
+        verify(stockLedgerDao, never()).insert(any());
+        // 起動時の反映のみ（未反映の減算数が無いため、反映時には書き込まない）
+        verify(stockLedgerWriter, times(1)).write(BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("トランザクションがロールバックされた場合に引当が取り消されることをテストする")
+    void testReserveRollback() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 3, 1L)));
+        when(txRegistry.getTransactionKey()).thenReturn("tx1");
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+
+        // 実行フェーズ
+        Integer result = stockLedger.reserve(List.of(new StockReservationTO(1, 3, null)));
+        verify(txRegistry).registerInterposedSynchronization(captor.capture());
+        captor.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+        stockLedger.flush();
+        Integer retried = stockLedger.reserve(List.of(new StockReservationTO(1, 3, null)));
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertNull(result);
+        assertNull(retried);
+        // 起動時の反映のみ（ロールバックされた減算数は台帳テーブルからも取り消される）
+        verify(stockLedgerWriter, times(1)).write(BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("台帳テーブルへの登録に失敗した場合に引当が取り消されることをテストする")
+    void testReserveInsertFailure() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 3, 1L)));
+        List<StockReservationTO> reservations = List.of(new StockReservationTO(1, 3, null));
+        doThrow(new RuntimeException("DB error")).doReturn(1)
+                .when(stockLedgerDao).insert(reservations);
+
+        // 実行フェーズ
+        assertThrows(RuntimeException.class, () -> stockLedger.reserve(reservations));
+        Integer retried = stockLedger.reserve(reservations);
+
+        // 検証フェーズ（出力値ベース）
+        assertNull(retried);
+    }
+
+    @Test
+    @DisplayName("反映に失敗した場合に次回の反映時に再度書き込まれることをテストする")
+    void testFlushRetry() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1))).thenReturn(List.of(new StockTO(1, 10, 1L)));
+        stockLedger.reserve(List.of(new StockReservationTO(1, 2, null)));
+        when(stockLedgerWriter.write(BATCH_SIZE))
+                .thenThrow(new RuntimeException("DB error"))
+                .thenReturn(Map.of(1, 2));
+
+        // 実行フェーズ
+        stockLedger.flush();
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // 検証フェーズ（コミュニケーションベース）
+        // 起動時の反映1回、失敗1回、再反映1回（反映後は書き込まない）
+        verify(stockLedgerWriter, times(3)).write(BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("反映後の引当では在庫数がSTOCKテーブルから読み直されることをテストする")
+    void testReloadAfterFlush() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(stockDao.findByIds(List.of(1)))
+                .thenReturn(List.of(new StockTO(1, 5, 1L)))
+                .thenReturn(List.of(new StockTO(1, 1, 2L)));
+        stockLedger.reserve(List.of(new StockReservationTO(1, 2, null)));
+        when(stockLedgerWriter.write(BATCH_SIZE)).thenReturn(Map.of(1, 2));
+        stockLedger.flush();
+
+        // 実行フェーズ
+        Integer result = stockLedger.reserve(List.of(new StockReservationTO(1, 2, null)));
+
+        // 検証フェーズ（出力値ベース、コミュニケーションベース）
+        assertEquals(1, result);
+        verify(stockDao, times(2)).findByIds(List.of(1));
+    }
+
+    @Test
+    @DisplayName("コミット済みで確定の通知前の引当が反映された場合も、引当可能数が正しく保たれることをテストする")
+    void testFlushBeforeAfterCompletion() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        // （反映前は在庫5、注文の減算数3の反映後は在庫2）
+        when(stockDao.findByIds(List.of(1)))
+                .thenReturn(List.of(new StockTO(1, 5, 1L)))
+                .thenReturn(List.of(new StockTO(1, 2, 2L)));
+        when(txRegistry.getTransactionKey()).thenReturn("tx1");
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        stockLedger.reserve(List.of(new StockReservationTO(1, 3, null)));
+        verify(txRegistry).registerInterposedSynchronization(captor.capture());
+
+        // 実行フェーズ
+        when(stockLedgerWriter.write(BATCH_SIZE)).thenReturn(Map.of(1, 3));
+        stockLedger.flush();
+        captor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+        Integer overReserved = stockLedger.reserve(List.of(new StockReservationTO(1, 3, null)));
+        Integer reserved = stockLedger.reserve(List.of(new StockReservationTO(1, 2, null)));
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(1, overReserved);
+        assertNull(reserved);
+    }
+}
@@ -0,0 +1,253 @@
+package pro.kensait.berrybooks.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.dao.BookstoreTestDatabase;
+import pro.kensait.berrybooks.dao.StockDao;
+import pro.kensait.berrybooks.dao.StockLedgerDao;
+import pro.kensait.berrybooks.service.catalog.StockTO;
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// 人気書籍1冊に購入者が集中した場合の在庫引当のベンチマーク（EclipseLink + HSQLDBインメモリDBを使用）
+// StockDao・StockLedgerDaoを通して、楽観的ロック方式（VERSIONを条件とするSTOCKのUPDATE）と
+// 在庫台帳方式（STOCK_LEDGERへのINSERT + 一定間隔でのSTOCKへの反映）を、スループットと失敗率で比較する
+// ※購入者毎にコンテナのトランザクションの代わりにEntityManagerのトランザクションを使用する
+//   （在庫台帳方式の引当は、トランザクションのコミットを待たずに確定する）
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class StockReservationBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            StockReservationBenchmarkTest.class);
+
+    // 対象の書籍ID
+    private static final int BOOK_ID = 1;
+
+    // 在庫台帳の反映間隔（ミリ秒）
+    private static final long WINDOW_MILLIS = 50;
+
+    // スレッド毎のEntityManager（コンテナのトランザクションスコープのEntityManagerを模擬する）
+    private static final ThreadLocal<EntityManager> CURRENT = new ThreadLocal<>();
+
+    @ParameterizedTest(name = "同時購入者{0}人")
+    @ValueSource(ints = {50, 200, 1000})
+    @DisplayName("在庫引当方式毎のスループットと失敗率を計測する")
+    void benchmarkReservation(int buyers) throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        try (BookstoreTestDatabase database = BookstoreTestDatabase.create(
+                "reservation" + buyers + ";hsqldb.tx=mvcc")) {
+            database.execute("INSERT INTO PUBLISHER VALUES (1, 'デジタルフロンティア出版')",
+                    "INSERT INTO CATEGORY VALUES (1, 'Java')",
+                    "INSERT INTO BOOK VALUES (" + BOOK_ID + ", 'Java SEディープダイブ', "
+                    + "'Michael Johnson', 1, 1, 3400)");
+            EntityManagerFactory emf = database.createEntityManagerFactory();
+            try {
+                EntityManager em = currentEntityManager();
+                StockDao stockDao = BookstoreTestDatabase.inject(new StockDao(), em);
+                StockLedgerDao stockLedgerDao = BookstoreTestDatabase.inject(
+                        new StockLedgerDao(), em);
+                StockLedger stockLedger = createStockLedger(emf, stockDao, stockLedgerDao);
+
+                // 実行フェーズ
+                resetStock(database, buyers * 2);
+                Result optimistic = run(buyers, () -> inTransaction(emf,
+                        () -> reserveOptimistic(stockDao)));
+                int optimisticQuantity = readQuantity(database);
+
+                resetStock(database, buyers * 2);
+                ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+                flusher.scheduleWithFixedDelay(stockLedger::flush,
+                        WINDOW_MILLIS, WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+                Result ledger = run(buyers, () -> inTransaction(emf, () -> stockLedger.reserve(
+                        List.of(new StockReservationTO(BOOK_ID, 1, null))) == null));
+                flusher.shutdown();
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+                stockLedger.flush();
+                int ledgerQuantity = readQuantity(database);
+
+                // 検証フェーズ（出力値ベース、状態ベース）
+                assertEquals(buyers * 2 - optimistic.succeeded(), optimisticQuantity);
+                assertEquals(buyers, ledger.succeeded());
+                assertEquals(buyers, ledgerQuantity);
+                assertEquals(0, countLedgerRows(database));
+                logger.info(String.format("[ StockReservationBenchmark ] buyers=%d, "
+                        + "optimistic=%.0f orders/s (failure %.1f%%), "
+                        + "ledger=%.0f orders/s (failure %.1f%%)",
+                        buyers,
+                        optimistic.throughput(), optimistic.failureRate() * 100,
+                        ledger.throughput(), ledger.failureRate() * 100));
+            } finally {
+                emf.close();
+            }
+        }
+    }
+
+    // 購入者数分のスレッドで一斉に在庫引当を行う
+    private Result run(int buyers, Buyer buyer) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        CountDownLatch ready = new CountDownLatch(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(buyers);
+        AtomicInteger succeeded = new AtomicInteger();
+        for (int i = 0; i < buyers; i++) {
+            executor.execute(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    if (buyer.buy()) {
+                        succeeded.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    // 失敗として数える
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return new Result(buyers, succeeded.get(), elapsed);
+    }
+
+    // 楽観的ロック方式：在庫とVERSIONを読み込み、VERSIONを条件として在庫を減らす（OrderServiceと同じ）
+    private boolean reserveOptimistic(StockDao stockDao) {
+        StockTO stock = stockDao.findByIds(List.of(BOOK_ID)).get(0);
+        if (stockDao.decreaseQuantities(List.of(
+                new StockReservationTO(BOOK_ID, 1, stock.version()))) != 1) {
+            // 競合した場合はロールバックする
+            throw new IllegalStateException("optimistic lock failure");
+        }
+        return true;
+    }
+
+    // 在庫台帳を生成する（STOCKテーブルへの反映は、反映処理のスレッドのトランザクションで行う）
+    private StockLedger createStockLedger(EntityManagerFactory emf, StockDao stockDao,
+            StockLedgerDao stockLedgerDao) {
+        StockLedgerWriter writer = new StockLedgerWriter() {
+            @Override
+            public Map<Integer, Integer> write(int limit) {
+                return inTransaction(emf, () -> super.write(limit));
+            }
+        };
+        setField(StockLedgerWriter.class, writer, "stockDao", stockDao);
+        setField(StockLedgerWriter.class, writer, "stockLedgerDao", stockLedgerDao);
+        setField(StockLedgerWriter.class, writer, "stockChangedEvent",
+                mock(Event.class));
+        StockLedger stockLedger = new StockLedger();
+        setField(StockLedger.class, stockLedger, "stockDao", stockDao);
+        setField(StockLedger.class, stockLedger, "stockLedgerDao", stockLedgerDao);
+        setField(StockLedger.class, stockLedger, "stockLedgerWriter", writer);
+        return stockLedger;
+    }
+
+    // スレッドにEntityManagerを関連付け、1つのトランザクションで処理を行う（例外の場合はロールバック）
+    // （REQUIRES_NEWと同様に、実行中のトランザクションは終了後に元に戻す）
+    private static <T> T inTransaction(EntityManagerFactory emf, Supplier<T> work) {
+        EntityManager suspended = CURRENT.get();
+        EntityManager em = emf.createEntityManager();
+        CURRENT.set(em);
+        try {
+            em.getTransaction().begin();
+            T result = work.get();
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            CURRENT.set(suspended);
+            em.close();
+        }
+    }
+
+    // 呼び出し元のスレッドに関連付けたEntityManagerに委譲するEntityManager
+    private static EntityManager currentEntityManager() {
+        return (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(), new Class<?>[] {EntityManager.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(CURRENT.get(), args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static void setField(Class<?> type, Object target, String name, Object value) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void resetStock(BookstoreTestDatabase database, int quantity) throws SQLException {
+        database.execute("DELETE FROM STOCK",
+                "INSERT INTO STOCK VALUES (" + BOOK_ID + ", " + quantity + ", 1)");
+    }
+
+    private int readQuantity(BookstoreTestDatabase database) throws SQLException {
+        return queryInt(database, "SELECT QUANTITY FROM STOCK WHERE BOOK_ID = " + BOOK_ID);
+    }
+
+    private int countLedgerRows(BookstoreTestDatabase database) throws SQLException {
+        return queryInt(database, "SELECT COUNT(*) FROM STOCK_LEDGER");
+    }
+
+    private int queryInt(BookstoreTestDatabase database, String sql) throws SQLException {
+        try (Connection con = database.getConnection();
+                Statement st = con.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // 購入者1人分の在庫引当（成功した場合はtrueを返す）
+    private interface Buyer {
+        boolean buy() throws Exception;
+    }
+
+    // 計測結果
+    private record Result(int buyers, int succeeded, long elapsedNanos) {
+        double throughput() {
+            return buyers / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double failureRate() {
+            return (buyers - succeeded) / (double) buyers;
+        }
+    }
+}
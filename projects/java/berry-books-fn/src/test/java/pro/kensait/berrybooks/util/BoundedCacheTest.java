@@ -0,0 +1,93 @@
+package pro.kensait.berrybooks.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+    // テスト用の時刻（ナノ秒）
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+    }
+
+    @Test
+    @DisplayName("格納した値が取得でき、ヒット数とミス数が記録されることをテストする")
+    void testGetAndStats() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, Duration.ofSeconds(60), now::get);
+
+        // 実行フェーズ
+        String first = cache.get(1, key -> "Java入門");
+        String second = cache.get(1, key -> "呼び出されない");
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals("Java入門", first);
+        assertEquals("Java入門", second);
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.size());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    @DisplayName("有効期限を過ぎた値は取得できないことをテストする")
+    void testExpired() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, Duration.ofSeconds(5), now::get);
+        cache.put(1, "Java入門");
+
+        // 実行フェーズ
+        now.set(Duration.ofSeconds(6).toNanos());
+        String result = cache.get(1);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertNull(result);
+        assertEquals(1, cache.getStats().evictionCount());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    @DisplayName("件数上限を超えた場合に最も長く使われていない値が追い出されることをテストする")
+    void testEvictLeastRecentlyUsed() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, Duration.ofSeconds(60), now::get);
+        cache.put(1, "Java入門");
+        cache.put(2, "SQL入門");
+        cache.get(1);
+
+        // 実行フェーズ
+        cache.put(3, "Python入門");
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals("Java入門", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("Python入門", cache.get(3));
+        assertEquals(1, cache.getStats().evictionCount());
+    }
+
+    @Test
+    @DisplayName("無効化した値は取得できないことをテストする")
+    void testInvalidate() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, Duration.ofSeconds(60), now::get);
+        cache.put(1, "Java入門");
+        cache.put(2, "SQL入門");
+
+        // 実行フェーズ
+        cache.invalidate(1);
+
+        // 検証フェーズ（出力値ベース）
+        assertNull(cache.get(1));
+        assertEquals("SQL入門", cache.get(2));
+    }
+}
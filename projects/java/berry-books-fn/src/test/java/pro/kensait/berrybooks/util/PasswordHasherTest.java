@@ -0,0 +1,60 @@
+package pro.kensait.berrybooks.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PasswordHasherTest {
+
+    // テストの実行時間を抑えるため、反復回数を少なくする
+    private final PasswordHasher hasher = new PasswordHasher(1000);
+
+    @Test
+    @DisplayName("ハッシュ化したパスワードが照合でき、異なるパスワードは一致しないことをテストする")
+    void testHashAndMatches() {
+        // 実行フェーズ
+        String stored = hasher.hash("password123");
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(stored.startsWith("pbkdf2$1000$"));
+        assertTrue(hasher.isHashed(stored));
+        assertTrue(hasher.matches("password123", stored));
+        assertFalse(hasher.matches("PASSWORD123", stored));
+        assertFalse(hasher.matches(null, stored));
+    }
+
+    @Test
+    @DisplayName("同じパスワードでもソルトにより異なるハッシュ値になることをテストする")
+    void testHashUsesSalt() {
+        // 実行フェーズ
+        String first = hasher.hash("password123");
+        String second = hasher.hash("password123");
+
+        // 検証フェーズ（出力値ベース）
+        assertNotEquals(first, second);
+        assertTrue(hasher.matches("password123", second));
+    }
+
+    @Test
+    @DisplayName("移行前の平文の格納値とも照合でき、ハッシュ化し直しが必要と判定されることをテストする")
+    void testMatchesPlainPassword() {
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertTrue(hasher.matches("password123", "password123"));
+        assertFalse(hasher.matches("password12", "password123"));
+        assertFalse(hasher.isHashed("password123"));
+        assertTrue(hasher.needsRehash("password123"));
+    }
+
+    @Test
+    @DisplayName("反復回数の異なるハッシュ値は照合でき、ハッシュ化し直しが必要と判定されることをテストする")
+    void testNeedsRehashForOtherIterations() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        String stored = new PasswordHasher(500).hash("password123");
+
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertTrue(hasher.matches("password123", stored));
+        assertTrue(hasher.needsRehash(stored));
+        assertFalse(hasher.needsRehash(hasher.hash("password123")));
+    }
+}
@@ -0,0 +1,228 @@
+package pro.kensait.berrybooks.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pro.kensait.berrybooks.service.book.BookPageTO;
+import pro.kensait.berrybooks.service.book.BookService;
+import pro.kensait.berrybooks.service.book.BookSortKey;
+import pro.kensait.berrybooks.service.book.BookStockTO;
+import pro.kensait.berrybooks.service.category.CategoryService;
+import pro.kensait.berrybooks.web.book.BookSearchBean;
+import pro.kensait.berrybooks.web.cart.CartItem;
+import pro.kensait.berrybooks.web.cart.CartSession;
+
+// セッションスコープのBean（CartSession・BookSearchBean）のシリアライズ後のサイズを、
+// 変更前の形式（標準のシリアライズ、エンティティ・検索結果のリストを保持）と比較するテスト
+class SessionSerializationTest {
+
+    private static final int CART_ITEMS = 20;
+    private static final int BOOKS = 1000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    @DisplayName("CartSessionがシリアライズ・デシリアライズ後に同じ内容で復元されることをテストする")
+    void testCartSessionRoundTrip() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        CartSession cartSession = createCartSession(3);
+        cartSession.getCartItem(2).setRemove(true);
+
+        // 実行フェーズ
+        CartSession restored = (CartSession) deserialize(serialize(cartSession));
+
+        // 検証フェーズ（状態ベース）
+        assertEquals(3, restored.getCartItems().size());
+        List<CartItem> items = new ArrayList<>(restored.getCartItems());
+        assertEquals(List.of(1, 2, 3), items.stream().map(CartItem::getBookId).toList());
+        CartItem item = restored.getCartItem(2);
+        assertEquals("Java SEディープダイブ 2", item.getBookName());
+        assertEquals("デジタルフロンティア出版", item.getPublisherName());
+        assertEquals(new BigDecimal("6800"), item.getPrice());
+        assertEquals(2, item.getCount());
+        assertTrue(item.isRemove());
+        assertEquals(5L, item.getVersion());
+        assertEquals(cartSession.getTotalPrice(), restored.getTotalPrice());
+        assertEquals(new BigDecimal("800"), restored.getDeliveryPrice());
+        assertEquals("東京都中央区1-1", restored.getDeliveryAddress());
+        assertEquals(1, restored.getSettlementType());
+    }
+
+    @Test
+    @DisplayName("未入力項目（null）を含むCartSessionが復元されることをテストする")
+    void testCartSessionRoundTripWithNulls() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        CartSession cartSession = new CartSession();
+
+        // 実行フェーズ
+        CartSession restored = (CartSession) deserialize(serialize(cartSession));
+
+        // 検証フェーズ（状態ベース）
+        assertTrue(restored.getCartItems().isEmpty());
+        assertEquals(BigDecimal.ZERO, restored.getTotalPrice());
+        assertNull(restored.getDeliveryAddress());
+        assertNull(restored.getSettlementType());
+    }
+
+    @Test
+    @DisplayName("CartSessionのシリアライズ後のサイズが変更前の形式より小さいことをテストする")
+    void testCartSessionSize() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        CartSession cartSession = createCartSession(CART_ITEMS);
+        LegacyCartSession legacy = new LegacyCartSession();
+        for (CartItem item : cartSession.getCartItems()) {
+            legacy.cartItems.add(new LegacyCartItem(item.getBookId(), item.getBookName(),
+                    item.getPublisherName(), item.getPrice(), item.getCount(),
+                    item.isRemove(), item.getVersion()));
+        }
+        legacy.totalPrice = cartSession.getTotalPrice();
+        legacy.deliveryPrice = cartSession.getDeliveryPrice();
+        legacy.deliveryAddress = cartSession.getDeliveryAddress();
+        legacy.settlementType = cartSession.getSettlementType();
+
+        // 実行フェーズ
+        int before = serialize(legacy).length;
+        int after = serialize(cartSession).length;
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(after < before, "before=" + before + ", after=" + after);
+    }
+
+    @Test
+    @DisplayName("BookSearchBeanのシリアライズ後のサイズが検索結果の件数に依存しないことをテストする")
+    void testBookSearchBeanSize() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        BookService bookService = mock(BookService.class);
+        CategoryService categoryService = mock(CategoryService.class);
+        List<BookStockTO> books = createBooks(BOOKS);
+        when(bookService.searchBookCatalogPage(eq(1), eq("Java"), eq(BookSortKey.BOOK_ID),
+                isNull(), eq(0), anyInt()))
+                .thenReturn(new BookPageTO(books.subList(0, PAGE_SIZE), true));
+        when(categoryService.getCategoryMap()).thenReturn(Map.of("Java", 1, "SQL", 2));
+
+        BookSearchBean bean = new BookSearchBean();
+        inject(bean, bookService, categoryService);
+        bean.init();
+        bean.setCategoryId(1);
+        bean.setKeyword("Java");
+        bean.refreshBookList();
+
+        LegacyBookSearchBean legacy = new LegacyBookSearchBean();
+        legacy.categoryId = bean.getCategoryId();
+        legacy.keyword = bean.getKeyword();
+        // （変更前は、検索結果の全件をセッションに保持していた）
+        legacy.bookList = new ArrayList<>(books);
+        legacy.categoryMap = new HashMap<>(bean.getCategoryMap());
+
+        // コンテナではシリアライズ可能なクライアントプロキシが注入されるため、モックは外してから計測する
+        inject(bean, null, null);
+
+        // 実行フェーズ
+        int before = serialize(legacy).length;
+        byte[] serialized = serialize(bean);
+        int after = serialized.length;
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(after < 1024, "after=" + after);
+        assertTrue(after * 50 < before, "before=" + before + ", after=" + after);
+
+        // 復元後は、保持していた検索条件・ページ番号で表示中のページとカテゴリマップが再取得される
+        BookSearchBean restored = (BookSearchBean) deserialize(serialized);
+        inject(restored, bookService, categoryService);
+        assertEquals(1, restored.getCategoryId());
+        assertEquals("Java", restored.getKeyword());
+        assertEquals(PAGE_SIZE, restored.getBookList().size());
+        assertTrue(restored.isHasNext());
+        assertEquals(3, restored.getCategoryMap().size());
+        verify(bookService, times(2)).searchBookCatalogPage(eq(1), eq("Java"),
+                eq(BookSortKey.BOOK_ID), isNull(), eq(0), anyInt());
+    }
+
+    private static CartSession createCartSession(int size) {
+        CartSession cartSession = new CartSession();
+        for (int i = 1; i <= size; i++) {
+            CartItem item = new CartItem(i, "Java SEディープダイブ " + i, "デジタルフロンティア出版",
+                    new BigDecimal("3400").multiply(BigDecimal.valueOf(i)), i, false);
+            item.setVersion(5L);
+            cartSession.addCartItem(item);
+        }
+        cartSession.recalculateTotalPrice();
+        cartSession.setDeliveryPrice(new BigDecimal("800"));
+        cartSession.setDeliveryAddress("東京都中央区1-1");
+        cartSession.setSettlementType(1);
+        return cartSession;
+    }
+
+    private static List<BookStockTO> createBooks(int size) {
+        List<BookStockTO> books = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            books.add(new BookStockTO(i, "Java SEディープダイブ " + i, "Michael Johnson",
+                    1, "Java", "デジタルフロンティア出版", new BigDecimal("3400"), 10, 1L));
+        }
+        return books;
+    }
+
+    private static void inject(BookSearchBean bean, BookService bookService,
+            CategoryService categoryService) throws ReflectiveOperationException {
+        Field bookServiceField = BookSearchBean.class.getDeclaredField("bookService");
+        bookServiceField.setAccessible(true);
+        bookServiceField.set(bean, bookService);
+        Field categoryServiceField = BookSearchBean.class.getDeclaredField("categoryService");
+        categoryServiceField.setAccessible(true);
+        categoryServiceField.set(bean, categoryService);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    // 変更前のCartSessionと同じ構造（CopyOnWriteArrayListのカートアイテムを標準のシリアライズで保持）
+    private static class LegacyCartSession implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private List<LegacyCartItem> cartItems = new CopyOnWriteArrayList<>();
+        private BigDecimal totalPrice;
+        private BigDecimal deliveryPrice;
+        private String deliveryAddress;
+        private Integer settlementType;
+    }
+
+    private record LegacyCartItem(Integer bookId, String bookName, String publisherName,
+            BigDecimal price, Integer count, boolean remove, Long version)
+            implements Serializable {
+    }
+
+    // 変更前のBookSearchBeanと同じ構造（検索結果とカテゴリマップも標準のシリアライズで保持）
+    private static class LegacyBookSearchBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private Integer categoryId;
+        private String keyword;
+        private List<BookStockTO> bookList;
+        private Map<String, Integer> categoryMap;
+    }
+}
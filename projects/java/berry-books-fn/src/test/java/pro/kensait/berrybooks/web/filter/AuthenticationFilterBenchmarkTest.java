@@ -0,0 +1,98 @@
+package pro.kensait.berrybooks.web.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.web.login.LoginBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+// 認証チェックフィルタのベンチマーク
+// フィルタ全体（公開ページ・ログイン済みのページ）の1リクエストあたりの処理時間を計測する
+// ※リクエスト・セッションはコンテナの代わりに動的プロキシで用意する（モックの記録処理を計測に含めないため）
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:berry-books-fn:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class AuthenticationFilterBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            AuthenticationFilterBenchmarkTest.class);
+
+    // 計測の繰り返し回数（ウォームアップも同じ回数を実行する）
+    private static final int ITERATIONS = 10_000_000;
+
+    // 計測に使用するパス（公開ページ・JSFリソース・認証が必要なページ）
+    private static final String[] PATHS = {
+            "/index.xhtml", "/jakarta.faces.resource/style.css.xhtml", "/bookSelect.xhtml",
+            "/cartView.xhtml"
+    };
+
+    // フィルタが処理を続行した回数
+    private long chained;
+
+    @Test
+    @DisplayName("フィルタ全体の1リクエストあたりの処理時間を計測する")
+    void benchmarkFilter() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        AuthenticationFilter filter = new AuthenticationFilter();
+        HttpSession session = proxy(HttpSession.class, (name, args) ->
+                "getAttribute".equals(name) && LoginBean.LOGGED_IN_ATTRIBUTE.equals(args[0])
+                        ? Boolean.TRUE : null);
+        HttpServletRequest[] requests = new HttpServletRequest[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            String path = PATHS[i];
+            requests[i] = proxy(HttpServletRequest.class, (name, args) -> switch (name) {
+                case "getRequestURI" -> "/berry-books" + path;
+                case "getContextPath" -> "/berry-books";
+                case "getSession" -> session;
+                default -> null;
+            });
+        }
+        HttpServletResponse response = proxy(HttpServletResponse.class, (name, args) -> null);
+        FilterChain chain = (req, res) -> chained++;
+
+        // 実行フェーズ
+        double filterNanos = measure(() -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                filter.doFilter(requests[i & 3], response, chain);
+            }
+        });
+
+        // 検証フェーズ（出力値ベース）
+        // （ログイン済みのため、ウォームアップを含む全てのリクエストで処理が続行される）
+        assertEquals(2L * ITERATIONS, chained);
+        logger.info(String.format("[ AuthenticationFilterBenchmark ] filter=%.1fns/op",
+                filterNanos));
+    }
+
+    // ウォームアップ後に計測し、1回あたりの処理時間（ナノ秒）を返す
+    private double measure(ThrowingRunnable task) throws Exception {
+        task.run();
+        long start = System.nanoTime();
+        task.run();
+        return (double) (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (p, method, args) -> answer.answer(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(String methodName, Object[] args);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
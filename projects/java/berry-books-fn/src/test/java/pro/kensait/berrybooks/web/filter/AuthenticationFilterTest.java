@@ -0,0 +1,101 @@
+package pro.kensait.berrybooks.web.filter;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pro.kensait.berrybooks.web.login.LoginBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HttpSession session;
+
+    @Mock
+    private FilterChain chain;
+
+    private AuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AuthenticationFilter();
+    }
+
+    @Test
+    @DisplayName("公開ページはセッションを参照せずに処理が続行されることをテストする")
+    void testPublicPage() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(request.getRequestURI()).thenReturn("/berry-books/index.xhtml");
+
+        // 実行フェーズ
+        filter.doFilter(request, response, chain);
+
+        // 検証フェーズ（コミュニケーションベース）
+        verify(chain).doFilter(request, response);
+        verify(request, never()).getSession(anyBoolean());
+        verify(response, never()).sendRedirect(anyString());
+    }
+
+    @Test
+    @DisplayName("/faces/*経由のJSFリソースは認証不要として処理が続行されることをテストする")
+    void testFacesResource() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(request.getRequestURI())
+                .thenReturn("/berry-books/faces/jakarta.faces.resource/style.css");
+
+        // 実行フェーズ
+        filter.doFilter(request, response, chain);
+
+        // 検証フェーズ（コミュニケーションベース）
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("ログイン済みの場合は認証が必要なページの処理が続行されることをテストする")
+    void testLoggedIn() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(request.getRequestURI()).thenReturn("/berry-books/bookSelect.xhtml");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute(LoginBean.LOGGED_IN_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        // 実行フェーズ
+        filter.doFilter(request, response, chain);
+
+        // 検証フェーズ（コミュニケーションベース）
+        verify(chain).doFilter(request, response);
+        verify(response, never()).sendRedirect(anyString());
+    }
+
+    @Test
+    @DisplayName("未ログインの場合はセッションを作成せずにトップページへリダイレクトされることをテストする")
+    void testNotLoggedIn() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        when(request.getRequestURI()).thenReturn("/berry-books/bookSelect.xhtml");
+        when(request.getContextPath()).thenReturn("/berry-books");
+        when(request.getSession(false)).thenReturn(null);
+
+        // 実行フェーズ
+        filter.doFilter(request, response, chain);
+
+        // 検証フェーズ（コミュニケーションベース）
+        verify(response).sendRedirect("/berry-books/index.xhtml");
+        verify(chain, never()).doFilter(any(), any());
+        verify(request, never()).getSession();
+    }
+}
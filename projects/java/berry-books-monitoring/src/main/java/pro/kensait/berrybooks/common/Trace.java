@@ -0,0 +1,134 @@
+package pro.kensait.berrybooks.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.metrics.MonitoringConfig;
+import pro.kensait.berrybooks.metrics.RequestMetrics;
+
+// DAO・サービス・Managed Bean・リソースのメソッドの開始・終了を出力するトレースログ
+// 「[ クラス名#メソッド名 ] キー=値, ...」の形式でDEBUGレベルに出力する
+// レベル（とサンプリング）の判定を最初に行い、出力しない場合はメッセージの文字列を生成しない
+// ※数値の引数はlongのオーバーロードで受け取るため、出力しない場合はボクシングも発生しない
+public final class Trace {
+
+    // サンプリング率（N回に1回出力する、1の場合は全て出力する）
+    private static final int SAMPLE_RATE = Math.max(1,
+            MonitoringConfig.getInt("trace.sample-rate", 1));
+
+    // クラス毎のトレース（Trace.ofの呼び出し毎に生成しないよう、クラスに関連付けて保持する）
+    private static final ClassValue<Trace> TRACES = new ClassValue<>() {
+        @Override
+        protected Trace computeValue(Class<?> type) {
+            return new Trace(LoggerFactory.getLogger(type), type.getSimpleName(), SAMPLE_RATE);
+        }
+    };
+
+    private final Logger logger;
+
+    // メッセージの接頭辞（「[ クラス名#」）
+    private final String prefix;
+
+    private final int sampleRate;
+
+    public Trace(Logger logger, String className, int sampleRate) {
+        this.logger = logger;
+        this.prefix = "[ " + className + "#";
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    // クラスのトレースを取得する
+    public static Trace of(Class<?> type) {
+        return TRACES.get(type);
+    }
+
+    // 出力するかどうか（DEBUGレベルが有効で、サンプリングの対象となった場合）
+    // リクエストの処理中は、リクエスト毎に対象とするかを決め、同じリクエストのトレースは全て出力するか全て出力しない
+    public boolean isEnabled() {
+        if (!logger.isDebugEnabled()) {
+            return false;
+        }
+        if (sampleRate == 1) {
+            return true;
+        }
+        RequestMetrics request = RequestMetrics.current();
+        return request != null
+                ? request.getTraceSeed() % sampleRate == 0
+                : ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    // メソッドの開始を出力する
+    public void entry(String method) {
+        if (isEnabled()) {
+            logger.debug(start(method).toString());
+        }
+    }
+
+    public void entry(String method, String key, Object value) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key).append('=').append(value)
+                    .toString());
+        }
+    }
+
+    public void entry(String method, String key, long value) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key).append('=').append(value)
+                    .toString());
+        }
+    }
+
+    public void entry(String method, String key1, Object value1, String key2, Object value2) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key1).append('=').append(value1)
+                    .append(", ").append(key2).append('=').append(value2).toString());
+        }
+    }
+
+    public void entry(String method, String key1, Object value1, String key2, long value2) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key1).append('=').append(value1)
+                    .append(", ").append(key2).append('=').append(value2).toString());
+        }
+    }
+
+    public void entry(String method, String key1, long value1, String key2, long value2) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key1).append('=').append(value1)
+                    .append(", ").append(key2).append('=').append(value2).toString());
+        }
+    }
+
+    public void entry(String method, String key1, Object value1, String key2, Object value2,
+            String key3, Object value3) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key1).append('=').append(value1)
+                    .append(", ").append(key2).append('=').append(value2)
+                    .append(", ").append(key3).append('=').append(value3).toString());
+        }
+    }
+
+    public void entry(String method, String key1, Object value1, String key2, Object value2,
+            String key3, Object value3, String key4, Object value4) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(' ').append(key1).append('=').append(value1)
+                    .append(", ").append(key2).append('=').append(value2)
+                    .append(", ").append(key3).append('=').append(value3)
+                    .append(", ").append(key4).append('=').append(value4).toString());
+        }
+    }
+
+    // メソッドの終了を処理時間とともに出力する（MonitoringInterceptorから呼び出される）
+    public void exit(String method, long elapsedNanos) {
+        if (isEnabled()) {
+            logger.debug(start(method).append(" exit elapsedMicros=")
+                    .append(elapsedNanos / 1_000).toString());
+        }
+    }
+
+    private StringBuilder start(String method) {
+        return new StringBuilder(64).append(prefix).append(method).append(" ]");
+    }
+}
@@ -0,0 +1,84 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// 観測値の分布を、あらかじめ決めた上限値毎のバケットで集計するヒストグラム
+// バケット毎にLongAdderで加算するため、複数のスレッドから同時に記録してもロックで待たされない
+public final class Histogram {
+
+    // リクエスト・メソッドの処理時間（秒）のバケットの上限値
+    public static final double[] LATENCY_BUCKETS = {
+            0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    // 1リクエストあたりのSQL数のバケットの上限値
+    public static final double[] COUNT_BUCKETS = {
+            0, 1, 2, 5, 10, 20, 50, 100, 200, 500
+    };
+
+    // バケットの上限値（昇順）
+    private final double[] bounds;
+
+    // バケット毎の件数（最後の要素は上限値を超えた件数）
+    private final LongAdder[] counts;
+
+    private final DoubleAdder sum = new DoubleAdder();
+
+    public Histogram(double[] bounds) {
+        this.bounds = bounds;
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    // 観測値を記録する
+    public void observe(double value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        counts[i].increment();
+        sum.add(value);
+    }
+
+    // 処理時間（ナノ秒）を秒として記録する
+    public void observeNanos(long nanos) {
+        observe(nanos / 1_000_000_000.0);
+    }
+
+    // 記録した件数
+    public long count() {
+        long count = 0;
+        for (LongAdder adder : counts) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    // Prometheusのテキスト形式で出力する（バケットは上限値以下の件数の累計とする）
+    // labelsは「name="value"」形式のラベル（ラベルがない場合は空文字）
+    public void writeTo(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += counts[i].sum();
+            out.append(name).append("_bucket{").append(labels).append(separator)
+                    .append("le=\"").append(formatBound(bounds[i])).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        cumulative += counts[bounds.length].sum();
+        out.append(name).append("_bucket{").append(labels).append(separator)
+                .append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braces).append(' ').append(sum.sum()).append('\n');
+        out.append(name).append("_count").append(braces).append(' ').append(cumulative)
+                .append('\n');
+    }
+
+    // 整数の上限値は小数点なしで出力する（例：1.0 → 1）
+    private static String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+}
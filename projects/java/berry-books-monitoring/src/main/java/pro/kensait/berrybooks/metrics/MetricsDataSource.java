@@ -0,0 +1,105 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+// DataSourceをラップし、取得したコネクションで実行されたSQLの数と実行時間をMetricsRegistryに記録するクラス
+// コネクション・ステートメントは動的プロキシでラップし、execute系のメソッドのみ計測する
+// （executeBatchはまとめて送信されるため、1回の実行として記録する）
+public final class MetricsDataSource {
+
+    private MetricsDataSource() {
+    }
+
+    // DataSourceをラップする（ラップ済みの場合はそのまま返す）
+    public static DataSource wrap(DataSource dataSource, MetricsRegistry registry) {
+        if (Proxy.isProxyClass(dataSource.getClass())
+                && Proxy.getInvocationHandler(dataSource) instanceof Handler) {
+            return dataSource;
+        }
+        return proxy(DataSource.class, dataSource, registry, null);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, MetricsRegistry registry,
+            String sql) {
+        return type.cast(Proxy.newProxyInstance(MetricsDataSource.class.getClassLoader(),
+                new Class<?>[] {type}, new Handler(target, registry, sql)));
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Object target;
+        private final MetricsRegistry registry;
+
+        // PreparedStatementの場合は作成時に指定されたSQL
+        private final String sql;
+
+        Handler(Object target, MetricsRegistry registry, String sql) {
+            this.target = target;
+            this.registry = registry;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") && args != null && args.length == 1) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode") && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            // unwrapはラップしたオブジェクトではなく、実際のJDBCドライバのオブジェクトを返す
+            if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+                return invokeTarget(method, args);
+            }
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return invokeTarget(method, args);
+                } finally {
+                    registry.recordStatement(statementSql(args), System.nanoTime() - start);
+                }
+            }
+            Object result = invokeTarget(method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, registry, null);
+            }
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, registry, firstSql(args));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, registry, firstSql(args));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, registry, null);
+            }
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Statement#execute(String)等はSQLを引数で受け取り、PreparedStatementは作成時のSQLを使う
+        private String statementSql(Object[] args) {
+            String argSql = firstSql(args);
+            return argSql != null ? argSql : sql;
+        }
+
+        private static String firstSql(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+        }
+    }
+}
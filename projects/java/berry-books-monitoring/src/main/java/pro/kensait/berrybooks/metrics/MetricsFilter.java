@@ -0,0 +1,69 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.io.IOException;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+
+// リクエスト毎の処理時間・SQL数・DB時間を計測するフィルタ
+// リクエストの間はRequestMetricsをスレッドに関連付け、JDBCのラッパーが実行したSQLを加算する
+@WebFilter(filterName = "MetricsFilter", urlPatterns = {"/*"})
+public class MetricsFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        RequestMetrics metrics = RequestMetrics.begin(
+                route(httpRequest.getMethod(), pathOf(httpRequest)));
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+            MetricsRegistry.getInstance().recordRequest(metrics, System.nanoTime() - start);
+        }
+    }
+
+    // コンテキストルートからのパス（/faces/*にマッピングされた場合はその後のパスを含む）
+    private static String pathOf(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        return pathInfo != null ? request.getServletPath() + pathInfo : request.getServletPath();
+    }
+
+    // ルート名を求める（パスのうち数字のみのセグメントを{id}に置き換え、IDの数だけルートが増えないようにする）
+    static String route(String method, String path) {
+        StringBuilder route = new StringBuilder(method.length() + path.length() + 1)
+                .append(method).append(' ');
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            // start位置の'/'を除いたセグメントが数字のみかどうか
+            int segmentStart = path.charAt(start) == '/' ? start + 1 : start;
+            if (segmentStart < end && isDigits(path, segmentStart, end)) {
+                route.append(path, start, segmentStart).append("{id}");
+            } else {
+                route.append(path, start, end);
+            }
+            start = end;
+        }
+        return route.toString();
+    }
+
+    private static boolean isDigits(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// リクエスト・メソッド・SQLの計測値を集計し、Prometheusのテキスト形式で出力するクラス
+// JDBCのラッパーはEclipseLinkのセッションから（CDIの管理外で）呼び出されるため、
+// CDI Beanではなくstaticなインスタンスとして共有する
+public final class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    // ルートの種類数の上限を超えた場合のルート名
+    static final String OTHER_ROUTE = "other";
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry(
+            MonitoringConfig.getInt("metrics.n-plus-one-threshold", 10),
+            MonitoringConfig.getInt("metrics.max-routes", 200));
+
+    // 1リクエストで同じSQLがこの回数実行された場合にN+1と判定する
+    private final int nPlusOneThreshold;
+
+    // ルートの種類数の上限（不正なパスによってメトリクスが増え続けないようにする）
+    private final int maxRoutes;
+
+    // ルート毎の処理時間・DB時間・SQL数
+    private final ConcurrentMap<String, Histogram> requestLatency = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> requestDbTime = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> requestStatements = new ConcurrentHashMap<>();
+
+    // ルート毎のN+1の検出回数
+    private final ConcurrentMap<String, LongAdder> nPlusOne = new ConcurrentHashMap<>();
+
+    // メソッド（クラス名#メソッド名）毎の処理時間
+    private final ConcurrentMap<String, Histogram> methodLatency = new ConcurrentHashMap<>();
+
+    // 全てのSQLの実行時間（リクエスト以外のスレッドで実行されたものを含む）
+    private final Histogram statementLatency = new Histogram(Histogram.LATENCY_BUCKETS);
+
+    MetricsRegistry(int nPlusOneThreshold, int maxRoutes) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxRoutes = maxRoutes;
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    // SQLの実行を記録する（リクエストの処理中であれば、そのリクエストにも加算する）
+    public void recordStatement(String sql, long nanos) {
+        statementLatency.observeNanos(nanos);
+        RequestMetrics request = RequestMetrics.current();
+        if (request != null && request.recordStatement(sql, nanos, nPlusOneThreshold)) {
+            String route = routeKey(request.getRoute());
+            nPlusOne.computeIfAbsent(route, k -> new LongAdder()).increment();
+            logger.warn("[ MetricsRegistry#recordStatement ] N+1 suspected: route={}, "
+                    + "count={}, sql={}", request.getRoute(), nPlusOneThreshold, sql);
+        }
+    }
+
+    // リクエストの終了を記録する
+    public void recordRequest(RequestMetrics request, long nanos) {
+        String route = routeKey(request.getRoute());
+        histogram(requestLatency, route, Histogram.LATENCY_BUCKETS).observeNanos(nanos);
+        histogram(requestDbTime, route, Histogram.LATENCY_BUCKETS)
+                .observeNanos(request.getDbNanos());
+        histogram(requestStatements, route, Histogram.COUNT_BUCKETS)
+                .observe(request.getStatementCount());
+    }
+
+    // DAO・サービスのメソッドの処理時間を記録する
+    public void recordMethod(String method, long nanos) {
+        histogram(methodLatency, method, Histogram.LATENCY_BUCKETS).observeNanos(nanos);
+    }
+
+    // Prometheusのテキスト形式（version 0.0.4）で出力する
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        writeHistograms(out, "berrybooks_http_request_duration_seconds",
+                "Request processing time", "route", requestLatency);
+        writeHistograms(out, "berrybooks_http_request_db_seconds",
+                "Time spent executing SQL per request", "route", requestDbTime);
+        writeHistograms(out, "berrybooks_http_request_statements",
+                "Number of SQL statements per request", "route", requestStatements);
+
+        out.append("# HELP berrybooks_n_plus_one_total Requests repeating the same SQL ")
+                .append(nPlusOneThreshold).append(" times or more\n");
+        out.append("# TYPE berrybooks_n_plus_one_total counter\n");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(nPlusOne).entrySet()) {
+            out.append("berrybooks_n_plus_one_total{route=\"").append(escape(entry.getKey()))
+                    .append("\"} ").append(entry.getValue().sum()).append('\n');
+        }
+
+        writeHistograms(out, "berrybooks_method_duration_seconds",
+                "DAO and service method processing time", "method", methodLatency);
+
+        out.append("# HELP berrybooks_sql_duration_seconds SQL statement execution time\n");
+        out.append("# TYPE berrybooks_sql_duration_seconds histogram\n");
+        statementLatency.writeTo(out, "berrybooks_sql_duration_seconds", "");
+        return out.toString();
+    }
+
+    // 上限を超えた新しいルートは、まとめてOTHER_ROUTEとして集計する
+    String routeKey(String route) {
+        if (requestLatency.containsKey(route) || requestLatency.size() < maxRoutes) {
+            return route;
+        }
+        return OTHER_ROUTE;
+    }
+
+    private static Histogram histogram(ConcurrentMap<String, Histogram> histograms, String key,
+            double[] bounds) {
+        Histogram histogram = histograms.get(key);
+        return histogram != null ? histogram
+                : histograms.computeIfAbsent(key, k -> new Histogram(bounds));
+    }
+
+    private static void writeHistograms(StringBuilder out, String name, String help,
+            String label, Map<String, Histogram> histograms) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        // 出力の順序を固定するため、ラベルの値でソートする
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            entry.getValue().writeTo(out, name,
+                    label + "=\"" + escape(entry.getKey()) + "\"");
+        }
+    }
+
+    // ラベルの値をエスケープする（\、"、改行）
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,57 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+
+// 計測値をPrometheusのテキスト形式で公開するリソースクラス（GET {アプリケーションのパス}/metrics）
+// ルートやSQLの情報を含むため、ログインの有無にかかわらず、許可したアドレス
+// （metrics.allowed-addresses、デフォルトはローカルホストのみ）以外からの取得は拒否する
+@Path("/metrics")
+public class MetricsResource {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsResource.class);
+
+    // Prometheusのテキスト形式のメディアタイプ
+    public static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    // 計測値の取得を許可するアドレス（カンマ区切り）
+    private static final Set<String> ALLOWED_ADDRESSES = parseAddresses(MonitoringConfig.get(
+            "metrics.allowed-addresses", "127.0.0.1, 0:0:0:0:0:0:0:1, ::1"));
+
+    @Context
+    private HttpServletRequest request;
+
+    // APIメソッド：計測値を取得する
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response getMetrics() {
+        String address = request.getRemoteAddr();
+        if (!isAllowed(ALLOWED_ADDRESSES, address)) {
+            logger.warn("[ MetricsResource#getMetrics ] Access denied: address={}", address);
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        return Response.ok(MetricsRegistry.getInstance().scrape()).build();
+    }
+
+    // 許可したアドレスかどうか（「*」を指定した場合は全て許可する）
+    static boolean isAllowed(Set<String> allowedAddresses, String address) {
+        return allowedAddresses.contains("*") || allowedAddresses.contains(address);
+    }
+
+    static Set<String> parseAddresses(String addresses) {
+        return Arrays.stream(addresses.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
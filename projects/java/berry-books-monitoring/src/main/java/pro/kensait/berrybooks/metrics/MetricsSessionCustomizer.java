@@ -0,0 +1,31 @@
+package pro.kensait.berrybooks.metrics;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.sessions.Connector;
+import org.eclipse.persistence.sessions.JNDIConnector;
+import org.eclipse.persistence.sessions.Session;
+
+// EclipseLinkのセッションが使うDataSourceをMetricsDataSourceでラップするカスタマイザ
+// persistence.xmlのeclipselink.session.customizerで指定する
+// （コンテナ管理のDataSourceをそのまま使い続けるため、接続プールやJTAの動作は変わらない）
+public class MetricsSessionCustomizer implements SessionCustomizer {
+
+    @Override
+    public void customize(Session session) throws NamingException {
+        Connector connector = session.getLogin().getConnector();
+        if (!(connector instanceof JNDIConnector jndiConnector)) {
+            return;
+        }
+        DataSource dataSource = jndiConnector.getDataSource();
+        if (dataSource == null) {
+            // この時点ではまだJNDIから取得されていないため、同じ名前で取得する
+            dataSource = (DataSource) new InitialContext().lookup(jndiConnector.getName());
+        }
+        jndiConnector.setDataSource(
+                MetricsDataSource.wrap(dataSource, MetricsRegistry.getInstance()));
+    }
+}
@@ -0,0 +1,24 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.interceptor.InterceptorBinding;
+
+// メソッドの処理時間を計測するインターセプターのバインディング
+// daoパッケージ・serviceパッケージのBeanにはMonitoringExtensionが自動で付与する
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Monitored {
+
+    // MonitoringExtensionでアノテーションを付与するためのリテラル
+    final class Literal extends AnnotationLiteral<Monitored> implements Monitored {
+        private static final long serialVersionUID = 1L;
+
+        public static final Literal INSTANCE = new Literal();
+    }
+}
@@ -0,0 +1,40 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+// 計測・トレースログの設定値を、アプリケーションの設定ファイル（config.properties）から取得するクラス
+// 設定ファイルが無い場合やキーが見つからない場合はデフォルト値を返す
+public final class MonitoringConfig {
+
+    // リソースバンドル（config.properties、無い場合はnull）
+    private static final ResourceBundle bundle = load();
+
+    private MonitoringConfig() {
+    }
+
+    // 設定値を取得（キーが見つからない場合はデフォルト値を返す）
+    public static String get(String key, String defaultValue) {
+        if (bundle == null || !bundle.containsKey(key)) {
+            return defaultValue;
+        }
+        return bundle.getString(key).trim();
+    }
+
+    // 設定値を整数として取得
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static ResourceBundle load() {
+        try {
+            return ResourceBundle.getBundle("config");
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
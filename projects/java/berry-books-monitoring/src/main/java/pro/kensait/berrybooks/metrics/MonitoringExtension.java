@@ -0,0 +1,37 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.lang.reflect.Modifier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.spi.Extension;
+import jakarta.enterprise.inject.spi.ProcessAnnotatedType;
+import jakarta.enterprise.inject.spi.WithAnnotations;
+
+// daoパッケージ・serviceパッケージのBeanに@Monitoredを付与するCDIポータブル拡張
+// 個々のクラスにアノテーションを付けなくても、新しく追加したDAO・サービスも計測の対象となる
+// ※META-INF/services/jakarta.enterprise.inject.spi.Extensionで登録する
+public class MonitoringExtension implements Extension {
+
+    private static final String BASE_PACKAGE = "pro.kensait.berrybooks.";
+
+    <T> void addMonitored(@Observes @WithAnnotations({ApplicationScoped.class,
+            RequestScoped.class}) ProcessAnnotatedType<T> event) {
+        Class<T> type = event.getAnnotatedType().getJavaClass();
+        // finalクラス（プロキシを作成できない）と抽象クラスは対象外とする
+        if (Modifier.isFinal(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())) {
+            return;
+        }
+        if (isMonitoredPackage(type.getPackageName())) {
+            event.configureAnnotatedType().add(Monitored.Literal.INSTANCE);
+        }
+    }
+
+    // daoパッケージ・serviceパッケージ（サブパッケージを含む）かどうか
+    static boolean isMonitoredPackage(String packageName) {
+        return packageName.equals(BASE_PACKAGE + "dao")
+                || packageName.equals(BASE_PACKAGE + "service")
+                || packageName.startsWith(BASE_PACKAGE + "service.");
+    }
+}
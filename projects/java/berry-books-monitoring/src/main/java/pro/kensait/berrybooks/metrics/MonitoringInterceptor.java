@@ -0,0 +1,39 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import pro.kensait.berrybooks.common.Trace;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+// DAO・サービスのメソッドの処理時間を「クラス名#メソッド名」毎に記録し、終了のトレースログを出力するインターセプター
+// @Transactional（PLATFORM_BEFORE + 200）より外側で実行し、コミットの時間も含めて計測する
+@Monitored
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class MonitoringInterceptor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // メソッド毎のメトリクス名（「クラス名#メソッド名」、呼び出し毎に文字列を連結しないよう保持する）
+    private static final Map<Method, String> METHOD_NAMES = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    public Object monitor(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Method method = context.getMethod();
+            MetricsRegistry.getInstance().recordMethod(METHOD_NAMES.computeIfAbsent(method,
+                    m -> m.getDeclaringClass().getSimpleName() + "#" + m.getName()), elapsed);
+            Trace.of(method.getDeclaringClass()).exit(method.getName(), elapsed);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pro.kensait.berrybooks.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 1リクエストの間に発行されたSQLの数とDB時間を保持するクラス
+// MetricsFilterがリクエストの開始時にスレッドに関連付け、JDBCのラッパーがSQLの実行毎に加算する
+// （リクエスト処理スレッドからのみ操作するため、同期は行わない）
+public final class RequestMetrics {
+
+    // 処理中のリクエスト（リクエスト以外のスレッド、例えばタイマーやバッチではnull）
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    // リクエストのルート（パスの数値部分を{id}に置き換えたもの）
+    private final String route;
+
+    // SQL毎の実行回数（同じSQLの繰り返しによるN+1の検出に使用する）
+    private final Map<String, Integer> countBySql = new HashMap<>();
+
+    // トレースログのサンプリングに使う乱数（同じリクエストのトレースを全て出力するか全て出力しないかを揃える）
+    private final int traceSeed = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+
+    private int statementCount;
+    private long dbNanos;
+    private int nPlusOneCount;
+
+    private RequestMetrics(String route) {
+        this.route = route;
+    }
+
+    // リクエストの計測を開始し、現在のスレッドに関連付ける
+    public static RequestMetrics begin(String route) {
+        RequestMetrics metrics = new RequestMetrics(route);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    // 現在のスレッドで処理中のリクエストを取得する
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    // リクエストの計測を終了し、現在のスレッドとの関連付けを解除する
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // SQLの実行を記録する
+    // 同じSQLの実行回数がしきい値に達した場合（1リクエストにつきSQL毎に1回のみ）はtrueを返す
+    boolean recordStatement(String sql, long nanos, int nPlusOneThreshold) {
+        statementCount++;
+        dbNanos += nanos;
+        if (sql == null) {
+            return false;
+        }
+        int count = countBySql.merge(sql, 1, Integer::sum);
+        if (count == nPlusOneThreshold) {
+            nPlusOneCount++;
+            return true;
+        }
+        return false;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+
+    public int getTraceSeed() {
+        return traceSeed;
+    }
+
+    // N+1が疑われるSQLの数
+    public int getNPlusOneCount() {
+        return nPlusOneCount;
+    }
+}
@@ -0,0 +1,113 @@
+package pro.kensait.berrybooks.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// MetricsDataSourceでラップしたDataSource（HSQLDBインメモリDB）で実行したSQLが記録されることを検証するテスト
+class MetricsDataSourceTest {
+
+    private static JDBCDataSource hsqldb;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        hsqldb = new JDBCDataSource();
+        hsqldb.setUrl("jdbc:hsqldb:mem:metricsDataSource");
+        hsqldb.setUser("SA");
+        hsqldb.setPassword("");
+        try (Connection con = hsqldb.getConnection();
+                Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE ORDER_DETAIL (ORDER_TRAN_ID INT NOT NULL, "
+                    + "ORDER_DETAIL_ID INT NOT NULL, PRICE INT NOT NULL, "
+                    + "PRIMARY KEY (ORDER_TRAN_ID, ORDER_DETAIL_ID))");
+        }
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        try (Connection con = hsqldb.getConnection();
+                Statement st = con.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestMetrics.end();
+    }
+
+    @Test
+    @DisplayName("注文毎に明細を取得するループ（N+1）が、SQL数とN+1として記録されることをテストする")
+    void testNPlusOne() throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(10, 200);
+        DataSource dataSource = MetricsDataSource.wrap(hsqldb, registry);
+        RequestMetrics request = RequestMetrics.begin("GET /orderHistory.xhtml");
+
+        // 実行フェーズ
+        try (Connection con = dataSource.getConnection()) {
+            for (int orderTranId = 1; orderTranId <= 12; orderTranId++) {
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT PRICE FROM ORDER_DETAIL WHERE ORDER_TRAN_ID = ?")) {
+                    ps.setInt(1, orderTranId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        assertFalse(rs.next());
+                    }
+                }
+            }
+        }
+        RequestMetrics.end();
+        registry.recordRequest(request, 1_000_000);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(12, request.getStatementCount());
+        assertTrue(request.getDbNanos() > 0);
+        assertEquals(1, request.getNPlusOneCount());
+        assertTrue(registry.scrape().contains(
+                "berrybooks_n_plus_one_total{route=\"GET /orderHistory.xhtml\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("バッチ更新は1回の実行として記録され、unwrapでは実際のJDBCオブジェクトが返されることをテストする")
+    void testBatchAndUnwrap() throws SQLException {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(10, 200);
+        DataSource dataSource = MetricsDataSource.wrap(hsqldb, registry);
+        RequestMetrics request = RequestMetrics.begin("POST /orderConfirm.xhtml");
+
+        // 実行フェーズ
+        Connection unwrapped;
+        try (Connection con = dataSource.getConnection();
+                PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO ORDER_DETAIL VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= 3; i++) {
+                ps.setInt(1, 100);
+                ps.setInt(2, i);
+                ps.setInt(3, 1000);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            unwrapped = con.unwrap(Connection.class);
+        }
+        RequestMetrics.end();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(1, request.getStatementCount());
+        assertFalse(Proxy.isProxyClass(unwrapped.getClass()));
+        assertSame(dataSource, MetricsDataSource.wrap(dataSource, registry));
+    }
+}
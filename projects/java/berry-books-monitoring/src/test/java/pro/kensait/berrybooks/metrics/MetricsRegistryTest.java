@@ -0,0 +1,133 @@
+package pro.kensait.berrybooks.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestMetrics.end();
+    }
+
+    @Test
+    @DisplayName("リクエストのSQL数・DB時間・処理時間がルート毎のヒストグラムとして出力されることをテストする")
+    void testRecordRequest() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(10, 200);
+        RequestMetrics request = RequestMetrics.begin("GET /bookSelect.xhtml");
+        registry.recordStatement("SELECT * FROM BOOK", 2_000_000);
+        registry.recordStatement("SELECT * FROM CATEGORY", 1_000_000);
+        RequestMetrics.end();
+
+        // 実行フェーズ
+        registry.recordRequest(request, 30_000_000);
+        String text = registry.scrape();
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(2, request.getStatementCount());
+        assertEquals(3_000_000, request.getDbNanos());
+        assertTrue(text.contains("# TYPE berrybooks_http_request_duration_seconds histogram\n"));
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_bucket"
+                + "{route=\"GET /bookSelect.xhtml\",le=\"0.025\"} 0\n"));
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_bucket"
+                + "{route=\"GET /bookSelect.xhtml\",le=\"0.05\"} 1\n"));
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_count"
+                + "{route=\"GET /bookSelect.xhtml\"} 1\n"));
+        assertTrue(text.contains("berrybooks_http_request_statements_bucket"
+                + "{route=\"GET /bookSelect.xhtml\",le=\"2\"} 1\n"));
+        assertTrue(text.contains("berrybooks_http_request_db_seconds_sum"
+                + "{route=\"GET /bookSelect.xhtml\"} 0.003\n"));
+        assertTrue(text.contains("berrybooks_sql_duration_seconds_count 2\n"));
+    }
+
+    @Test
+    @DisplayName("同じSQLがしきい値の回数実行された場合に、1回だけN+1として記録されることをテストする")
+    void testNPlusOne() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(3, 200);
+        RequestMetrics request = RequestMetrics.begin("GET /orderHistory.xhtml");
+
+        // 実行フェーズ
+        registry.recordStatement("SELECT * FROM ORDER_TRAN WHERE CUSTOMER_ID = ?", 1_000);
+        for (int i = 0; i < 5; i++) {
+            registry.recordStatement("SELECT * FROM ORDER_DETAIL WHERE ORDER_TRAN_ID = ?", 1_000);
+        }
+        RequestMetrics.end();
+        registry.recordRequest(request, 1_000_000);
+
+        // 検証フェーズ（出力値ベース、状態ベース）
+        assertEquals(6, request.getStatementCount());
+        assertEquals(1, request.getNPlusOneCount());
+        assertTrue(registry.scrape().contains(
+                "berrybooks_n_plus_one_total{route=\"GET /orderHistory.xhtml\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("リクエスト以外のスレッドで実行したSQLは、SQL全体の実行時間のみに記録されることをテストする")
+    void testStatementWithoutRequest() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(1, 200);
+
+        // 実行フェーズ
+        registry.recordStatement("UPDATE STOCK SET QUANTITY = ?", 1_000);
+        String text = registry.scrape();
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(text.contains("berrybooks_sql_duration_seconds_count 1\n"));
+        assertFalse(text.contains("berrybooks_n_plus_one_total{"));
+    }
+
+    @Test
+    @DisplayName("ルートの種類数が上限を超えた場合に、新しいルートがotherとして集計されることをテストする")
+    void testMaxRoutes() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(10, 2);
+
+        // 実行フェーズ
+        for (String route : new String[] {"GET /a", "GET /b", "GET /c", "GET /d", "GET /a"}) {
+            RequestMetrics request = RequestMetrics.begin(route);
+            RequestMetrics.end();
+            registry.recordRequest(request, 1_000);
+        }
+        String text = registry.scrape();
+
+        // 検証フェーズ（出力値ベース）
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_count{route=\"GET /a\"} 2\n"));
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_count{route=\"GET /b\"} 1\n"));
+        assertTrue(text.contains("berrybooks_http_request_duration_seconds_count{route=\"other\"} 2\n"));
+        assertFalse(text.contains("route=\"GET /c\""));
+    }
+
+    @Test
+    @DisplayName("メソッド毎の処理時間が記録されることをテストする")
+    void testRecordMethod() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        MetricsRegistry registry = new MetricsRegistry(10, 200);
+
+        // 実行フェーズ
+        registry.recordMethod("OrderService#getOrderDetail", 2_000_000);
+        registry.recordMethod("OrderService#getOrderDetail", 20_000_000);
+
+        // 検証フェーズ（出力値ベース）
+        String text = registry.scrape();
+        assertTrue(text.contains("berrybooks_method_duration_seconds_bucket"
+                + "{method=\"OrderService#getOrderDetail\",le=\"0.005\"} 1\n"));
+        assertTrue(text.contains("berrybooks_method_duration_seconds_count"
+                + "{method=\"OrderService#getOrderDetail\"} 2\n"));
+    }
+
+    @Test
+    @DisplayName("パスの数字のみのセグメントが{id}に置き換えられることをテストする")
+    void testRoute() {
+        // 実行フェーズ、検証フェーズ（出力値ベース）
+        assertEquals("GET /customers/{id}/orders", MetricsFilter.route("GET", "/customers/12/orders"));
+        assertEquals("GET /customers/{id}", MetricsFilter.route("GET", "/customers/3"));
+        assertEquals("POST /orderConfirm.xhtml", MetricsFilter.route("POST", "/orderConfirm.xhtml"));
+        assertEquals("GET /books/1a", MetricsFilter.route("GET", "/books/1a"));
+        assertEquals("GET /", MetricsFilter.route("GET", "/"));
+    }
+}
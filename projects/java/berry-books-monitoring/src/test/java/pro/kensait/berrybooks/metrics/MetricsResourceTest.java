@@ -0,0 +1,34 @@
+package pro.kensait.berrybooks.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MetricsResourceTest {
+
+    @Test
+    @DisplayName("許可したアドレスからの取得のみが許可されることをテストする")
+    void testIsAllowed() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Set<String> allowed = MetricsResource.parseAddresses(" 127.0.0.1, ::1,, 10.0.0.5 ");
+
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertEquals(Set.of("127.0.0.1", "::1", "10.0.0.5"), allowed);
+        assertTrue(MetricsResource.isAllowed(allowed, "127.0.0.1"));
+        assertTrue(MetricsResource.isAllowed(allowed, "10.0.0.5"));
+        assertFalse(MetricsResource.isAllowed(allowed, "192.168.0.10"));
+    }
+
+    @Test
+    @DisplayName("「*」を指定した場合は全てのアドレスからの取得が許可されることをテストする")
+    void testIsAllowedWildcard() {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        Set<String> allowed = MetricsResource.parseAddresses("*");
+
+        // 実行フェーズと検証フェーズ（出力値ベース）
+        assertTrue(MetricsResource.isAllowed(allowed, "192.168.0.10"));
+    }
+}
@@ -1,35 +1,56 @@
 package pro.kensait.berrybooks.dao;
 
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.sql.DataSource;
 
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dto.CustomerStatsTO;
+import pro.kensait.berrybooks.dto.CustomerTO;
 import pro.kensait.berrybooks.entity.Customer;
+import pro.kensait.berrybooks.metrics.MetricsDataSource;
+import pro.kensait.berrybooks.metrics.MetricsRegistry;
+import jakarta.annotation.Resource;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.TypedQuery;
 
 // 顧客テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class CustomerDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            CustomerDao.class);
+    private static final Trace trace = Trace.of(CustomerDao.class);
+
+    // IN句に指定するメールアドレスの最大数（超える場合は分割して検索する）
+    private static final int MAX_IN_PARAMETERS = 1000;
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
+    // 一括登録（JDBCバッチ）用のデータソース（永続化ユニットと同じデータソース）
+    // JTAトランザクション内で取得した接続は、EntityManagerと同じトランザクションに参加する
+    @Resource(lookup = "jdbc/HsqldbDS")
+    private DataSource dataSource;
+
     // DAOメソッド：顧客を主キーで検索
     public Customer findById(Integer customerId) {
-        logger.info("[ CustomerDao#findById ]");
+        trace.entry("findById");
         return em.find(Customer.class, customerId);
     }
 
     // DAOメソッド：顧客をメールアドレスで検索
     public Customer findCustomerByEmail(String email) {
-        logger.info("[ CustomerDao#findCustomerByEmail ]");
+        trace.entry("findCustomerByEmail");
         
         TypedQuery<Customer> query = em.createQuery(
                 "SELECT c FROM Customer c WHERE c.email = :email", Customer.class);
@@ -39,43 +60,141 @@ public class CustomerDao {
         return results.isEmpty() ? null : results.get(0);
     }
 
-    // DAOメソッド：誕生日以降の顧客を検索
-    public List<Customer> searchCustomersFromBirthday(LocalDate from) {
-        logger.info("[ CustomerDao#searchCustomersFromBirthday ]");
+    // DAOメソッド：誕生日以降の顧客を顧客ID順に取得（キーセット方式のページング）
+    // エンティティではなくDTOとして取得するため、永続化コンテキストに顧客が蓄積されない
+    // afterCustomerIdが指定された場合は、その顧客IDより大きい顧客からlimit件を返す
+    public List<CustomerTO> searchCustomersFromBirthdayPage(LocalDate from,
+            Integer afterCustomerId, int limit) {
+        trace.entry("searchCustomersFromBirthdayPage", "afterCustomerId", afterCustomerId,
+                "limit", limit);
         
-        TypedQuery<Customer> query = em.createQuery(
-                "SELECT c FROM Customer c WHERE :from <= c.birthday", Customer.class);
+        TypedQuery<CustomerTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.dto.CustomerTO(" +
+                "c.customerId, c.customerName, c.email, c.birthday, c.address) " +
+                "FROM Customer c " +
+                "WHERE :from <= c.birthday AND c.customerId > :afterCustomerId " +
+                "ORDER BY c.customerId",
+                CustomerTO.class);
         query.setParameter("from", from);
+        query.setParameter("afterCustomerId", afterCustomerId != null ? afterCustomerId : 0);
+        query.setMaxResults(limit);
         
         return query.getResultList();
     }
 
     // DAOメソッド：顧客を新規登録
     public void persist(Customer customer) {
-        logger.info("[ CustomerDao#persist ]");
+        trace.entry("persist");
         em.persist(customer);
     }
 
     // DAOメソッド：顧客を更新
     public Customer merge(Customer customer) {
-        logger.info("[ CustomerDao#merge ]");
+        trace.entry("merge");
         return em.merge(customer);
     }
 
     // DAOメソッド：顧客を削除
     public void remove(Customer customer) {
-        logger.info("[ CustomerDao#remove ]");
+        trace.entry("remove");
         em.remove(customer);
     }
 
     // DAOメソッド：全顧客を取得
     public List<Customer> findAll() {
-        logger.info("[ CustomerDao#findAll ]");
+        trace.entry("findAll");
         
         TypedQuery<Customer> query = em.createQuery(
                 "SELECT c FROM Customer c", Customer.class);
         
         return query.getResultList();
     }
-}
 
+    // DAOメソッド：顧客と統計情報（注文件数・購入冊数・最終注文日）を顧客ID順に取得（キーセット方式のページング）
+    // 統計情報は注文時に更新される顧客統計テーブル（CUSTOMER_STATS）から読み込むため、
+    // 注文・注文明細の集計は行わず、主キー同士の外部結合のみで済む
+    // afterCustomerIdが指定された場合は、その顧客IDより大きい顧客からlimit件を返す
+    public List<CustomerStatsTO> findStatsPage(Integer afterCustomerId, int limit) {
+        trace.entry("findStatsPage", "afterCustomerId", afterCustomerId, "limit", limit);
+        
+        TypedQuery<CustomerStatsTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.dto.CustomerStatsTO(" +
+                "c.customerId, c.customerName, c.email, c.birthday, c.address, " +
+                "s.orderCount, s.totalBooks, s.lastOrderDate) " +
+                "FROM Customer c " +
+                "LEFT JOIN CustomerStats s ON s.customerId = c.customerId " +
+                "WHERE c.customerId > :afterCustomerId " +
+                "ORDER BY c.customerId",
+                CustomerStatsTO.class);
+        query.setParameter("afterCustomerId", afterCustomerId != null ? afterCustomerId : 0);
+        query.setMaxResults(limit);
+        
+        return query.getResultList();
+    }
+
+    // DAOメソッド：メールアドレスのリストに一致する顧客の顧客IDを取得（キー：メールアドレス）
+    // 1件ずつ検索せず、IN句でまとめて検索する
+    public Map<String, Integer> findIdsByEmails(Collection<String> emails) {
+        trace.entry("findIdsByEmails", "size", emails.size());
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> all = new ArrayList<>(emails);
+        for (int from = 0; from < all.size(); from += MAX_IN_PARAMETERS) {
+            List<String> part = all.subList(from,
+                    Math.min(from + MAX_IN_PARAMETERS, all.size()));
+            TypedQuery<Object[]> query = em.createQuery(
+                    "SELECT c.email, c.customerId FROM Customer c WHERE c.email IN :emails",
+                    Object[].class);
+            query.setParameter("emails", part);
+            for (Object[] row : query.getResultList()) {
+                ids.put((String) row[0], (Integer) row[1]);
+            }
+        }
+        return ids;
+    }
+
+    // DAOメソッド：顧客をJDBCバッチで一括登録
+    // 顧客IDは自動採番のため、登録後にfindIdsByEmailsで取得する
+    // ※EclipseLinkのバッチ書き込みはIDENTITY列の採番と併用できない（1件ずつ送信される）ため、JDBCを直接使用する
+    public void insertBatch(List<Customer> customers) {
+        trace.entry("insertBatch", "size", customers.size());
+
+        // 実行したSQLをメトリクスに記録するため、EclipseLinkと同様にラップしたデータソースを使う
+        try (Connection con = MetricsDataSource.wrap(dataSource, MetricsRegistry.getInstance())
+                        .getConnection();
+                PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO CUSTOMER (CUSTOMER_NAME, PASSWORD, EMAIL, BIRTHDAY, ADDRESS) "
+                        + "VALUES (?, ?, ?, ?, ?)")) {
+            for (Customer customer : customers) {
+                ps.setString(1, customer.getCustomerName());
+                ps.setString(2, customer.getPassword());
+                ps.setString(3, customer.getEmail());
+                ps.setDate(4, customer.getBirthday() != null
+                        ? Date.valueOf(customer.getBirthday()) : null);
+                ps.setString(5, customer.getAddress());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    // DAOメソッド：顧客を顧客ID順に取得（キーセット方式のページング）
+    // afterCustomerIdが指定された場合は、その顧客IDより大きい顧客からlimit件を返す
+    public List<CustomerTO> findPage(Integer afterCustomerId, int limit) {
+        trace.entry("findPage", "afterCustomerId", afterCustomerId, "limit", limit);
+
+        TypedQuery<CustomerTO> query = em.createQuery(
+                "SELECT new pro.kensait.berrybooks.dto.CustomerTO(" +
+                "c.customerId, c.customerName, c.email, c.birthday, c.address) " +
+                "FROM Customer c " +
+                "WHERE c.customerId > :afterCustomerId " +
+                "ORDER BY c.customerId",
+                CustomerTO.class);
+        query.setParameter("afterCustomerId", afterCustomerId != null ? afterCustomerId : 0);
+        query.setMaxResults(limit);
+
+        return query.getResultList();
+    }
+}
@@ -2,9 +2,8 @@ package pro.kensait.berrybooks.dao;
 
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dto.OrderKeyTO;
 import pro.kensait.berrybooks.entity.OrderTran;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
@@ -14,27 +13,58 @@ import jakarta.persistence.TypedQuery;
 // 注文テーブルへのアクセスを行うDAOクラス
 @ApplicationScoped
 public class OrderTranDao {
-    private static final Logger logger = LoggerFactory.getLogger(
-            OrderTranDao.class);
+    private static final Trace trace = Trace.of(OrderTranDao.class);
+
+    // 関連エンティティをIN句でまとめて読み込むためのクエリヒント（EclipseLink）
+    private static final String BATCH_HINT = "eclipselink.batch";
+    private static final String BATCH_TYPE_HINT = "eclipselink.batch.type";
 
     @PersistenceContext(unitName = "bookstorePU")
     private EntityManager em;
 
-    // DAOメソッド：顧客IDで注文履歴を取得
-    public List<OrderTran> findByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#findByCustomerId ]");
+    // DAOメソッド：顧客IDで注文履歴を注文日の降順に取得（キーセット方式のページング）
+    // afterが指定された場合は、その注文より後（古い側）の注文からlimit件を返す
+    // 注文明細と書籍はページ内の注文IDをIN句に指定してまとめて読み込むため、
+    // 発行するSQLは注文件数に関係なく1ページあたり一定となる
+    public List<OrderTran> findPageByCustomerId(Integer customerId, OrderKeyTO after,
+            int limit) {
+        trace.entry("findPageByCustomerId", "after", after, "limit", limit);
         
+        String keyCondition = (after == null) ? "" :
+                "AND (o.orderDate < :afterOrderDate " +
+                "OR (o.orderDate = :afterOrderDate AND o.orderTranId < :afterOrderTranId)) ";
         TypedQuery<OrderTran> query = em.createQuery(
-                "SELECT o FROM OrderTran o WHERE o.customerId = :customerId ORDER BY o.orderDate DESC", 
+                "SELECT o FROM OrderTran o " +
+                "WHERE o.customerId = :customerId " + keyCondition +
+                "ORDER BY o.orderDate DESC, o.orderTranId DESC",
                 OrderTran.class);
         query.setParameter("customerId", customerId);
+        if (after != null) {
+            query.setParameter("afterOrderDate", after.orderDate());
+            query.setParameter("afterOrderTranId", after.orderTranId());
+        }
+        query.setHint(BATCH_TYPE_HINT, "IN");
+        query.setHint(BATCH_HINT, "o.orderDetails");
+        query.setHint(BATCH_HINT, "o.orderDetails.book");
+        query.setMaxResults(limit);
         
         return query.getResultList();
     }
 
+    // DAOメソッド：注文IDの最大値を取得（注文が無い場合は0）
+    // 注文は追加のみで更新・削除されないため、注文データの変更有無の判定に使用する
+    public int findMaxOrderTranId() {
+        trace.entry("findMaxOrderTranId");
+        
+        Integer maxOrderTranId = em.createQuery(
+                "SELECT MAX(o.orderTranId) FROM OrderTran o", Integer.class)
+                .getSingleResult();
+        return maxOrderTranId != null ? maxOrderTranId : 0;
+    }
+
     // DAOメソッド：顧客IDで注文件数を取得
     public Long countOrdersByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#countOrdersByCustomerId ]");
+        trace.entry("countOrdersByCustomerId");
         
         TypedQuery<Long> query = em.createQuery(
                 "SELECT COUNT(o) FROM OrderTran o WHERE o.customerId = :customerId", 
@@ -46,7 +76,7 @@ public class OrderTranDao {
 
     // DAOメソッド：顧客IDで購入冊数の合計を取得
     public Long sumBookCountByCustomerId(Integer customerId) {
-        logger.info("[ OrderTranDao#sumBookCountByCustomerId ]");
+        trace.entry("sumBookCountByCustomerId");
         
         TypedQuery<Long> query = em.createQuery(
                 "SELECT COALESCE(SUM(od.count), 0) FROM OrderDetail od WHERE od.orderTranId IN " +
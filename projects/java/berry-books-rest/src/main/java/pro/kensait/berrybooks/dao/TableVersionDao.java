@@ -0,0 +1,33 @@
+package pro.kensait.berrybooks.dao;
+
+import java.util.List;
+
+import pro.kensait.berrybooks.common.Trace;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+// テーブル毎の変更カウンタへのアクセスを行うDAOクラス
+@ApplicationScoped
+public class TableVersionDao {
+    private static final Trace trace = Trace.of(TableVersionDao.class);
+
+    @PersistenceContext(unitName = "bookstorePU")
+    private EntityManager em;
+
+    // DAOメソッド：テーブルの変更カウンタを取得（行が無い場合は0）
+    // em.findは共有キャッシュの値を返す場合があるため、JPQLで常にデータベースから読み込む
+    public long findVersion(String tableName) {
+        trace.entry("findVersion", "tableName", tableName);
+        
+        TypedQuery<Long> query = em.createQuery(
+                "SELECT v.version FROM TableVersion v WHERE v.tableName = :tableName",
+                Long.class);
+        query.setParameter("tableName", tableName);
+        
+        List<Long> results = query.getResultList();
+        return results.isEmpty() ? 0L : results.get(0);
+    }
+}
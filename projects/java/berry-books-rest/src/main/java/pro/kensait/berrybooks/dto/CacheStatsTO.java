@@ -0,0 +1,14 @@
+package pro.kensait.berrybooks.dto;
+
+public record CacheStatsTO (
+        // ヒット数
+        long hitCount,
+        // ミス数
+        long missCount,
+        // 追い出し数（件数上限または有効期限切れ）
+        long evictionCount,
+        // 現在の要素数
+        int size,
+        // ヒット率
+        double hitRate) {
+}
@@ -0,0 +1,14 @@
+package pro.kensait.berrybooks.dto;
+
+public record CustomerImportResultTO (
+        // 入力の行番号
+        int line,
+        // 結果（created：登録、duplicate：メールアドレスが重複、invalid：入力エラー、failed：登録失敗）
+        String status,
+        // 登録された顧客の顧客ID（重複の場合は既存の顧客の顧客ID）
+        Integer customerId,
+        // メールアドレス
+        String email,
+        // エラーメッセージ（登録された場合はnull）
+        String message) {
+}
@@ -0,0 +1,10 @@
+package pro.kensait.berrybooks.dto;
+
+public record CustomerImportRowTO (
+        // 入力の行番号（1始まり、CSVのヘッダー行を含む）
+        int line,
+        // 読み込んだ顧客（読み込みに失敗した場合はnull）
+        CustomerTO customer,
+        // 読み込みエラーのメッセージ（読み込みに成功した場合はnull）
+        String error) {
+}
@@ -16,6 +16,18 @@ public record CustomerStatsTO (
         // 注文件数
         Long orderCount,
         // 購入冊数（合計）
-        Long totalBooks) {
+        Long totalBooks,
+        // 最終注文日（注文が無い場合はnull）
+        LocalDate lastOrderDate) {
+
+    // 注文が無い顧客は顧客統計テーブルに行が無く、外部結合の結果がnullになるため0とする
+    public CustomerStatsTO {
+        if (orderCount == null) {
+            orderCount = 0L;
+        }
+        if (totalBooks == null) {
+            totalBooks = 0L;
+        }
+    }
 }
 
@@ -0,0 +1,12 @@
+package pro.kensait.berrybooks.dto;
+
+import java.time.LocalDate;
+
+// 注文履歴のキーセット方式のページングで、ページの境界となる注文を表すDTOクラス
+// （注文日の降順、同じ注文日の中では注文IDの降順に並べる）
+public record OrderKeyTO (
+        // 注文日
+        LocalDate orderDate,
+        // 注文ID
+        Integer orderTranId) {
+}
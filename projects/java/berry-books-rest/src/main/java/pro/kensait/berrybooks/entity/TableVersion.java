@@ -0,0 +1,42 @@
+package pro.kensait.berrybooks.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// テーブル毎の変更カウンタを表すエンティティクラス
+// （対象テーブルが更新されるたびに、データベースのトリガーによって加算される）
+@Entity
+@Table(name = "TABLE_VERSION")
+public class TableVersion {
+    // テーブル名
+    @Id
+    @Column(name = "TABLE_NAME")
+    private String tableName;
+
+    // 変更カウンタ
+    @Column(name = "VERSION")
+    private Long version;
+
+    // 引数なしのコンストラクタ
+    public TableVersion() {
+    }
+
+    // アクセサメソッド
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
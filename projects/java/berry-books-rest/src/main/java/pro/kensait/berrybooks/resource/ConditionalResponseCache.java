@@ -0,0 +1,145 @@
+package pro.kensait.berrybooks.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+// GETリクエストの条件付きレスポンス（ETag）と、単一オブジェクトのレスポンスボディのキャッシュを提供するクラス
+// ETagにはデータのバージョン（テーブルの変更カウンタ等）を使用し、クライアントが送信した
+// If-None-Matchが一致する場合は、データを読み込まずに304（Not Modified）を返す。
+// ※Last-Modifiedは返さない（バージョンからは実際の更新日時が分からず、誤った304の原因となるため）
+@ApplicationScoped
+public class ConditionalResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(
+            ConditionalResponseCache.class);
+
+    // キャッシュするボディの合計サイズの上限（バイト数、超える場合は最も古いものから削除する）
+    private static final long MAX_TOTAL_BYTES = 8 * 1024 * 1024;
+
+    // キャッシュするボディ1件の最大サイズ（バイト数、超える場合はキャッシュしない）
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // クライアントには毎回再検証（条件付きリクエスト）を求める
+    private static final CacheControl NO_CACHE = new CacheControl();
+    static {
+        NO_CACHE.setNoCache(true);
+    }
+
+    // JSON-Bのインスタンスはスレッドセーフなため共有する
+    private static final Jsonb jsonb = JsonbBuilder.create();
+
+    // URI毎のキャッシュ（アクセス順）
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // キャッシュしているボディの合計サイズ（バイト数）
+    private long totalBytes;
+
+    // 条件付きGETのレスポンスを返す（一覧を逐次書き出すレスポンス用）
+    // クライアントが現在のバージョンのETagを持っている場合は304を返し、それ以外はbodySupplierで
+    // ボディを生成する（一覧はサイズの上限が無いため、ボディはキャッシュしない）
+    // （bodySupplierが送出した例外は、そのまま呼び出し元に送出される）
+    public Response respond(Request request, String version,
+            Supplier<StreamingOutput> bodySupplier) {
+        EntityTag etag = new EntityTag(version);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(NO_CACHE).build();
+        }
+        return Response.ok(bodySupplier.get())
+                .tag(etag)
+                .cacheControl(NO_CACHE)
+                .build();
+    }
+
+    // 条件付きGETのレスポンスを返す（単一のオブジェクトをJSONとして返すレスポンス用）
+    // 304を返さない場合は、同じURIと同じバージョンのボディがキャッシュされていればそれを返し、
+    // 無ければentitySupplierで取得したオブジェクトをJSONに変換して返す（サイズの上限内であればキャッシュする）
+    // （entitySupplierが送出した例外は、そのまま呼び出し元に送出される）
+    public Response respondCached(Request request, UriInfo uriInfo, String version,
+            Supplier<Object> entitySupplier) {
+        EntityTag etag = new EntityTag(version);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(NO_CACHE).build();
+        }
+
+        String key = keyOf(uriInfo);
+        byte[] body = findBody(key, version);
+        if (body != null) {
+            logger.debug("[ ConditionalResponseCache#respondCached ] cache hit: {}", key);
+        } else {
+            body = jsonb.toJson(entitySupplier.get()).getBytes(StandardCharsets.UTF_8);
+            storeBody(key, version, body);
+        }
+        return Response.ok(body)
+                .tag(etag)
+                .cacheControl(NO_CACHE)
+                .build();
+    }
+
+    // 同じバージョンのボディを取得する（バージョンが異なるエントリは削除する）
+    private synchronized byte[] findBody(String key, String version) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.version().equals(version)) {
+            remove(key);
+            return null;
+        }
+        return entry.body();
+    }
+
+    // ボディをキャッシュに格納し、合計サイズが上限を超えた場合は最も古いものから削除する
+    private synchronized void storeBody(String key, String version, byte[] body) {
+        if (body.length > MAX_BODY_BYTES) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(version, body));
+        totalBytes += sizeOf(key, body);
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > MAX_TOTAL_BYTES && eldest.hasNext()) {
+            Map.Entry<String, Entry> e = eldest.next();
+            totalBytes -= sizeOf(e.getKey(), e.getValue().body());
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= sizeOf(key, removed.body());
+        }
+    }
+
+    // エントリのサイズ（URIの文字数分も含める）
+    private static long sizeOf(String key, byte[] body) {
+        return key.length() * 2L + body.length;
+    }
+
+    private static String keyOf(UriInfo uriInfo) {
+        String query = uriInfo.getRequestUri().getRawQuery();
+        return uriInfo.getRequestUri().getRawPath() + (query != null ? "?" + query : "");
+    }
+
+    // キャッシュのエントリ（バージョン、ボディ）
+    private record Entry(String version, byte[] body) {
+    }
+}
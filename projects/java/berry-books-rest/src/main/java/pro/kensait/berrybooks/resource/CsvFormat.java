@@ -0,0 +1,58 @@
+package pro.kensait.berrybooks.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV（RFC 4180）の1行の分割と組み立てを行うクラス
+// ※項目内の改行には対応しない（顧客の項目は改行を含まないため）
+final class CsvFormat {
+
+    private CsvFormat() {
+    }
+
+    // 1行を項目に分割する（ダブルクォートで囲まれた項目と、""によるエスケープに対応する）
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // 項目を1行に組み立てる（カンマ・ダブルクォートを含む項目はダブルクォートで囲む）
+    static String join(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = values[i] != null ? values[i].toString() : "";
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+}
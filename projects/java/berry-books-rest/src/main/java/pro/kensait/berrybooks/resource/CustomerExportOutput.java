@@ -0,0 +1,68 @@
+package pro.kensait.berrybooks.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import pro.kensait.berrybooks.dto.CustomerTO;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.StreamingOutput;
+
+// 全顧客をキーセット方式のページ単位で読み込みながら、NDJSONまたはCSVとして逐次書き出すStreamingOutput
+// 全件をメモリに保持しないため、件数に関係なくヒープ使用量は1ページ分で一定となる
+// ※CSVの1行目はヘッダー行（customerId,customerName,email,birthday,address）とする
+public class CustomerExportOutput implements StreamingOutput {
+    // JSON-Bのインスタンスはスレッドセーフなため共有する
+    private static final Jsonb jsonb = JsonbBuilder.create();
+
+    // ページの読み込み処理（引数：直前の顧客ID、件数）
+    private final BiFunction<Integer, Integer, List<CustomerTO>> pageLoader;
+
+    // 1回に読み込む件数
+    private final int pageSize;
+
+    private final boolean csv;
+
+    // コンストラクタ
+    public CustomerExportOutput(BiFunction<Integer, Integer, List<CustomerTO>> pageLoader,
+            int pageSize, boolean csv) {
+        this.pageLoader = pageLoader;
+        this.pageSize = pageSize;
+        this.csv = csv;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CsvFormat.join("customerId", "customerName", "email", "birthday",
+                    "address"));
+            writer.write('\n');
+        }
+
+        Integer after = null;
+        List<CustomerTO> page;
+        do {
+            page = pageLoader.apply(after, pageSize);
+            for (CustomerTO customer : page) {
+                writer.write(csv
+                        ? CsvFormat.join(customer.customerId(), customer.customerName(),
+                                customer.email(), customer.birthday(), customer.address())
+                        : jsonb.toJson(customer));
+                writer.write('\n');
+            }
+            // ページ毎にクライアントへ送信する
+            writer.flush();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).customerId();
+            }
+        } while (page.size() == pageSize);
+    }
+}
@@ -0,0 +1,162 @@
+package pro.kensait.berrybooks.resource;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.dto.CustomerImportResultTO;
+import pro.kensait.berrybooks.dto.CustomerImportRowTO;
+import pro.kensait.berrybooks.dto.CustomerTO;
+import pro.kensait.berrybooks.service.CustomerImportService;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.ws.rs.core.StreamingOutput;
+
+// リクエストボディ（NDJSONまたはCSV）から顧客を1行ずつ読み込み、チャンク毎に登録しながら、
+// 行毎の結果をNDJSONとして逐次書き出すStreamingOutput
+// 入力と結果の両方を全件メモリに保持しないため、件数に関係なくヒープ使用量は1チャンク分で一定となる
+// ※CSVは1行目をヘッダー行（customerName,email,birthday,address、順不同）とする
+public class CustomerImportOutput implements StreamingOutput {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CustomerImportOutput.class);
+
+    // JSON-Bのインスタンスはスレッドセーフなため共有する
+    private static final Jsonb jsonb = JsonbBuilder.create();
+
+    // CSVの項目名
+    private static final String[] CSV_COLUMNS = {
+            "customerName", "email", "birthday", "address"
+    };
+
+    private final InputStream input;
+    private final boolean csv;
+    private final int chunkSize;
+    private final CustomerImportService customerImportService;
+
+    // コンストラクタ
+    public CustomerImportOutput(InputStream input, boolean csv, int chunkSize,
+            CustomerImportService customerImportService) {
+        this.input = input;
+        this.csv = csv;
+        this.chunkSize = chunkSize;
+        this.customerImportService = customerImportService;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        Map<String, Integer> header = null;
+        List<CustomerImportRowTO> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = readHeader(line);
+                continue;
+            }
+            chunk.add(csv ? parseCsv(lineNumber, line, header) : parseJson(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                writeResults(writer, importChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeResults(writer, importChunk(chunk));
+        }
+        writer.flush();
+    }
+
+    // 1チャンク分を登録する（登録に失敗した場合は、チャンク内の全ての行を失敗とする）
+    private List<CustomerImportResultTO> importChunk(List<CustomerImportRowTO> chunk) {
+        try {
+            return customerImportService.importChunk(chunk);
+        } catch (RuntimeException e) {
+            logger.error("[ CustomerImportOutput#importChunk ] chunk failed: lines "
+                    + chunk.get(0).line() + "-" + chunk.get(chunk.size() - 1).line(), e);
+            List<CustomerImportResultTO> results = new ArrayList<>(chunk.size());
+            for (CustomerImportRowTO row : chunk) {
+                results.add(new CustomerImportResultTO(row.line(), CustomerImportService.FAILED,
+                        null, row.customer() != null ? row.customer().email() : null,
+                        "登録に失敗しました（同じチャンクの行は全て登録されていません）"));
+            }
+            return results;
+        }
+    }
+
+    // チャンク毎にクライアントへ送信する
+    private void writeResults(Writer writer, List<CustomerImportResultTO> results)
+            throws IOException {
+        for (CustomerImportResultTO result : results) {
+            writer.write(jsonb.toJson(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private CustomerImportRowTO parseJson(int lineNumber, String line) {
+        try {
+            return new CustomerImportRowTO(lineNumber, jsonb.fromJson(line, CustomerTO.class),
+                    null);
+        } catch (JsonbException e) {
+            return new CustomerImportRowTO(lineNumber, null, "JSONの形式が正しくありません");
+        }
+    }
+
+    // ヘッダー行から、項目名毎の位置を求める
+    private Map<String, Integer> readHeader(String line) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = CsvFormat.split(line);
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).strip(), i);
+        }
+        return header;
+    }
+
+    private CustomerImportRowTO parseCsv(int lineNumber, String line,
+            Map<String, Integer> header) {
+        List<String> fields = CsvFormat.split(line);
+        String[] values = new String[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            Integer index = header.get(CSV_COLUMNS[i]);
+            if (index != null && index < fields.size() && !fields.get(index).isEmpty()) {
+                values[i] = fields.get(index);
+            }
+        }
+        LocalDate birthday = null;
+        if (values[2] != null) {
+            try {
+                birthday = LocalDate.parse(values[2]);
+            } catch (DateTimeParseException e) {
+                return new CustomerImportRowTO(lineNumber,
+                        new CustomerTO(null, values[0], values[1], null, values[3]),
+                        "生年月日の形式が正しくありません（yyyy-MM-dd）");
+            }
+        }
+        return new CustomerImportRowTO(lineNumber,
+                new CustomerTO(null, values[0], values[1], birthday, values[3]), null);
+    }
+}
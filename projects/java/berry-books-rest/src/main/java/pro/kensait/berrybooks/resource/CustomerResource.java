@@ -1,152 +1,205 @@
 package pro.kensait.berrybooks.resource;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dto.CustomerStatsTO;
 import pro.kensait.berrybooks.dto.CustomerTO;
+import pro.kensait.berrybooks.dto.ErrorResponse;
 import pro.kensait.berrybooks.dto.OrderHistoryTO;
 import pro.kensait.berrybooks.dto.OrderItemTO;
+import pro.kensait.berrybooks.dto.OrderKeyTO;
 import pro.kensait.berrybooks.entity.Customer;
 import pro.kensait.berrybooks.entity.OrderDetail;
 import pro.kensait.berrybooks.entity.OrderTran;
+import pro.kensait.berrybooks.service.CustomerImportService;
 import pro.kensait.berrybooks.service.CustomerService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
 // 顧客情報を提供するREST APIリソースクラス
 @Path("/customers")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class CustomerResource {
-    private static final Logger logger = LoggerFactory.getLogger(
-            CustomerResource.class);
+    private static final Trace trace = Trace.of(CustomerResource.class);
+
+    // 一覧をJSON配列として逐次書き出す際に、1回に読み込む件数
+    private static final int STREAM_PAGE_SIZE = 1000;
+
+    // 一括登録・一括出力の形式
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    // 一括登録で1つのトランザクションで登録する件数（チャンクサイズ）の既定値と上限
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final int MAX_CHUNK_SIZE = 10000;
 
     @Inject
     private CustomerService customerService;
 
+    @Inject
+    private CustomerImportService customerImportService;
+
+    @Inject
+    private ConditionalResponseCache responseCache;
+
+    @Context
+    private Request request;
+
+    @Context
+    private UriInfo uriInfo;
+
     // APIメソッド：全顧客と統計情報を取得する
+    // 顧客ID順に返す。afterを指定した場合はその顧客IDより後の顧客から、limitを指定した場合は
+    // その件数までを返す（キーセット方式のページング、次ページは最後の顧客IDをafterに指定する）
+    // ※GETメソッドはETagを返し、データが変わっていなければ304を返す
     @GET
     @Path("/")
-    public Response getAllWithStats() {
-        logger.info("[ CustomerResource#getAllWithStats ]");
-
-        // 全顧客を取得
-        List<Customer> customers = customerService.getAllCustomers();
-
-        // 顧客ごとに統計情報を追加
-        List<CustomerStatsTO> responseCustomers = new ArrayList<>();
-        for (Customer customer : customers) {
-            Long orderCount = customerService.getOrderCount(customer.getCustomerId());
-            Long totalBooks = customerService.getTotalBookCount(customer.getCustomerId());
-            
-            responseCustomers.add(new CustomerStatsTO(
-                customer.getCustomerId(),
-                customer.getCustomerName(),
-                customer.getEmail(),
-                customer.getBirthday(),
-                customer.getAddress(),
-                orderCount,
-                totalBooks
-            ));
+    public Response getAllWithStats(
+            @QueryParam("after") Integer after,
+            @QueryParam("limit") Integer limit) {
+        trace.entry("getAllWithStats", "after", after, "limit", limit);
+
+        if (limit != null && limit < 1) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("parameter.invalid",
+                            "limitには1以上の値を指定してください"))
+                    .build();
         }
 
         // 顧客統計リスト（ボディ）とHTTPステータスOKを持つResponseを返す
-        return Response.ok(responseCustomers).build();
+        // 顧客と統計情報は顧客統計テーブルから1ページずつ取得し、JSON配列として逐次書き出す
+        // （統計情報は顧客統計の更新によって変わるため、顧客データと顧客統計データのバージョンをETagとする）
+        return responseCache.respond(request,
+                customerService.getCustomerStatsDataVersion(),
+                () -> new JsonArrayStreamingOutput<>(
+                        customerService::getCustomerStatsPage,
+                        CustomerStatsTO::customerId,
+                        STREAM_PAGE_SIZE,
+                        after,
+                        limit != null ? limit : Integer.MAX_VALUE));
     }
 
     // APIメソッド：顧客を取得する（主キー検索）
     @GET
     @Path("/{customerId}")
     public Response getById(@PathParam("customerId") Integer customerId) {
-        logger.info("[ CustomerResource#getById ]");
-
-        // メールアドレスから顧客エンティティを検索する
-        Customer customer = customerService.getCustomerById(customerId);
+        trace.entry("getById");
 
-        // 顧客エンティティから、HTTPレスポンス返却用の顧客TOを生成する
-        CustomerTO responseCustomer = toCustomerTO(customer);
- 
         // 顧客TO（ボディ）とHTTPステータスOKを持つResponseを返す
-        return Response.ok(responseCustomer).build();
+        return responseCache.respondCached(request, uriInfo,
+                customerService.getCustomerDataVersion(),
+                () -> {
+                    // 顧客IDから顧客エンティティを検索する
+                    Customer customer = customerService.getCustomerById(customerId);
+
+                    // 顧客エンティティから、HTTPレスポンス返却用の顧客TOを生成する
+                    return toCustomerTO(customer);
+                });
     }
 
     // APIメソッド：顧客の注文履歴を取得する
     @GET
     @Path("/{customerId}/orders")
     public Response getOrderHistory(@PathParam("customerId") Integer customerId) {
-        logger.info("[ CustomerResource#getOrderHistory ]");
-
-        // 顧客の注文履歴を取得する
-        List<OrderTran> orderTrans = customerService.getOrderHistory(customerId);
+        trace.entry("getOrderHistory");
 
-        // OrderTranエンティティから、HTTPレスポンス返却用のOrderHistoryTOリストを生成する
-        List<OrderHistoryTO> responseOrders = new ArrayList<>();
-        for (OrderTran orderTran : orderTrans) {
-            responseOrders.add(toOrderHistoryTO(orderTran));
-        }
- 
         // 注文履歴リスト（ボディ）とHTTPステータスOKを持つResponseを返す
-        return Response.ok(responseOrders).build();
+        return responseCache.respond(request,
+                customerService.getCustomerAndOrderDataVersion(),
+                () -> {
+                    // 顧客の存在確認（存在しない場合は、書き出しを始める前に404を返す）
+                    customerService.getCustomerById(customerId);
+
+                    // 注文履歴を1ページずつ取得してOrderHistoryTOに詰め替え、JSON配列として逐次書き出す
+                    return new JsonArrayStreamingOutput<OrderHistoryTO, OrderKeyTO>(
+                            (after, limit) -> customerService
+                                    .getOrderHistoryPage(customerId, after, limit)
+                                    .stream()
+                                    .map(this::toOrderHistoryTO)
+                                    .toList(),
+                            order -> new OrderKeyTO(order.orderDate(), order.orderTranId()),
+                            STREAM_PAGE_SIZE,
+                            null,
+                            Integer.MAX_VALUE);
+                });
     }
 
     // APIメソッド：顧客を取得する（一意キーからの条件検索）
     @GET
     @Path("/query_email")
     public Response queryByEmail(@QueryParam("email") String email) {
-        logger.info("[ CustomerResource#queryByEmail ]");
+        trace.entry("queryByEmail");
 
-        // メールアドレスから顧客エンティティを検索する
-        Customer customer = customerService.getCustomerByEmail(email);
+        // 顧客エンティティ（ボディ）とHTTPステータスOKを持つResponseを返す
+        return responseCache.respondCached(request, uriInfo,
+                customerService.getCustomerDataVersion(),
+                () -> {
+                    // メールアドレスから顧客エンティティを検索する
+                    Customer customer = customerService.getCustomerByEmail(email);
+
+                    // 顧客エンティティから、HTTPレスポンス返却用の顧客TOを生成する
+                    return toCustomerTO(customer);
+                });
+    }
 
-        // 顧客エンティティから、HTTPレスポンス返却用の顧客TOを生成する
-        CustomerTO responseCustomer = toCustomerTO(customer);
+    // APIメソッド：顧客キャッシュの統計情報（顧客ID・メールアドレスによる検索毎のヒット率等）を取得する
+    @GET
+    @Path("/cache_stats")
+    public Response getCacheStats() {
+        trace.entry("getCacheStats");
 
-        // 顧客エンティティ（ボディ）とHTTPステータスOKを持つResponseを返す
-        return Response.ok(responseCustomer).build();
+        // 統計情報（ボディ）とHTTPステータスOKを持つResponseを返す
+        return Response.ok(customerService.getCustomerCacheStats()).build();
     }
 
     // APIメソッド：顧客リストを取得する（誕生日からの条件検索）
     @GET
     @Path("/query_birthday")
     public Response queryFromBirthday(@QueryParam("birthday") String birthdayStr) {
-        logger.info("[ CustomerResource#queryFromBirthday ]");
+        trace.entry("queryFromBirthday");
 
         // 文字列をLocalDateに変換
         LocalDate birthday = LocalDate.parse(birthdayStr);
 
-        // 誕生日開始日から顧客エンティティのリストを取得する
-        List<Customer> customers = customerService.searchCustomersFromBirthday(birthday);
-
-        // 顧客エンティティのリストから、HTTPレスポンス返却用の顧客TOリストを生成する
-        List<CustomerTO> responseCustomerList = new ArrayList<>();
-        for (Customer customer : customers) {
-            responseCustomerList.add(toCustomerTO(customer));
-        }
-
         // 顧客リスト（ボディ）とHTTPステータスOKを持つResponseを返す
-        return Response.ok(responseCustomerList).build();
+        // 誕生日開始日以降の顧客を顧客ID順に1ページずつ取得し、JSON配列として逐次書き出す
+        return responseCache.respond(request,
+                customerService.getCustomerDataVersion(),
+                () -> new JsonArrayStreamingOutput<>(
+                        (after, limit) -> customerService.searchCustomersFromBirthdayPage(
+                                birthday, after, limit),
+                        CustomerTO::customerId,
+                        STREAM_PAGE_SIZE,
+                        null,
+                        Integer.MAX_VALUE));
     }
     
     // APIメソッド：顧客を新規登録する
     @POST
     @Path("/")
     public Response create(CustomerTO requestCustomer) {
-        logger.info("[ CustomerResource#create ]");
+        trace.entry("create");
 
         // 受け取った顧客TOから、顧客エンティティを生成する
         Customer customer = toCustomer(requestCustomer);
@@ -161,13 +214,65 @@ public class CustomerResource {
         return Response.ok(responseCustomerTO).build();
     }
 
+    // APIメソッド：顧客を一括登録する（NDJSONまたはCSV、CSVは1行目をヘッダー行とする）
+    // 入力を読み込みながらchunkSize件毎に別のトランザクションで登録し、行毎の結果
+    // （created・duplicate・invalid・failed）をNDJSONとして逐次返す
+    // ※結果は行毎に返すため、一部の行が登録できなかった場合もHTTPステータスはOKとなる
+    @POST
+    @Path("/bulk")
+    @Consumes({NDJSON, CSV})
+    @Produces(NDJSON)
+    public Response bulkImport(
+            @QueryParam("chunkSize") @DefaultValue("" + DEFAULT_CHUNK_SIZE) int chunkSize,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        trace.entry("bulkImport", "contentType", contentType, "chunkSize", chunkSize);
+
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new ErrorResponse("parameter.invalid",
+                            "chunkSizeには1以上" + MAX_CHUNK_SIZE + "以下の値を指定してください"))
+                    .build();
+        }
+
+        // 行毎の結果（ボディ）とHTTPステータスOKを持つResponseを返す
+        boolean csv = contentType != null && contentType.isCompatible(MediaType.valueOf(CSV));
+        return Response.ok(new CustomerImportOutput(body, csv, chunkSize,
+                customerImportService)).build();
+    }
+
+    // APIメソッド：全顧客を一括出力する（formatにndjson（既定）またはcsvを指定する）
+    // 顧客ID順に1ページずつ取得し、逐次書き出す
+    @GET
+    @Path("/export")
+    @Produces({NDJSON, CSV})
+    public Response export(@QueryParam("format") @DefaultValue("ndjson") String format) {
+        trace.entry("export", "format", format);
+
+        if (!format.equals("ndjson") && !format.equals("csv")) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new ErrorResponse("parameter.invalid",
+                            "formatにはndjsonまたはcsvを指定してください"))
+                    .build();
+        }
+
+        // 顧客リスト（ボディ）とHTTPステータスOKを持つResponseを返す
+        boolean csv = format.equals("csv");
+        return Response.ok(new CustomerExportOutput(customerService::getCustomerPage,
+                        STREAM_PAGE_SIZE, csv))
+                .type(csv ? CSV + ";charset=UTF-8" : NDJSON)
+                .build();
+    }
+
     // APIメソッド：顧客を置換する
     @PUT
     @Path("/{customerId}")
     public Response replace(
             @PathParam("customerId") Integer customerId,
             CustomerTO requestCustomer) {
-        logger.info("[ CustomerResource#replace ]");
+        trace.entry("replace");
 
         // 受け取った顧客TOから、顧客エンティティを生成する
         Customer customer = toCustomer(requestCustomer);
@@ -184,7 +289,7 @@ public class CustomerResource {
     @DELETE
     @Path("/{customerId}")
     public Response delete(@PathParam("customerId") Integer customerId) {
-        logger.info("[ CustomerResource#delete ]");
+        trace.entry("delete");
 
         // 受け取った顧客IDを持つエンティティを削除する
         customerService.deleteCustomer(customerId);
@@ -0,0 +1,81 @@
+package pro.kensait.berrybooks.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.StreamingOutput;
+
+// 要素をキーセット方式のページ単位で読み込みながら、JSON配列として逐次書き出すStreamingOutput
+// 全件をメモリに保持しないため、件数に関係なくヒープ使用量は1ページ分で一定となり、
+// 最初のページを読み込んだ時点でレスポンスの送信が始まる
+public class JsonArrayStreamingOutput<T, K> implements StreamingOutput {
+    // JSON-Bのインスタンスはスレッドセーフなため共有する
+    private static final Jsonb jsonb = JsonbBuilder.create();
+
+    // ページの読み込み処理（引数：直前の要素のキー、件数）
+    private final BiFunction<K, Integer, List<T>> pageLoader;
+
+    // 要素からキーを取り出す処理
+    private final Function<T, K> keyExtractor;
+
+    // 1回に読み込む件数
+    private final int pageSize;
+
+    // 読み込みを開始するキー（このキーより後の要素から書き出す、先頭からの場合はnull）
+    private final K startAfter;
+
+    // 書き出す最大件数
+    private final int maxItems;
+
+    // コンストラクタ
+    public JsonArrayStreamingOutput(BiFunction<K, Integer, List<T>> pageLoader,
+            Function<T, K> keyExtractor, int pageSize, K startAfter, int maxItems) {
+        this.pageLoader = pageLoader;
+        this.keyExtractor = keyExtractor;
+        this.pageSize = pageSize;
+        this.startAfter = startAfter;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write('[');
+
+        boolean first = true;
+        K after = startAfter;
+        int remaining = maxItems;
+        while (remaining > 0) {
+            int limit = Math.min(pageSize, remaining);
+            List<T> page = pageLoader.apply(after, limit);
+            for (T item : page) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(jsonb.toJson(item));
+                first = false;
+            }
+            // ページ毎にクライアントへ送信する
+            writer.flush();
+
+            if (page.size() < limit) {
+                break;
+            }
+            after = keyExtractor.apply(page.get(page.size() - 1));
+            remaining -= page.size();
+        }
+
+        writer.write(']');
+        writer.flush();
+    }
+}
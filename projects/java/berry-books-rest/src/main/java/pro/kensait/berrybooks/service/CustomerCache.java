@@ -0,0 +1,168 @@
+package pro.kensait.berrybooks.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.berrybooks.dto.CacheStatsTO;
+import pro.kensait.berrybooks.entity.Customer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+// 顧客を顧客IDとメールアドレスの両方から引けるようにキャッシュするクラス
+// 顧客は顧客IDをキーとして1か所にのみ保持し、メールアドレスからは顧客IDを引く索引とする
+// （顧客の無効化は顧客IDのみで済み、索引が古い場合はメールアドレスの照合で検出して読み込み直す）
+// ※キャッシュした顧客は呼び出し元に変更されないよう、コピーを格納し、コピーを返す
+@ApplicationScoped
+public class CustomerCache {
+    private static final Logger logger = LoggerFactory.getLogger(
+            CustomerCache.class);
+
+    // キャッシュする顧客の最大数
+    private static final int MAX_ENTRIES = 10000;
+
+    // 有効期限（このアプリケーション以外での更新は、有効期限が切れるまで反映されない）
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    // 顧客（キー：顧客ID）
+    private final Map<Integer, Entry<Customer>> customers = lruMap();
+
+    // メールアドレスから顧客IDへの索引
+    private final Map<String, Entry<Integer>> emailIndex = lruMap();
+
+    // ヒット数、ミス数、追い出し数（統計情報、顧客IDによる検索とメールアドレスによる検索毎）
+    private final LongAdder idHits = new LongAdder();
+    private final LongAdder idMisses = new LongAdder();
+    private final LongAdder emailHits = new LongAdder();
+    private final LongAdder emailMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // 顧客IDで顧客を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    public Customer findById(Integer customerId, Function<Integer, Customer> loader) {
+        if (customerId == null) {
+            return loader.apply(null);
+        }
+        Customer customer = get(customers, customerId);
+        if (customer != null) {
+            idHits.increment();
+            return copy(customer);
+        }
+        idMisses.increment();
+        customer = loader.apply(customerId);
+        put(customer);
+        return copy(customer);
+    }
+
+    // メールアドレスで顧客を取得する（キャッシュに存在しない場合はloaderで読み込む）
+    public Customer findByEmail(String email, Function<String, Customer> loader) {
+        if (email == null) {
+            return loader.apply(null);
+        }
+        Integer customerId = get(emailIndex, email);
+        Customer customer = customerId != null ? get(customers, customerId) : null;
+        if (customer != null && email.equals(customer.getEmail())) {
+            emailHits.increment();
+            return copy(customer);
+        }
+        emailMisses.increment();
+        customer = loader.apply(email);
+        put(customer);
+        return copy(customer);
+    }
+
+    // 指定した顧客を無効化する
+    public void invalidate(Integer customerId) {
+        synchronized (customers) {
+            customers.remove(customerId);
+        }
+    }
+
+    // オブザーバーメソッド：顧客更新イベントを受け取り、顧客を無効化する
+    // ※トランザクション完了後に無効化することで、コミット前の古い値が再キャッシュされるのを防ぐ
+    void onCustomerChanged(
+            @Observes(during = TransactionPhase.AFTER_COMPLETION) CustomerChangedEvent event) {
+        logger.info("[ CustomerCache#onCustomerChanged ] customerId={}", event.customerId());
+        invalidate(event.customerId());
+    }
+
+    // 検索方法毎の統計情報を取得する
+    public Map<String, CacheStatsTO> getStats() {
+        int size;
+        synchronized (customers) {
+            size = customers.size();
+        }
+        Map<String, CacheStatsTO> stats = new LinkedHashMap<>();
+        stats.put("id", stats(idHits.sum(), idMisses.sum(), size));
+        stats.put("email", stats(emailHits.sum(), emailMisses.sum(), size));
+        return stats;
+    }
+
+    private CacheStatsTO stats(long hits, long misses, int size) {
+        long requests = hits + misses;
+        return new CacheStatsTO(hits, misses, evictions.sum(), size,
+                requests == 0 ? 0.0 : (double) hits / requests);
+    }
+
+    // 有効期限内の値を取得する（期限切れの場合は削除してnullを返す）
+    private <K, V> V get(Map<K, Entry<V>> map, K key) {
+        synchronized (map) {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                return entry.value();
+            }
+            map.remove(key);
+            evictions.increment();
+            return null;
+        }
+    }
+
+    private void put(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + TTL_NANOS;
+        synchronized (customers) {
+            customers.put(customer.getCustomerId(), new Entry<>(copy(customer), expiresAt));
+        }
+        synchronized (emailIndex) {
+            emailIndex.put(customer.getEmail(), new Entry<>(customer.getCustomerId(), expiresAt));
+        }
+    }
+
+    private static Customer copy(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        Customer copy = new Customer(customer.getCustomerName(), customer.getPassword(),
+                customer.getEmail(), customer.getBirthday(), customer.getAddress());
+        copy.setCustomerId(customer.getCustomerId());
+        return copy;
+    }
+
+    // アクセス順のLinkedHashMap（上限を超えた場合は、最も長く使われていない要素から削除する）
+    private <K, V> Map<K, Entry<V>> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > MAX_ENTRIES) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // キャッシュの要素（値と有効期限）
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
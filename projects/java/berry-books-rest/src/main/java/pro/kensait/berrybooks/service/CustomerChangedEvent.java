@@ -0,0 +1,7 @@
+package pro.kensait.berrybooks.service;
+
+// 顧客が更新・削除されたことを通知するCDIイベント（Recordとして定義）
+public record CustomerChangedEvent (
+        // 更新・削除された顧客の顧客ID
+        Integer customerId) {
+}
@@ -0,0 +1,124 @@
+package pro.kensait.berrybooks.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pro.kensait.berrybooks.common.Trace;
+import pro.kensait.berrybooks.dao.CustomerDao;
+import pro.kensait.berrybooks.dto.CustomerImportResultTO;
+import pro.kensait.berrybooks.dto.CustomerImportRowTO;
+import pro.kensait.berrybooks.dto.CustomerTO;
+import pro.kensait.berrybooks.entity.Customer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+// 顧客の一括登録を行うサービスクラス
+// 入力をチャンク（一定件数）毎に別のトランザクションで登録する
+// （全件を1つのトランザクションで登録すると、ロックとUNDOログが件数に比例して増えるため）
+@ApplicationScoped
+public class CustomerImportService {
+    private static final Trace trace = Trace.of(CustomerImportService.class);
+
+    // 結果
+    public static final String CREATED = "created";
+    public static final String DUPLICATE = "duplicate";
+    public static final String INVALID = "invalid";
+    public static final String FAILED = "failed";
+
+    // 項目の最大文字数（CUSTOMERテーブルの列の長さ）
+    private static final int MAX_NAME_LENGTH = 30;
+    private static final int MAX_EMAIL_LENGTH = 30;
+    private static final int MAX_ADDRESS_LENGTH = 120;
+
+    @Inject
+    private CustomerDao customerDao;
+
+    // サービスメソッド：1チャンク分の顧客を登録し、行毎の結果を入力と同じ順序で返す
+    // 1. 入力チェックと、チャンク内でのメールアドレスの重複チェック
+    // 2. 登録済みのメールアドレスを、IN句による1回の検索（集合演算）で除外
+    // 3. 残りの顧客をJDBCバッチで登録
+    // ※先行するチャンクはコミット済みのため、チャンクをまたぐ重複は2.で検出される
+    @Transactional(TxType.REQUIRES_NEW)
+    public List<CustomerImportResultTO> importChunk(List<CustomerImportRowTO> rows) {
+        trace.entry("importChunk", "size", rows.size());
+
+        CustomerImportResultTO[] results = new CustomerImportResultTO[rows.size()];
+
+        // 入力チェックとチャンク内の重複チェック（キー：メールアドレス、値：行の位置）
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            CustomerImportRowTO row = rows.get(i);
+            CustomerTO customer = row.customer();
+            String error = row.error() != null ? row.error() : validate(customer);
+            if (error != null) {
+                results[i] = new CustomerImportResultTO(row.line(), INVALID, null,
+                        customer != null ? customer.email() : null, error);
+            } else if (candidates.containsKey(customer.email())) {
+                results[i] = new CustomerImportResultTO(row.line(), DUPLICATE, null,
+                        customer.email(), "メールアドレスが入力内で重複しています");
+            } else {
+                candidates.put(customer.email(), i);
+            }
+        }
+
+        // 登録済みのメールアドレスを除外
+        Map<String, Integer> existing = customerDao.findIdsByEmails(candidates.keySet());
+        List<Customer> inserts = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int i = candidate.getValue();
+            CustomerImportRowTO row = rows.get(i);
+            Integer existingId = existing.get(candidate.getKey());
+            if (existingId != null) {
+                results[i] = new CustomerImportResultTO(row.line(), DUPLICATE, existingId,
+                        candidate.getKey(), "指定されたメールアドレスはすでに存在します");
+            } else {
+                CustomerTO customer = row.customer();
+                // パスワードは空文字列として扱う（顧客の新規登録APIと同じ）
+                inserts.add(new Customer(customer.customerName(), "", customer.email(),
+                        customer.birthday(), customer.address()));
+            }
+        }
+
+        // JDBCバッチで登録し、採番された顧客IDを取得
+        if (!inserts.isEmpty()) {
+            customerDao.insertBatch(inserts);
+            Map<String, Integer> created = customerDao.findIdsByEmails(
+                    inserts.stream().map(Customer::getEmail).toList());
+            for (Customer customer : inserts) {
+                int i = candidates.get(customer.getEmail());
+                results[i] = new CustomerImportResultTO(rows.get(i).line(), CREATED,
+                        created.get(customer.getEmail()), customer.getEmail(), null);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // 入力チェックを行い、エラーの場合はメッセージを返す
+    private String validate(CustomerTO customer) {
+        if (isBlank(customer.customerName())) {
+            return "顧客名を指定してください";
+        }
+        if (customer.customerName().length() > MAX_NAME_LENGTH) {
+            return "顧客名は" + MAX_NAME_LENGTH + "文字以内で指定してください";
+        }
+        if (isBlank(customer.email())) {
+            return "メールアドレスを指定してください";
+        }
+        if (customer.email().length() > MAX_EMAIL_LENGTH || !customer.email().contains("@")) {
+            return "メールアドレスの形式が正しくありません";
+        }
+        if (customer.address() != null && customer.address().length() > MAX_ADDRESS_LENGTH) {
+            return "住所は" + MAX_ADDRESS_LENGTH + "文字以内で指定してください";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -2,17 +2,22 @@ package pro.kensait.berrybooks.service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import pro.kensait.berrybooks.common.Trace;
 import pro.kensait.berrybooks.dao.CustomerDao;
 import pro.kensait.berrybooks.dao.OrderTranDao;
+import pro.kensait.berrybooks.dao.TableVersionDao;
+import pro.kensait.berrybooks.dto.CacheStatsTO;
+import pro.kensait.berrybooks.dto.CustomerStatsTO;
+import pro.kensait.berrybooks.dto.CustomerTO;
+import pro.kensait.berrybooks.dto.OrderKeyTO;
 import pro.kensait.berrybooks.entity.Customer;
 import pro.kensait.berrybooks.entity.OrderTran;
 import pro.kensait.berrybooks.exception.CustomerExistsException;
 import pro.kensait.berrybooks.exception.CustomerNotFoundException;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
@@ -25,8 +30,7 @@ public class CustomerService {
     private static final String CUSTOMER_EXISTS_MESSAGE =
             "指定されたメールアドレスはすでに存在します";
 
-    private static final Logger logger = LoggerFactory.getLogger(
-            CustomerService.class);
+    private static final Trace trace = Trace.of(CustomerService.class);
 
     @Inject
     private CustomerDao customerDao;
@@ -34,12 +38,21 @@ public class CustomerService {
     @Inject
     private OrderTranDao orderTranDao;
 
+    @Inject
+    private TableVersionDao tableVersionDao;
+
+    @Inject
+    private CustomerCache customerCache;
+
+    @Inject
+    private Event<CustomerChangedEvent> customerChangedEvent;
+
     // サービスメソッド：顧客を取得する（一意キーからの条件検索）
     public Customer getCustomerById(Integer customerId) {
-        logger.info("[ CustomerService#getCustomerById ]");
+        trace.entry("getCustomerById");
 
-        // メールアドレスから顧客エンティティを検索する
-        Customer customer = customerDao.findById(customerId);
+        // 顧客IDから顧客エンティティを検索する（キャッシュに存在する場合はキャッシュから取得する）
+        Customer customer = customerCache.findById(customerId, customerDao::findById);
         if (customer == null) {
             throw new CustomerNotFoundException(CUSTOMER_NOT_FOUND_MESSAGE);
         }
@@ -48,31 +61,30 @@ public class CustomerService {
 
     // サービスメソッド：顧客を取得する（一意キーからの条件検索）
     public Customer getCustomerByEmail(String email) {
-        logger.info("[ CustomerService#getCustomerByEmail ]");
+        trace.entry("getCustomerByEmail");
 
-        // メールアドレスから顧客エンティティを検索する
-        Customer customer = customerDao.findCustomerByEmail(email);
+        // メールアドレスから顧客エンティティを検索する（キャッシュに存在する場合はキャッシュから取得する）
+        Customer customer = customerCache.findByEmail(email, customerDao::findCustomerByEmail);
         if (customer == null) {
             throw new CustomerNotFoundException(CUSTOMER_NOT_FOUND_MESSAGE);
         }
         return customer;
     }
 
-    // サービスメソッド：顧客リストを取得する（誕生日からの条件検索）
-    public List<Customer> searchCustomersFromBirthday(LocalDate from) {
-        logger.info("[ CustomerService#searchCustomersFromBirthday ]");
-
-        // 誕生日開始日から顧客エンティティを検索する
-        List<Customer> customers = customerDao.searchCustomersFromBirthday(from);
-        return customers;
+    // サービスメソッド：誕生日以降の顧客を顧客ID順に1ページ分取得する（キーセット方式のページング）
+    public List<CustomerTO> searchCustomersFromBirthdayPage(LocalDate from,
+            Integer afterCustomerId, int limit) {
+        trace.entry("searchCustomersFromBirthdayPage");
+        return customerDao.searchCustomersFromBirthdayPage(from, afterCustomerId, limit);
     }
 
     // サービスメソッド：顧客を新規登録する
     public Customer registerCustomer(Customer customer) throws CustomerExistsException { 
-        logger.info("[ CustomerService#registerCustomer ]");
+        trace.entry("registerCustomer");
 
-        // メールアドレスの重複チェック
-        Customer existing = customerDao.findCustomerByEmail(customer.getEmail());
+        // メールアドレスの重複チェック（登録済みの顧客はキャッシュから判定する）
+        Customer existing = customerCache.findByEmail(customer.getEmail(),
+                customerDao::findCustomerByEmail);
         if (existing != null) {
             throw new CustomerExistsException(CUSTOMER_EXISTS_MESSAGE);
         }
@@ -85,7 +97,7 @@ public class CustomerService {
     // サービスメソッド：顧客を上書き登録する
     public void replaceCustomer(Customer customer)
             throws CustomerExistsException { 
-        logger.info("[ CustomerService#replaceCustomer ]");
+        trace.entry("replaceCustomer");
 
         // 既存の顧客情報を取得
         Customer existingCustomer = customerDao.findById(customer.getCustomerId());
@@ -102,48 +114,91 @@ public class CustomerService {
 
         // 受け取った顧客エンティティを保存する
         customerDao.merge(existingCustomer);
+
+        // コミット後に顧客キャッシュを無効化する
+        customerChangedEvent.fire(new CustomerChangedEvent(existingCustomer.getCustomerId()));
     }
 
     // サービスメソッド：顧客を削除する
     public void deleteCustomer(Integer customerId) {
-        logger.info("[ CustomerService#deleteCustomer ]");
+        trace.entry("deleteCustomer");
 
         // 受け取った顧客IDをキーにエンティティを削除する
         Customer customer = customerDao.findById(customerId);
         if (customer != null) {
             customerDao.remove(customer);
+
+            // コミット後に顧客キャッシュを無効化する
+            customerChangedEvent.fire(new CustomerChangedEvent(customerId));
         }
     }
 
-    // サービスメソッド：顧客の注文履歴を取得する
-    public List<OrderTran> getOrderHistory(Integer customerId) {
-        logger.info("[ CustomerService#getOrderHistory ]");
-        
-        // 顧客の存在確認
-        Customer customer = customerDao.findById(customerId);
-        if (customer == null) {
-            throw new CustomerNotFoundException(CUSTOMER_NOT_FOUND_MESSAGE);
-        }
-        
-        return orderTranDao.findByCustomerId(customerId);
+    // サービスメソッド：顧客の注文履歴を注文日の降順に1ページ分取得する（キーセット方式のページング）
+    // ※顧客の存在確認は呼び出し元で行うこと
+    public List<OrderTran> getOrderHistoryPage(Integer customerId, OrderKeyTO after,
+            int limit) {
+        trace.entry("getOrderHistoryPage");
+        return orderTranDao.findPageByCustomerId(customerId, after, limit);
     }
 
     // サービスメソッド：全顧客を取得する
     public List<Customer> getAllCustomers() {
-        logger.info("[ CustomerService#getAllCustomers ]");
+        trace.entry("getAllCustomers");
         return customerDao.findAll();
     }
 
+    // サービスメソッド：全顧客を顧客ID順に1ページ分取得する（キーセット方式のページング）
+    public List<CustomerTO> getCustomerPage(Integer afterCustomerId, int limit) {
+        trace.entry("getCustomerPage");
+        return customerDao.findPage(afterCustomerId, limit);
+    }
+
+    // サービスメソッド：顧客と統計情報を顧客ID順に1ページ分取得する（キーセット方式のページング）
+    public List<CustomerStatsTO> getCustomerStatsPage(Integer afterCustomerId, int limit) {
+        trace.entry("getCustomerStatsPage");
+        return customerDao.findStatsPage(afterCustomerId, limit);
+    }
+
     // サービスメソッド：顧客の注文件数を取得する
     public Long getOrderCount(Integer customerId) {
-        logger.info("[ CustomerService#getOrderCount ]");
+        trace.entry("getOrderCount");
         return orderTranDao.countOrdersByCustomerId(customerId);
     }
 
     // サービスメソッド：顧客の購入冊数を取得する
     public Long getTotalBookCount(Integer customerId) {
-        logger.info("[ CustomerService#getTotalBookCount ]");
+        trace.entry("getTotalBookCount");
         return orderTranDao.sumBookCountByCustomerId(customerId);
     }
-}
 
+    // サービスメソッド：顧客キャッシュの統計情報（検索方法毎のヒット率等）を取得する
+    public Map<String, CacheStatsTO> getCustomerCacheStats() {
+        trace.entry("getCustomerCacheStats");
+        return customerCache.getStats();
+    }
+
+    // サービスメソッド：顧客データのバージョンを取得する（ETagの生成に使用する）
+    // 顧客テーブルの変更カウンタから生成するため、顧客が更新されるたびに変わる
+    public String getCustomerDataVersion() {
+        trace.entry("getCustomerDataVersion");
+        return "c" + tableVersionDao.findVersion("CUSTOMER");
+    }
+
+    // サービスメソッド：顧客データと顧客統計データのバージョンを取得する（ETagの生成に使用する）
+    // 顧客統計は注文の確定後に後続処理（アウトボックス）や再集計で更新される場合があるため、
+    // 注文IDの最大値ではなく、顧客統計テーブルの変更カウンタを使用する
+    public String getCustomerStatsDataVersion() {
+        trace.entry("getCustomerStatsDataVersion");
+        return "c" + tableVersionDao.findVersion("CUSTOMER")
+                + "-s" + tableVersionDao.findVersion("CUSTOMER_STATS");
+    }
+
+    // サービスメソッド：顧客データと注文データのバージョンを取得する（ETagの生成に使用する）
+    // 注文は追加のみのため、注文データのバージョンには注文IDの最大値を使用する
+    // （注文のたびに加算するカウンタは、全ての注文が1行を更新し合う競合の原因となるため使用しない）
+    public String getCustomerAndOrderDataVersion() {
+        trace.entry("getCustomerAndOrderDataVersion");
+        return "c" + tableVersionDao.findVersion("CUSTOMER")
+                + "-o" + orderTranDao.findMaxOrderTranId();
+    }
+}
@@ -4,10 +4,11 @@ import pro.kensait.berrybooks.api.BerryBooksApiClient;
 import pro.kensait.berrybooks.model.CustomerStats;
 import pro.kensait.berrybooks.model.CustomerTO;
 import pro.kensait.berrybooks.ui.CustomerEditDialog;
+import pro.kensait.berrybooks.ui.CustomerStatsLoader;
+import pro.kensait.berrybooks.ui.CustomerStatsTableModel;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
@@ -16,8 +17,12 @@ import java.util.List;
 // Berry Books 管理者画面（Swingアプリケーション）
 public class BerryBooksSwingApp extends JFrame {
     private final BerryBooksApiClient apiClient;
-    private DefaultTableModel tableModel;
+    private CustomerStatsTableModel tableModel;
     private JTable customerTable;
+    private JLabel statusLabel;
+
+    // 実行中の顧客一覧の読み込み（更新ボタンで新しい読み込みを始める場合はキャンセルする）
+    private CustomerStatsLoader customerLoader;
 
     public BerryBooksSwingApp(String apiUrl) {
         super("Berry Books 管理者画面");
@@ -39,19 +44,15 @@ public class BerryBooksSwingApp extends JFrame {
         JButton refreshButton = new JButton("更新");
         refreshButton.addActionListener(e -> loadCustomers());
         JPanel refreshPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        statusLabel = new JLabel();
+        refreshPanel.add(statusLabel);
         refreshPanel.add(refreshButton);
         titlePanel.add(refreshPanel, BorderLayout.EAST);
 
         add(titlePanel, BorderLayout.NORTH);
 
         // テーブル
-        String[] columnNames = {"顧客ID", "顧客名", "メールアドレス", "生年月日", "住所", "注文件数", "購入冊数", "操作"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 7; // 操作列のみ編集可能
-            }
-        };
+        tableModel = new CustomerStatsTableModel();
 
         customerTable = new JTable(tableModel);
         customerTable.setRowHeight(35);
@@ -84,8 +85,8 @@ public class BerryBooksSwingApp extends JFrame {
         customerTable.getColumnModel().getColumn(6).setCellRenderer(centerRenderer);
 
         // 操作列にボタンを設定
-        customerTable.getColumnModel().getColumn(7).setCellRenderer(new ButtonRenderer());
-        customerTable.getColumnModel().getColumn(7).setCellEditor(new ButtonEditor(new JCheckBox()));
+        customerTable.getColumnModel().getColumn(CustomerStatsTableModel.ACTION_COLUMN).setCellRenderer(new ButtonRenderer());
+        customerTable.getColumnModel().getColumn(CustomerStatsTableModel.ACTION_COLUMN).setCellEditor(new ButtonEditor(new JCheckBox()));
 
         JScrollPane scrollPane = new JScrollPane(customerTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(0, 20, 20, 20));
@@ -95,63 +96,44 @@ public class BerryBooksSwingApp extends JFrame {
         loadCustomers();
     }
 
+    // 顧客一覧をバックグラウンドでページ単位に読み込み、読み込んだページから順に表示する
     private void loadCustomers() {
-        new Thread(() -> {
-            try {
-                List<CustomerStats> customers = apiClient.fetchCustomerStats();
-                SwingUtilities.invokeLater(() -> updateTable(customers));
-            } catch (IOException | InterruptedException ex) {
-                SwingUtilities.invokeLater(() -> 
-                     JOptionPane.showMessageDialog(
-                         BerryBooksSwingApp.this,
-                         "顧客情報の取得に失敗しました:\n" + ex.getMessage(),
-                         "エラー",
-                         JOptionPane.ERROR_MESSAGE
-                     )
-                );
-            }
-        }).start();
-    }
-
-    private void updateTable(List<CustomerStats> customers) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-
-        for (CustomerStats customer : customers) {
-            Object[] row = new Object[]{
-                customer.getCustomerId(),
-                customer.getCustomerName(),
-                customer.getEmail(),
-                customer.getBirthDate() != null ? customer.getBirthDate().format(formatter) : "",
-                customer.getAddress(),
-                customer.getOrderCount(),
-                customer.getBookCount(),
-                "編集"
-            };
-            tableModel.addRow(row);
+        if (customerLoader != null) {
+            customerLoader.cancel(true);
         }
+        // 表示中の行は、変更が無いページ（304）の行として再利用する
+        List<CustomerStats> previousCustomers = tableModel.getCustomers();
+        tableModel.clear();
+        statusLabel.setText("読み込み中...");
+
+        customerLoader = new CustomerStatsLoader(apiClient, tableModel, previousCustomers,
+                count -> statusLabel.setText("読み込み中... " + count + "件"),
+                count -> statusLabel.setText(count + "件"),
+                ex -> {
+                    statusLabel.setText("読み込みに失敗しました（" + tableModel.getRowCount() + "件）");
+                    JOptionPane.showMessageDialog(
+                        BerryBooksSwingApp.this,
+                        "顧客情報の取得に失敗しました:\n" + ex.getMessage(),
+                        "エラー",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                });
+        customerLoader.execute();
     }
 
     private void editCustomer(int row) {
-        Long customerId = (Long) tableModel.getValueAt(row, 0);
-        String customerName = (String) tableModel.getValueAt(row, 1);
-        String email = (String) tableModel.getValueAt(row, 2);
-        String birthDateStr = (String) tableModel.getValueAt(row, 3);
-        String address = (String) tableModel.getValueAt(row, 4);
-        Long orderCount = (Long) tableModel.getValueAt(row, 5);
-        Long bookCount = (Long) tableModel.getValueAt(row, 6);
+        // 編集中の値がテーブルに反映されないよう、コピーを編集する
+        CustomerStats selected = tableModel.getCustomer(row);
+        Long customerId = selected.getCustomerId();
 
         CustomerStats customer = new CustomerStats();
         customer.setCustomerId(customerId);
-        customer.setCustomerName(customerName);
-        customer.setEmail(email);
-        // 誕生日が空でない場合のみパース
-        if (birthDateStr != null && !birthDateStr.isEmpty()) {
-            customer.setBirthDate(java.time.LocalDate.parse(birthDateStr, DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-        }
-        customer.setAddress(address);
-        customer.setOrderCount(orderCount);
-        customer.setBookCount(bookCount);
+        customer.setCustomerName(selected.getCustomerName());
+        customer.setEmail(selected.getEmail());
+        customer.setBirthDate(selected.getBirthDate());
+        customer.setAddress(selected.getAddress());
+        customer.setOrderCount(selected.getOrderCount());
+        customer.setBookCount(selected.getBookCount());
 
         CustomerEditDialog dialog = new CustomerEditDialog(this, customer);
         dialog.setVisible(true);
@@ -2,74 +2,131 @@ package pro.kensait.berrybooks.api;
 
 import pro.kensait.berrybooks.model.CustomerStats;
 import pro.kensait.berrybooks.model.CustomerTO;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 // Berry Books REST APIクライアント
 public class BerryBooksApiClient {
     private final String baseUrl;
 
+    // 保持するETagの最大数（超える場合は最も古いページのETagから破棄する）
+    private static final int MAX_CUSTOMER_STATS_ETAGS = 1000;
+
+    // ページ毎に、前回取得した顧客統計リストのETag（変更が無ければサーバーは304を返す）
+    // （キー：ページのURL、リスト自体は保持せず、304の場合は呼び出し元が表示中のリストを使用する）
+    private final Map<String, String> customerStatsEtags =
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CUSTOMER_STATS_ETAGS;
+                }
+            };
+
     public BerryBooksApiClient(String baseUrl) {
         this.baseUrl = baseUrl;
     }
 
-    // 全顧客の統計情報を取得
-    public List<CustomerStats> fetchCustomerStats() throws IOException, InterruptedException {
-        URL url = new URL(baseUrl + "/customers/");
+    // 顧客統計情報を顧客ID順に1ページ分取得（afterより後の顧客からlimit件、afterがnullの場合は先頭から）
+    // previousPageには、前回取得した同じページ（表示中のリスト）を指定する（無い場合はnull）
+    // 前回から変更が無い場合（304）は、previousPageをそのまま返す
+    // レスポンスのJSON配列は全体を文字列に読み込まず、要素（顧客）単位で読み込みながら変換する
+    public List<CustomerStats> fetchCustomerStatsPage(Long after, int limit,
+            List<CustomerStats> previousPage) throws IOException {
+        String pageUrl = baseUrl + "/customers/?limit=" + limit
+                + (after != null ? "&after=" + after : "");
+        String etag = null;
+        if (previousPage != null) {
+            synchronized (customerStatsEtags) {
+                etag = customerStatsEtags.get(pageUrl);
+            }
+        }
+
+        URL url = new URL(pageUrl);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
         conn.setRequestProperty("Accept", "application/json");
+        if (etag != null) {
+            conn.setRequestProperty("If-None-Match", etag);
+        }
 
         int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            throw new RuntimeException("Failed to fetch customers: HTTP " + responseCode);
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && etag != null) {
+            // 前回から変更が無いため、前回取得したリストを返す
+            return new ArrayList<>(previousPage);
         }
-
-        BufferedReader in = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-        StringBuilder response = new StringBuilder();
-        String line;
-        while ((line = in.readLine()) != null) {
-            response.append(line);
+        if (responseCode != 200) {
+            throw new IOException("Failed to fetch customers: HTTP " + responseCode);
         }
-        in.close();
 
-        JSONArray jsonArray = new JSONArray(response.toString());
         List<CustomerStats> customers = new ArrayList<>();
-
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject json = jsonArray.getJSONObject(i);
-            CustomerStats customer = new CustomerStats();
-            customer.setCustomerId(json.getLong("customerId"));
-            customer.setCustomerName(json.getString("customerName"));
-            customer.setEmail(json.getString("email"));
-            
-            // JSONフィールド名は "birthday" (REST APIの仕様)
-            String birthDateStr = json.optString("birthday", null);
-            if (birthDateStr != null && !birthDateStr.isEmpty()) {
-                customer.setBirthDate(LocalDate.parse(birthDateStr));
+        try (Reader in = new BufferedReader(
+                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+            JSONTokener tokener = new JSONTokener(in);
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("A JSONArray text must start with '['");
             }
-            
-            customer.setAddress(json.getString("address"));
-            customer.setOrderCount(json.getLong("orderCount"));
-            customer.setBookCount(json.getLong("totalBooks"));
-            customers.add(customer);
+            if (tokener.nextClean() != ']') {
+                tokener.back();
+                while (true) {
+                    customers.add(toCustomerStats(new JSONObject(tokener)));
+                    char c = tokener.nextClean();
+                    if (c == ']') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw tokener.syntaxError("Expected a ',' or ']'");
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            throw new IOException("Invalid response: " + e.getMessage(), e);
         }
 
+        String newEtag = conn.getHeaderField("ETag");
+        synchronized (customerStatsEtags) {
+            if (newEtag != null) {
+                customerStatsEtags.put(pageUrl, newEtag);
+            } else {
+                customerStatsEtags.remove(pageUrl);
+            }
+        }
         return customers;
     }
 
+    // 詰め替え処理（JSONObject→CustomerStats）
+    private CustomerStats toCustomerStats(JSONObject json) {
+        CustomerStats customer = new CustomerStats();
+        customer.setCustomerId(json.getLong("customerId"));
+        customer.setCustomerName(json.getString("customerName"));
+        customer.setEmail(json.getString("email"));
+
+        // JSONフィールド名は "birthday" (REST APIの仕様)
+        String birthDateStr = json.optString("birthday", null);
+        if (birthDateStr != null && !birthDateStr.isEmpty()) {
+            customer.setBirthDate(LocalDate.parse(birthDateStr));
+        }
+
+        customer.setAddress(json.getString("address"));
+        customer.setOrderCount(json.getLong("orderCount"));
+        customer.setBookCount(json.getLong("totalBooks"));
+        return customer;
+    }
+
     // 顧客情報を更新
     public void updateCustomer(Long customerId, CustomerTO customerTO) throws IOException, InterruptedException {
         URL url = new URL(baseUrl + "/customers/" + customerId);
@@ -0,0 +1,109 @@
+package pro.kensait.berrybooks.ui;
+
+import pro.kensait.berrybooks.api.BerryBooksApiClient;
+import pro.kensait.berrybooks.model.CustomerStats;
+
+import javax.swing.SwingWorker;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// 顧客統計をバックグラウンドスレッドでページ単位に取得し、取得したページから順にテーブルに追加するクラス
+// 1ページ目を取得した時点で表示が始まり、イベントディスパッチスレッドは取得中もブロックされない
+public class CustomerStatsLoader extends SwingWorker<Integer, List<CustomerStats>> {
+    // 1回に取得する件数
+    public static final int PAGE_SIZE = 500;
+
+    private final BerryBooksApiClient apiClient;
+    private final CustomerStatsTableModel tableModel;
+
+    // 読み込み前に表示していた顧客統計（顧客ID順、変更が無いページ（304）の行として再利用する）
+    private final List<CustomerStats> previousCustomers;
+
+    // previousCustomersのうち、次のページの先頭の候補の位置
+    private int previousIndex;
+
+    // 読み込み済みの件数の通知先（イベントディスパッチスレッドで呼び出す）
+    private final IntConsumer onProgress;
+
+    // 全件の取得が完了した場合の通知先（イベントディスパッチスレッドで呼び出す）
+    private final IntConsumer onComplete;
+
+    // 取得に失敗した場合の通知先（イベントディスパッチスレッドで呼び出す）
+    private final Consumer<Exception> onError;
+
+    public CustomerStatsLoader(BerryBooksApiClient apiClient, CustomerStatsTableModel tableModel,
+            List<CustomerStats> previousCustomers,
+            IntConsumer onProgress, IntConsumer onComplete, Consumer<Exception> onError) {
+        this.apiClient = apiClient;
+        this.tableModel = tableModel;
+        this.previousCustomers = previousCustomers;
+        this.onProgress = onProgress;
+        this.onComplete = onComplete;
+        this.onError = onError;
+    }
+
+    // バックグラウンドスレッド：最後のページまで取得し、ページ毎にpublishする
+    @Override
+    protected Integer doInBackground() throws Exception {
+        int total = 0;
+        Long after = null;
+        List<CustomerStats> page;
+        do {
+            page = apiClient.fetchCustomerStatsPage(after, PAGE_SIZE, previousPage(after));
+            if (isCancelled()) {
+                break;
+            }
+            publish(page);
+            total += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getCustomerId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return total;
+    }
+
+    // 読み込み前に表示していた行のうち、afterより後の顧客から1ページ分を返す（無い場合はnull）
+    // ※ページは顧客ID順に取得するため、位置は先頭から順に進める
+    private List<CustomerStats> previousPage(Long after) {
+        while (after != null && previousIndex < previousCustomers.size()
+                && previousCustomers.get(previousIndex).getCustomerId() <= after) {
+            previousIndex++;
+        }
+        if (previousIndex >= previousCustomers.size()) {
+            return null;
+        }
+        return previousCustomers.subList(previousIndex,
+                Math.min(previousIndex + PAGE_SIZE, previousCustomers.size()));
+    }
+
+    // イベントディスパッチスレッド：取得したページをテーブルに追加する
+    @Override
+    protected void process(List<List<CustomerStats>> pages) {
+        // キャンセル後に届いたページは、新しい読み込みのテーブルに混ざらないよう破棄する
+        if (isCancelled()) {
+            return;
+        }
+        for (List<CustomerStats> page : pages) {
+            tableModel.addCustomers(page);
+        }
+        onProgress.accept(tableModel.getRowCount());
+    }
+
+    // イベントディスパッチスレッド：完了またはエラーを通知する
+    @Override
+    protected void done() {
+        try {
+            onComplete.accept(get());
+        } catch (CancellationException e) {
+            // 新しい読み込みに置き換えられたため、何もしない
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            onError.accept(cause instanceof Exception ? (Exception) cause : e);
+        }
+    }
+}
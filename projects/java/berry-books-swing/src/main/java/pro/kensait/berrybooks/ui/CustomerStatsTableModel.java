@@ -0,0 +1,105 @@
+package pro.kensait.berrybooks.ui;
+
+import pro.kensait.berrybooks.model.CustomerStats;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// 顧客一覧テーブルのモデル
+// 顧客統計をそのまま保持し、ページ単位で追加された行のみをテーブルに通知する
+// （DefaultTableModelのように行毎の配列を作り直さないため、件数が多くても追加のコストは一定）
+// ※Swingのモデルのため、イベントディスパッチスレッドからのみ操作すること
+public class CustomerStatsTableModel extends AbstractTableModel {
+    // 操作列の位置
+    public static final int ACTION_COLUMN = 7;
+
+    private static final String[] COLUMN_NAMES = {
+            "顧客ID", "顧客名", "メールアドレス", "生年月日", "住所", "注文件数", "購入冊数", "操作"
+    };
+
+    private static final DateTimeFormatter BIRTH_DATE_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    private final List<CustomerStats> customers = new ArrayList<>();
+
+    // 行を末尾に追加する
+    public void addCustomers(List<CustomerStats> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        int firstRow = customers.size();
+        customers.addAll(page);
+        fireTableRowsInserted(firstRow, customers.size() - 1);
+    }
+
+    // 全ての行を削除する
+    public void clear() {
+        int rowCount = customers.size();
+        if (rowCount == 0) {
+            return;
+        }
+        customers.clear();
+        fireTableRowsDeleted(0, rowCount - 1);
+    }
+
+    // 全ての行の顧客統計を取得する（表示中のリストのコピー）
+    public List<CustomerStats> getCustomers() {
+        return new ArrayList<>(customers);
+    }
+
+    // 指定した行の顧客統計を取得する
+    public CustomerStats getCustomer(int row) {
+        return customers.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return customers.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTION_COLUMN; // 操作列のみ編集可能
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        CustomerStats customer = customers.get(row);
+        switch (column) {
+            case 0:
+                return customer.getCustomerId();
+            case 1:
+                return customer.getCustomerName();
+            case 2:
+                return customer.getEmail();
+            case 3:
+                return customer.getBirthDate() != null
+                        ? customer.getBirthDate().format(BIRTH_DATE_FORMATTER) : "";
+            case 4:
+                return customer.getAddress();
+            case 5:
+                return customer.getOrderCount();
+            case 6:
+                return customer.getBookCount();
+            default:
+                return "編集";
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        // 操作列の値（ボタンのラベル）は固定のため、保持しない
+    }
+}
@@ -1,5 +1,7 @@
 package pro.kensait.jsf.person;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import jakarta.enterprise.context.RequestScoped;
@@ -27,6 +29,37 @@ public class PersonService {
         return query.getResultList();
     }
 
+    // PERSONの件数を取得する
+    public long countPersons() {
+        return entitiManager.createQuery(
+                "SELECT COUNT(p) FROM Person AS p", Long.class)
+                .getSingleResult();
+    }
+
+    // fromPersonId以上のPERSONを、ID順にlimit件取得する（キーセット方式のページング）
+    // ※OFFSETと異なり、後ろのページでも読み飛ばす行が無いため、件数に関係なく一定の時間で取得できる
+    public List<Person> getPersonPage(Integer fromPersonId, int limit) {
+        return entitiManager.createQuery(
+                "SELECT p FROM Person AS p WHERE p.personId >= :fromPersonId " +
+                "ORDER BY p.personId", Person.class)
+                .setParameter("fromPersonId", fromPersonId != null ? fromPersonId : Integer.MIN_VALUE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // beforePersonIdより前のPERSONを、ID順にlimit件取得する（前のページ・最後のページの取得に使用する）
+    // beforePersonIdがnullの場合は、最後のlimit件を取得する
+    public List<Person> getPersonPageBefore(Integer beforePersonId, int limit) {
+        List<Person> page = new ArrayList<>(entitiManager.createQuery(
+                "SELECT p FROM Person AS p WHERE p.personId < :beforePersonId " +
+                "ORDER BY p.personId DESC", Person.class)
+                .setParameter("beforePersonId", beforePersonId != null ? beforePersonId : Integer.MAX_VALUE)
+                .setMaxResults(limit)
+                .getResultList());
+        Collections.reverse(page);
+        return page;
+    }
+
     public void addPerson(Person person) {
         entitiManager.persist(person);
     }
@@ -11,18 +11,57 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 // 人物情報一覧画面のバッキングBean
+// PERSONは表示中のページ（PAGE_SIZE件）のみを取得し、ビューには表示位置と件数のみを保持する
+// （PERSONの件数に関係なく、ビューのサイズと描画時間は一定となる）
 @ViewScoped
 @Named("personTable")
 public class PersonTableBean implements Serializable {
-    // UIコンポーネントの値を保持するためのプロパティ
-    private List<Person> personList;
+    // 1ページに表示する件数
+    private static final int PAGE_SIZE = 20;
+
+    // 表示中のページの先頭のPERSON ID（nullの場合は最初のページ）
+    private Integer firstPersonId;
+
+    // 表示中のページの位置（0始まり）
+    private int pageIndex;
+
+    // PERSONの件数（ビューの生成時に1回だけ取得する）
+    private long totalCount;
+
+    // 表示中のページのPERSON（ビューと一緒にシリアライズせず、必要になった時点で取得し直す）
+    private transient List<Person> personList;
 
     public List<Person> getPersonList() {
+        if (personList == null) {
+            personList = personService.getPersonPage(firstPersonId, PAGE_SIZE);
+            // 削除によって表示中のページが空になった場合は、前のページを表示する
+            if (personList.isEmpty() && pageIndex > 0) {
+                personList = personService.getPersonPageBefore(firstPersonId, PAGE_SIZE);
+                pageIndex--;
+                firstPersonId = personList.isEmpty() ? null : personList.get(0).getPersonId();
+            }
+        }
         return personList;
     }
 
-    public void setPersonList(List<Person> personList) {
-        this.personList = personList;
+    public int getPageNumber() {
+        return pageIndex + 1;
+    }
+
+    public long getPageCount() {
+        return Math.max(1, (totalCount + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isFirstPage() {
+        return pageIndex == 0;
+    }
+
+    public boolean isLastPage() {
+        return getPageNumber() >= getPageCount();
     }
 
     // フラッシュスコープ
@@ -33,17 +72,55 @@ public class PersonTableBean implements Serializable {
     public void postConstruct() {
         FacesContext facesContext = FacesContext.getCurrentInstance();
         flash = facesContext.getExternalContext().getFlash();
-        personList = personService.getPersonList();
+        totalCount = personService.countPersons();
     }
 
     // インジェクションポイント
     @Inject
     private PersonService personService;
 
+    // アクションメソッド（最初のページを表示する）
+    public String showFirstPage() {
+        showPage(personService.getPersonPage(null, PAGE_SIZE), 0);
+        return null;
+    }
+
+    // アクションメソッド（前のページを表示する）
+    public String showPreviousPage() {
+        if (isFirstPage()) {
+            return null;
+        }
+        showPage(personService.getPersonPageBefore(firstPersonId, PAGE_SIZE), pageIndex - 1);
+        return null;
+    }
+
+    // アクションメソッド（次のページを表示する）
+    public String showNextPage() {
+        List<Person> current = getPersonList();
+        if (isLastPage() || current.isEmpty()) {
+            return null;
+        }
+        Integer lastPersonId = current.get(current.size() - 1).getPersonId();
+        showPage(personService.getPersonPage(lastPersonId + 1, PAGE_SIZE), pageIndex + 1);
+        return null;
+    }
+
+    // アクションメソッド（最後のページを表示する）
+    // 最後のページの件数を端数に合わせ、前のページへ戻った際のページの区切りを最初のページからと揃える
+    public String showLastPage() {
+        int lastPageIndex = (int) (getPageCount() - 1);
+        int lastPageSize = (int) Math.max(1, totalCount - (long) lastPageIndex * PAGE_SIZE);
+        showPage(personService.getPersonPageBefore(null, lastPageSize), lastPageIndex);
+        return null;
+    }
+
     // アクションメソッド（PERSONを削除する）
+    // 同じビューに留まり、表示中のページを取得し直す
     public String removePerson(Integer personId) {
         personService.removePerson(personId);
-        return "PersonTablePage";
+        totalCount--;
+        personList = null;
+        return null;
     }
 
     // アクションメソッド（PERSONを編集する）
@@ -52,5 +129,10 @@ public class PersonTableBean implements Serializable {
         flash.put("person", person);
         return "PersonInputPage";
     }
-}
 
+    private void showPage(List<Person> page, int index) {
+        personList = page;
+        pageIndex = index;
+        firstPersonId = page.isEmpty() ? null : page.get(0).getPersonId();
+    }
+}
@@ -7,44 +7,45 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.naming.Context;
-import javax.naming.InitialContext;
-import javax.naming.NamingException;
 import javax.sql.DataSource;
 
 import pro.kensait.struts.person.model.Person;
 
 // PERSON情報のDAOクラス（旧来型のデータソースを使用）
+// データソースは呼び出し元（EJB）で1回だけ取得したものを受け取る
+// ※PreparedStatementはデータソース（コネクションプール）がコネクション毎にキャッシュするため、
+//   同じSQLのprepareStatementは2回目以降、解析済みの文が再利用される（tomee.xmlのPoolPreparedStatements）
 public class PersonDao {
     
-    private DataSource dataSource;
+    private static final String FIND_ALL_SQL =
+            "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON ORDER BY PERSON_ID";
+    private static final String FIND_BY_ID_SQL =
+            "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON WHERE PERSON_ID = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO PERSON (PERSON_NAME, AGE, GENDER) VALUES (?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE PERSON SET PERSON_NAME = ?, AGE = ?, GENDER = ? WHERE PERSON_ID = ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM PERSON WHERE PERSON_ID = ?";
     
-    // コンストラクタ - JNDIルックアップでデータソースを取得
-    public PersonDao() {
-        try {
-            Context ctx = new InitialContext();
-            dataSource = (DataSource) ctx.lookup("java:comp/env/jdbc/HsqldbDS");
-        } catch (NamingException e) {
-            throw new RuntimeException("DataSource lookup failed", e);
-        }
+    private final DataSource dataSource;
+    
+    // コンストラクタ
+    public PersonDao(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
     
     // 全PERSONを取得
     public List<Person> findAll() throws SQLException {
         List<Person> personList = new ArrayList<>();
-        String sql = "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON ORDER BY PERSON_ID";
         
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_SQL);
              ResultSet rs = pstmt.executeQuery()) {
             
+            PersonRowMapper mapper = new PersonRowMapper(rs);
             while (rs.next()) {
-                Person person = new Person();
-                person.setPersonId(rs.getInt("PERSON_ID"));
-                person.setPersonName(rs.getString("PERSON_NAME"));
-                person.setAge(rs.getInt("AGE"));
-                person.setGender(rs.getString("GENDER"));
-                personList.add(person);
+                personList.add(mapper.map(rs));
             }
         }
         
@@ -53,21 +54,14 @@ public class PersonDao {
     
     // IDでPERSONを取得
     public Person findById(Integer personId) throws SQLException {
-        String sql = "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON WHERE PERSON_ID = ?";
-        
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
             
             pstmt.setInt(1, personId);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    Person person = new Person();
-                    person.setPersonId(rs.getInt("PERSON_ID"));
-                    person.setPersonName(rs.getString("PERSON_NAME"));
-                    person.setAge(rs.getInt("AGE"));
-                    person.setGender(rs.getString("GENDER"));
-                    return person;
+                    return new PersonRowMapper(rs).map(rs);
                 }
             }
         }
@@ -77,10 +71,8 @@ public class PersonDao {
     
     // PERSONを追加
     public void insert(Person person) throws SQLException {
-        String sql = "INSERT INTO PERSON (PERSON_NAME, AGE, GENDER) VALUES (?, ?, ?)";
-        
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
             
             pstmt.setString(1, person.getPersonName());
             pstmt.setInt(2, person.getAge());
@@ -91,10 +83,8 @@ public class PersonDao {
     
     // PERSONを更新
     public void update(Person person) throws SQLException {
-        String sql = "UPDATE PERSON SET PERSON_NAME = ?, AGE = ?, GENDER = ? WHERE PERSON_ID = ?";
-        
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
             pstmt.setString(1, person.getPersonName());
             pstmt.setInt(2, person.getAge());
@@ -106,14 +96,36 @@ public class PersonDao {
     
     // PERSONを削除
     public void delete(Integer personId) throws SQLException {
-        String sql = "DELETE FROM PERSON WHERE PERSON_ID = ?";
-        
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
             
             pstmt.setInt(1, personId);
             pstmt.executeUpdate();
         }
     }
+    
+    // ResultSetの行をPersonに詰め替えるクラス
+    // 列の位置はResultSet毎に1回だけ列名から求め、行毎の列名の検索を避ける
+    private static class PersonRowMapper {
+        private final int personIdIndex;
+        private final int personNameIndex;
+        private final int ageIndex;
+        private final int genderIndex;
+        
+        PersonRowMapper(ResultSet rs) throws SQLException {
+            personIdIndex = rs.findColumn("PERSON_ID");
+            personNameIndex = rs.findColumn("PERSON_NAME");
+            ageIndex = rs.findColumn("AGE");
+            genderIndex = rs.findColumn("GENDER");
+        }
+        
+        Person map(ResultSet rs) throws SQLException {
+            Person person = new Person();
+            person.setPersonId(rs.getInt(personIdIndex));
+            person.setPersonName(rs.getString(personNameIndex));
+            person.setAge(rs.getInt(ageIndex));
+            person.setGender(rs.getString(genderIndex));
+            return person;
+        }
+    }
 }
-
@@ -3,7 +3,10 @@ package pro.kensait.struts.person.service;
 import java.sql.SQLException;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import javax.ejb.Stateless;
+import javax.sql.DataSource;
 
 import pro.kensait.struts.person.dao.PersonDao;
 import pro.kensait.struts.person.model.Person;
@@ -12,10 +15,21 @@ import pro.kensait.struts.person.model.Person;
 @Stateless
 public class PersonServiceBean implements PersonService {
     
+    // データソース（Beanインスタンスの生成時にコンテナが1回だけ注入する）
+    @Resource(name = "jdbc/HsqldbDS")
+    private DataSource dataSource;
+    
+    private PersonDao dao;
+    
+    // DAOはBeanインスタンス毎に1つ生成し、呼び出しの間で再利用する
+    @PostConstruct
+    public void init() {
+        dao = new PersonDao(dataSource);
+    }
+    
     @Override
     public List<Person> getAllPersons() {
         try {
-            PersonDao dao = new PersonDao();
             return dao.findAll();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get all persons", e);
@@ -25,7 +39,6 @@ public class PersonServiceBean implements PersonService {
     @Override
     public Person getPersonById(Integer personId) {
         try {
-            PersonDao dao = new PersonDao();
             return dao.findById(personId);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get person by id: " + personId, e);
@@ -35,7 +48,6 @@ public class PersonServiceBean implements PersonService {
     @Override
     public void addPerson(Person person) {
         try {
-            PersonDao dao = new PersonDao();
             dao.insert(person);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to add person", e);
@@ -45,7 +57,6 @@ public class PersonServiceBean implements PersonService {
     @Override
     public void updatePerson(Person person) {
         try {
-            PersonDao dao = new PersonDao();
             dao.update(person);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update person", e);
@@ -55,7 +66,6 @@ public class PersonServiceBean implements PersonService {
     @Override
     public void deletePerson(Integer personId) {
         try {
-            PersonDao dao = new PersonDao();
             dao.delete(personId);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete person: " + personId, e);
@@ -0,0 +1,228 @@
+package pro.kensait.struts.person.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.naming.spi.InitialContextFactory;
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pro.kensait.struts.person.model.Person;
+
+// PersonDaoのベンチマーク（HSQLDBインメモリDB、PERSON 1,000件を使用）
+// 変更前の方式（呼び出し毎にJNDIルックアップ・SQLの組み立て・列名での取得）と、
+// 変更後の方式（1回だけ取得したDataSourceを使うPersonDaoの再利用・列の位置での取得）の1回あたりの処理時間を比較する
+// ※JNDIは最小限のスタブで代用するため、TomEE上のJNDIルックアップのコストは含まれない
+// 実行方法：BENCHMARK=true ./gradlew :projects:java:struts-person:test --tests "*BenchmarkTest"
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class PersonDaoBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(
+            PersonDaoBenchmarkTest.class);
+
+    private static final String JNDI_NAME = "java:comp/env/jdbc/HsqldbDS";
+
+    // PERSONの件数
+    private static final int PERSONS = 1_000;
+
+    // 計測の繰り返し回数（ウォームアップも同じ回数を実行する）
+    private static final int FIND_BY_ID_ITERATIONS = 200_000;
+    private static final int FIND_ALL_ITERATIONS = 2_000;
+
+    // スタブのJNDIが返すデータソース
+    private static JDBCPool dataSource;
+
+    private static String previousFactory;
+
+    // 最適化による計測対象の除去を防ぐための結果の集計
+    private long sink;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        dataSource = new JDBCPool(4);
+        dataSource.setUrl("jdbc:hsqldb:mem:personDaoBenchmark");
+        dataSource.setUser("SA");
+        dataSource.setPassword("");
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE PERSON ("
+                    + "PERSON_ID INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "PERSON_NAME VARCHAR(30) NOT NULL, "
+                    + "AGE INT NOT NULL, "
+                    + "GENDER VARCHAR(10) NOT NULL)");
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO PERSON (PERSON_ID, PERSON_NAME, AGE, GENDER) VALUES (?, ?, ?, ?)")) {
+                for (int i = 1; i <= PERSONS; i++) {
+                    pstmt.setInt(1, i);
+                    pstmt.setString(2, "Person" + i);
+                    pstmt.setInt(3, 20 + i % 50);
+                    pstmt.setString(4, i % 2 == 0 ? "female" : "male");
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        previousFactory = System.getProperty(Context.INITIAL_CONTEXT_FACTORY);
+        System.setProperty(Context.INITIAL_CONTEXT_FACTORY, StubContextFactory.class.getName());
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws SQLException {
+        if (previousFactory != null) {
+            System.setProperty(Context.INITIAL_CONTEXT_FACTORY, previousFactory);
+        } else {
+            System.clearProperty(Context.INITIAL_CONTEXT_FACTORY);
+        }
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+        dataSource.close(0);
+    }
+
+    @Test
+    @DisplayName("変更前と変更後のDAOの、IDでの取得と全件の取得の1回あたりの処理時間を計測する")
+    void benchmarkPersonDao() throws Exception {
+        // 準備フェーズ（テストフィクスチャのセットアップ）
+        PersonDao personDao = new PersonDao(dataSource);
+
+        // 実行フェーズ
+        // （変更前はEJBの呼び出し毎にDAOを生成していたため、呼び出し毎にDAOを生成する）
+        double legacyFindByIdNanos = measure(FIND_BY_ID_ITERATIONS, i -> {
+            sink += new LegacyPersonDao().findById(i % PERSONS + 1).getAge();
+        });
+        double findByIdNanos = measure(FIND_BY_ID_ITERATIONS, i -> {
+            sink += personDao.findById(i % PERSONS + 1).getAge();
+        });
+        double legacyFindAllNanos = measure(FIND_ALL_ITERATIONS, i -> {
+            sink += new LegacyPersonDao().findAll().size();
+        });
+        double findAllNanos = measure(FIND_ALL_ITERATIONS, i -> {
+            sink += personDao.findAll().size();
+        });
+
+        // 検証フェーズ（出力値ベース）
+        assertEquals(PERSONS, personDao.findAll().size());
+        assertEquals(personDao.findById(7).getPersonName(),
+                new LegacyPersonDao().findById(7).getPersonName());
+        assertTrue(sink > 0);
+        logger.info(String.format("[ PersonDaoBenchmark ] persons=%d, "
+                + "findById: legacy=%.2fus, current=%.2fus, "
+                + "findAll: legacy=%.1fus, current=%.1fus",
+                PERSONS, legacyFindByIdNanos / 1000.0, findByIdNanos / 1000.0,
+                legacyFindAllNanos / 1000.0, findAllNanos / 1000.0));
+    }
+
+    // ウォームアップ後に計測し、1回あたりの処理時間（ナノ秒）を返す
+    private static double measure(int iterations, Task task) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            task.run(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run(i);
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int i) throws Exception;
+    }
+
+    // 変更前のPersonDao（コンストラクタでJNDIルックアップし、呼び出し毎にSQLを組み立て、列名で取得する）
+    private static class LegacyPersonDao {
+        private DataSource dataSource;
+
+        LegacyPersonDao() {
+            try {
+                Context ctx = new InitialContext();
+                dataSource = (DataSource) ctx.lookup(JNDI_NAME);
+            } catch (NamingException e) {
+                throw new RuntimeException("DataSource lookup failed", e);
+            }
+        }
+
+        List<Person> findAll() throws SQLException {
+            List<Person> personList = new ArrayList<>();
+            String sql = "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON ORDER BY PERSON_ID";
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    Person person = new Person();
+                    person.setPersonId(rs.getInt("PERSON_ID"));
+                    person.setPersonName(rs.getString("PERSON_NAME"));
+                    person.setAge(rs.getInt("AGE"));
+                    person.setGender(rs.getString("GENDER"));
+                    personList.add(person);
+                }
+            }
+            return personList;
+        }
+
+        Person findById(Integer personId) throws SQLException {
+            String sql = "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON WHERE PERSON_ID = ?";
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, personId);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        Person person = new Person();
+                        person.setPersonId(rs.getInt("PERSON_ID"));
+                        person.setPersonName(rs.getString("PERSON_NAME"));
+                        person.setAge(rs.getInt("AGE"));
+                        person.setGender(rs.getString("GENDER"));
+                        return person;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    // JNDIのスタブ（lookupでデータソースのみを返すContextを生成する）
+    public static class StubContextFactory implements InitialContextFactory {
+        @Override
+        public Context getInitialContext(Hashtable<?, ?> environment) {
+            return (Context) Proxy.newProxyInstance(Context.class.getClassLoader(),
+                    new Class<?>[] {Context.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "lookup":
+                                if (JNDI_NAME.equals(String.valueOf(args[0]))) {
+                                    return dataSource;
+                                }
+                                throw new NamingException("Name not found: " + args[0]);
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package pro.kensait.struts.person.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.naming.InitialContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+
+import pro.kensait.struts.person.model.Person;
+import pro.kensait.struts.person.service.PersonService;
+
+// 一覧画面で選択したPERSONの一括編集画面を表示するAction
+public class PersonBatchEditAction extends Action {
+    
+    // JNDIルックアップでPersonServiceを取得
+    private PersonService getPersonService() throws Exception {
+        InitialContext ctx = new InitialContext();
+        return (PersonService) ctx.lookup("java:global/struts_to_jsf_person/PersonServiceBean!pro.kensait.struts.person.service.PersonService");
+    }
+    
+    @Override
+    public ActionForward execute(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) throws Exception {
+        
+        // パラメータから選択されたIDを取得
+        String[] personIds = request.getParameterValues("personIds");
+        if (personIds == null || personIds.length == 0) {
+            // 未選択の場合は一覧画面に戻る
+            return mapping.findForward("list");
+        }
+        List<Integer> selected = new ArrayList<>();
+        for (String personId : personIds) {
+            selected.add(Integer.valueOf(personId));
+        }
+        
+        // PersonServiceを取得
+        PersonService personService = getPersonService();
+        
+        // 選択されたPERSONのみを取得（IN句でまとめて検索する）
+        List<Person> personList = personService.getPersonsByIds(selected);
+        
+        // リクエストスコープに設定
+        request.setAttribute("personList", personList);
+        
+        // 一括編集画面に遷移
+        return mapping.findForward("success");
+    }
+}
@@ -0,0 +1,146 @@
+package pro.kensait.struts.person.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.naming.InitialContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.action.ActionMessage;
+import org.apache.struts.action.ActionMessages;
+import org.apache.struts.action.ActionRedirect;
+
+import pro.kensait.struts.person.form.PersonForm;
+import pro.kensait.struts.person.model.Person;
+import pro.kensait.struts.person.service.PersonService;
+
+// 一括編集画面で編集したPERSONを一括更新するAction
+public class PersonBatchUpdateAction extends Action {
+
+    // 名前の最大文字数（PERSON.PERSON_NAMEの桁数）
+    private static final int MAX_NAME_LENGTH = 30;
+
+    // 年齢の範囲
+    private static final int MIN_AGE = 0;
+    private static final int MAX_AGE = 150;
+
+    // JNDIルックアップでPersonServiceを取得
+    private PersonService getPersonService() throws Exception {
+        InitialContext ctx = new InitialContext();
+        return (PersonService) ctx.lookup("java:global/struts_to_jsf_person/PersonServiceBean!pro.kensait.struts.person.service.PersonService");
+    }
+
+    @Override
+    public ActionForward execute(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) throws Exception {
+
+        // 行毎の入力値を取得（各パラメータは画面の行の順に並ぶ）
+        String[] personIds = request.getParameterValues("personId");
+        String[] personNames = request.getParameterValues("personName");
+        String[] ages = request.getParameterValues("age");
+        String[] genders = request.getParameterValues("gender");
+        if (personIds == null || personIds.length == 0) {
+            // 更新対象が無い場合は一覧画面に戻る
+            return mapping.findForward("list");
+        }
+
+        ActionMessages errors = new ActionMessages();
+        PersonService personService = getPersonService();
+
+        // 各パラメータの件数が揃っていない場合は、行を対応付けられないため編集前の値で再表示する
+        if (!hasLength(personNames, personIds.length) || !hasLength(ages, personIds.length)
+                || !hasLength(genders, personIds.length)) {
+            errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("errors.invalid", "入力"));
+            List<Integer> ids = new ArrayList<>();
+            for (String personId : personIds) {
+                Integer id = parseInt(personId);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            saveErrors(request, errors);
+            request.setAttribute("personList", personService.getPersonsByIds(ids));
+            return mapping.findForward("input");
+        }
+
+        // 行毎に入力値を検証し、モデルに変換
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < personIds.length; i++) {
+            String row = (i + 1) + "行目の";
+            Integer personId = parseInt(personIds[i]);
+            if (personId == null) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("errors.integer", row + "ID"));
+            }
+            String personName = personNames[i] != null ? personNames[i].trim() : "";
+            if (personName.isEmpty()) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("errors.required", row + "名前"));
+            } else if (personName.length() > MAX_NAME_LENGTH) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE,
+                        new ActionMessage("errors.maxlength", row + "名前", MAX_NAME_LENGTH));
+            }
+            Integer age = parseInt(ages[i]);
+            if (age == null) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("errors.integer", row + "年齢"));
+            } else if (age < MIN_AGE || age > MAX_AGE) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE,
+                        new ActionMessage("errors.range", row + "年齢", MIN_AGE, MAX_AGE));
+            }
+            if (!"male".equals(genders[i]) && !"female".equals(genders[i])) {
+                errors.add(ActionMessages.GLOBAL_MESSAGE, new ActionMessage("errors.invalid", row + "性別"));
+            }
+
+            Person person = new Person();
+            person.setPersonId(personId);
+            person.setPersonName(personName);
+            person.setAge(age);
+            person.setGender(genders[i]);
+            persons.add(person);
+        }
+
+        // 入力エラーがある場合は、入力した値のまま一括編集画面を再表示する
+        if (!errors.isEmpty()) {
+            List<PersonForm> personList = new ArrayList<>();
+            for (int i = 0; i < personIds.length; i++) {
+                PersonForm row = new PersonForm();
+                row.setPersonId(personIds[i]);
+                row.setPersonName(personNames[i]);
+                row.setAge(ages[i]);
+                row.setGender(genders[i]);
+                personList.add(row);
+            }
+            saveErrors(request, errors);
+            request.setAttribute("personList", personList);
+            return mapping.findForward("input");
+        }
+
+        // 一括更新
+        int count = personService.updatePersons(persons);
+
+        // 一覧画面にリダイレクト（更新件数を表示する）
+        ActionRedirect redirect = new ActionRedirect(mapping.findForward("success"));
+        redirect.addParameter("updated", count);
+        return redirect;
+    }
+
+    // 配列が指定した件数であるか
+    private static boolean hasLength(String[] values, int length) {
+        return values != null && values.length == length;
+    }
+
+    // 整数に変換する（整数でない場合はnull）
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pro.kensait.struts.person.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.naming.InitialContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.action.ActionRedirect;
+
+import pro.kensait.struts.person.service.PersonService;
+
+// 一覧画面で選択したPERSONを一括削除するAction
+public class PersonBulkDeleteAction extends Action {
+    
+    // JNDIルックアップでPersonServiceを取得
+    private PersonService getPersonService() throws Exception {
+        InitialContext ctx = new InitialContext();
+        return (PersonService) ctx.lookup("java:global/struts_to_jsf_person/PersonServiceBean!pro.kensait.struts.person.service.PersonService");
+    }
+    
+    @Override
+    public ActionForward execute(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) throws Exception {
+        
+        // パラメータから選択されたIDを取得
+        List<Integer> personIds = new ArrayList<>();
+        String[] personIdStrs = request.getParameterValues("personIds");
+        if (personIdStrs != null) {
+            for (String personIdStr : personIdStrs) {
+                personIds.add(Integer.valueOf(personIdStr));
+            }
+        }
+        
+        // PersonServiceを取得して一括削除
+        PersonService personService = getPersonService();
+        int count = personService.deletePersons(personIds);
+        
+        // 一覧画面にリダイレクト（削除件数を表示する）
+        ActionRedirect redirect = new ActionRedirect(mapping.findForward("success"));
+        redirect.addParameter("deleted", count);
+        return redirect;
+    }
+}
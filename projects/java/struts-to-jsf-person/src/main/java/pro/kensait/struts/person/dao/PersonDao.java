@@ -4,8 +4,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -17,6 +19,9 @@ import pro.kensait.struts.person.model.Person;
 // PERSON情報のDAOクラス（旧来型のデータソースを使用）
 public class PersonDao {
     
+    // IN句に指定するIDの最大件数（超える場合は複数回に分けて検索する）
+    private static final int IN_CLAUSE_LIMIT = 1000;
+    
     private DataSource dataSource;
     
     // コンストラクタ - JNDIルックアップでデータソースを取得
@@ -75,6 +80,48 @@ public class PersonDao {
         return null;
     }
     
+    // 複数のIDでPERSONを取得（IN句で検索し、PERSON_IDの昇順で返す）
+    // 存在しないIDは無視する（重複したIDは1件として扱う）
+    public List<Person> findByIds(List<Integer> personIds) throws SQLException {
+        List<Person> personList = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(personIds));
+        if (ids.isEmpty()) {
+            return personList;
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            // IDを昇順に並べてIN_CLAUSE_LIMIT件毎に検索するため、結果もPERSON_IDの昇順となる
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_LIMIT) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_LIMIT, ids.size()));
+                StringBuilder sql = new StringBuilder(
+                        "SELECT PERSON_ID, PERSON_NAME, AGE, GENDER FROM PERSON WHERE PERSON_ID IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY PERSON_ID");
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Person person = new Person();
+                            person.setPersonId(rs.getInt("PERSON_ID"));
+                            person.setPersonName(rs.getString("PERSON_NAME"));
+                            person.setAge(rs.getInt("AGE"));
+                            person.setGender(rs.getString("GENDER"));
+                            personList.add(person);
+                        }
+                    }
+                }
+            }
+        }
+        
+        return personList;
+    }
+    
     // PERSONを追加
     public void insert(Person person) throws SQLException {
         String sql = "INSERT INTO PERSON (PERSON_NAME, AGE, GENDER) VALUES (?, ?, ?)";
@@ -115,5 +162,52 @@ public class PersonDao {
             pstmt.executeUpdate();
         }
     }
+    
+    // PERSONを一括更新（JDBCバッチで1回の送信にまとめる）
+    // 更新件数を返す（存在しないPERSON_IDの行は更新されない）
+    public int updateBatch(List<Person> persons) throws SQLException {
+        String sql = "UPDATE PERSON SET PERSON_NAME = ?, AGE = ?, GENDER = ? WHERE PERSON_ID = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (Person person : persons) {
+                pstmt.setString(1, person.getPersonName());
+                pstmt.setInt(2, person.getAge());
+                pstmt.setString(3, person.getGender());
+                pstmt.setInt(4, person.getPersonId());
+                pstmt.addBatch();
+            }
+            return countUpdated(pstmt.executeBatch());
+        }
+    }
+    
+    // PERSONを一括削除（JDBCバッチで1回の送信にまとめる）
+    // 削除件数を返す（存在しないPERSON_IDの行は削除されない）
+    public int deleteBatch(List<Integer> personIds) throws SQLException {
+        String sql = "DELETE FROM PERSON WHERE PERSON_ID = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (Integer personId : personIds) {
+                pstmt.setInt(1, personId);
+                pstmt.addBatch();
+            }
+            return countUpdated(pstmt.executeBatch());
+        }
+    }
+    
+    // バッチの結果から件数を求める（件数が不明な文は1件として数える）
+    private int countUpdated(int[] results) {
+        int count = 0;
+        for (int result : results) {
+            if (result == Statement.SUCCESS_NO_INFO) {
+                count++;
+            } else if (result > 0) {
+                count += result;
+            }
+        }
+        return count;
+    }
 }
-
@@ -0,0 +1,39 @@
+package pro.kensait.struts.person.service;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+import pro.kensait.struts.person.dao.PersonDao;
+import pro.kensait.struts.person.model.Person;
+
+// PERSONの一括更新・一括削除の1チャンク分を、独立したトランザクションで実行するステートレスセッションBean
+// （PersonServiceBeanから呼び出し、チャンク毎にコミットする）
+@Stateless
+public class PersonBatchWriter {
+    
+    // 1チャンク分のPERSONを更新する
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int updateChunk(List<Person> persons) {
+        try {
+            PersonDao dao = new PersonDao();
+            return dao.updateBatch(persons);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update persons", e);
+        }
+    }
+    
+    // 1チャンク分のPERSONを削除する
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int deleteChunk(List<Integer> personIds) {
+        try {
+            PersonDao dao = new PersonDao();
+            return dao.deleteBatch(personIds);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete persons", e);
+        }
+    }
+}
@@ -13,6 +13,9 @@ public interface PersonService {
     // IDでPERSONを取得
     Person getPersonById(Integer personId);
     
+    // 複数のIDでPERSONを取得（PERSON_IDの昇順、存在しないIDは無視する）
+    List<Person> getPersonsByIds(List<Integer> personIds);
+    
     // PERSONを追加
     void addPerson(Person person);
     
@@ -21,5 +24,11 @@ public interface PersonService {
     
     // PERSONを削除
     void deletePerson(Integer personId);
+    
+    // PERSONを一括更新（更新件数を返す）
+    int updatePersons(List<Person> persons);
+    
+    // PERSONを一括削除（削除件数を返す）
+    int deletePersons(List<Integer> personIds);
 }
 
@@ -1,9 +1,14 @@
 package pro.kensait.struts.person.service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Resource;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 
 import pro.kensait.struts.person.dao.PersonDao;
 import pro.kensait.struts.person.model.Person;
@@ -12,6 +17,14 @@ import pro.kensait.struts.person.model.Person;
 @Stateless
 public class PersonServiceBean implements PersonService {
     
+    // 一括更新・一括削除で1つのトランザクションで処理する件数（web.xmlのenv-entryで変更可能）
+    // 0以下の場合は、全件を1つのトランザクションで処理する
+    @Resource(name = "person/batchChunkSize")
+    private int batchChunkSize = 500;
+    
+    @EJB
+    private PersonBatchWriter batchWriter;
+    
     @Override
     public List<Person> getAllPersons() {
         try {
@@ -32,6 +45,16 @@ public class PersonServiceBean implements PersonService {
         }
     }
     
+    @Override
+    public List<Person> getPersonsByIds(List<Integer> personIds) {
+        try {
+            PersonDao dao = new PersonDao();
+            return dao.findByIds(personIds);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get persons by ids: " + personIds.size() + " ids", e);
+        }
+    }
+    
     @Override
     public void addPerson(Person person) {
         try {
@@ -61,5 +84,36 @@ public class PersonServiceBean implements PersonService {
             throw new RuntimeException("Failed to delete person: " + personId, e);
         }
     }
+    
+    // チャンク毎に独立したトランザクションでコミットするため、このメソッド自体はトランザクションを開始しない
+    // （途中のチャンクで失敗した場合、先行するチャンクの更新はコミット済みとなる）
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int updatePersons(List<Person> persons) {
+        int count = 0;
+        for (List<Person> chunk : chunks(persons)) {
+            count += batchWriter.updateChunk(chunk);
+        }
+        return count;
+    }
+    
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int deletePersons(List<Integer> personIds) {
+        int count = 0;
+        for (List<Integer> chunk : chunks(personIds)) {
+            count += batchWriter.deleteChunk(chunk);
+        }
+        return count;
+    }
+    
+    // リストをbatchChunkSize件毎に分割する
+    private <T> List<List<T>> chunks(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>();
+        int size = batchChunkSize > 0 ? batchChunkSize : Math.max(1, list.size());
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
 }
-
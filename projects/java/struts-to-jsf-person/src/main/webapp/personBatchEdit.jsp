@@ -0,0 +1,54 @@
+<%@ page contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" %>
+<%@ taglib uri="http://struts.apache.org/tags-bean" prefix="bean" %>
+<%@ taglib uri="http://struts.apache.org/tags-html" prefix="html" %>
+<%@ taglib uri="http://struts.apache.org/tags-logic" prefix="logic" %>
+<!DOCTYPE html>
+<html>
+<head>
+    <meta charset="UTF-8">
+    <title>PERSON一括編集</title>
+    <link rel="stylesheet" type="text/css" href="css/style.css">
+</head>
+<body>
+    <h1>PERSON一括編集</h1>
+    
+    <html:errors/>
+    
+    <form method="post" action="personBatchUpdate.do">
+    <table class="batch-table">
+        <thead>
+            <tr>
+                <th>ID</th>
+                <th>名前</th>
+                <th>年齢</th>
+                <th>性別</th>
+            </tr>
+        </thead>
+        <tbody>
+            <logic:iterate id="person" name="personList">
+                <tr>
+                    <td>
+                        <bean:write name="person" property="personId"/>
+                        <input type="hidden" name="personId" value="<bean:write name="person" property="personId"/>">
+                    </td>
+                    <td><input type="text" name="personName" value="<bean:write name="person" property="personName"/>" maxlength="30" required></td>
+                    <td><input type="number" name="age" value="<bean:write name="person" property="age"/>" min="0" max="150" required></td>
+                    <td>
+                        <select name="gender">
+                            <option value="male" <logic:equal name="person" property="gender" value="male">selected</logic:equal>>男性</option>
+                            <option value="female" <logic:equal name="person" property="gender" value="female">selected</logic:equal>>女性</option>
+                        </select>
+                    </td>
+                </tr>
+            </logic:iterate>
+        </tbody>
+    </table>
+    
+    <div class="form-group">
+        <input type="submit" value="一括更新" class="button">
+        <input type="button" value="キャンセル" onclick="location.href='personList.do'" class="button cancel">
+    </div>
+    </form>
+    
+</body>
+</html>
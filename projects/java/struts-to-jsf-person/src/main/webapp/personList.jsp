@@ -16,9 +16,27 @@
     
     <a href="personInput.do" class="button-link add">新規追加</a>
     
+    <logic:present parameter="updated">
+        <bean:parameter id="updated" name="updated"/>
+        <p class="message"><bean:write name="updated"/>件のPERSONを更新しました。</p>
+    </logic:present>
+    <logic:present parameter="deleted">
+        <bean:parameter id="deleted" name="deleted"/>
+        <p class="message"><bean:write name="deleted"/>件のPERSONを削除しました。</p>
+    </logic:present>
+    
+    <form method="post" action="personBatchEdit.do">
+    <div class="batch-buttons">
+        <input type="submit" value="選択したPERSONを一括編集" class="button">
+        <input type="submit" value="選択したPERSONを一括削除" class="button delete"
+               formaction="personBulkDelete.do"
+               onclick="return confirm('選択したPERSONを削除してもよろしいですか？');">
+    </div>
+    
     <table>
         <thead>
             <tr>
+                <th><input type="checkbox" onclick="var boxes = document.getElementsByName('personIds'); for (var i = 0; i &lt; boxes.length; i++) { boxes[i].checked = this.checked; }"></th>
                 <th>ID</th>
                 <th>名前</th>
                 <th>年齢</th>
@@ -29,6 +47,7 @@
         <tbody>
             <logic:iterate id="person" name="personList" type="dev.berry.model.Person">
                 <tr>
+                    <td><input type="checkbox" name="personIds" value="<bean:write name="person" property="personId"/>"></td>
                     <td><bean:write name="person" property="personId"/></td>
                     <td><bean:write name="person" property="personName"/></td>
                     <td><bean:write name="person" property="age"/></td>
@@ -46,6 +65,7 @@
             </logic:iterate>
         </tbody>
     </table>
+    </form>
     
 </body>
 </html>